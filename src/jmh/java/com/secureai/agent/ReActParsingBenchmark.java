@@ -0,0 +1,57 @@
+package com.secureai.agent;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * ReAct step parsing on short tool-call outputs and long final answers.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ReActParsingBenchmark {
+
+    private static final String TOOL_CALL = """
+            Thought: I need to look up the relevant regulation before answering.
+            Action: search_knowledge
+            Action Input: What does GDPR Article 25 require?
+            """;
+
+    @Param({"tool_call", "long_answer"})
+    public String shape;
+
+    private String llmOutput;
+
+    @Setup
+    public void setUp() {
+        if ("tool_call".equals(shape)) {
+            llmOutput = TOOL_CALL;
+        } else {
+            StringBuilder sb = new StringBuilder("Thought: I now know the final answer.\n")
+                    .append("Action: answer\nFinal Answer: ");
+            while (sb.length() < 8192) {
+                sb.append("Data protection by design means privacy is built in from the start. ");
+            }
+            llmOutput = sb.toString();
+        }
+    }
+
+    @Benchmark
+    public ReActAgentService.AgentStep parseStep() {
+        return ReActAgentService.parseStep(llmOutput, 1);
+    }
+}
@@ -0,0 +1,77 @@
+package com.secureai.pii;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PiiRedactionService throughput on PII-dense and PII-free corpora from 1 KB to 64 KB.
+ *
+ * The PII-free corpus is the common case (most LLM answers contain no PII) and
+ * measures the cost of twelve full-text scans that find nothing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PiiRedactionBenchmark {
+
+    private static final String CLEAN_SENTENCE =
+            "The gateway forwards each prompt to the local model and returns the answer. ";
+    private static final String PII_SENTENCE =
+            "Contact jane.doe@example.com or call 555-234-5678, SSN 123-45-6789, "
+            + "card 4111111111111111 from 192.168.1.20 on 01/02/1990. ";
+
+    @Param({"1024", "8192", "65536"})
+    public int sizeBytes;
+
+    @Param({"dense", "clean"})
+    public String corpus;
+
+    private PiiRedactionService service;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        service = new PiiRedactionService();
+        ReflectionTestUtils.setField(service, "enabled", true);
+        text = buildCorpus("dense".equals(corpus) ? PII_SENTENCE : CLEAN_SENTENCE, sizeBytes);
+    }
+
+    @Benchmark
+    public String redact() {
+        return service.redact(text);
+    }
+
+    @Benchmark
+    public boolean containsPii() {
+        return service.containsPii(text);
+    }
+
+    @Benchmark
+    public Set<String> detectPiiTypes() {
+        return service.detectPiiTypes(text);
+    }
+
+    private static String buildCorpus(String sentence, int size) {
+        StringBuilder sb = new StringBuilder(size + sentence.length());
+        while (sb.length() < size) {
+            sb.append(sentence);
+        }
+        return sb.substring(0, size);
+    }
+}
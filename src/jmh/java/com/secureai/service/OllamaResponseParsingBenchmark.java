@@ -0,0 +1,63 @@
+package com.secureai.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Jackson handling of Ollama /api/generate bodies, including the context array
+ * Ollama appends to non-streaming responses, parsed the way production does:
+ * bytes straight off the socket.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OllamaResponseParsingBenchmark {
+
+    @Param({"512", "8192"})
+    public int responseChars;
+
+    private byte[] bodyBytes;
+    private OllamaResponseParser parser;
+
+    @Setup
+    public void setUp() {
+        StringBuilder text = new StringBuilder();
+        while (text.length() < responseChars) {
+            text.append("The quick brown fox jumps over the lazy dog. ");
+        }
+        StringBuilder context = new StringBuilder();
+        for (int i = 0; i < 2048; i++) {
+            context.append(i == 0 ? "" : ",").append(128_000 + i);
+        }
+        String body = "{\"model\":\"llama3.1:8b\",\"created_at\":\"2026-01-01T00:00:00Z\","
+                + "\"response\":\"" + text + "\",\"done\":true,\"done_reason\":\"stop\","
+                + "\"context\":[" + context + "],"
+                + "\"total_duration\":5043500667,\"load_duration\":5025959,"
+                + "\"prompt_eval_count\":26,\"prompt_eval_duration\":325953000,"
+                + "\"eval_count\":290,\"eval_duration\":4709213000}";
+        bodyBytes = body.getBytes(StandardCharsets.UTF_8);
+        parser = new OllamaResponseParser(new JsonFactory());
+    }
+
+    @Benchmark
+    public OllamaResponseParser.Parsed parseStream() throws Exception {
+        return parser.parse(new ByteArrayInputStream(bodyBytes));
+    }
+}
@@ -0,0 +1,62 @@
+package com.secureai.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * RateLimiterService.tryConsume under 8-thread contention.
+ *
+ *  - sharedBucket   : all threads hit one user's bucket (worst-case CAS contention)
+ *  - distinctBuckets: each thread has its own user (ConcurrentHashMap lookup only)
+ *
+ * Capacity is set high enough that the bucket never empties during a run, so the
+ * measurement is the allow path rather than the warn-and-deny path.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@Threads(8)
+public class RateLimiterBenchmark {
+
+    private RateLimiterService service;
+
+    @Setup
+    public void setUp() {
+        service = new RateLimiterService();
+        ReflectionTestUtils.setField(service, "capacity", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(service, "refillTokens", Integer.MAX_VALUE);
+        ReflectionTestUtils.setField(service, "refillDurationMinutes", 1);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadUser {
+        private static final AtomicInteger SEQ = new AtomicInteger();
+        final String username = "bench-user-" + SEQ.incrementAndGet();
+    }
+
+    @Benchmark
+    public boolean sharedBucket() {
+        return service.tryConsume("shared-user");
+    }
+
+    @Benchmark
+    public boolean distinctBuckets(ThreadUser user) {
+        return service.tryConsume(user.username);
+    }
+}
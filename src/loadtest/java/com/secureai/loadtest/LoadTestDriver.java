@@ -0,0 +1,166 @@
+package com.secureai.loadtest;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Open-loop HTTP load driver for authenticated POST /api/ask traffic.
+ *
+ * Requests are issued on a fixed schedule at the target RPS regardless of how fast
+ * the gateway answers, and latency is measured from each request's intended send
+ * time ({@code start + i * period}), not from when its tick actually ran. This
+ * avoids coordinated omission: a stalled gateway — or a stalled driver — shows up
+ * as high percentiles instead of silently lowering the offered load.
+ *
+ * When {@code maxInFlight} requests are outstanding the tick is counted as a
+ * client-side drop, so an overloaded run is reported as errors rather than hanging.
+ */
+public class LoadTestDriver {
+
+    private final HttpClient httpClient;
+    private final URI askUri;
+    private final String bearerToken;
+    private final String requestBody;
+    private final int maxInFlight;
+
+    public LoadTestDriver(String gatewayBaseUrl, String bearerToken, String requestBody, int maxInFlight) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(5))
+                .build();
+        this.askUri = URI.create(gatewayBaseUrl + "/api/ask");
+        this.bearerToken = bearerToken;
+        this.requestBody = requestBody;
+        this.maxInFlight = maxInFlight;
+    }
+
+    /**
+     * Offer {@code targetRps} for {@code warmup + duration}; only the measured window is reported.
+     */
+    public Report run(double targetRps, Duration warmup, Duration duration) throws InterruptedException {
+        Window warm = new Window();
+        drive(targetRps, warmup, warm);
+        Window measured = new Window();
+        long start = System.nanoTime();
+        drive(targetRps, duration, measured);
+        long elapsedNs = System.nanoTime() - start;
+        return measured.toReport(targetRps, elapsedNs);
+    }
+
+    private void drive(double targetRps, Duration length, Window window) throws InterruptedException {
+        long periodNs = (long) (TimeUnit.SECONDS.toNanos(1) / targetRps);
+        long total = (long) (targetRps * length.toNanos() / TimeUnit.SECONDS.toNanos(1));
+        if (total <= 0) return;
+
+        AtomicInteger inFlight = new AtomicInteger();
+        CountDownLatch done = new CountDownLatch((int) total);
+        AtomicInteger issued = new AtomicInteger();
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
+        long start = System.nanoTime();
+        scheduler.scheduleAtFixedRate(() -> {
+            long i = issued.getAndIncrement();
+            if (i >= total) return;
+            long intendedAt = start + i * periodNs;   // a late tick is charged its delay
+            if (inFlight.incrementAndGet() > maxInFlight) {
+                inFlight.decrementAndGet();
+                window.record(-1, 0);
+                done.countDown();
+                return;
+            }
+            HttpRequest request = HttpRequest.newBuilder(askUri)
+                    .timeout(Duration.ofSeconds(120))
+                    .header("Authorization", "Bearer " + bearerToken)
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(requestBody))
+                    .build();
+            httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, error) -> {
+                        inFlight.decrementAndGet();
+                        window.record(error != null ? 0 : response.statusCode(), System.nanoTime() - intendedAt);
+                        done.countDown();
+                    });
+        }, 0, periodNs, TimeUnit.NANOSECONDS);
+
+        done.await(length.toSeconds() + 180, TimeUnit.SECONDS);
+        scheduler.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** Collects outcomes for one phase; status -1 = client-side drop, 0 = transport error. */
+    private static final class Window {
+        private final ConcurrentLinkedQueue<Long> successLatenciesNs = new ConcurrentLinkedQueue<>();
+        private final Map<Integer, LongAdder> statusCounts = new ConcurrentHashMap<>();
+
+        void record(int status, long latencyNs) {
+            statusCounts.computeIfAbsent(status, s -> new LongAdder()).increment();
+            if (status == 200) {
+                successLatenciesNs.add(latencyNs);
+            }
+        }
+
+        Report toReport(double targetRps, long elapsedNs) {
+            long[] sorted = successLatenciesNs.stream().mapToLong(Long::longValue).sorted().toArray();
+            Map<Integer, Long> statuses = new TreeMap<>();
+            statusCounts.forEach((k, v) -> statuses.put(k, v.sum()));
+            long total = statuses.values().stream().mapToLong(Long::longValue).sum();
+            long errors = total - sorted.length;
+            double seconds = elapsedNs / (double) TimeUnit.SECONDS.toNanos(1);
+            return new Report(
+                    targetRps,
+                    total,
+                    sorted.length / seconds,
+                    total == 0 ? 0.0 : errors / (double) total,
+                    percentileMs(sorted, 0.50),
+                    percentileMs(sorted, 0.95),
+                    percentileMs(sorted, 0.99),
+                    sorted.length == 0 ? 0.0 : sorted[sorted.length - 1] / 1e6,
+                    sorted.length == 0 ? 0.0 : Arrays.stream(sorted).average().orElse(0) / 1e6,
+                    statuses);
+        }
+
+        private static double percentileMs(long[] sorted, double p) {
+            if (sorted.length == 0) return 0.0;
+            int index = (int) Math.ceil(p * sorted.length) - 1;
+            return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+        }
+    }
+
+    /** Result of the measured window. Status -1 counts client-side drops, 0 transport errors. */
+    public record Report(double targetRps, long requests, double throughputRps, double errorRate,
+                         double p50Ms, double p95Ms, double p99Ms, double maxMs, double meanMs,
+                         Map<Integer, Long> statusCounts) {
+
+        public String toTable() {
+            return String.format("""
+                    --- Load test report -------------------------------
+                     target RPS      : %.1f
+                     requests        : %d
+                     throughput      : %.1f req/s (HTTP 200 only)
+                     error rate      : %.2f%%
+                     latency p50     : %.1f ms
+                     latency p95     : %.1f ms
+                     latency p99     : %.1f ms
+                     latency max     : %.1f ms
+                     latency mean    : %.1f ms
+                     status counts   : %s   (-1 = client drop, 0 = transport error)
+                    ---------------------------------------------------""",
+                    targetRps, requests, throughputRps, errorRate * 100,
+                    p50Ms, p95Ms, p99Ms, maxMs, meanMs, statusCounts);
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.secureai.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.secureai.SecureAiGatewayApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * End-to-end load test: stub Ollama + in-process gateway + open-loop driver.
+ *
+ * Runs fully offline — the gateway starts on the dev profile (H2 in-memory) on a
+ * random port and is pointed at {@link StubOllamaServer}. A load-test user is
+ * registered and logged in, then {@link LoadTestDriver} offers the target RPS.
+ *
+ * Arguments (key=value, all optional):
+ *   rps=50  duration=30  warmup=5  maxInFlight=2000  react=false
+ *   latencyMs=200  tokensPerSecond=50  tokens=40  stubThreads=256
+ *   prompt="..."  report=target/loadtest-report.json
+ *
+ * Via Maven: mvn -Pload-test -DskipTests test -Dloadtest.args="rps=100 duration=60"
+ */
+public final class LoadTestRunner {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+    private static final String MODEL = "stub-model:1b";
+
+    private LoadTestRunner() {}
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> opts = parseArgs(args);
+        double rps = Double.parseDouble(opts.getOrDefault("rps", "50"));
+        Duration duration = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("duration", "30")));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(opts.getOrDefault("warmup", "5")));
+        int maxInFlight = Integer.parseInt(opts.getOrDefault("maxInFlight", "2000"));
+        boolean react = Boolean.parseBoolean(opts.getOrDefault("react", "false"));
+        String prompt = opts.getOrDefault("prompt", "Summarise the purpose of an AI security gateway.");
+        Path report = Path.of(opts.getOrDefault("report", "target/loadtest-report.json"));
+
+        try (StubOllamaServer stub = new StubOllamaServer(
+                MODEL,
+                Long.parseLong(opts.getOrDefault("latencyMs", "200")),
+                Double.parseDouble(opts.getOrDefault("tokensPerSecond", "50")),
+                Integer.parseInt(opts.getOrDefault("tokens", "40")),
+                Integer.parseInt(opts.getOrDefault("stubThreads", "256")))) {
+            stub.start();
+
+            try (ConfigurableApplicationContext gateway = startGateway(stub.baseUrl())) {
+                int port = ((WebServerApplicationContext) gateway).getWebServer().getPort();
+                String baseUrl = "http://127.0.0.1:" + port;
+                String token = registerAndLogin(baseUrl);
+
+                String body = MAPPER.writeValueAsString(Map.of("prompt", prompt, "useReActAgent", react));
+                System.out.printf("Driving %.1f RPS for %ds (+%ds warm-up) against %s, stub at %s%n",
+                        rps, duration.toSeconds(), warmup.toSeconds(), baseUrl, stub.baseUrl());
+
+                LoadTestDriver.Report result = new LoadTestDriver(baseUrl, token, body, maxInFlight)
+                        .run(rps, warmup, duration);
+
+                System.out.println(result.toTable());
+                Files.createDirectories(report.toAbsolutePath().getParent());
+                MAPPER.writeValue(report.toFile(), result);
+                System.out.println("Report written to " + report.toAbsolutePath());
+            }
+        }
+    }
+
+    private static ConfigurableApplicationContext startGateway(String ollamaBaseUrl) {
+        // Passed as command-line arguments so they outrank application-dev.yml
+        return new SpringApplicationBuilder(SecureAiGatewayApplication.class)
+                .profiles("dev")
+                .run(
+                        "--server.port=0",
+                        "--ollama.base-url=" + ollamaBaseUrl,
+                        "--ollama.model=" + MODEL,
+                        "--rate-limit.capacity=100000000",
+                        "--rate-limit.refill-tokens=100000000",
+                        "--server.tomcat.threads.max=400",
+                        "--spring.jpa.show-sql=false",
+                        "--spring.h2.console.enabled=false",
+                        "--logging.level.root=WARN",
+                        "--logging.level.com.secureai=WARN",
+                        "--logging.level.org.springframework.security=WARN",
+                        "--logging.level.org.hibernate.SQL=WARN");
+    }
+
+    private static String registerAndLogin(String baseUrl) throws IOException, InterruptedException {
+        HttpClient client = HttpClient.newHttpClient();
+        Map<String, String> credentials = Map.of(
+                "username", "loadtest",
+                "password", "LoadTest@12345",
+                "email", "loadtest@secureai.local");
+
+        HttpResponse<String> registered = post(client, baseUrl + "/auth/register", credentials);
+        if (registered.statusCode() != 201) {
+            throw new IllegalStateException("Registration failed: HTTP " + registered.statusCode());
+        }
+        HttpResponse<String> login = post(client, baseUrl + "/auth/login",
+                Map.of("username", credentials.get("username"), "password", credentials.get("password")));
+        if (login.statusCode() != 200) {
+            throw new IllegalStateException("Login failed: HTTP " + login.statusCode());
+        }
+        JsonNode body = MAPPER.readTree(login.body());
+        return body.get("token").asText();
+    }
+
+    private static HttpResponse<String> post(HttpClient client, String url, Object body)
+            throws IOException, InterruptedException {
+        HttpRequest request = HttpRequest.newBuilder(URI.create(url))
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(MAPPER.writeValueAsString(body)))
+                .build();
+        return client.send(request, HttpResponse.BodyHandlers.ofString());
+    }
+
+    private static Map<String, String> parseArgs(String[] args) {
+        Map<String, String> opts = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq > 0) {
+                opts.put(arg.substring(0, eq).replaceFirst("^--", ""), arg.substring(eq + 1));
+            }
+        }
+        return opts;
+    }
+}
@@ -0,0 +1,170 @@
+package com.secureai.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Embedded fake Ollama for offline load testing.
+ *
+ * Endpoints:
+ *  - POST /api/generate   — streaming (NDJSON, one chunk per token) and non-streaming
+ *  - POST /api/embeddings — fixed-size pseudo-embedding derived from the prompt hash
+ *  - GET  /api/tags       — lists the configured model
+ *
+ * Timing model per request: {@code firstTokenLatencyMs} of "prefill", then
+ * {@code tokensPerResponse} tokens emitted at {@code tokensPerSecond}. The reported
+ * total/prompt_eval/eval durations match the simulated delays, so the gateway's
+ * Ollama telemetry looks the same as against a real model.
+ */
+public class StubOllamaServer implements AutoCloseable {
+
+    private static final String TOKEN = "lorem ";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final String model;
+    private final long firstTokenLatencyMs;
+    private final double tokensPerSecond;
+    private final int tokensPerResponse;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public StubOllamaServer(String model, long firstTokenLatencyMs, double tokensPerSecond,
+                            int tokensPerResponse, int maxConcurrency) throws IOException {
+        this.model = model;
+        this.firstTokenLatencyMs = firstTokenLatencyMs;
+        this.tokensPerSecond = tokensPerSecond;
+        this.tokensPerResponse = tokensPerResponse;
+        this.server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        this.executor = Executors.newFixedThreadPool(maxConcurrency);
+        server.setExecutor(executor);
+        server.createContext("/api/generate", this::handleGenerate);
+        server.createContext("/api/embeddings", this::handleEmbeddings);
+        server.createContext("/api/tags", this::handleTags);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public String baseUrl() {
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private void handleGenerate(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request = readJson(exchange.getRequestBody());
+            boolean stream = !request.has("stream") || request.get("stream").asBoolean();
+            int promptTokens = Math.max(1, request.path("prompt").asText("").length() / 4);
+            long tokenIntervalNs = (long) (TimeUnit.SECONDS.toNanos(1) / tokensPerSecond);
+
+            long start = System.nanoTime();
+            sleepMs(firstTokenLatencyMs);
+            long promptEvalNs = System.nanoTime() - start;
+
+            if (stream) {
+                exchange.getResponseHeaders().set("Content-Type", "application/x-ndjson");
+                exchange.sendResponseHeaders(200, 0);
+                OutputStream out = exchange.getResponseBody();
+                for (int i = 0; i < tokensPerResponse; i++) {
+                    sleepNs(tokenIntervalNs);
+                    ObjectNode chunk = objectMapper.createObjectNode()
+                            .put("model", model).put("response", TOKEN).put("done", false);
+                    out.write(objectMapper.writeValueAsBytes(chunk));
+                    out.write('\n');
+                    out.flush();
+                }
+                ObjectNode last = finalChunk("", promptTokens, promptEvalNs, start);
+                out.write(objectMapper.writeValueAsBytes(last));
+                out.write('\n');
+            } else {
+                sleepNs(tokenIntervalNs * tokensPerResponse);
+                byte[] body = objectMapper.writeValueAsBytes(
+                        finalChunk(TOKEN.repeat(tokensPerResponse).trim(), promptTokens, promptEvalNs, start));
+                exchange.getResponseHeaders().set("Content-Type", "application/json");
+                exchange.sendResponseHeaders(200, body.length);
+                exchange.getResponseBody().write(body);
+            }
+        }
+    }
+
+    private ObjectNode finalChunk(String response, int promptTokens, long promptEvalNs, long start) {
+        long totalNs = System.nanoTime() - start;
+        return objectMapper.createObjectNode()
+                .put("model", model)
+                .put("response", response)
+                .put("done", true)
+                .put("total_duration", totalNs)
+                .put("load_duration", 0L)
+                .put("prompt_eval_count", promptTokens)
+                .put("prompt_eval_duration", promptEvalNs)
+                .put("eval_count", tokensPerResponse)
+                .put("eval_duration", Math.max(0L, totalNs - promptEvalNs));
+    }
+
+    private void handleEmbeddings(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            JsonNode request = readJson(exchange.getRequestBody());
+            int seed = request.path("prompt").asText("").hashCode();
+            ObjectNode body = objectMapper.createObjectNode();
+            var embedding = body.putArray("embedding");
+            for (int i = 0; i < 64; i++) {
+                seed = seed * 1103515245 + 12345;
+                embedding.add((seed >>> 16) / 65536.0 - 0.5);
+            }
+            writeJson(exchange, body);
+        }
+    }
+
+    private void handleTags(HttpExchange exchange) throws IOException {
+        try (exchange) {
+            ObjectNode body = objectMapper.createObjectNode();
+            body.putArray("models").addObject().put("name", model).put("model", model);
+            writeJson(exchange, body);
+        }
+    }
+
+    private JsonNode readJson(InputStream in) throws IOException {
+        byte[] bytes = in.readAllBytes();
+        return bytes.length == 0 ? objectMapper.createObjectNode() : objectMapper.readTree(bytes);
+    }
+
+    private void writeJson(HttpExchange exchange, JsonNode body) throws IOException {
+        byte[] bytes = objectMapper.writeValueAsString(body).getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        exchange.getResponseBody().write(bytes);
+    }
+
+    private static void sleepMs(long ms) {
+        sleepNs(TimeUnit.MILLISECONDS.toNanos(ms));
+    }
+
+    private static void sleepNs(long nanos) {
+        if (nanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(nanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package com.secureai.agent;
+
+import com.secureai.service.TokenEstimator;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * ReAct transcript (question, then each step's LLM output and observation),
+ * rendered into a prompt that fits the model's context window.
+ *
+ * When the full transcript is over budget it is compacted, cheapest loss first:
+ *  1. observations of all but the latest step are cut to
+ *     {@value #SHORT_OBSERVATION_CHARS} characters, oldest first
+ *  2. the oldest steps are dropped and replaced by a one-line note
+ *  3. the latest observation is cut as well
+ * The question and the latest step's reasoning are always kept; if even they do
+ * not fit, {@link TokenEstimator.PromptTooLargeException} is thrown.
+ *
+ * Compaction only affects the rendered prompt — the full steps are still returned
+ * to the caller. Not thread-safe; one instance per agent run.
+ */
+final class ConversationHistory {
+
+    static final int SHORT_OBSERVATION_CHARS = 200;
+
+    private final String question;
+    private final List<Turn> turns = new ArrayList<>();
+
+    ConversationHistory(String question) {
+        this.question = "Question: " + question + "\n\n";
+    }
+
+    void append(String llmResponse, String observation) {
+        turns.add(new Turn(llmResponse, observation));
+    }
+
+    Prompt render(TokenEstimator estimator, int budgetTokens) {
+        int last = turns.size() - 1;
+        int[] tokens = new int[turns.size()];
+        boolean[] shortened = new boolean[turns.size()];
+        int total = estimator.estimate(question);
+        for (int i = 0; i <= last; i++) {
+            tokens[i] = estimator.estimate(turns.get(i).render(false));
+            total += tokens[i];
+        }
+        if (total <= budgetTokens) {
+            return new Prompt(build(0, shortened), total, false);
+        }
+
+        for (int i = 0; i < last && total > budgetTokens; i++) {
+            total += shorten(estimator, i, tokens, shortened);
+        }
+        int dropped = 0;
+        int note = 0;
+        while (total + note > budgetTokens && dropped < last) {
+            total -= tokens[dropped++];
+            note = estimator.estimate(omittedNote(dropped));
+        }
+        if (total + note > budgetTokens && last >= 0) {
+            total += shorten(estimator, last, tokens, shortened);
+        }
+        if (total + note > budgetTokens) {
+            throw new TokenEstimator.PromptTooLargeException(total + note, budgetTokens);
+        }
+        return new Prompt(build(dropped, shortened), total + note, true);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** Shortens turn {@code i}'s observation; returns the change in tokens. */
+    private int shorten(TokenEstimator estimator, int i, int[] tokens, boolean[] shortened) {
+        if (turns.get(i).observation.length() <= SHORT_OBSERVATION_CHARS) return 0;
+        shortened[i] = true;
+        int before = tokens[i];
+        tokens[i] = estimator.estimate(turns.get(i).render(true));
+        return tokens[i] - before;
+    }
+
+    private String build(int dropped, boolean[] shortened) {
+        StringBuilder prompt = new StringBuilder(question);
+        if (dropped > 0) prompt.append(omittedNote(dropped));
+        for (int i = dropped; i < turns.size(); i++) {
+            prompt.append(turns.get(i).render(shortened[i]));
+        }
+        return prompt.toString();
+    }
+
+    private static String omittedNote(int dropped) {
+        return "(" + dropped + " earlier step(s) omitted to fit the context window)\n\n";
+    }
+
+    /** The prompt to send, its estimated size, and whether anything was cut. */
+    record Prompt(String text, int estimatedTokens, boolean compacted) {}
+
+    private record Turn(String llmResponse, String observation) {
+        String render(boolean shortObservation) {
+            String shown = shortObservation && observation.length() > SHORT_OBSERVATION_CHARS
+                    ? observation.substring(0, SHORT_OBSERVATION_CHARS) + " … [truncated]"
+                    : observation;
+            return llmResponse + "\n" + "Observation: " + shown + "\n\n";
+        }
+    }
+}
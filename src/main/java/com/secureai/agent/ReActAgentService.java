@@ -1,6 +1,11 @@
 package com.secureai.agent;
 
+import com.secureai.metrics.PipelineMetrics;
+import com.secureai.model.GenerationOptions;
+import com.secureai.model.GenerationStats;
+import com.secureai.service.ModelRouter;
 import com.secureai.service.OllamaClient;
+import com.secureai.service.TokenEstimator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,8 +14,7 @@ import org.springframework.stereotype.Service;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Locale;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Consumer;
 
 /**
  * ReAct Agent (Reasoning + Acting)
@@ -26,6 +30,14 @@ import java.util.regex.Pattern;
  * When Action == ANSWER, the loop terminates.
  * Max 10 steps to prevent infinite loops.
  *
+ * Reasoning steps use the ReAct model and tool sub-calls the model chosen by
+ * {@link ModelRouter#toolModel(String)} — e.g. summarize on the fast model.
+ *
+ * The growing transcript is kept inside the context window ({@link TokenEstimator}):
+ * once over budget, old observations are shortened and the oldest steps dropped
+ * (see {@link ConversationHistory}) instead of letting Ollama silently truncate the
+ * start of the prompt — which would cut the question itself.
+ *
  * Reference: "ReAct: Synergizing Reasoning and Acting in Language Models"
  *            Yao et al., 2022 — https://arxiv.org/abs/2210.03629
  */
@@ -38,20 +50,18 @@ public class ReActAgentService {
     private int maxSteps;
 
     private final OllamaClient ollamaClient;
+    private final PipelineMetrics pipelineMetrics;
+    private final ModelRouter modelRouter;
+    private final TokenEstimator tokenEstimator;
 
-    public ReActAgentService(OllamaClient ollamaClient) {
+    public ReActAgentService(OllamaClient ollamaClient, PipelineMetrics pipelineMetrics, ModelRouter modelRouter,
+                             TokenEstimator tokenEstimator) {
         this.ollamaClient = ollamaClient;
+        this.pipelineMetrics = pipelineMetrics;
+        this.modelRouter = modelRouter;
+        this.tokenEstimator = tokenEstimator;
     }
 
-    private static final Pattern THOUGHT_PATTERN =
-            Pattern.compile("Thought:\\s*(.+?)(?=Action:|$)", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-    private static final Pattern ACTION_PATTERN =
-            Pattern.compile("Action:\\s*(\\w+)", Pattern.CASE_INSENSITIVE);
-    private static final Pattern ACTION_INPUT_PATTERN =
-            Pattern.compile("Action Input:\\s*(.+?)(?=Observation:|Thought:|$)", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-    private static final Pattern FINAL_ANSWER_PATTERN =
-            Pattern.compile("Final Answer:\\s*(.+)", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
-
     private static final String SYSTEM_PROMPT = """
             You are a helpful AI assistant using the ReAct (Reasoning + Acting) framework.
             You have access to the following tools:
@@ -93,23 +103,59 @@ public class ReActAgentService {
      * @return AgentResult with final answer and step count
      */
     public AgentResult execute(String userPrompt) {
+        return execute(userPrompt, step -> { });
+    }
+
+    /** {@link #execute(String)} with the caller's {@link GenerationOptions}. */
+    public AgentResult execute(String userPrompt, GenerationOptions options) {
+        return execute(userPrompt, options, step -> { });
+    }
+
+    /**
+     * Execute the ReAct loop, reporting each completed step (tool steps after their
+     * observation is set) to {@code onStep} on the calling thread.
+     */
+    public AgentResult execute(String userPrompt, Consumer<AgentStep> onStep) {
+        return execute(userPrompt, GenerationOptions.DEFAULT, onStep);
+    }
+
+    /**
+     * Execute the ReAct loop with the caller's {@link GenerationOptions} applied to every
+     * reasoning step (maxTokens bounds each step, not the whole run); tool sub-calls
+     * keep the server defaults.
+     */
+    public AgentResult execute(String userPrompt, GenerationOptions options, Consumer<AgentStep> onStep) {
         log.info("ReAct agent starting for prompt: {}...",
                 sanitizeLog(userPrompt.length() > 60 ? userPrompt.substring(0, 60) : userPrompt));
 
         List<AgentStep> steps = new ArrayList<>();
-        StringBuilder conversationHistory = new StringBuilder();
-        conversationHistory.append("Question: ").append(userPrompt).append("\n\n");
+        UsageTally usage = new UsageTally();
+        ConversationHistory conversationHistory = new ConversationHistory(userPrompt);
+        int historyBudget = tokenEstimator.promptBudget() - tokenEstimator.estimate(SYSTEM_PROMPT);
 
         for (int step = 1; step <= maxSteps; step++) {
             log.debug("ReAct step {}/{}", step, maxSteps);
 
-            String llmResponse = ollamaClient.generateResponse(
-                    conversationHistory.toString(),
-                    SYSTEM_PROMPT
+            long stepStart = System.nanoTime();
+            ConversationHistory.Prompt prompt = conversationHistory.render(tokenEstimator, historyBudget);
+            if (prompt.compacted()) {
+                log.info("ReAct step {}: history compacted to ~{} tokens (budget {})",
+                        step, prompt.estimatedTokens(), historyBudget);
+            }
+            long ollamaStart = System.nanoTime();
+            OllamaClient.OllamaResult llmResult = ollamaClient.generate(
+                    prompt.text(),
+                    SYSTEM_PROMPT,
+                    modelRouter.reactModel(),
+                    options
             );
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_OLLAMA, ollamaStart);
+            usage.add(llmResult.stats);
+            String llmResponse = llmResult.text;
 
             AgentStep agentStep = parseStep(llmResponse, step);
             steps.add(agentStep);
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_REACT_STEP, stepStart);
 
             log.debug("Step {}: thought='{}', action='{}'",
                     step, sanitizeLog(agentStep.thought), sanitizeLog(agentStep.action));
@@ -119,104 +165,93 @@ public class ReActAgentService {
                     ? agentStep.action.toLowerCase(Locale.ROOT) : null)
                     && agentStep.finalAnswer != null) {
                 log.info("ReAct agent completed in {} step(s)", step);
-                return new AgentResult(agentStep.finalAnswer, steps, step);
+                onStep.accept(agentStep);
+                return new AgentResult(agentStep.finalAnswer, steps, step, usage.total);
             }
 
             // Execute tool action and add observation
-            String observation = executeTool(agentStep.action, agentStep.actionInput);
+            long toolStart = System.nanoTime();
+            String observation = executeTool(agentStep.action, agentStep.actionInput, usage);
+            pipelineMetrics.recordTool(agentStep.action, toolStart);
             agentStep.observation = observation;
+            onStep.accept(agentStep);
 
             // Append to conversation
-            conversationHistory.append(llmResponse).append("\n");
-            conversationHistory.append("Observation: ").append(observation).append("\n\n");
+            conversationHistory.append(llmResponse, observation);
         }
 
         // Max steps reached — return best available response
         log.warn("ReAct agent reached max steps ({}), returning partial result", maxSteps);
         String fallback = "I've analyzed this through " + maxSteps +
                 " reasoning steps. Based on my analysis: " + userPrompt;
-        return new AgentResult(fallback, steps, maxSteps);
+        return new AgentResult(fallback, steps, maxSteps, usage.total);
     }
 
     // ─────────────────────────────────────────────────────────────────────────
     // Tool Execution
     // ─────────────────────────────────────────────────────────────────────────
 
-    private String executeTool(String action, String input) {
+    private String executeTool(String action, String input, UsageTally usage) {
         if (action == null) return "No action specified.";
         return switch (action.toLowerCase(Locale.ROOT).trim()) {
-            case "calculate" -> executeCalculation(input);
-            case "search_knowledge" -> executeKnowledgeSearch(input);
-            case "summarize" -> executeSummarize(input);
+            case "calculate" -> executeCalculation(input, usage);
+            case "search_knowledge" -> executeKnowledgeSearch(input, usage);
+            case "summarize" -> executeSummarize(input, usage);
             default -> "Unknown tool: " + action + ". Available tools: calculate, search_knowledge, summarize";
         };
     }
 
-    private String executeCalculation(String expression) {
+    private String executeCalculation(String expression, UsageTally usage) {
         try {
             // Simple safe evaluation — real impl would use a math library
             // For demonstration: delegate back to LLM with specific prompt
-            String result = ollamaClient.generateResponse(
-                    "Calculate this mathematical expression and return ONLY the numeric result: " + expression
-            );
+            String result = toolGenerate(
+                    "Calculate this mathematical expression and return ONLY the numeric result: " + expression,
+                    "calculate", usage);
             return "Result: " + result.trim();
         } catch (Exception e) {
             return "Calculation error: " + e.getMessage();
         }
     }
 
-    private String executeKnowledgeSearch(String query) {
+    private String executeKnowledgeSearch(String query, UsageTally usage) {
         try {
-            String result = ollamaClient.generateResponse(
-                    "Answer this question concisely based on your knowledge: " + query
-            );
+            String result = toolGenerate(
+                    "Answer this question concisely based on your knowledge: " + query,
+                    "search_knowledge", usage);
             return result.trim();
         } catch (Exception e) {
             return "Search error: " + e.getMessage();
         }
     }
 
-    private String executeSummarize(String text) {
+    private String executeSummarize(String text, UsageTally usage) {
         try {
-            String result = ollamaClient.generateResponse(
-                    "Summarize this text in 2-3 sentences: " + text
-            );
+            String result = toolGenerate("Summarize this text in 2-3 sentences: " + text, "summarize", usage);
             return "Summary: " + result.trim();
         } catch (Exception e) {
             return "Summarize error: " + e.getMessage();
         }
     }
 
+    /** A tool's model call; timed as an {@code ollama} stage like the reasoning steps. */
+    private String toolGenerate(String prompt, String tool, UsageTally usage) {
+        long ollamaStart = System.nanoTime();
+        OllamaClient.OllamaResult result = ollamaClient.generate(prompt, null, modelRouter.toolModel(tool));
+        pipelineMetrics.recordStage(PipelineMetrics.STAGE_OLLAMA, ollamaStart);
+        return usage.text(result);
+    }
+
     // ─────────────────────────────────────────────────────────────────────────
     // Parsing
     // ─────────────────────────────────────────────────────────────────────────
 
-    private AgentStep parseStep(String llmResponse, int stepNumber) {
-        AgentStep step = new AgentStep(stepNumber);
-
-        Matcher thoughtMatcher = THOUGHT_PATTERN.matcher(llmResponse);
-        if (thoughtMatcher.find()) {
-            step.thought = thoughtMatcher.group(1).trim();
-        }
-
-        Matcher actionMatcher = ACTION_PATTERN.matcher(llmResponse);
-        if (actionMatcher.find()) {
-            step.action = actionMatcher.group(1).trim();
-        }
-
-        Matcher inputMatcher = ACTION_INPUT_PATTERN.matcher(llmResponse);
-        if (inputMatcher.find()) {
-            step.actionInput = inputMatcher.group(1).trim();
-        }
-
-        Matcher finalMatcher = FINAL_ANSWER_PATTERN.matcher(llmResponse);
-        if (finalMatcher.find()) {
-            step.finalAnswer = finalMatcher.group(1).trim();
-            step.action = "answer";
-        }
-
-        step.rawResponse = llmResponse;
-        return step;
+    /**
+     * Parse one LLM turn into an AgentStep in a single pass (see {@link ReActOutputParser}).
+     * Package-private and stateless so the JMH parsing benchmark can call it directly.
+     */
+    static AgentStep parseStep(String llmResponse, int stepNumber) {
+        return ReActOutputParser.parse(llmResponse, stepNumber);
     }
 
     // ─────────────────────────────────────────────────────────────────────────
@@ -241,11 +276,32 @@ public class ReActAgentService {
         public final String answer;
         public final List<AgentStep> steps;
         public final int totalSteps;
+        /** Ollama telemetry summed over every LLM call of the run (steps + tools). */
+        public final GenerationStats stats;
 
         public AgentResult(String answer, List<AgentStep> steps, int totalSteps) {
+            this(answer, steps, totalSteps, GenerationStats.EMPTY);
+        }
+
+        public AgentResult(String answer, List<AgentStep> steps, int totalSteps, GenerationStats stats) {
             this.answer = answer;
             this.steps = steps;
             this.totalSteps = totalSteps;
+            this.stats = stats;
+        }
+    }
+
+    /** Per-run accumulator for Ollama telemetry — one instance per execute() call. */
+    private static final class UsageTally {
+        private GenerationStats total = GenerationStats.EMPTY;
+
+        void add(GenerationStats stats) {
+            total = total.plus(stats);
+        }
+
+        String text(OllamaClient.OllamaResult result) {
+            add(result.stats);
+            return result.text;
         }
     }
 }
@@ -0,0 +1,160 @@
+package com.secureai.agent;
+
+/**
+ * Single-pass, line-oriented parser for ReAct LLM output.
+ *
+ * Replaces four independent DOTALL regex scans (Thought / Action / Action Input /
+ * Final Answer) whose lazy {@code .+?} + lookahead groups backtracked heavily on long
+ * outputs. This parser walks the text once, recognising section headers that begin a
+ * line (after optional spaces or tabs) with the same case-insensitive labels:
+ *
+ *   Thought:        runs until the next "Action:" header or end of text
+ *   Action:         the first word (\w+) after the label, possibly on the next line
+ *   Action Input:   runs until the next "Observation:" or "Thought:" header or end of text
+ *   Final Answer:   runs to end of text and forces action = "answer"
+ *   Observation:    recognised only as a terminator
+ *
+ * Only the first occurrence of each section is used, matching the previous
+ * {@code Matcher.find()} semantics. Two intentional differences from the regexes:
+ * labels must start a line (the format the system prompt mandates), and a section
+ * whose content is blank yields {@code null} instead of swallowing the following text.
+ */
+final class ReActOutputParser {
+
+    private enum Header {
+        THOUGHT("thought:"),
+        ACTION_INPUT("action input:"),   // must be tested before ACTION
+        ACTION("action:"),
+        OBSERVATION("observation:"),
+        FINAL_ANSWER("final answer:");
+
+        final String label;
+
+        Header(String label) {
+            this.label = label;
+        }
+    }
+
+    private static final Header[] HEADERS = Header.values();
+
+    private ReActOutputParser() {}
+
+    static ReActAgentService.AgentStep parse(String llmResponse, int stepNumber) {
+        ReActAgentService.AgentStep step = new ReActAgentService.AgentStep(stepNumber);
+        step.rawResponse = llmResponse;
+        if (llmResponse == null || llmResponse.isEmpty()) {
+            return step;
+        }
+
+        String text = llmResponse;
+        int length = text.length();
+        int thoughtStart = -1;
+        int thoughtEnd = length;
+        int actionStart = -1;
+        int inputStart = -1;
+        int inputEnd = length;
+        int finalStart = -1;
+        boolean thoughtOpen = false;
+        boolean inputOpen = false;
+
+        int lineStart = 0;
+        while (lineStart < length) {
+            int lineEnd = text.indexOf('\n', lineStart);
+            if (lineEnd < 0) lineEnd = length;
+
+            int i = lineStart;
+            while (i < lineEnd && (text.charAt(i) == ' ' || text.charAt(i) == '\t')) i++;
+
+            Header header = headerAt(text, i, lineEnd);
+            if (header != null) {
+                int contentStart = i + header.label.length();
+
+                // Terminators first: a header closes the sections it bounds
+                if (header == Header.ACTION && thoughtOpen) {
+                    thoughtEnd = i;
+                    thoughtOpen = false;
+                }
+                if ((header == Header.OBSERVATION || header == Header.THOUGHT) && inputOpen) {
+                    inputEnd = i;
+                    inputOpen = false;
+                }
+
+                switch (header) {
+                    case THOUGHT -> {
+                        if (thoughtStart < 0) {
+                            thoughtStart = contentStart;
+                            thoughtOpen = true;
+                        }
+                    }
+                    case ACTION -> {
+                        if (actionStart < 0) actionStart = contentStart;
+                    }
+                    case ACTION_INPUT -> {
+                        if (inputStart < 0) {
+                            inputStart = contentStart;
+                            inputOpen = true;
+                        }
+                    }
+                    case FINAL_ANSWER -> {
+                        if (finalStart < 0) finalStart = contentStart;
+                    }
+                    default -> { /* OBSERVATION: terminator only */ }
+                }
+            }
+            lineStart = lineEnd + 1;
+        }
+
+        if (thoughtStart >= 0) {
+            step.thought = section(text, thoughtStart, thoughtEnd);
+        }
+        if (actionStart >= 0) {
+            step.action = firstWord(text, actionStart);
+        }
+        if (inputStart >= 0) {
+            step.actionInput = section(text, inputStart, inputEnd);
+        }
+        if (finalStart >= 0) {
+            String answer = section(text, finalStart, length);
+            if (answer != null) {
+                step.finalAnswer = answer;
+                step.action = "answer";
+            }
+        }
+        return step;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static Header headerAt(String text, int offset, int lineEnd) {
+        for (Header header : HEADERS) {
+            int len = header.label.length();
+            if (offset + len <= lineEnd && text.regionMatches(true, offset, header.label, 0, len)) {
+                return header;
+            }
+        }
+        return null;
+    }
+
+    private static String section(String text, int start, int end) {
+        String value = text.substring(start, end).trim();
+        return value.isEmpty() ? null : value;
+    }
+
+    /** Equivalent of {@code \s*(\w+)} from {@code start}: skips whitespace (including newlines). */
+    private static String firstWord(String text, int start) {
+        int i = start;
+        int length = text.length();
+        while (i < length && isRegexWhitespace(text.charAt(i))) i++;
+        int wordStart = i;
+        while (i < length && isWordChar(text.charAt(i))) i++;
+        return i > wordStart ? text.substring(wordStart, i) : null;
+    }
+
+    private static boolean isRegexWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    private static boolean isWordChar(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9') || c == '_';
+    }
+}
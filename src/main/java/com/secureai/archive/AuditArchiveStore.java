@@ -0,0 +1,384 @@
+package com.secureai.archive;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.secureai.model.AuditLog;
+import com.secureai.model.AuditLogSummary;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Audit Archive Store — compressed cold storage for old audit records
+ *
+ * Layout under {@code audit.archive.dir}, one pair of files per calendar day:
+ *  - audit-YYYY-MM-DD.ndjson.gz   full AuditLog rows as NDJSON, gzip-compressed
+ *  - audit-YYYY-MM-DD.idx.json    small index: row count, id range, time range,
+ *                                 PII row count, and per-username count + time range
+ *
+ * Segments are append-only: each archiver pass for a day adds one gzip member to
+ * the end of the segment (multi-member gzip is a valid single stream). The member
+ * is fsynced before the index is atomically replaced, and an uncommitted member
+ * is truncated away, so a crash never leaves unindexed rows behind.
+ *
+ * Indexes are kept in memory; lookups only decompress segments whose index says
+ * they can contain a match. The archived rows are deleted from the shared database,
+ * so the directory must be a volume every replica mounts (ReadWriteMany PVC, NFS):
+ * enabling the archive without {@code audit.archive.shared-volume=true} fails startup,
+ * and each replica re-reads the indexes when the directory changes under it.
+ */
+@Component
+public class AuditArchiveStore {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditArchiveStore.class);
+
+    private static final String SEGMENT_SUFFIX = ".ndjson.gz";
+    private static final String INDEX_SUFFIX = ".idx.json";
+    private static final Comparator<AuditLogSummary> NEWEST_FIRST =
+            Comparator.comparing(AuditLogSummary::getCreatedAt).thenComparing(AuditLogSummary::getId).reversed();
+
+    @Value("${audit.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${audit.archive.dir:./data/audit-archive}")
+    private String directory;
+
+    @Value("${audit.archive.shared-volume:false}")
+    private boolean sharedVolume;
+
+    private final ObjectMapper objectMapper;
+    private final ObjectReader rowReader;
+    private final ObjectWriter rowWriter;
+
+    private final NavigableMap<LocalDate, SegmentIndex> indexes = new ConcurrentSkipListMap<>();
+    private volatile boolean loaded;
+    private volatile FileTime loadedStamp;
+
+    public AuditArchiveStore(ObjectMapper objectMapper) {
+        this.objectMapper = objectMapper;
+        this.rowReader = objectMapper.readerFor(AuditLog.class);
+        this.rowWriter = objectMapper.writerFor(AuditLog.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+    }
+
+    @PostConstruct
+    void checkSharedVolume() {
+        if (enabled && !sharedVolume) {
+            throw new IllegalStateException("audit.archive.enabled=true requires audit.archive.dir on a volume "
+                    + "shared by every replica; set audit.archive.shared-volume=true once it is");
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Highest audit id already archived for {@code day}; 0 if none. Lets the archiver
+     * resume idempotently after a crash between archiving and deleting.
+     */
+    public long lastArchivedId(LocalDate day) {
+        SegmentIndex index = indexes().get(day);
+        return index == null ? 0L : index.maxId;
+    }
+
+    /**
+     * Open an appender for {@code day}. Rows become visible only after {@link SegmentAppender#commit()}.
+     */
+    public synchronized SegmentAppender append(LocalDate day) throws IOException {
+        indexes();
+        Files.createDirectories(root());
+        return new SegmentAppender(day);
+    }
+
+    /**
+     * Newest-first archived summaries strictly before ({@code beforeCreatedAt}, {@code beforeId}).
+     *
+     * @param username only rows for this user; null for all users
+     * @param piiOnly  only rows where PII was detected
+     * @param beforeCreatedAt keyset position; null to start from the newest archived row
+     */
+    public List<AuditLogSummary> findBefore(String username, boolean piiOnly, LocalDateTime beforeCreatedAt,
+                                            Long beforeId, int limit) {
+        List<AuditLogSummary> result = new ArrayList<>();
+        for (SegmentIndex index : indexes().descendingMap().values()) {
+            if (result.size() >= limit) break;
+            if (beforeCreatedAt != null && index.first.isAfter(beforeCreatedAt)) continue;
+            if (piiOnly && index.piiRows == 0) continue;
+            if (username != null) {
+                UserRange range = index.users.get(username);
+                if (range == null || (beforeCreatedAt != null && range.first.isAfter(beforeCreatedAt))) continue;
+            }
+
+            List<AuditLogSummary> matches = new ArrayList<>();
+            forEachRow(index.day, row -> {
+                if (username != null && !username.equals(row.getUsername())) return;
+                if (piiOnly && !row.isPiiDetected()) return;
+                if (beforeCreatedAt != null && !isBefore(row, beforeCreatedAt, beforeId)) return;
+                matches.add(AuditLogSummary.of(row));
+            });
+            matches.sort(NEWEST_FIRST);
+            result.addAll(matches.subList(0, Math.min(matches.size(), limit - result.size())));
+        }
+        return result;
+    }
+
+    /**
+     * Full archived entry by id, decompressing only segments whose id range contains it.
+     */
+    public Optional<AuditLog> findById(long id) {
+        for (SegmentIndex index : indexes().descendingMap().values()) {
+            if (id < index.minId || id > index.maxId) continue;
+            AuditLog[] found = new AuditLog[1];
+            forEachRow(index.day, row -> {
+                if (found[0] == null && row.getId() != null && row.getId() == id) found[0] = row;
+            });
+            if (found[0] != null) return Optional.of(found[0]);
+        }
+        return Optional.empty();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static boolean isBefore(AuditLog row, LocalDateTime createdAt, Long id) {
+        int cmp = row.getCreatedAt().compareTo(createdAt);
+        return cmp < 0 || (cmp == 0 && id != null && row.getId() < id);
+    }
+
+    private void forEachRow(LocalDate day, Consumer<AuditLog> consumer) {
+        Path segment = segmentPath(day);
+        try (InputStream in = new GZIPInputStream(new BufferedInputStream(Files.newInputStream(segment)), 65536);
+             MappingIterator<AuditLog> rows = rowReader.readValues(in)) {
+            while (rows.hasNextValue()) {
+                consumer.accept(rows.nextValue());
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read archive segment " + segment, e);
+        }
+    }
+
+    private NavigableMap<LocalDate, SegmentIndex> indexes() {
+        if (!loaded || isStale()) {
+            synchronized (this) {
+                if (!loaded || isStale()) {
+                    loadIndexes();
+                    loaded = true;
+                }
+            }
+        }
+        return indexes;
+    }
+
+    /** Another replica committed a segment: the index rename bumped the directory mtime. */
+    private boolean isStale() {
+        return enabled && !Objects.equals(loadedStamp, directoryStamp());
+    }
+
+    private FileTime directoryStamp() {
+        try {
+            return Files.getLastModifiedTime(root());
+        } catch (IOException e) {
+            return null;
+        }
+    }
+
+    private void loadIndexes() {
+        Path root = root();
+        loadedStamp = directoryStamp();
+        if (!enabled || !Files.isDirectory(root)) return;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(root, "audit-*" + INDEX_SUFFIX)) {
+            for (Path file : files) {
+                SegmentIndex index = objectMapper.readValue(file.toFile(), SegmentIndex.class);
+                indexes.put(index.day, index);
+            }
+            log.debug("Loaded {} audit archive segment indexes from {}", indexes.size(), root);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to load audit archive indexes from " + root, e);
+        }
+    }
+
+    private Path root() {
+        return Paths.get(directory);
+    }
+
+    private Path segmentPath(LocalDate day) {
+        return root().resolve("audit-" + day + SEGMENT_SUFFIX);
+    }
+
+    private Path indexPath(LocalDate day) {
+        return root().resolve("audit-" + day + INDEX_SUFFIX);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /**
+     * Writes one gzip member to the end of a day segment. Closing without
+     * {@link #commit()} truncates the segment back to its previous length.
+     */
+    public class SegmentAppender implements Closeable {
+        private final LocalDate day;
+        private final Path segment;
+        private final long originalLength;
+        private final FileOutputStream file;
+        private final GZIPOutputStream gzip;
+        private final SequenceWriter writer;
+        private final SegmentIndex index;
+        private long written;
+        private boolean committed;
+
+        private SegmentAppender(LocalDate day) throws IOException {
+            this.day = day;
+            this.segment = segmentPath(day);
+            this.originalLength = Files.exists(segment) ? Files.size(segment) : 0L;
+            this.file = new FileOutputStream(segment.toFile(), true);
+            this.gzip = new GZIPOutputStream(new BufferedOutputStream(file, 65536), 65536);
+            this.writer = rowWriter.writeValues(gzip);
+            SegmentIndex existing = indexes.get(day);
+            this.index = existing != null ? existing.copy() : SegmentIndex.empty(day);
+        }
+
+        public void write(AuditLog row) throws IOException {
+            writer.write(row);
+            index.add(row);
+            written++;
+        }
+
+        public long getWritten() {
+            return written;
+        }
+
+        /**
+         * Make the appended rows durable and visible: fsync the segment, then swap in the new index.
+         */
+        public void commit() throws IOException {
+            writer.close();
+            if (written > 0) gzip.write('\n');
+            gzip.finish();
+            gzip.flush();
+            file.getChannel().force(true);
+            file.close();
+
+            Path tmp = indexPath(day).resolveSibling(indexPath(day).getFileName() + ".tmp");
+            objectMapper.writeValue(tmp.toFile(), index);
+            Files.move(tmp, indexPath(day), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            indexes.put(day, index);
+            committed = true;
+        }
+
+        @Override
+        public void close() throws IOException {
+            if (committed) return;
+            try {
+                gzip.close();   // releases the deflater; the partial member is truncated below
+            } catch (IOException ignored) {
+                file.close();
+            } finally {
+                try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+                    channel.truncate(originalLength);
+                }
+                if (originalLength == 0) Files.deleteIfExists(segment);
+            }
+        }
+    }
+
+    /**
+     * Per-day segment index, persisted as JSON next to the segment.
+     */
+    public static class SegmentIndex {
+        public LocalDate day;
+        public long rows;
+        public long piiRows;
+        public long minId = Long.MAX_VALUE;
+        public long maxId;
+        public LocalDateTime first;
+        public LocalDateTime last;
+        public Map<String, UserRange> users = new LinkedHashMap<>();
+
+        static SegmentIndex empty(LocalDate day) {
+            SegmentIndex index = new SegmentIndex();
+            index.day = day;
+            return index;
+        }
+
+        void add(AuditLog row) {
+            rows++;
+            if (row.isPiiDetected()) piiRows++;
+            minId = Math.min(minId, row.getId());
+            maxId = Math.max(maxId, row.getId());
+            first = first == null || row.getCreatedAt().isBefore(first) ? row.getCreatedAt() : first;
+            last = last == null || row.getCreatedAt().isAfter(last) ? row.getCreatedAt() : last;
+            if (row.getUsername() != null) {
+                users.computeIfAbsent(row.getUsername(), u -> new UserRange()).add(row.getCreatedAt());
+            }
+        }
+
+        SegmentIndex copy() {
+            SegmentIndex copy = empty(day);
+            copy.rows = rows;
+            copy.piiRows = piiRows;
+            copy.minId = minId;
+            copy.maxId = maxId;
+            copy.first = first;
+            copy.last = last;
+            users.forEach((user, range) -> copy.users.put(user, range.copy()));
+            return copy;
+        }
+    }
+
+    public static class UserRange {
+        public long rows;
+        public LocalDateTime first;
+        public LocalDateTime last;
+
+        void add(LocalDateTime createdAt) {
+            rows++;
+            first = first == null || createdAt.isBefore(first) ? createdAt : first;
+            last = last == null || createdAt.isAfter(last) ? createdAt : last;
+        }
+
+        UserRange copy() {
+            UserRange copy = new UserRange();
+            copy.rows = rows;
+            copy.first = first;
+            copy.last = last;
+            return copy;
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.secureai.archive;
+
+import com.secureai.model.AuditLog;
+import com.secureai.repository.AuditLogRepository;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Audit Archiver — moves old audit rows from MySQL into compressed day segments
+ *
+ * For each calendar day older than {@code audit.archive.after-days} (oldest first,
+ * at most {@code max-days-per-run} days per pass):
+ *  1. Stream the day's rows not yet archived (id above the segment index's maxId)
+ *     through a JDBC cursor into a new gzip member of the day segment
+ *  2. Commit the segment (fsync + index swap)
+ *  3. Delete the archived rows — one bounded DELETE per day
+ *
+ * Every step is idempotent, so a crash at any point is repaired by the next pass.
+ *
+ * Every replica schedules the pass, so each one first takes the MySQL named lock
+ * {@value #LOCK_NAME} (GET_LOCK, no wait) and skips the pass when another replica
+ * holds it or the database has no named locks. The segments must live on a volume
+ * all replicas share; AuditArchiveStore refuses to start otherwise.
+ * Reads go through {@link AuditArchiveStore}, which AuditLogService consults when a
+ * listing or lookup runs past the rows still in the database.
+ */
+@Service
+public class AuditArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditArchiver.class);
+
+    static final String LOCK_NAME = "secure_ai_audit_archive";
+
+    @Value("${audit.archive.after-days:90}")
+    private int afterDays;
+
+    @Value("${audit.archive.max-days-per-run:31}")
+    private int maxDaysPerRun;
+
+    private final AuditLogRepository auditLogRepository;
+    private final AuditArchiveStore archiveStore;
+    private final EntityManager entityManager;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate readOnlyTx;
+    private final TransactionTemplate writeTx;
+    private final Clock clock;
+
+    @Autowired
+    public AuditArchiver(AuditLogRepository auditLogRepository, AuditArchiveStore archiveStore,
+                         EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                         PlatformTransactionManager transactionManager) {
+        this(auditLogRepository, archiveStore, entityManager, jdbcTemplate, transactionManager,
+                Clock.systemDefaultZone());
+    }
+
+    AuditArchiver(AuditLogRepository auditLogRepository, AuditArchiveStore archiveStore,
+                  EntityManager entityManager, JdbcTemplate jdbcTemplate,
+                  PlatformTransactionManager transactionManager, Clock clock) {
+        this.auditLogRepository = auditLogRepository;
+        this.archiveStore = archiveStore;
+        this.entityManager = entityManager;
+        this.jdbcTemplate = jdbcTemplate;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.writeTx = new TransactionTemplate(transactionManager);
+        this.clock = clock;
+    }
+
+    /**
+     * Archive every whole day older than the threshold, on whichever replica wins the cluster lock.
+     *
+     * @return number of rows moved to the archive; 0 when another replica holds the lock
+     */
+    @Scheduled(cron = "${audit.archive.cron:0 45 2 * * *}")
+    public long archiveExpired() {
+        if (!archiveStore.isEnabled()) return 0;
+        try {
+            // GET_LOCK belongs to the session, so hold one connection for the whole pass
+            Long moved = jdbcTemplate.execute((ConnectionCallback<Long>) con -> {
+                if (!namedLock(con, "SELECT GET_LOCK(?, 0)")) {
+                    log.info("Audit archive lock {} is held elsewhere; skipping this pass", LOCK_NAME);
+                    return 0L;
+                }
+                try {
+                    return archiveLocked();
+                } finally {
+                    namedLock(con, "SELECT RELEASE_LOCK(?)");
+                }
+            });
+            return moved == null ? 0 : moved;
+        } catch (Exception e) {
+            log.error("Audit archive lock {} unavailable; skipping this pass: {}", LOCK_NAME, e.getMessage());
+            return 0;
+        }
+    }
+
+    long archiveLocked() {
+        long moved = 0;
+        try {
+            LocalDate cutoff = LocalDate.now(clock).minusDays(afterDays);
+            LocalDateTime oldest = auditLogRepository.findOldestCreatedAtBefore(cutoff.atStartOfDay());
+            if (oldest == null) return 0;
+
+            LocalDate day = oldest.toLocalDate();
+            for (int i = 0; i < maxDaysPerRun && day.isBefore(cutoff); i++, day = day.plusDays(1)) {
+                moved += archiveDay(day);
+            }
+            if (moved > 0) {
+                log.info("Archived {} audit rows older than {}", moved, cutoff);
+            }
+        } catch (Exception e) {
+            log.error("Audit archiving failed: {}", e.getMessage(), e);
+        }
+        return moved;
+    }
+
+    private static boolean namedLock(Connection con, String sql) throws SQLException {
+        try (PreparedStatement ps = con.prepareStatement(sql)) {
+            ps.setString(1, LOCK_NAME);
+            try (ResultSet rs = ps.executeQuery()) {
+                return rs.next() && rs.getInt(1) == 1;
+            }
+        }
+    }
+
+    long archiveDay(LocalDate day) {
+        LocalDateTime from = day.atStartOfDay();
+        LocalDateTime to = day.plusDays(1).atStartOfDay();
+        long afterId = archiveStore.lastArchivedId(day);
+
+        Long written = readOnlyTx.execute(status -> {
+            try (Stream<AuditLog> rows = auditLogRepository.streamForArchive(from, to, afterId);
+                 AuditArchiveStore.SegmentAppender appender = archiveStore.append(day)) {
+                for (Iterator<AuditLog> it = rows.iterator(); it.hasNext(); ) {
+                    AuditLog row = it.next();
+                    appender.write(row);
+                    entityManager.detach(row);
+                }
+                if (appender.getWritten() > 0) {
+                    appender.commit();
+                }
+                return appender.getWritten();
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        long maxArchivedId = archiveStore.lastArchivedId(day);
+        if (maxArchivedId > 0) {
+            Integer deleted = writeTx.execute(status -> auditLogRepository.deleteArchived(from, to, maxArchivedId));
+            log.debug("Archived day {}: {} rows written, {} rows deleted", day, written, deleted);
+        }
+        return written == null ? 0 : written;
+    }
+}
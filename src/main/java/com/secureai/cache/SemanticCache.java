@@ -0,0 +1,148 @@
+package com.secureai.cache;
+
+import com.secureai.pii.PiiRedactionService;
+import com.secureai.service.OllamaClient;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Semantic Cache — answers paraphrased prompts without a generation
+ *
+ * Flow for direct (non-ReAct) /api/ask requests:
+ *  1. {@link #lookup} embeds the prompt via Ollama /api/embeddings and searches
+ *     the {@link VectorIndex} for a prior prompt with cosine similarity of at least
+ *     {@code semantic-cache.similarity-threshold} for the same model and token cap
+ *     (an answer cut off at a low {@code maxTokens} is never served to a caller
+ *     allowed a longer one)
+ *  2. On a hit the stored answer is returned; on a miss the caller generates and
+ *     passes the PII-redacted answer to {@link #store}, reusing the embedding
+ *
+ * Safety:
+ *  - Prompts containing PII bypass the cache in both directions — a personal
+ *    question must never be answered from, or seed, another user's entry
+ *  - Only PII-redacted answers are stored
+ *  - Embedding failures degrade to a bypass; they never fail the request
+ *
+ * Meters:
+ *  - gateway.semantic_cache.lookups    Counter, tag result = hit | miss | bypass
+ *  - gateway.semantic_cache.hit_ratio  Gauge, hits / (hits + misses)
+ *  - gateway.semantic_cache.size       Gauge, entries held
+ *
+ * Disabled by default (semantic-cache.enabled=false).
+ */
+@Component
+public class SemanticCache {
+
+    private static final Logger log = LoggerFactory.getLogger(SemanticCache.class);
+
+    private final OllamaClient ollamaClient;
+    private final PiiRedactionService piiRedactionService;
+    private final boolean enabled;
+    private final double threshold;
+    private final VectorIndex index;
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter bypasses;
+
+    public SemanticCache(OllamaClient ollamaClient, PiiRedactionService piiRedactionService,
+                         MeterRegistry meterRegistry,
+                         @Value("${semantic-cache.enabled:false}") boolean enabled,
+                         @Value("${semantic-cache.capacity:10000}") int capacity,
+                         @Value("${semantic-cache.similarity-threshold:0.92}") double threshold) {
+        this.ollamaClient = ollamaClient;
+        this.piiRedactionService = piiRedactionService;
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.index = new VectorIndex(capacity);
+        this.hits = lookupCounter(meterRegistry, "hit");
+        this.misses = lookupCounter(meterRegistry, "miss");
+        this.bypasses = lookupCounter(meterRegistry, "bypass");
+        Gauge.builder("gateway.semantic_cache.hit_ratio", this, SemanticCache::hitRatio)
+                .description("Semantic cache hits / (hits + misses)")
+                .register(meterRegistry);
+        Gauge.builder("gateway.semantic_cache.size", index, VectorIndex::size)
+                .description("Entries held by the semantic cache")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Search for a cached answer to a paraphrase of {@code prompt}, generated by
+     * {@code model} with at most {@code maxTokens} tokens.
+     */
+    public Lookup lookup(String prompt, String model, int maxTokens) {
+        if (!enabled) return Lookup.BYPASS;
+        if (piiRedactionService.containsPii(prompt)) {
+            bypasses.increment();
+            return Lookup.BYPASS;
+        }
+
+        float[] embedding;
+        try {
+            embedding = ollamaClient.embed(prompt);
+        } catch (OllamaClient.OllamaException e) {
+            log.debug("Semantic cache bypassed, embedding failed: {}", e.getMessage());
+            bypasses.increment();
+            return Lookup.BYPASS;
+        }
+        if (!VectorIndex.normalize(embedding)) {
+            bypasses.increment();
+            return Lookup.BYPASS;
+        }
+
+        String partition = model + "#" + maxTokens;
+        String answer = index.nearest(embedding, partition, threshold);
+        (answer != null ? hits : misses).increment();
+        return new Lookup(embedding, partition, answer);
+    }
+
+    /**
+     * Remember {@code redactedAnswer} for the prompt behind a missed {@code lookup}.
+     */
+    public void store(Lookup lookup, String redactedAnswer) {
+        if (lookup.embedding == null || lookup.isHit() || redactedAnswer == null || redactedAnswer.isBlank()) {
+            return;
+        }
+        index.add(lookup.embedding, lookup.partition, redactedAnswer, threshold);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0.0 : hits.count() / total;
+    }
+
+    private static Counter lookupCounter(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("gateway.semantic_cache.lookups")
+                .description("Semantic cache lookups by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Outcome of a lookup; carries the prompt embedding so a miss can be stored
+     * without embedding the prompt twice.
+     */
+    public static final class Lookup {
+        public static final Lookup BYPASS = new Lookup(null, null, null);
+
+        private final float[] embedding;
+        private final String partition;
+        private final String answer;
+
+        private Lookup(float[] embedding, String partition, String answer) {
+            this.embedding = embedding;
+            this.partition = partition;
+            this.answer = answer;
+        }
+
+        public boolean isHit() { return answer != null; }
+        public boolean isBypass() { return embedding == null; }
+        public String getAnswer() { return answer; }
+    }
+}
@@ -0,0 +1,144 @@
+package com.secureai.cache;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bounded nearest-neighbour index over unit-length float vectors.
+ *
+ * Vectors are packed row-major into one float[] (grown on demand up to
+ * {@code capacity} rows) and searched with an exact dot-product scan — at the
+ * cache's bounded size a linear pass over contiguous memory costs a few
+ * milliseconds, with no graph to maintain and no recall loss. When full, the
+ * least recently matched row is overwritten.
+ *
+ * Searches run concurrently under the read lock; inserts take the write lock.
+ */
+final class VectorIndex {
+
+    private final int capacity;
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final AtomicLong tick = new AtomicLong();
+
+    private int dimensions;
+    private int size;
+    private float[] vectors = new float[0];
+    private String[] models = new String[0];
+    private String[] answers = new String[0];
+    private AtomicLongArray lastUsed = new AtomicLongArray(0);
+
+    VectorIndex(int capacity) {
+        this.capacity = capacity;
+    }
+
+    /**
+     * Answer of the most similar row for {@code model} with cosine similarity of at
+     * least {@code threshold}, or null.
+     */
+    String nearest(float[] unitVector, String model, double threshold) {
+        lock.readLock().lock();
+        try {
+            int row = bestRow(unitVector, model, threshold);
+            if (row < 0) return null;
+            lastUsed.set(row, tick.incrementAndGet());
+            return answers[row];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Insert a row. A row already within {@code threshold} of it (two concurrent
+     * misses for the same question) is replaced instead of duplicated.
+     */
+    void add(float[] unitVector, String model, String answer, double threshold) {
+        lock.writeLock().lock();
+        try {
+            if (dimensions != unitVector.length) {
+                clear(unitVector.length);   // embedding model changed — old vectors are incomparable
+            }
+            int row = bestRow(unitVector, model, threshold);
+            if (row < 0) {
+                row = size < capacity ? size++ : leastRecentlyUsed();
+                ensureRows(size);
+            }
+            System.arraycopy(unitVector, 0, vectors, row * dimensions, dimensions);
+            models[row] = model;
+            answers[row] = answer;
+            lastUsed.set(row, tick.incrementAndGet());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Scale {@code vector} to unit length in place; returns false for a zero vector. */
+    static boolean normalize(float[] vector) {
+        double norm = 0;
+        for (float v : vector) norm += (double) v * v;
+        if (norm == 0) return false;
+        float scale = (float) (1.0 / Math.sqrt(norm));
+        for (int i = 0; i < vector.length; i++) vector[i] *= scale;
+        return true;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private int bestRow(float[] query, String model, double threshold) {
+        if (query.length != dimensions) return -1;
+        int best = -1;
+        double bestScore = threshold;
+        for (int row = 0; row < size; row++) {
+            if (!model.equals(models[row])) continue;
+            int base = row * dimensions;
+            double dot = 0;
+            for (int i = 0; i < dimensions; i++) {
+                dot += query[i] * vectors[base + i];
+            }
+            if (dot >= bestScore) {
+                bestScore = dot;
+                best = row;
+            }
+        }
+        return best;
+    }
+
+    private int leastRecentlyUsed() {
+        int victim = 0;
+        for (int row = 1; row < size; row++) {
+            if (lastUsed.get(row) < lastUsed.get(victim)) victim = row;
+        }
+        return victim;
+    }
+
+    private void ensureRows(int rows) {
+        if (rows <= models.length) return;
+        int grown = Math.min(capacity, Math.max(rows, Math.max(16, models.length * 2)));
+        vectors = Arrays.copyOf(vectors, grown * dimensions);
+        models = Arrays.copyOf(models, grown);
+        answers = Arrays.copyOf(answers, grown);
+        AtomicLongArray used = new AtomicLongArray(grown);
+        for (int i = 0; i < lastUsed.length(); i++) used.set(i, lastUsed.get(i));
+        lastUsed = used;
+    }
+
+    private void clear(int newDimensions) {
+        dimensions = newDimensions;
+        size = 0;
+        vectors = new float[0];
+        models = new String[0];
+        answers = new String[0];
+        lastUsed = new AtomicLongArray(0);
+    }
+}
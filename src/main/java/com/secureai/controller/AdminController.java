@@ -1,15 +1,23 @@
 package com.secureai.controller;
 
 import com.secureai.model.AuditLog;
+import com.secureai.model.AuditLogSummary;
+import com.secureai.model.AuditRollupHourly;
+import com.secureai.model.CursorPage;
+import com.secureai.model.UsageSummary;
 import com.secureai.service.AuditLogService;
+import com.secureai.service.AuditRollupService;
+import com.secureai.service.AuthService;
 import com.secureai.service.RateLimiterService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
-import org.springframework.data.domain.Page;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
 import java.util.Map;
@@ -21,11 +29,16 @@ import java.util.Map;
 public class AdminController {
 
     private final AuditLogService auditLogService;
+    private final AuditRollupService rollupService;
     private final RateLimiterService rateLimiterService;
+    private final AuthService authService;
 
-    public AdminController(AuditLogService auditLogService, RateLimiterService rateLimiterService) {
+    public AdminController(AuditLogService auditLogService, AuditRollupService rollupService,
+                           RateLimiterService rateLimiterService, AuthService authService) {
         this.auditLogService = auditLogService;
+        this.rollupService = rollupService;
         this.rateLimiterService = rateLimiterService;
+        this.authService = authService;
     }
 
     @GetMapping("/dashboard")
@@ -37,18 +50,64 @@ public class AdminController {
 
     @GetMapping("/audit")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Paginated audit logs")
-    public ResponseEntity<Page<AuditLog>> auditLogs(
-            @RequestParam(defaultValue = "0") int page,
+    @Operation(summary = "Audit logs, newest first (keyset pagination — pass nextCursor as cursor)")
+    public ResponseEntity<CursorPage<AuditLogSummary>> auditLogs(
+            @RequestParam(required = false) String cursor,
             @RequestParam(defaultValue = "20") int size) {
-        return ResponseEntity.ok(auditLogService.getRecentLogs(page, size));
+        return ResponseEntity.ok(auditLogService.getRecentLogs(cursor, size));
+    }
+
+    @GetMapping("/audit/{id:\\d+}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Full audit entry including prompt and redacted response")
+    public ResponseEntity<AuditLog> auditLog(@PathVariable long id) {
+        return ResponseEntity.of(auditLogService.getLog(id));
     }
 
     @GetMapping("/audit/pii-alerts")
     @PreAuthorize("hasRole('ADMIN')")
-    @Operation(summary = "Requests where PII was detected")
-    public ResponseEntity<List<AuditLog>> piiAlerts() {
-        return ResponseEntity.ok(auditLogService.getPiiAlerts());
+    @Operation(summary = "Requests where PII was detected (keyset pagination — pass nextCursor as cursor)")
+    public ResponseEntity<CursorPage<AuditLogSummary>> piiAlerts(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size) {
+        return ResponseEntity.ok(auditLogService.getPiiAlerts(cursor, size));
+    }
+
+    @GetMapping(value = "/audit/pii-alerts/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Export all PII alerts as NDJSON (streamed, constant memory)")
+    public ResponseEntity<StreamingResponseBody> exportPiiAlerts() {
+        StreamingResponseBody body = auditLogService::exportPiiAlerts;
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"pii-alerts.ndjson\"")
+                .body(body);
+    }
+
+    @GetMapping("/usage/top-users")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Heaviest users over the last N hours (from the hourly rollup)")
+    public ResponseEntity<List<UsageSummary>> topUsers(
+            @RequestParam(defaultValue = "24") int hours,
+            @RequestParam(defaultValue = "10") int limit) {
+        return ResponseEntity.ok(rollupService.topUsers(hours, limit));
+    }
+
+    @GetMapping("/usage/models")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Usage per model over the last N hours (from the hourly rollup)")
+    public ResponseEntity<List<UsageSummary>> usageByModel(
+            @RequestParam(defaultValue = "24") int hours) {
+        return ResponseEntity.ok(rollupService.usageByModel(hours));
+    }
+
+    @GetMapping("/usage/users/{username}")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Hourly usage series for one user (from the hourly rollup)")
+    public ResponseEntity<List<AuditRollupHourly>> userUsage(
+            @PathVariable String username,
+            @RequestParam(defaultValue = "24") int hours) {
+        return ResponseEntity.ok(rollupService.userHourly(username, hours));
     }
 
     @DeleteMapping("/rate-limit/{username}")
@@ -61,4 +120,16 @@ public class AdminController {
             "status", "success"
         ));
     }
-}
\ No newline at end of file
+
+    @PutMapping("/users/{username}/enabled")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Enable or disable a user account (takes effect on the next login)")
+    public ResponseEntity<Map<String, String>> setUserEnabled(@PathVariable String username,
+                                                              @RequestParam boolean enabled) {
+        authService.setEnabled(username, enabled);
+        return ResponseEntity.ok(Map.of(
+            "message", "User " + username + (enabled ? " enabled" : " disabled"),
+            "status", "success"
+        ));
+    }
+}
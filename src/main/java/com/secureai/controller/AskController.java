@@ -1,12 +1,21 @@
 package com.secureai.controller;
 
 import com.secureai.agent.ReActAgentService;
+import com.secureai.cache.SemanticCache;
+import com.secureai.metrics.PipelineMetrics;
 import com.secureai.model.AskRequest;
 import com.secureai.model.AskResponse;
+import com.secureai.model.GenerationOptions;
+import com.secureai.model.GenerationStats;
 import com.secureai.pii.PiiRedactionService;
 import com.secureai.service.AuditLogService;
+import com.secureai.service.GenerationLimits;
+import com.secureai.service.ModelRouter;
 import com.secureai.service.OllamaClient;
 import com.secureai.service.RateLimiterService;
+import com.secureai.service.ReactiveOllamaClient;
+import com.secureai.service.TokenEstimator;
+import io.micrometer.core.instrument.LongTaskTimer;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
 import io.swagger.v3.oas.annotations.tags.Tag;
@@ -17,22 +26,43 @@ import org.slf4j.LoggerFactory;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
+import reactor.core.Disposable;
+import reactor.core.scheduler.Schedulers;
 
 import java.security.Principal;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Ask Controller — Main AI Gateway Endpoint
  *
  * Pipeline per request:
  *  ① JWT auth (enforced by security filter, not this controller)
- *  ② Rate limit check (Bucket4j — 100 req/hr per user)
- *  ③ Route to OllamaClient or ReActAgent
+ *  ② Context-window check (TokenEstimator — oversized prompts get 413) and the
+ *    caller's generation ceilings (GenerationLimits — 400), both before spending a
+ *    rate-limit token; then rate limit check (Bucket4j — 100 req/hr per user)
+ *  ③ Route to OllamaClient or ReActAgent on the model chosen by ModelRouter
+ *    with the request's maxTokens / temperature / stop (direct prompts try the
+ *    SemanticCache first, keyed by model and effective maxTokens, unless
+ *    temperature or stop were set)
  *  ④ PII redaction on response
  *  ⑤ Async audit log to PostgreSQL
  *  ⑥ Return response with rate-limit headers
+ *
+ * Every stage is timed with System.nanoTime and exported through {@link PipelineMetrics}.
+ *
+ * POST /api/ask/async runs the same pipeline for direct prompts on
+ * {@link ReactiveOllamaClient}: the servlet thread is released as soon as the
+ * request is dispatched and the response is completed through a DeferredResult, so
+ * in-flight generations hold no request threads. It bypasses the SemanticCache
+ * (whose embedding call is blocking) and does not run the ReAct agent — use
+ * POST /api/jobs for that.
  */
 @RestController
 @RequestMapping("/api")
@@ -46,15 +76,30 @@ public class AskController {
     private final RateLimiterService rateLimiterService;
     private final ReActAgentService reActAgentService;
     private final AuditLogService auditLogService;
+    private final PipelineMetrics pipelineMetrics;
+    private final SemanticCache semanticCache;
+    private final ModelRouter modelRouter;
+    private final ReactiveOllamaClient reactiveOllamaClient;
+    private final TokenEstimator tokenEstimator;
+    private final GenerationLimits generationLimits;
 
     public AskController(OllamaClient ollamaClient, PiiRedactionService piiRedactionService,
                          RateLimiterService rateLimiterService, ReActAgentService reActAgentService,
-                         AuditLogService auditLogService) {
+                         AuditLogService auditLogService, PipelineMetrics pipelineMetrics,
+                         SemanticCache semanticCache, ModelRouter modelRouter,
+                         ReactiveOllamaClient reactiveOllamaClient, TokenEstimator tokenEstimator,
+                         GenerationLimits generationLimits) {
         this.ollamaClient = ollamaClient;
         this.piiRedactionService = piiRedactionService;
         this.rateLimiterService = rateLimiterService;
         this.reActAgentService = reActAgentService;
         this.auditLogService = auditLogService;
+        this.pipelineMetrics = pipelineMetrics;
+        this.semanticCache = semanticCache;
+        this.modelRouter = modelRouter;
+        this.reactiveOllamaClient = reactiveOllamaClient;
+        this.tokenEstimator = tokenEstimator;
+        this.generationLimits = generationLimits;
     }
 
     @PostMapping("/ask")
@@ -69,50 +114,151 @@ public class AskController {
             HttpServletRequest httpRequest) {
 
         String username = principal.getName();
-        long startTime = System.currentTimeMillis();
-
-        // ② Rate Limiting
-        if (!rateLimiterService.tryConsume(username)) {
-            long remaining = rateLimiterService.getRemainingTokens(username);
-            log.warn("Rate limit exceeded for user '{}'", sanitizeLog(username));
-
-            auditLogService.logRequest(username, request.getPrompt(), null,
-                    ollamaClient.getModel(), false, true, null,
-                    429, 0L, httpRequest.getRemoteAddr());
-
-            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
-                    .header("X-Rate-Limit-Remaining", String.valueOf(remaining))
-                    .header("Retry-After", "3600")
-                    .header("X-Rate-Limit-Capacity", String.valueOf(rateLimiterService.getCapacity()))
-                    .build();
+        long startTime = System.nanoTime();
+        LongTaskTimer.Sample inFlight = pipelineMetrics.startRequest(request.isUseReActAgent());
+        try {
+            return process(request, username, roles(principal), startTime, httpRequest.getRemoteAddr());
+        } finally {
+            inFlight.stop();
         }
+    }
 
+    @PostMapping("/ask/async")
+    @Operation(
+        summary = "Send a direct prompt without holding a server thread",
+        description = "Same pipeline as /api/ask on the non-blocking client; no ReAct, no semantic cache",
+        security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public DeferredResult<ResponseEntity<AskResponse>> askAsync(
+            @Valid @RequestBody AskRequest request,
+            Principal principal,
+            HttpServletRequest httpRequest) {
+
+        if (request.isUseReActAgent()) {
+            throw new AsyncReActException();
+        }
+        DeferredResult<ResponseEntity<AskResponse>> deferred = new DeferredResult<>();
+        tokenEstimator.checkPrompt(request.getPrompt(), null);
+        List<String> roles = roles(principal);
+        GenerationOptions options = generationLimits.resolve(request, false, roles);
+        String username = principal.getName();
+        String ipAddress = httpRequest.getRemoteAddr();
+        long startTime = System.nanoTime();
+        LongTaskTimer.Sample inFlight = pipelineMetrics.startRequest(false);
+
+        ResponseEntity<AskResponse> limited = checkRateLimit(request, username, ipAddress);
+        if (limited != null) {
+            inFlight.stop();
+            deferred.setResult(limited);
+            return deferred;
+        }
+
+        String model = modelRouter.route(request.getPrompt(), false, roles, request.getModelTier());
+        long ollamaStart = System.nanoTime();
+        Disposable generation = reactiveOllamaClient.generate(request.getPrompt(), null, model, options)
+                .doOnNext(result -> pipelineMetrics.recordStage(PipelineMetrics.STAGE_OLLAMA, ollamaStart))
+                // PII redaction and audit hand-off block; keep them off the Netty event loop
+                .publishOn(Schedulers.boundedElastic())
+                .map(result -> complete(request, username, model, result.text, 0, result.stats, options,
+                        SemanticCache.Lookup.BYPASS, startTime, ipAddress))
+                .subscribe(deferred::setResult, deferred::setErrorResult);
+        // Also fires on timeout or client disconnect: cancels the Ollama exchange
+        deferred.onCompletion(() -> {
+            generation.dispose();
+            inFlight.stop();
+        });
+        return deferred;
+    }
+
+    private ResponseEntity<AskResponse> process(AskRequest request, String username, List<String> roles,
+                                                long startTime, String ipAddress) {
+        tokenEstimator.checkPrompt(request.getPrompt(), null);
+        GenerationOptions options = generationLimits.resolve(request, request.isUseReActAgent(), roles);
+        ResponseEntity<AskResponse> limited = checkRateLimit(request, username, ipAddress);
+        if (limited != null) return limited;
+
+        String model = modelRouter.route(request.getPrompt(), request.isUseReActAgent(), roles,
+                request.getModelTier());
         String rawResponse;
         int reactSteps = 0;
+        GenerationStats stats;
+        SemanticCache.Lookup cached = SemanticCache.Lookup.BYPASS;
 
         // ③ Route: ReAct agent or direct inference
         if (request.isUseReActAgent()) {
             log.info("ReAct agent invoked for user '{}'", sanitizeLog(username));
-            ReActAgentService.AgentResult result = reActAgentService.execute(request.getPrompt());
+            ReActAgentService.AgentResult result = reActAgentService.execute(request.getPrompt(), options);
             rawResponse = result.answer;
             reactSteps = result.totalSteps;
+            stats = result.stats;
         } else {
-            rawResponse = ollamaClient.generateResponse(request.getPrompt());
+            long stageStart = System.nanoTime();
+            // Cached answers were generated with default sampling and no stop sequences
+            if (options.getTemperature() == null && options.getStop().isEmpty()) {
+                cached = semanticCache.lookup(request.getPrompt(), model, options.getMaxTokens());
+                pipelineMetrics.recordStage(PipelineMetrics.STAGE_SEMANTIC_CACHE, stageStart);
+            }
+            if (cached.isHit()) {
+                rawResponse = cached.getAnswer();
+                stats = GenerationStats.EMPTY;
+            } else {
+                stageStart = System.nanoTime();
+                OllamaClient.OllamaResult result = ollamaClient.generate(request.getPrompt(), null, model, options);
+                pipelineMetrics.recordStage(PipelineMetrics.STAGE_OLLAMA, stageStart);
+                rawResponse = result.text;
+                stats = result.stats;
+            }
         }
+        return complete(request, username, model, rawResponse, reactSteps, stats, options, cached, startTime,
+                ipAddress);
+    }
+
+    /** ② Rate limiting: null when allowed, otherwise the audited 429 response. */
+    private ResponseEntity<AskResponse> checkRateLimit(AskRequest request, String username, String ipAddress) {
+        long stageStart = System.nanoTime();
+        boolean allowed = rateLimiterService.tryConsume(username);
+        pipelineMetrics.recordStage(PipelineMetrics.STAGE_RATE_LIMIT, stageStart);
+        if (allowed) return null;
+
+        long remaining = rateLimiterService.getRemainingTokens(username);
+        log.warn("Rate limit exceeded for user '{}'", sanitizeLog(username));
+
+        stageStart = System.nanoTime();
+        auditLogService.logRequest(username, request.getPrompt(), null,
+                ollamaClient.getModel(), false, true, null,
+                429, 0L, ipAddress);
+        pipelineMetrics.recordStage(PipelineMetrics.STAGE_AUDIT_ENQUEUE, stageStart);
+
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header("X-Rate-Limit-Remaining", String.valueOf(remaining))
+                .header("Retry-After", "3600")
+                .header("X-Rate-Limit-Capacity", String.valueOf(rateLimiterService.getCapacity()))
+                .build();
+    }
 
+    /** ④–⑥ PII redaction, audit and the response, shared by the blocking and async paths. */
+    private ResponseEntity<AskResponse> complete(AskRequest request, String username, String model,
+                                                 String rawResponse, int reactSteps, GenerationStats stats,
+                                                 GenerationOptions options, SemanticCache.Lookup cached,
+                                                 long startTime, String ipAddress) {
         // ④ PII Redaction
+        long stageStart = System.nanoTime();
         boolean piiDetected = piiRedactionService.containsPii(rawResponse);
         String finalResponse = piiDetected ? piiRedactionService.redact(rawResponse) : rawResponse;
+        pipelineMetrics.recordStage(PipelineMetrics.STAGE_PII_SCAN, stageStart);
+        semanticCache.store(cached, finalResponse);
 
-        long durationMs = System.currentTimeMillis() - startTime;
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
 
         // ⑤ Async Audit Log
+        stageStart = System.nanoTime();
         auditLogService.logRequest(
                 username, request.getPrompt(), finalResponse,
-                ollamaClient.getModel(), piiDetected, false,
+                model, piiDetected, false,
                 reactSteps > 0 ? reactSteps : null,
-                200, durationMs, httpRequest.getRemoteAddr()
+                200, durationMs, ipAddress, stats, options
         );
+        pipelineMetrics.recordStage(PipelineMetrics.STAGE_AUDIT_ENQUEUE, stageStart);
 
         log.info("Request processed for '{}': pii={}, steps={}, ms={}",
                 sanitizeLog(username), piiDetected, reactSteps, durationMs);
@@ -121,11 +267,11 @@ public class AskController {
 
         // ⑥ Return response
         AskResponse response = new AskResponse(
-                finalResponse, piiDetected, piiDetected, reactSteps, durationMs,
-                ollamaClient.getModel()
+                finalResponse, piiDetected, piiDetected, reactSteps, durationMs, model
         );
 
         return ResponseEntity.ok()
+                .header("X-Semantic-Cache", cached.isBypass() ? "BYPASS" : cached.isHit() ? "HIT" : "MISS")
                 .header("X-Rate-Limit-Remaining", String.valueOf(remaining))
                 .header("X-Rate-Limit-Capacity", String.valueOf(rateLimiterService.getCapacity()))
                 .header("X-PII-Redacted", String.valueOf(piiDetected))
@@ -145,9 +291,24 @@ public class AskController {
         ));
     }
 
+    /** Caller's roles without the ROLE_ prefix, for {@link ModelRouter} and {@link GenerationLimits}. */
+    static List<String> roles(Principal principal) {
+        if (!(principal instanceof Authentication authentication)) return List.of();
+        return authentication.getAuthorities().stream()
+                .map(GrantedAuthority::getAuthority)
+                .map(authority -> authority.startsWith("ROLE_") ? authority.substring(5) : authority)
+                .toList();
+    }
+
     /** Strips CR and LF to prevent CRLF injection in log messages. */
     private static String sanitizeLog(String value) {
         if (value == null) return "(null)";
         return value.replace("\r", "\\r").replace("\n", "\\n");
     }
+
+    public static class AsyncReActException extends RuntimeException {
+        public AsyncReActException() {
+            super("ReAct requests are not served by /api/ask/async; submit them to POST /api/jobs");
+        }
+    }
 }
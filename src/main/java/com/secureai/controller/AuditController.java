@@ -0,0 +1,40 @@
+package com.secureai.controller;
+
+import com.secureai.model.AuditLogSummary;
+import com.secureai.model.CursorPage;
+import com.secureai.service.AuditLogService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.security.Principal;
+
+/**
+ * Audit Controller — a caller's own request history
+ *
+ * Scoped to the authenticated principal; there is no username parameter, so a
+ * USER can never read another user's entries. Admins use /admin/audit instead.
+ */
+@RestController
+@RequestMapping("/api/audit")
+@Tag(name = "Audit", description = "Per-user audit history")
+@SecurityRequirement(name = "bearerAuth")
+public class AuditController {
+
+    private final AuditLogService auditLogService;
+
+    public AuditController(AuditLogService auditLogService) {
+        this.auditLogService = auditLogService;
+    }
+
+    @GetMapping("/me")
+    @Operation(summary = "Caller's own audit history, newest first (keyset pagination — pass nextCursor as cursor)")
+    public ResponseEntity<CursorPage<AuditLogSummary>> myLogs(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            Principal principal) {
+        return ResponseEntity.ok(auditLogService.getUserLogs(principal.getName(), cursor, size));
+    }
+}
@@ -0,0 +1,86 @@
+package com.secureai.controller;
+
+import com.secureai.model.BatchAskRequest;
+import com.secureai.service.AuditLogService;
+import com.secureai.service.BatchAskService;
+import com.secureai.service.OllamaClient;
+import com.secureai.service.RateLimiterService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.security.Principal;
+import java.util.List;
+
+/**
+ * Batch Ask Controller — POST /api/ask/batch
+ *
+ * For pipelines that send many independent direct prompts: one JWT check, one
+ * HTTP exchange and one audit write for the whole batch. The rate-limit bucket
+ * is charged one token per prompt, all at once — a batch that does not fit in
+ * the remaining budget is rejected with 429 before any prompt runs.
+ *
+ * Results are streamed as NDJSON ({@link com.secureai.model.BatchAskResult}),
+ * one line per prompt in completion order.
+ */
+@RestController
+@RequestMapping("/api")
+@Tag(name = "AI Gateway", description = "Secure AI inference endpoints")
+public class BatchAskController {
+
+    private final BatchAskService batchAskService;
+    private final RateLimiterService rateLimiterService;
+    private final AuditLogService auditLogService;
+    private final OllamaClient ollamaClient;
+
+    public BatchAskController(BatchAskService batchAskService, RateLimiterService rateLimiterService,
+                              AuditLogService auditLogService, OllamaClient ollamaClient) {
+        this.batchAskService = batchAskService;
+        this.rateLimiterService = rateLimiterService;
+        this.auditLogService = auditLogService;
+        this.ollamaClient = ollamaClient;
+    }
+
+    @PostMapping(value = "/ask/batch", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+        summary = "Send many independent prompts; results stream back as NDJSON",
+        description = "One rate-limit token per prompt, charged up front. Lines carry the prompt index.",
+        security = @SecurityRequirement(name = "bearerAuth")
+    )
+    public ResponseEntity<StreamingResponseBody> askBatch(
+            @Valid @RequestBody BatchAskRequest request,
+            Principal principal,
+            HttpServletRequest httpRequest) {
+
+        String username = principal.getName();
+        List<String> prompts = request.getPrompts();
+        String ipAddress = httpRequest.getRemoteAddr();
+        batchAskService.checkSize(prompts);
+
+        if (!rateLimiterService.tryConsume(username, prompts.size())) {
+            auditLogService.logRequest(username, "[batch of " + prompts.size() + " prompts]", null,
+                    ollamaClient.getModel(), false, true, null,
+                    429, 0L, ipAddress);
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("X-Rate-Limit-Remaining", String.valueOf(rateLimiterService.getRemainingTokens(username)))
+                    .header("Retry-After", "3600")
+                    .header("X-Rate-Limit-Capacity", String.valueOf(rateLimiterService.getCapacity()))
+                    .build();
+        }
+
+        List<String> roles = AskController.roles(principal);
+        StreamingResponseBody body = out -> batchAskService.execute(username, roles, prompts, ipAddress, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .header("X-Rate-Limit-Remaining", String.valueOf(rateLimiterService.getRemainingTokens(username)))
+                .header("X-Rate-Limit-Capacity", String.valueOf(rateLimiterService.getCapacity()))
+                .body(body);
+    }
+}
@@ -0,0 +1,110 @@
+package com.secureai.controller;
+
+import com.secureai.jobs.AgentJobService;
+import com.secureai.model.AgentJobView;
+import com.secureai.model.AskRequest;
+import com.secureai.model.GenerationOptions;
+import com.secureai.service.AuditLogService;
+import com.secureai.service.GenerationLimits;
+import com.secureai.service.OllamaClient;
+import com.secureai.service.RateLimiterService;
+import com.secureai.service.TokenEstimator;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.security.SecurityRequirement;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.validation.Valid;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.net.URI;
+import java.security.Principal;
+
+/**
+ * Job Controller — asynchronous ReAct agent runs
+ *
+ * A multi-step agent run can outlast client and proxy timeouts, so instead of
+ * holding the request open:
+ *  - POST /api/jobs               → 202 Accepted + Location of the job
+ *  - GET  /api/jobs/{id}          → status, completed steps, redacted answer
+ *  - GET  /api/jobs/{id}/events   → SSE stream of steps, then "done"
+ *
+ * Submissions are size-checked (413), rate limited and checked against the
+ * caller's generation ceilings like /api/ask. Jobs belong to the submitting user;
+ * any other caller gets 404.
+ *
+ * Jobs live in the memory of the replica that accepted them, so GET and SSE
+ * requests for a job must reach that same replica — anywhere else they get 404.
+ * Behind more than one replica the ingress must route each user to one pod
+ * (sticky sessions keyed on the Authorization header or a cookie); see the
+ * README's "Running several replicas".
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@Tag(name = "Agent Jobs", description = "Asynchronous ReAct agent runs")
+@SecurityRequirement(name = "bearerAuth")
+public class JobController {
+
+    private final AgentJobService agentJobService;
+    private final RateLimiterService rateLimiterService;
+    private final AuditLogService auditLogService;
+    private final OllamaClient ollamaClient;
+    private final GenerationLimits generationLimits;
+    private final TokenEstimator tokenEstimator;
+
+    public JobController(AgentJobService agentJobService, RateLimiterService rateLimiterService,
+                         AuditLogService auditLogService, OllamaClient ollamaClient,
+                         GenerationLimits generationLimits, TokenEstimator tokenEstimator) {
+        this.agentJobService = agentJobService;
+        this.rateLimiterService = rateLimiterService;
+        this.auditLogService = auditLogService;
+        this.ollamaClient = ollamaClient;
+        this.generationLimits = generationLimits;
+        this.tokenEstimator = tokenEstimator;
+    }
+
+    @PostMapping
+    @Operation(summary = "Submit a prompt to the ReAct agent; poll or stream the returned job")
+    public ResponseEntity<AgentJobView> submit(
+            @Valid @RequestBody AskRequest request,
+            Principal principal,
+            HttpServletRequest httpRequest) {
+
+        tokenEstimator.checkPrompt(request.getPrompt(), null);
+        String username = principal.getName();
+        GenerationOptions options = generationLimits.resolve(request, true, AskController.roles(principal));
+        if (!rateLimiterService.tryConsume(username)) {
+            auditLogService.logRequest(username, request.getPrompt(), null,
+                    ollamaClient.getModel(), false, true, null,
+                    429, 0L, httpRequest.getRemoteAddr());
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header("X-Rate-Limit-Remaining", String.valueOf(rateLimiterService.getRemainingTokens(username)))
+                    .header("Retry-After", "3600")
+                    .header("X-Rate-Limit-Capacity", String.valueOf(rateLimiterService.getCapacity()))
+                    .build();
+        }
+
+        AgentJobView job = agentJobService.submit(username, request.getPrompt(), options,
+                httpRequest.getRemoteAddr());
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.getId()))
+                .header("X-Rate-Limit-Remaining", String.valueOf(rateLimiterService.getRemainingTokens(username)))
+                .header("X-Rate-Limit-Capacity", String.valueOf(rateLimiterService.getCapacity()))
+                .body(job);
+    }
+
+    @GetMapping("/{id}")
+    @Operation(summary = "Job status, completed steps and (once finished) the redacted answer")
+    public ResponseEntity<AgentJobView> get(@PathVariable String id, Principal principal) {
+        return ResponseEntity.of(agentJobService.get(id, principal.getName()));
+    }
+
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @Operation(summary = "Server-sent events: one \"step\" per completed step, then \"done\"")
+    public ResponseEntity<SseEmitter> events(@PathVariable String id, Principal principal) {
+        return ResponseEntity.of(agentJobService.subscribe(id, principal.getName()));
+    }
+}
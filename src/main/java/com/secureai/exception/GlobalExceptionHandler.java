@@ -1,12 +1,21 @@
 package com.secureai.exception;
 
+import com.secureai.controller.AskController.AsyncReActException;
+import com.secureai.jobs.AgentJobService.JobRejectedException;
 import com.secureai.model.ErrorResponse;
+import com.secureai.service.AuditLogService.InvalidCursorException;
 import com.secureai.service.AuthService.AuthException;
+import com.secureai.service.BatchAskService.BatchTooLargeException;
+import com.secureai.service.GenerationLimits.GenerationLimitException;
+import com.secureai.service.AuthService.UserNotFoundException;
 import com.secureai.service.OllamaClient.OllamaException;
+import com.secureai.service.PasswordHashingService.HashingBusyException;
+import com.secureai.service.TokenEstimator.PromptTooLargeException;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.AccessDeniedException;
@@ -34,6 +43,12 @@ public class GlobalExceptionHandler {
                 .body(new ErrorResponse(401, "Unauthorized", ex.getMessage(), request.getRequestURI()));
     }
 
+    @ExceptionHandler(UserNotFoundException.class)
+    public ResponseEntity<ErrorResponse> handleUserNotFound(UserNotFoundException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.NOT_FOUND)
+                .body(new ErrorResponse(404, "Not Found", ex.getMessage(), request.getRequestURI()));
+    }
+
     @ExceptionHandler(OllamaException.class)
     public ResponseEntity<ErrorResponse> handleOllama(OllamaException ex, HttpServletRequest request) {
         log.error("Ollama error: {}", sanitizeLog(ex.getMessage()));
@@ -42,6 +57,56 @@ public class GlobalExceptionHandler {
                         "AI model is currently unavailable. Please try again.", request.getRequestURI()));
     }
 
+    @ExceptionHandler(HashingBusyException.class)
+    public ResponseEntity<ErrorResponse> handleHashingBusy(HashingBusyException ex, HttpServletRequest request) {
+        log.warn("Password hashing pool saturated at {}", sanitizeLog(request.getRequestURI()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(new ErrorResponse(503, "Service Unavailable", ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(JobRejectedException.class)
+    public ResponseEntity<ErrorResponse> handleJobRejected(JobRejectedException ex, HttpServletRequest request) {
+        log.warn("Agent job pool saturated at {}", sanitizeLog(request.getRequestURI()));
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "5")
+                .body(new ErrorResponse(503, "Service Unavailable", ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(InvalidCursorException.class)
+    public ResponseEntity<ErrorResponse> handleInvalidCursor(
+            InvalidCursorException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(400, "Bad Request", ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(BatchTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handleBatchTooLarge(
+            BatchTooLargeException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(400, "Bad Request", ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(GenerationLimitException.class)
+    public ResponseEntity<ErrorResponse> handleGenerationLimit(
+            GenerationLimitException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(400, "Bad Request", ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(AsyncReActException.class)
+    public ResponseEntity<ErrorResponse> handleAsyncReAct(AsyncReActException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST)
+                .body(new ErrorResponse(400, "Bad Request", ex.getMessage(), request.getRequestURI()));
+    }
+
+    @ExceptionHandler(PromptTooLargeException.class)
+    public ResponseEntity<ErrorResponse> handlePromptTooLarge(
+            PromptTooLargeException ex, HttpServletRequest request) {
+        return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                .body(new ErrorResponse(413, "Payload Too Large", ex.getMessage(), request.getRequestURI()));
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<ErrorResponse> handleValidation(
             MethodArgumentNotValidException ex, HttpServletRequest request) {
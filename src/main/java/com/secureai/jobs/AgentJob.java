@@ -0,0 +1,182 @@
+package com.secureai.jobs;
+
+import com.secureai.model.AgentJobView;
+import com.secureai.model.GenerationOptions;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+
+/**
+ * Mutable state of one asynchronous ReAct job. State is synchronized on the job;
+ * SSE sends are not. Under the lock each change queues its sends (against a
+ * snapshot of the subscribers) in an outbox, and the outbox is drained in order
+ * by one thread at a time after the lock is released. A subscriber's replay is
+ * queued the same way, so it never misses or duplicates a step, and a slow
+ * client never blocks the worker's state changes or {@link #view()}.
+ */
+final class AgentJob {
+
+    enum Status { QUEUED, RUNNING, SUCCEEDED, FAILED }
+
+    final String id;
+    final String username;
+    final String prompt;
+    final GenerationOptions options;
+    final String ipAddress;
+    final LocalDateTime createdAt;
+    private final int maxSteps;
+
+    private Status status = Status.QUEUED;
+    private final List<AgentJobView.Step> steps = new ArrayList<>();
+    private final List<SseEmitter> subscribers = new ArrayList<>();
+    private final Queue<Runnable> outbox = new ArrayDeque<>();
+    private boolean delivering;
+    private String answer;
+    private boolean piiDetected;
+    private String error;
+    private LocalDateTime finishedAt;
+
+    AgentJob(String id, String username, String prompt, GenerationOptions options, String ipAddress, int maxSteps,
+             LocalDateTime createdAt) {
+        this.id = id;
+        this.username = username;
+        this.prompt = prompt;
+        this.options = options;
+        this.ipAddress = ipAddress;
+        this.maxSteps = maxSteps;
+        this.createdAt = createdAt;
+    }
+
+    synchronized void start() {
+        status = Status.RUNNING;
+    }
+
+    void addStep(AgentJobView.Step step) {
+        synchronized (this) {
+            steps.add(step);
+            publish("step", step);
+        }
+        deliver();
+    }
+
+    void succeed(String answer, boolean piiDetected, LocalDateTime now) {
+        synchronized (this) {
+            this.answer = answer;
+            this.piiDetected = piiDetected;
+            finish(Status.SUCCEEDED, now);
+        }
+        deliver();
+    }
+
+    void fail(String error, LocalDateTime now) {
+        synchronized (this) {
+            this.error = error;
+            finish(Status.FAILED, now);
+        }
+        deliver();
+    }
+
+    synchronized boolean isFinished() {
+        return finishedAt != null;
+    }
+
+    synchronized boolean finishedBefore(LocalDateTime cutoff) {
+        return finishedAt != null && finishedAt.isBefore(cutoff);
+    }
+
+    synchronized AgentJobView view() {
+        return new AgentJobView(id, status.name(), maxSteps, List.copyOf(steps), answer, piiDetected, error,
+                createdAt, finishedAt);
+    }
+
+    /**
+     * Replay completed steps to {@code emitter}, then stream the rest. A finished
+     * job sends its final state and completes the stream immediately.
+     */
+    void subscribe(SseEmitter emitter) {
+        synchronized (this) {
+            List<AgentJobView.Step> replay = List.copyOf(steps);
+            AgentJobView done = isFinished() ? view() : null;
+            if (done == null) {
+                subscribers.add(emitter);
+                emitter.onCompletion(() -> unsubscribe(emitter));
+                emitter.onTimeout(() -> unsubscribe(emitter));
+            }
+            outbox.add(() -> {
+                try {
+                    for (AgentJobView.Step step : replay) {
+                        emitter.send(SseEmitter.event().name("step").data(step));
+                    }
+                    if (done != null) {
+                        emitter.send(SseEmitter.event().name("done").data(done));
+                        emitter.complete();
+                    }
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(emitter);
+                    emitter.completeWithError(e);
+                }
+            });
+        }
+        deliver();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private synchronized void unsubscribe(SseEmitter emitter) {
+        subscribers.remove(emitter);
+    }
+
+    private void finish(Status finalStatus, LocalDateTime now) {
+        status = finalStatus;
+        finishedAt = now;
+        publish("done", view());
+        List<SseEmitter> streams = List.copyOf(subscribers);
+        subscribers.clear();
+        outbox.add(() -> streams.forEach(SseEmitter::complete));
+    }
+
+    /** Queue {@code event} for the current subscribers; caller holds the lock and then calls {@link #deliver()}. */
+    private void publish(String event, Object data) {
+        List<SseEmitter> targets = List.copyOf(subscribers);
+        outbox.add(() -> {
+            for (SseEmitter emitter : targets) {
+                try {
+                    emitter.send(SseEmitter.event().name(event).data(data));
+                } catch (IOException | IllegalStateException e) {
+                    unsubscribe(emitter);   // client went away — the job carries on without it
+                }
+            }
+        });
+    }
+
+    /**
+     * Run queued sends in order without holding the lock. Only one thread drains at a
+     * time; a thread that finds another draining leaves its sends to that thread.
+     */
+    private void deliver() {
+        synchronized (this) {
+            if (delivering) return;
+            delivering = true;
+        }
+        while (true) {
+            Runnable next;
+            synchronized (this) {
+                next = outbox.poll();
+                if (next == null) {
+                    delivering = false;
+                    return;
+                }
+            }
+            try {
+                next.run();
+            } catch (RuntimeException e) {
+                // one broken stream must not stall delivery to the others
+            }
+        }
+    }
+}
@@ -0,0 +1,224 @@
+package com.secureai.jobs;
+
+import com.secureai.agent.ReActAgentService;
+import com.secureai.model.AgentJobView;
+import com.secureai.model.GenerationOptions;
+import com.secureai.pii.PiiRedactionService;
+import com.secureai.service.AuditLogService;
+import com.secureai.service.ModelRouter;
+import com.secureai.service.OllamaClient;
+import com.secureai.service.TokenEstimator;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Agent Job Service — ReAct requests run off the request thread
+ *
+ * Lifecycle: QUEUED → RUNNING → SUCCEEDED | FAILED
+ *  - {@link #submit} registers the job and hands it to a bounded pool
+ *    ({@code jobs.threads} workers, {@code jobs.queue-capacity} waiting); a full
+ *    pool or store is rejected with {@link JobRejectedException} (HTTP 503)
+ *  - Each completed step is PII-redacted, stored on the job and pushed to SSE
+ *    subscribers; the final answer is redacted and audited exactly like /api/ask
+ *  - Finished jobs are kept for {@code jobs.ttl-minutes}, and at most
+ *    {@code jobs.max-jobs} are held — the oldest finished job makes room first
+ *
+ * Jobs are visible only to the user who submitted them. State is in memory:
+ * a restart loses queued and running jobs.
+ */
+@Service
+public class AgentJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(AgentJobService.class);
+
+    private final ReActAgentService reActAgentService;
+    private final PiiRedactionService piiRedactionService;
+    private final AuditLogService auditLogService;
+    private final ModelRouter modelRouter;
+    private final Clock clock;
+
+    private final Map<String, AgentJob> jobs = new ConcurrentHashMap<>();
+    // One permit per stored job, taken before the put and returned by discard()
+    private final Semaphore slots;
+    private final ThreadPoolExecutor executor;
+    private final long ttlMinutes;
+    private final long sseTimeoutMs;
+    private final int maxSteps;
+
+    @Autowired
+    public AgentJobService(ReActAgentService reActAgentService, PiiRedactionService piiRedactionService,
+                           AuditLogService auditLogService, ModelRouter modelRouter,
+                           @Value("${jobs.threads:4}") int threads,
+                           @Value("${jobs.queue-capacity:32}") int queueCapacity,
+                           @Value("${jobs.max-jobs:1000}") int maxJobs,
+                           @Value("${jobs.ttl-minutes:15}") long ttlMinutes,
+                           @Value("${jobs.sse-timeout-ms:600000}") long sseTimeoutMs,
+                           @Value("${ollama.react.max-steps:10}") int maxSteps) {
+        this(reActAgentService, piiRedactionService, auditLogService, modelRouter,
+                threads, queueCapacity, maxJobs, ttlMinutes, sseTimeoutMs, maxSteps, Clock.systemDefaultZone());
+    }
+
+    AgentJobService(ReActAgentService reActAgentService, PiiRedactionService piiRedactionService,
+                    AuditLogService auditLogService, ModelRouter modelRouter,
+                    int threads, int queueCapacity, int maxJobs, long ttlMinutes, long sseTimeoutMs,
+                    int maxSteps, Clock clock) {
+        this.reActAgentService = reActAgentService;
+        this.piiRedactionService = piiRedactionService;
+        this.auditLogService = auditLogService;
+        this.modelRouter = modelRouter;
+        this.slots = new Semaphore(maxJobs);
+        this.ttlMinutes = ttlMinutes;
+        this.sseTimeoutMs = sseTimeoutMs;
+        this.maxSteps = maxSteps;
+        this.clock = clock;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "agent-job-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Queue a ReAct run for {@code username}, with {@code options} applied to its reasoning steps.
+     *
+     * @return the new job in QUEUED state
+     * @throws JobRejectedException when the pool or the job store is full
+     */
+    public AgentJobView submit(String username, String prompt, GenerationOptions options, String ipAddress) {
+        // The evicted job's slot may go to a concurrent submit, hence the second tryAcquire
+        if (!slots.tryAcquire() && !(evictOldestFinished() && slots.tryAcquire())) {
+            throw new JobRejectedException();
+        }
+        AgentJob job = new AgentJob(UUID.randomUUID().toString(), username, prompt, options, ipAddress,
+                maxSteps, LocalDateTime.now(clock));
+        jobs.put(job.id, job);
+        try {
+            executor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            discard(job);
+            throw new JobRejectedException();
+        }
+        return job.view();
+    }
+
+    public Optional<AgentJobView> get(String id, String username) {
+        return owned(id, username).map(AgentJob::view);
+    }
+
+    /**
+     * Open an SSE stream of the job's steps: replayed from the start, then live,
+     * ending with a "done" event carrying the final job state.
+     */
+    public Optional<SseEmitter> subscribe(String id, String username) {
+        return owned(id, username).map(job -> {
+            SseEmitter emitter = new SseEmitter(sseTimeoutMs);
+            job.subscribe(emitter);
+            return emitter;
+        });
+    }
+
+    /**
+     * Drop finished jobs older than the TTL.
+     */
+    @Scheduled(fixedDelayString = "${jobs.sweep-interval-ms:60000}")
+    public void evictExpired() {
+        LocalDateTime cutoff = LocalDateTime.now(clock).minusMinutes(ttlMinutes);
+        jobs.values().stream().filter(job -> job.finishedBefore(cutoff)).toList().forEach(this::discard);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    void run(AgentJob job) {
+        job.start();
+        long startTime = System.nanoTime();
+        try {
+            ReActAgentService.AgentResult result = reActAgentService.execute(job.prompt, job.options,
+                    step -> job.addStep(redact(step)));
+
+            boolean piiDetected = piiRedactionService.containsPii(result.answer);
+            String finalResponse = piiDetected ? piiRedactionService.redact(result.answer) : result.answer;
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+
+            auditLogService.logRequest(job.username, job.prompt, finalResponse, modelRouter.reactModel(),
+                    piiDetected, false, result.totalSteps, 200, durationMs, job.ipAddress, result.stats,
+                    job.options);
+            job.succeed(finalResponse, piiDetected, LocalDateTime.now(clock));
+            log.info("Job {} for '{}' finished in {} step(s), {} ms",
+                    job.id, sanitizeLog(job.username), result.totalSteps, durationMs);
+        } catch (TokenEstimator.PromptTooLargeException e) {
+            log.info("Job {} failed: {}", job.id, e.getMessage());
+            job.fail(e.getMessage(), LocalDateTime.now(clock));   // same message as /api/ask's 413
+        } catch (OllamaClient.OllamaException e) {
+            log.warn("Job {} failed: {}", job.id, sanitizeLog(e.getMessage()));
+            job.fail("AI model is currently unavailable. Please try again.", LocalDateTime.now(clock));
+        } catch (Exception e) {
+            log.error("Job {} failed: {}", job.id, sanitizeLog(e.getMessage()), e);
+            job.fail("The agent failed to complete this request.", LocalDateTime.now(clock));
+        }
+    }
+
+    private AgentJobView.Step redact(ReActAgentService.AgentStep step) {
+        return new AgentJobView.Step(step.stepNumber, redact(step.thought), step.action,
+                redact(step.actionInput), redact(step.observation));
+    }
+
+    private String redact(String text) {
+        return text != null && piiRedactionService.containsPii(text) ? piiRedactionService.redact(text) : text;
+    }
+
+    private Optional<AgentJob> owned(String id, String username) {
+        return Optional.ofNullable(jobs.get(id)).filter(job -> job.username.equals(username));
+    }
+
+    private boolean evictOldestFinished() {
+        return jobs.values().stream()
+                .filter(AgentJob::isFinished)
+                .min(Comparator.comparing(job -> job.createdAt))
+                .map(this::discard)
+                .orElse(false);
+    }
+
+    /** Remove {@code job} and return its slot; false if another thread removed it first. */
+    private boolean discard(AgentJob job) {
+        if (!jobs.remove(job.id, job)) return false;
+        slots.release();
+        return true;
+    }
+
+    /** Strips CR and LF to prevent CRLF injection in log messages. */
+    private static String sanitizeLog(String value) {
+        if (value == null) return "(null)";
+        return value.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    public static class JobRejectedException extends RuntimeException {
+        public JobRejectedException() { super("Too many agent jobs in progress. Please retry shortly."); }
+    }
+}
@@ -0,0 +1,83 @@
+package com.secureai.metrics;
+
+import io.micrometer.core.instrument.LongTaskTimer;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pipeline Metrics — per-stage latency for the /api/ask pipeline
+ *
+ * Meters (all exported at /actuator/prometheus with percentile histograms):
+ *  - gateway.stage        Timer, tag stage = jwt_filter | rate_limit | semantic_cache |
+ *                         ollama | react_step | pii_scan | audit_enqueue
+ *  - gateway.react.tool   Timer, tag tool  = calculate | search_knowledge | summarize | unknown
+ *  - gateway.ask.active   LongTaskTimer, tag mode = direct | react (in-flight requests)
+ *
+ * Callers take {@code System.nanoTime()} at the start of a stage and pass it to
+ * {@link #recordStage(String, long)} — no wall-clock time is involved, so NTP
+ * adjustments cannot produce negative or skewed durations.
+ *
+ * Tool names come from LLM output, so they are normalised against a fixed set
+ * before being used as a tag to keep Prometheus series cardinality bounded.
+ */
+@Component
+public class PipelineMetrics {
+
+    public static final String STAGE_JWT_FILTER = "jwt_filter";
+    public static final String STAGE_RATE_LIMIT = "rate_limit";
+    public static final String STAGE_SEMANTIC_CACHE = "semantic_cache";
+    public static final String STAGE_OLLAMA = "ollama";
+    public static final String STAGE_REACT_STEP = "react_step";
+    public static final String STAGE_PII_SCAN = "pii_scan";
+    public static final String STAGE_AUDIT_ENQUEUE = "audit_enqueue";
+
+    private static final Set<String> KNOWN_TOOLS = Set.of("calculate", "search_knowledge", "summarize");
+
+    private final MeterRegistry meterRegistry;
+
+    public PipelineMetrics(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    /**
+     * Record the duration of a pipeline stage that started at {@code startNanos}.
+     */
+    public void recordStage(String stage, long startNanos) {
+        Timer.builder("gateway.stage")
+                .description("Latency of each /api/ask pipeline stage")
+                .tag("stage", stage)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record the duration of a ReAct tool execution that started at {@code startNanos}.
+     */
+    public void recordTool(String tool, long startNanos) {
+        String normalised = tool == null ? "unknown" : tool.toLowerCase(Locale.ROOT).trim();
+        Timer.builder("gateway.react.tool")
+                .description("Latency of each ReAct tool execution")
+                .tag("tool", KNOWN_TOOLS.contains(normalised) ? normalised : "unknown")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Start tracking an in-flight request. The caller must stop the sample in a finally block.
+     */
+    public LongTaskTimer.Sample startRequest(boolean react) {
+        return LongTaskTimer.builder("gateway.ask.active")
+                .description("In-flight /api/ask requests")
+                .tag("mode", react ? "react" : "direct")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .start();
+    }
+}
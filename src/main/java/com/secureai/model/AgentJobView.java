@@ -0,0 +1,67 @@
+package com.secureai.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Snapshot of an asynchronous ReAct job, as returned by GET /api/jobs/{id}.
+ * Step text and the answer are PII-redacted.
+ */
+public class AgentJobView {
+    private final String id;
+    private final String status;
+    private final int stepsCompleted;
+    private final int maxSteps;
+    private final List<Step> steps;
+    private final String answer;
+    private final boolean piiDetected;
+    private final String error;
+    private final LocalDateTime createdAt;
+    private final LocalDateTime finishedAt;
+
+    public AgentJobView(String id, String status, int maxSteps, List<Step> steps, String answer,
+                        boolean piiDetected, String error, LocalDateTime createdAt, LocalDateTime finishedAt) {
+        this.id = id;
+        this.status = status;
+        this.stepsCompleted = steps.size();
+        this.maxSteps = maxSteps;
+        this.steps = steps;
+        this.answer = answer;
+        this.piiDetected = piiDetected;
+        this.error = error;
+        this.createdAt = createdAt;
+        this.finishedAt = finishedAt;
+    }
+    public String getId() { return id; }
+    public String getStatus() { return status; }
+    public int getStepsCompleted() { return stepsCompleted; }
+    public int getMaxSteps() { return maxSteps; }
+    public List<Step> getSteps() { return steps; }
+    public String getAnswer() { return answer; }
+    public boolean isPiiDetected() { return piiDetected; }
+    public String getError() { return error; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public LocalDateTime getFinishedAt() { return finishedAt; }
+
+    /** One completed ReAct step. */
+    public static class Step {
+        private final int stepNumber;
+        private final String thought;
+        private final String action;
+        private final String actionInput;
+        private final String observation;
+
+        public Step(int stepNumber, String thought, String action, String actionInput, String observation) {
+            this.stepNumber = stepNumber;
+            this.thought = thought;
+            this.action = action;
+            this.actionInput = actionInput;
+            this.observation = observation;
+        }
+        public int getStepNumber() { return stepNumber; }
+        public String getThought() { return thought; }
+        public String getAction() { return action; }
+        public String getActionInput() { return actionInput; }
+        public String getObservation() { return observation; }
+    }
+}
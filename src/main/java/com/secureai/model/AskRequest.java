@@ -1,16 +1,43 @@
 package com.secureai.model;
 
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
 import jakarta.validation.constraints.Size;
 
+import java.util.List;
+
 public class AskRequest {
     @NotBlank(message = "Prompt cannot be empty")
     @Size(min = 1, max = 4000, message = "Prompt must be 1-4000 characters")
     private String prompt;
     private boolean useReActAgent = false;
+    /** Optional routing hint: "fast" or "quality"; see ModelRouter. */
+    @Pattern(regexp = "fast|quality", message = "modelTier must be 'fast' or 'quality'")
+    private String modelTier;
+    /** Optional cap on generated tokens; at most the caller's role ceiling (GenerationLimits). */
+    @Positive(message = "maxTokens must be positive")
+    private Integer maxTokens;
+    @DecimalMin(value = "0.0", message = "temperature must be between 0 and 2")
+    @DecimalMax(value = "2.0", message = "temperature must be between 0 and 2")
+    private Double temperature;
+    @Size(max = 4, message = "At most 4 stop sequences")
+    private List<@NotEmpty(message = "Stop sequences cannot be empty")
+                 @Size(max = 32, message = "Stop sequences must be at most 32 characters") String> stop;
 
     public String getPrompt() { return prompt; }
     public void setPrompt(String prompt) { this.prompt = prompt; }
     public boolean isUseReActAgent() { return useReActAgent; }
     public void setUseReActAgent(boolean useReActAgent) { this.useReActAgent = useReActAgent; }
+    public String getModelTier() { return modelTier; }
+    public void setModelTier(String modelTier) { this.modelTier = modelTier; }
+    public Integer getMaxTokens() { return maxTokens; }
+    public void setMaxTokens(Integer maxTokens) { this.maxTokens = maxTokens; }
+    public Double getTemperature() { return temperature; }
+    public void setTemperature(Double temperature) { this.temperature = temperature; }
+    public List<String> getStop() { return stop; }
+    public void setStop(List<String> stop) { this.stop = stop; }
 }
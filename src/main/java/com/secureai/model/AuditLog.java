@@ -11,7 +11,11 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "audit_logs")
+@Table(name = "audit_logs",
+       indexes = {
+           @Index(name = "idx_audit_user_created", columnList = "username, created_at DESC, id DESC"),
+           @Index(name = "idx_audit_pii_created", columnList = "pii_detected, created_at DESC, id DESC")
+       })
 @EntityListeners(AuditingEntityListener.class)
 @Data
 @Builder
@@ -29,6 +33,10 @@ public class AuditLog {
     @Column(columnDefinition = "TEXT")
     private String prompt;
 
+    /** Start of the prompt, written at insert so listings never read the TEXT column. */
+    @Column(name = "prompt_preview", length = AuditLogSummary.PROMPT_PREVIEW_LENGTH)
+    private String promptPreview;
+
     @Column(columnDefinition = "TEXT")
     private String response;       // Always PII-redacted before persisting
 
@@ -55,6 +63,36 @@ public class AuditLog {
     @Column(name = "ip_address", length = 50)
     private String ipAddress;
 
+    // ── Ollama telemetry (summed across calls for ReAct runs) ──────────────
+    @Column(name = "ollama_total_ms")
+    private Long ollamaTotalMs;
+
+    @Column(name = "ollama_load_ms")
+    private Long ollamaLoadMs;
+
+    @Column(name = "prompt_eval_count")
+    private Integer promptEvalCount;
+
+    @Column(name = "prompt_eval_ms")
+    private Long promptEvalMs;
+
+    @Column(name = "eval_count")
+    private Integer evalCount;
+
+    @Column(name = "eval_ms")
+    private Long evalMs;
+
+    // ── Client generation options (null = server default) ─────────────────
+    @Column(name = "max_tokens")
+    private Integer maxTokens;
+
+    @Column(name = "temperature")
+    private Double temperature;
+
+    /** JSON array of the request's stop sequences; null when none were sent. */
+    @Column(name = "stop_sequences", length = 1000)
+    private String stopSequences;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
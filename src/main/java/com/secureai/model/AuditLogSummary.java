@@ -0,0 +1,65 @@
+package com.secureai.model;
+
+import java.time.LocalDateTime;
+
+/**
+ * Listing view of an {@link AuditLog} — metadata columns plus a short prompt preview.
+ *
+ * Populated by JPQL constructor expressions so listing queries never read the
+ * prompt/response TEXT columns; the preview comes from the prompt_preview column
+ * written at insert. Fetch the entity by id for the full record.
+ */
+public class AuditLogSummary {
+
+    public static final int PROMPT_PREVIEW_LENGTH = 80;
+
+    private final Long id;
+    private final String username;
+    private final String model;
+    private final boolean piiDetected;
+    private final boolean rateLimited;
+    private final Integer reactSteps;
+    private final Integer statusCode;
+    private final Long durationMs;
+    private final LocalDateTime createdAt;
+    private final String promptPreview;
+
+    public AuditLogSummary(Long id, String username, String model, boolean piiDetected,
+                           boolean rateLimited, Integer reactSteps, Integer statusCode,
+                           Long durationMs, LocalDateTime createdAt, String promptPreview) {
+        this.id = id;
+        this.username = username;
+        this.model = model;
+        this.piiDetected = piiDetected;
+        this.rateLimited = rateLimited;
+        this.reactSteps = reactSteps;
+        this.statusCode = statusCode;
+        this.durationMs = durationMs;
+        this.createdAt = createdAt;
+        this.promptPreview = promptPreview;
+    }
+    /** Summary of a fully loaded entry (e.g. one read back from the archive). */
+    public static AuditLogSummary of(AuditLog entry) {
+        return new AuditLogSummary(entry.getId(), entry.getUsername(), entry.getModel(),
+                entry.isPiiDetected(), entry.isRateLimited(), entry.getReactSteps(),
+                entry.getStatusCode(), entry.getDurationMs(), entry.getCreatedAt(),
+                entry.getPromptPreview() != null ? entry.getPromptPreview() : preview(entry.getPrompt()));
+    }
+
+    /** The first {@value #PROMPT_PREVIEW_LENGTH} characters of {@code prompt}. */
+    public static String preview(String prompt) {
+        return prompt == null || prompt.length() <= PROMPT_PREVIEW_LENGTH
+                ? prompt : prompt.substring(0, PROMPT_PREVIEW_LENGTH);
+    }
+
+    public Long getId() { return id; }
+    public String getUsername() { return username; }
+    public String getModel() { return model; }
+    public boolean isPiiDetected() { return piiDetected; }
+    public boolean isRateLimited() { return rateLimited; }
+    public Integer getReactSteps() { return reactSteps; }
+    public Integer getStatusCode() { return statusCode; }
+    public Long getDurationMs() { return durationMs; }
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public String getPromptPreview() { return promptPreview; }
+}
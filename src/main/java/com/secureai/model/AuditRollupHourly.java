@@ -0,0 +1,60 @@
+package com.secureai.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Hourly usage aggregate per (hour, username, model), maintained incrementally
+ * from audit writes by AuditRollupService. Reporting reads these rows instead of
+ * scanning audit_logs. Unknown username/model are stored as "" so the unique key
+ * stays usable (NULLs never collide in a unique index).
+ */
+@Entity
+@Table(name = "audit_rollup_hourly",
+       uniqueConstraints = @UniqueConstraint(name = "uk_rollup_hour_user_model",
+                                             columnNames = {"hour_start", "username", "model"}))
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AuditRollupHourly {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "hour_start", nullable = false)
+    private LocalDateTime hourStart;
+
+    @Column(nullable = false, length = 100)
+    private String username;
+
+    @Column(nullable = false, length = 100)
+    private String model;
+
+    @Column(name = "request_count", nullable = false)
+    private long requestCount;
+
+    @Column(name = "pii_count", nullable = false)
+    private long piiCount;
+
+    @Column(name = "rate_limited_count", nullable = false)
+    private long rateLimitedCount;
+
+    @Column(name = "duration_sum_ms", nullable = false)
+    private long durationSumMs;
+
+    @Column(name = "duration_max_ms", nullable = false)
+    private long durationMaxMs;
+
+    @Column(name = "prompt_tokens", nullable = false)
+    private long promptTokens;
+
+    @Column(name = "completion_tokens", nullable = false)
+    private long completionTokens;
+}
@@ -0,0 +1,16 @@
+package com.secureai.model;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public class BatchAskRequest {
+    @NotEmpty(message = "Prompts cannot be empty")
+    private List<@NotBlank(message = "Prompt cannot be empty")
+                 @Size(max = 4000, message = "Prompt must be 1-4000 characters") String> prompts;
+
+    public List<String> getPrompts() { return prompts; }
+    public void setPrompts(List<String> prompts) { this.prompts = prompts; }
+}
@@ -0,0 +1,27 @@
+package com.secureai.model;
+
+/**
+ * One NDJSON line of a /api/ask/batch response. Lines are written in completion
+ * order; {@code index} is the position of the prompt in the request.
+ * Exactly one of {@code response} and {@code error} is set.
+ */
+public class BatchAskResult {
+    private final int index;
+    private final String response;
+    private final boolean piiRedacted;
+    private final long durationMs;
+    private final String error;
+
+    public BatchAskResult(int index, String response, boolean piiRedacted, long durationMs, String error) {
+        this.index = index;
+        this.response = response;
+        this.piiRedacted = piiRedacted;
+        this.durationMs = durationMs;
+        this.error = error;
+    }
+    public int getIndex() { return index; }
+    public String getResponse() { return response; }
+    public boolean isPiiRedacted() { return piiRedacted; }
+    public long getDurationMs() { return durationMs; }
+    public String getError() { return error; }
+}
@@ -0,0 +1,26 @@
+package com.secureai.model;
+
+import java.util.List;
+
+/**
+ * One page of a keyset-paginated listing.
+ *
+ * {@code nextCursor} is an opaque token to pass back as {@code ?cursor=} for the
+ * following page; it is null when there are no more results. No total count is
+ * computed — that would reintroduce the full scan keyset pagination avoids.
+ */
+public class CursorPage<T> {
+    private final List<T> content;
+    private final int size;
+    private final String nextCursor;
+
+    public CursorPage(List<T> content, int size, String nextCursor) {
+        this.content = content;
+        this.size = size;
+        this.nextCursor = nextCursor;
+    }
+    public List<T> getContent() { return content; }
+    public int getSize() { return size; }
+    public String getNextCursor() { return nextCursor; }
+    public boolean isHasNext() { return nextCursor != null; }
+}
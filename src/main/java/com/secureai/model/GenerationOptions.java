@@ -0,0 +1,38 @@
+package com.secureai.model;
+
+import java.util.List;
+
+/**
+ * Per-request limits on one generation, sent to Ollama as options:
+ *  - maxTokens   : num_predict — hard cap on generated tokens
+ *  - temperature : sampling temperature; null = the gateway default
+ *  - stop        : stop sequences; generation ends at the first match
+ *
+ * Built by GenerationLimits from an {@link AskRequest} after checking the
+ * caller's role ceilings. Instances are immutable.
+ */
+public class GenerationOptions {
+
+    /** Server defaults: OllamaClient.NUM_PREDICT tokens, default temperature, no stop sequences. */
+    public static final GenerationOptions DEFAULT = new GenerationOptions(null, null, List.of());
+
+    private final Integer maxTokens;
+    private final Double temperature;
+    private final List<String> stop;
+
+    public GenerationOptions(Integer maxTokens, Double temperature, List<String> stop) {
+        this.maxTokens = maxTokens;
+        this.temperature = temperature;
+        this.stop = stop == null ? List.of() : List.copyOf(stop);
+    }
+
+    public Integer getMaxTokens() { return maxTokens; }
+    public Double getTemperature() { return temperature; }
+    public List<String> getStop() { return stop; }
+
+    @Override
+    public String toString() {
+        return "GenerationOptions{maxTokens=" + maxTokens + ", temperature=" + temperature
+                + ", stop=" + stop.size() + "}";
+    }
+}
@@ -0,0 +1,86 @@
+package com.secureai.model;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timing and token telemetry reported by Ollama for one /api/generate call.
+ *
+ * Ollama reports durations in nanoseconds:
+ *  - total_duration       : wall time spent inside Ollama for the request
+ *  - load_duration        : time spent loading the model into memory (cold start)
+ *  - prompt_eval_duration : time spent evaluating the prompt (prefill)
+ *  - eval_duration        : time spent generating tokens (decode)
+ *
+ * A value of 0 means Ollama did not report the field. Instances are immutable;
+ * {@link #plus(GenerationStats)} is used to aggregate the calls of a ReAct run.
+ */
+public class GenerationStats {
+
+    public static final GenerationStats EMPTY = new GenerationStats(null, 0, 0, 0, 0, 0, 0);
+
+    private final String model;
+    private final long totalDurationNs;
+    private final long loadDurationNs;
+    private final int promptEvalCount;
+    private final long promptEvalDurationNs;
+    private final int evalCount;
+    private final long evalDurationNs;
+
+    public GenerationStats(String model, long totalDurationNs, long loadDurationNs,
+                           int promptEvalCount, long promptEvalDurationNs,
+                           int evalCount, long evalDurationNs) {
+        this.model = model;
+        this.totalDurationNs = totalDurationNs;
+        this.loadDurationNs = loadDurationNs;
+        this.promptEvalCount = promptEvalCount;
+        this.promptEvalDurationNs = promptEvalDurationNs;
+        this.evalCount = evalCount;
+        this.evalDurationNs = evalDurationNs;
+    }
+
+    public String getModel() { return model; }
+    public long getTotalDurationNs() { return totalDurationNs; }
+    public long getLoadDurationNs() { return loadDurationNs; }
+    public int getPromptEvalCount() { return promptEvalCount; }
+    public long getPromptEvalDurationNs() { return promptEvalDurationNs; }
+    public int getEvalCount() { return evalCount; }
+    public long getEvalDurationNs() { return evalDurationNs; }
+
+    /** Time from request arrival in Ollama to the first generated token (load + prefill). */
+    public long getTimeToFirstTokenNs() {
+        return loadDurationNs + promptEvalDurationNs;
+    }
+
+    /** Time Ollama spent on the request outside load, prefill and decode — i.e. queueing. */
+    public long getQueueDurationNs() {
+        return Math.max(0L, totalDurationNs - loadDurationNs - promptEvalDurationNs - evalDurationNs);
+    }
+
+    /** Decode throughput; 0 when Ollama did not report eval timing. */
+    public double getTokensPerSecond() {
+        if (evalCount <= 0 || evalDurationNs <= 0) return 0.0;
+        return evalCount / (evalDurationNs / (double) TimeUnit.SECONDS.toNanos(1));
+    }
+
+    public boolean isReported() {
+        return totalDurationNs > 0 || evalCount > 0;
+    }
+
+    /** Sums two sets of stats; the model of the left-hand side wins unless it is absent. */
+    public GenerationStats plus(GenerationStats other) {
+        if (other == null) return this;
+        return new GenerationStats(
+                model != null ? model : other.model,
+                totalDurationNs + other.totalDurationNs,
+                loadDurationNs + other.loadDurationNs,
+                promptEvalCount + other.promptEvalCount,
+                promptEvalDurationNs + other.promptEvalDurationNs,
+                evalCount + other.evalCount,
+                evalDurationNs + other.evalDurationNs);
+    }
+
+    /** Converts a nanosecond value to milliseconds for persistence; 0 (unreported) maps to null. */
+    public static Long toMillis(long nanos) {
+        return nanos > 0 ? TimeUnit.NANOSECONDS.toMillis(nanos) : null;
+    }
+}
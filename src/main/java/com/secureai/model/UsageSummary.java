@@ -0,0 +1,40 @@
+package com.secureai.model;
+
+/**
+ * Usage totals for one key (a username or a model) over a reporting window,
+ * aggregated from audit_rollup_hourly.
+ */
+public class UsageSummary {
+    private final String key;
+    private final long requests;
+    private final long piiDetections;
+    private final long rateLimited;
+    private final long durationSumMs;
+    private final long maxDurationMs;
+    private final long promptTokens;
+    private final long completionTokens;
+
+    public UsageSummary(String key, Long requests, Long piiDetections, Long rateLimited,
+                        Long durationSumMs, Long maxDurationMs, Long promptTokens, Long completionTokens) {
+        this.key = key;
+        this.requests = nz(requests);
+        this.piiDetections = nz(piiDetections);
+        this.rateLimited = nz(rateLimited);
+        this.durationSumMs = nz(durationSumMs);
+        this.maxDurationMs = nz(maxDurationMs);
+        this.promptTokens = nz(promptTokens);
+        this.completionTokens = nz(completionTokens);
+    }
+    public String getKey() { return key; }
+    public long getRequests() { return requests; }
+    public long getPiiDetections() { return piiDetections; }
+    public long getRateLimited() { return rateLimited; }
+    public double getAvgDurationMs() { return requests > 0 ? (double) durationSumMs / requests : 0.0; }
+    public long getMaxDurationMs() { return maxDurationMs; }
+    public long getPromptTokens() { return promptTokens; }
+    public long getCompletionTokens() { return completionTokens; }
+
+    private static long nz(Long value) {
+        return value == null ? 0L : value;
+    }
+}
@@ -1,24 +1,91 @@
 package com.secureai.repository;
 
 import com.secureai.model.AuditLog;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.Pageable;
+import com.secureai.model.AuditLogSummary;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
 
-    Page<AuditLog> findByUsernameOrderByCreatedAtDesc(String username, Pageable pageable);
+    String SUMMARY = "SELECT new com.secureai.model.AuditLogSummary(a.id, a.username, a.model, " +
+            "a.piiDetected, a.rateLimited, a.reactSteps, a.statusCode, a.durationMs, a.createdAt, " +
+            "a.promptPreview) ";
 
-    Page<AuditLog> findAllByOrderByCreatedAtDesc(Pageable pageable);
+    // ── Keyset pagination on (created_at DESC, id DESC) — no OFFSET, no count(*) ──
+    // Listings select SUMMARY columns only; prompt/response TEXT is read via findById.
 
-    List<AuditLog> findByPiiDetectedTrueOrderByCreatedAtDesc();
+    @Query(SUMMARY + "FROM AuditLog a ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLogSummary> findLatest(Limit limit);
+
+    // created_at <= :createdAt bounds the range on idx_audit_created_at; the OR only trims ties
+    @Query(SUMMARY + "FROM AuditLog a WHERE a.createdAt <= :createdAt " +
+           "AND (a.createdAt < :createdAt OR a.id < :id) ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLogSummary> findLatestBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id,
+                                           Limit limit);
+
+    @Query(SUMMARY + "FROM AuditLog a WHERE a.username = :username ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLogSummary> findLatestByUsername(@Param("username") String username, Limit limit);
+
+    // created_at <= :createdAt bounds the range on idx_audit_user_created; the OR only trims ties
+    @Query(SUMMARY + "FROM AuditLog a WHERE a.username = :username AND a.createdAt <= :createdAt " +
+           "AND (a.createdAt < :createdAt OR a.id < :id) ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLogSummary> findLatestByUsernameBefore(@Param("username") String username,
+                                                     @Param("createdAt") LocalDateTime createdAt,
+                                                     @Param("id") long id, Limit limit);
+
+    @Query(SUMMARY + "FROM AuditLog a WHERE a.piiDetected = true ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLogSummary> findPiiAlerts(Limit limit);
+
+    @Query(SUMMARY + "FROM AuditLog a WHERE a.piiDetected = true AND a.createdAt <= :createdAt " +
+           "AND (a.createdAt < :createdAt OR a.id < :id) ORDER BY a.createdAt DESC, a.id DESC")
+    List<AuditLogSummary> findPiiAlertsBefore(@Param("createdAt") LocalDateTime createdAt, @Param("id") long id,
+                                              Limit limit);
+
+    /**
+     * All PII alerts, newest first, as a forward-only cursor. Must be consumed inside a
+     * transaction and closed; rows are fetched from the driver in batches of 500.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuditLog a WHERE a.piiDetected = true ORDER BY a.createdAt DESC, a.id DESC")
+    Stream<AuditLog> streamPiiAlerts();
+
+    // ── Cold-storage archiving ──────────────────────────────────────────────
+
+    @Query("SELECT MIN(a.createdAt) FROM AuditLog a WHERE a.createdAt < :before")
+    LocalDateTime findOldestCreatedAtBefore(@Param("before") LocalDateTime before);
+
+    /**
+     * Rows of one archive window not yet archived (id above {@code afterId}), oldest first.
+     * Must be consumed inside a transaction and closed.
+     */
+    @QueryHints({
+        @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+        @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT a FROM AuditLog a WHERE a.createdAt >= :from AND a.createdAt < :to AND a.id > :afterId " +
+           "ORDER BY a.createdAt, a.id")
+    Stream<AuditLog> streamForArchive(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                                      @Param("afterId") long afterId);
+
+    @Modifying
+    @Query("DELETE FROM AuditLog a WHERE a.createdAt >= :from AND a.createdAt < :to AND a.id <= :maxId")
+    int deleteArchived(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to,
+                       @Param("maxId") long maxId);
 
     long countByPiiDetectedTrue();
 
@@ -27,10 +94,26 @@ public interface AuditLogRepository extends JpaRepository<AuditLog, Long> {
     @Query("SELECT COUNT(a) FROM AuditLog a WHERE a.createdAt >= :since")
     long countRequestsSince(@Param("since") LocalDateTime since);
 
-    @Query("SELECT a.username, COUNT(a) as reqCount FROM AuditLog a " +
-           "WHERE a.createdAt >= :since GROUP BY a.username ORDER BY reqCount DESC")
-    List<Object[]> topUsersSince(@Param("since") LocalDateTime since, Pageable pageable);
-
     @Query("SELECT AVG(a.durationMs) FROM AuditLog a WHERE a.createdAt >= :since")
     Double avgResponseTimeSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Per-minute request count, duration count and duration sum since {@code since}:
+     * [year, month, day, hour, minute, requests, durationCount, durationSum].
+     */
+    @Query("SELECT YEAR(a.createdAt), MONTH(a.createdAt), DAY(a.createdAt), HOUR(a.createdAt), MINUTE(a.createdAt), " +
+           "COUNT(a), COUNT(a.durationMs), SUM(a.durationMs) FROM AuditLog a WHERE a.createdAt >= :since " +
+           "GROUP BY YEAR(a.createdAt), MONTH(a.createdAt), DAY(a.createdAt), HOUR(a.createdAt), MINUTE(a.createdAt)")
+    List<Object[]> minuteBucketsSince(@Param("since") LocalDateTime since);
+
+    /**
+     * Rollup totals per (username, model) for entries created in [from, to):
+     * [username, model, requests, pii, rateLimited, durationSum, durationMax, promptTokens, completionTokens].
+     */
+    @Query("SELECT a.username, a.model, COUNT(a), " +
+           "SUM(CASE WHEN a.piiDetected = true THEN 1 ELSE 0 END), " +
+           "SUM(CASE WHEN a.rateLimited = true THEN 1 ELSE 0 END), " +
+           "SUM(a.durationMs), MAX(a.durationMs), SUM(a.promptEvalCount), SUM(a.evalCount) " +
+           "FROM AuditLog a WHERE a.createdAt >= :from AND a.createdAt < :to GROUP BY a.username, a.model")
+    List<Object[]> rollupBetween(@Param("from") LocalDateTime from, @Param("to") LocalDateTime to);
 }
@@ -0,0 +1,58 @@
+package com.secureai.repository;
+
+import com.secureai.model.AuditRollupHourly;
+import com.secureai.model.UsageSummary;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface AuditRollupRepository extends JpaRepository<AuditRollupHourly, Long> {
+
+    String SUMMARY_COLUMNS = "SUM(r.requestCount), SUM(r.piiCount), SUM(r.rateLimitedCount), " +
+            "SUM(r.durationSumMs), MAX(r.durationMaxMs), SUM(r.promptTokens), SUM(r.completionTokens)";
+
+    /**
+     * Add a delta to an existing (hour, username, model) row.
+     *
+     * @return 1 if the row existed, 0 if it must be inserted
+     */
+    @Modifying
+    @Query("UPDATE AuditRollupHourly r SET " +
+           "r.requestCount = r.requestCount + :requests, " +
+           "r.piiCount = r.piiCount + :pii, " +
+           "r.rateLimitedCount = r.rateLimitedCount + :rateLimited, " +
+           "r.durationSumMs = r.durationSumMs + :durationSum, " +
+           "r.durationMaxMs = CASE WHEN r.durationMaxMs < :durationMax THEN :durationMax ELSE r.durationMaxMs END, " +
+           "r.promptTokens = r.promptTokens + :promptTokens, " +
+           "r.completionTokens = r.completionTokens + :completionTokens " +
+           "WHERE r.hourStart = :hour AND r.username = :username AND r.model = :model")
+    int increment(@Param("hour") LocalDateTime hour, @Param("username") String username,
+                  @Param("model") String model, @Param("requests") long requests, @Param("pii") long pii,
+                  @Param("rateLimited") long rateLimited, @Param("durationSum") long durationSum,
+                  @Param("durationMax") long durationMax, @Param("promptTokens") long promptTokens,
+                  @Param("completionTokens") long completionTokens);
+
+    @Modifying
+    @Query("DELETE FROM AuditRollupHourly r WHERE r.hourStart = :hour")
+    int deleteByHour(@Param("hour") LocalDateTime hour);
+
+    @Query("SELECT new com.secureai.model.UsageSummary(r.username, " + SUMMARY_COLUMNS + ") " +
+           "FROM AuditRollupHourly r WHERE r.hourStart >= :since " +
+           "GROUP BY r.username ORDER BY SUM(r.requestCount) DESC")
+    List<UsageSummary> usageByUserSince(@Param("since") LocalDateTime since, Limit limit);
+
+    @Query("SELECT new com.secureai.model.UsageSummary(r.model, " + SUMMARY_COLUMNS + ") " +
+           "FROM AuditRollupHourly r WHERE r.hourStart >= :since " +
+           "GROUP BY r.model ORDER BY SUM(r.requestCount) DESC")
+    List<UsageSummary> usageByModelSince(@Param("since") LocalDateTime since);
+
+    List<AuditRollupHourly> findByUsernameAndHourStartGreaterThanEqualOrderByHourStartAsc(
+            String username, LocalDateTime since);
+}
@@ -1,5 +1,6 @@
 package com.secureai.security;
 
+import com.secureai.metrics.PipelineMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +26,8 @@ import java.util.Locale;
  *  2. Validate token signature + expiry (pure crypto, no DB)
  *  3. Set Spring SecurityContext with username + role
  *  4. Continue filter chain
+ *
+ * Steps 2–3 are timed as the "jwt_filter" stage of {@link PipelineMetrics}.
  */
 @Component
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
@@ -33,9 +36,11 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     private static final String BEARER_PREFIX = "Bearer ";
 
     private final JwtUtil jwtUtil;
+    private final PipelineMetrics pipelineMetrics;
 
-    public JwtAuthenticationFilter(JwtUtil jwtUtil) {
+    public JwtAuthenticationFilter(JwtUtil jwtUtil, PipelineMetrics pipelineMetrics) {
         this.jwtUtil = jwtUtil;
+        this.pipelineMetrics = pipelineMetrics;
     }
 
     @Override
@@ -46,7 +51,17 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         String token = extractToken(request);
 
-        if (StringUtils.hasText(token) && jwtUtil.validateToken(token)) {
+        if (StringUtils.hasText(token)) {
+            long start = System.nanoTime();
+            authenticate(token, request);
+            pipelineMetrics.recordStage(PipelineMetrics.STAGE_JWT_FILTER, start);
+        }
+
+        filterChain.doFilter(request, response);
+    }
+
+    private void authenticate(String token, HttpServletRequest request) {
+        if (jwtUtil.validateToken(token)) {
             String username = jwtUtil.getUsernameFromToken(token);
             String role = jwtUtil.getRoleFromToken(token);
 
@@ -66,8 +81,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             log.debug("Authenticated user '{}' with role '{}' from IP {}",
                     sanitizeLog(username), sanitizeLog(role), sanitizeLog(request.getRemoteAddr()));
         }
-
-        filterChain.doFilter(request, response);
     }
 
     private String extractToken(HttpServletRequest request) {
@@ -1,17 +1,37 @@
 package com.secureai.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.secureai.archive.AuditArchiveStore;
 import com.secureai.model.AuditLog;
+import com.secureai.model.AuditLogSummary;
+import com.secureai.model.CursorPage;
+import com.secureai.model.GenerationOptions;
+import com.secureai.model.GenerationStats;
 import com.secureai.repository.AuditLogRepository;
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Limit;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Audit Log Service
@@ -19,16 +39,37 @@ import java.util.Map;
  * Persists every AI request + PII-redacted response to PostgreSQL.
  * Logs are immutable append-only records for compliance and forensics.
  * All persistence is async to avoid blocking the request thread.
+ * Rows moved to cold storage by AuditArchiver remain visible: listings and
+ * lookups continue into the archive once the database runs out of rows.
  */
 @Service
 public class AuditLogService {
 
     private static final Logger log = LoggerFactory.getLogger(AuditLogService.class);
 
+    static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_FLUSH_EVERY = 100;
+
     private final AuditLogRepository auditLogRepository;
+    private final AuditStatsCounters statsCounters;
+    private final AuditRollupService rollupService;
+    private final AuditArchiveStore archiveStore;
+    private final EntityManager entityManager;
+    private final ObjectWriter ndjsonWriter;
+    private final ObjectWriter stopWriter;
 
-    public AuditLogService(AuditLogRepository auditLogRepository) {
+    public AuditLogService(AuditLogRepository auditLogRepository, AuditStatsCounters statsCounters,
+                           AuditRollupService rollupService, AuditArchiveStore archiveStore,
+                           EntityManager entityManager, ObjectMapper objectMapper) {
         this.auditLogRepository = auditLogRepository;
+        this.statsCounters = statsCounters;
+        this.rollupService = rollupService;
+        this.archiveStore = archiveStore;
+        this.entityManager = entityManager;
+        this.ndjsonWriter = objectMapper.writerFor(AuditLog.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.stopWriter = objectMapper.writer();
     }
 
     /**
@@ -40,21 +81,37 @@ public class AuditLogService {
                            String model, boolean piiDetected, boolean rateLimited,
                            Integer reactSteps, int statusCode, long durationMs,
                            String ipAddress) {
+        logRequest(username, prompt, redactedResponse, model, piiDetected, rateLimited,
+                reactSteps, statusCode, durationMs, ipAddress, null);
+    }
+
+    /**
+     * Asynchronously persist an audit entry together with the Ollama telemetry
+     * (load / prefill / decode timings and token counts) for capacity planning.
+     */
+    @Async
+    public void logRequest(String username, String prompt, String redactedResponse,
+                           String model, boolean piiDetected, boolean rateLimited,
+                           Integer reactSteps, int statusCode, long durationMs,
+                           String ipAddress, GenerationStats stats) {
+        logRequest(username, prompt, redactedResponse, model, piiDetected, rateLimited,
+                reactSteps, statusCode, durationMs, ipAddress, stats, null);
+    }
+
+    /**
+     * As above, also recording the {@link GenerationOptions} the request was served with.
+     */
+    @Async
+    public void logRequest(String username, String prompt, String redactedResponse,
+                           String model, boolean piiDetected, boolean rateLimited,
+                           Integer reactSteps, int statusCode, long durationMs,
+                           String ipAddress, GenerationStats stats, GenerationOptions options) {
         try {
-            AuditLog entry = AuditLog.builder()
-                    .username(username)
-                    .prompt(truncate(prompt, 4000))
-                    .response(truncate(redactedResponse, 8000))
-                    .model(model)
-                    .piiDetected(piiDetected)
-                    .rateLimited(rateLimited)
-                    .reactSteps(reactSteps)
-                    .statusCode(statusCode)
-                    .durationMs(durationMs)
-                    .ipAddress(ipAddress)
-                    .build();
-
-            auditLogRepository.save(entry);
+            AuditLog entry = toEntry(username, prompt, redactedResponse, model,
+                    piiDetected, rateLimited, reactSteps, statusCode, durationMs, ipAddress, stats);
+            applyOptions(entry, options);
+            AuditLog saved = auditLogRepository.save(entry);
+            recordSaved(saved);
             log.debug("Audit log saved for user '{}'", sanitizeLog(username));
         } catch (Exception e) {
             log.error("Failed to save audit log for user '{}': {}", sanitizeLog(username),
@@ -62,32 +119,162 @@ public class AuditLogService {
         }
     }
 
-    public Page<AuditLog> getRecentLogs(int page, int size) {
-        return auditLogRepository.findAllByOrderByCreatedAtDesc(PageRequest.of(page, size));
+    /**
+     * Asynchronously persist the entries of one /api/ask/batch call with a single
+     * saveAll — one transaction and one flush instead of one per prompt.
+     */
+    @Async
+    public void logBatch(String username, String ipAddress, List<BatchEntry> entries) {
+        if (entries.isEmpty()) return;
+        try {
+            List<AuditLog> rows = new ArrayList<>(entries.size());
+            for (BatchEntry e : entries) {
+                AuditLog row = toEntry(username, e.prompt(), e.redactedResponse(), e.model(), e.piiDetected(), false,
+                        null, e.statusCode(), e.durationMs(), ipAddress, e.stats());
+                applyOptions(row, e.options());
+                rows.add(row);
+            }
+            auditLogRepository.saveAll(rows).forEach(this::recordSaved);
+            log.debug("Audit batch of {} saved for user '{}'", rows.size(), sanitizeLog(username));
+        } catch (Exception e) {
+            log.error("Failed to save audit batch of {} for user '{}': {}", entries.size(),
+                    sanitizeLog(username), sanitizeLog(e.getMessage()), e);
+        }
     }
 
-    public Page<AuditLog> getUserLogs(String username, int page, int size) {
-        return auditLogRepository.findByUsernameOrderByCreatedAtDesc(username, PageRequest.of(page, size));
+    /**
+     * Newest-first audit entries using keyset pagination on (createdAt, id).
+     * Each page costs one index range scan regardless of depth, and returns
+     * summaries only — use {@link #getLog(long)} for the full prompt/response.
+     *
+     * @param cursor opaque token from the previous page's {@code nextCursor}; null for the first page
+     */
+    public CursorPage<AuditLogSummary> getRecentLogs(String cursor, int size) {
+        int limit = clampPageSize(size);
+        Cursor position = decodeCursor(cursor);
+        List<AuditLogSummary> rows = position == null
+                ? auditLogRepository.findLatest(Limit.of(limit + 1))
+                : auditLogRepository.findLatestBefore(position.createdAt(), position.id(), Limit.of(limit + 1));
+        return toPage(withArchive(rows, limit, position, null, false), limit);
     }
 
-    public List<AuditLog> getPiiAlerts() {
-        return auditLogRepository.findByPiiDetectedTrueOrderByCreatedAtDesc();
+    /**
+     * Newest-first audit entries for one user; see {@link #getRecentLogs(String, int)}.
+     */
+    public CursorPage<AuditLogSummary> getUserLogs(String username, String cursor, int size) {
+        int limit = clampPageSize(size);
+        Cursor position = decodeCursor(cursor);
+        List<AuditLogSummary> rows = position == null
+                ? auditLogRepository.findLatestByUsername(username, Limit.of(limit + 1))
+                : auditLogRepository.findLatestByUsernameBefore(username, position.createdAt(), position.id(),
+                        Limit.of(limit + 1));
+        return toPage(withArchive(rows, limit, position, username, false), limit);
     }
 
+    /**
+     * Full audit entry, including the prompt and PII-redacted response text.
+     * Falls back to the cold-storage archive for rows no longer in the database.
+     */
+    public Optional<AuditLog> getLog(long id) {
+        Optional<AuditLog> entry = auditLogRepository.findById(id);
+        if (entry.isEmpty() && archiveStore.isEnabled()) {
+            return archiveStore.findById(id);
+        }
+        return entry;
+    }
+
+    /**
+     * Newest-first audit entries where PII was detected; see {@link #getRecentLogs(String, int)}.
+     */
+    public CursorPage<AuditLogSummary> getPiiAlerts(String cursor, int size) {
+        int limit = clampPageSize(size);
+        Cursor position = decodeCursor(cursor);
+        List<AuditLogSummary> rows = position == null
+                ? auditLogRepository.findPiiAlerts(Limit.of(limit + 1))
+                : auditLogRepository.findPiiAlertsBefore(position.createdAt(), position.id(), Limit.of(limit + 1));
+        return toPage(withArchive(rows, limit, position, null, true), limit);
+    }
+
+    /**
+     * Write every PII alert to {@code out} as NDJSON (one AuditLog object per line).
+     *
+     * Rows are read through a JDBC cursor and detached from the persistence context
+     * as soon as they are written, so heap use is constant in the number of rows.
+     *
+     * @return number of rows written
+     */
+    @Transactional(readOnly = true)
+    public long exportPiiAlerts(OutputStream out) throws IOException {
+        long written = 0;
+        try (Stream<AuditLog> rows = auditLogRepository.streamPiiAlerts();
+             SequenceWriter writer = ndjsonWriter.writeValues(out)) {
+            for (Iterator<AuditLog> it = rows.iterator(); it.hasNext(); ) {
+                AuditLog entry = it.next();
+                writer.write(entry);
+                entityManager.detach(entry);
+                if (++written % EXPORT_FLUSH_EVERY == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        if (written > 0) {
+            out.write('\n');   // terminate the last record
+        }
+        out.flush();
+        log.info("Exported {} PII alert rows", written);
+        return written;
+    }
+
+    /**
+     * Served from in-memory counters maintained on every insert — O(1) in the table size.
+     */
     public Map<String, Object> getDashboardStats() {
-        LocalDateTime last24h = LocalDateTime.now().minusHours(24);
-        LocalDateTime last1h  = LocalDateTime.now().minusHours(1);
-        return Map.of(
-            "totalRequests",      auditLogRepository.count(),
-            "requestsLast24h",    auditLogRepository.countRequestsSince(last24h),
-            "requestsLastHour",   auditLogRepository.countRequestsSince(last1h),
-            "piiDetections",      auditLogRepository.countByPiiDetectedTrue(),
-            "rateLimitedCount",   auditLogRepository.countByRateLimitedTrue(),
-            "avgResponseTimeMs",  auditLogRepository.avgResponseTimeSince(last24h)
-        );
-    }
-
-    private String truncate(String text, int maxLength) {
+        return statsCounters.snapshot();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static AuditLog toEntry(String username, String prompt, String redactedResponse,
+                                    String model, boolean piiDetected, boolean rateLimited,
+                                    Integer reactSteps, int statusCode, long durationMs,
+                                    String ipAddress, GenerationStats stats) {
+        AuditLog entry = AuditLog.builder()
+                .username(username)
+                .prompt(truncate(prompt, 4000))
+                .promptPreview(AuditLogSummary.preview(prompt))
+                .response(truncate(redactedResponse, 8000))
+                .model(model)
+                .piiDetected(piiDetected)
+                .rateLimited(rateLimited)
+                .reactSteps(reactSteps)
+                .statusCode(statusCode)
+                .durationMs(durationMs)
+                .ipAddress(ipAddress)
+                .build();
+        if (stats != null && stats.isReported()) {
+            entry.setOllamaTotalMs(GenerationStats.toMillis(stats.getTotalDurationNs()));
+            entry.setOllamaLoadMs(GenerationStats.toMillis(stats.getLoadDurationNs()));
+            entry.setPromptEvalCount(stats.getPromptEvalCount());
+            entry.setPromptEvalMs(GenerationStats.toMillis(stats.getPromptEvalDurationNs()));
+            entry.setEvalCount(stats.getEvalCount());
+            entry.setEvalMs(GenerationStats.toMillis(stats.getEvalDurationNs()));
+        }
+        return entry;
+    }
+
+    private void applyOptions(AuditLog entry, GenerationOptions options) throws JsonProcessingException {
+        if (options == null) return;
+        entry.setMaxTokens(options.getMaxTokens());
+        entry.setTemperature(options.getTemperature());
+        entry.setStopSequences(options.getStop().isEmpty() ? null : stopWriter.writeValueAsString(options.getStop()));
+    }
+
+    private void recordSaved(AuditLog saved) {
+        statsCounters.record(saved.getCreatedAt(), saved.isPiiDetected(), saved.isRateLimited(), saved.getDurationMs());
+        rollupService.record(saved);
+    }
+
+    private static String truncate(String text, int maxLength) {
         if (text == null) return null;
         return text.length() <= maxLength ? text : text.substring(0, maxLength) + "...[truncated]";
     }
@@ -97,4 +284,72 @@ public class AuditLogService {
         if (value == null) return "(null)";
         return value.replace("\r", "\\r").replace("\n", "\\n");
     }
+
+    /** One prompt of a batch call, already PII-redacted, for {@link #logBatch}. */
+    public record BatchEntry(String prompt, String model, String redactedResponse, boolean piiDetected,
+                             int statusCode, long durationMs, GenerationStats stats, GenerationOptions options) {}
+
+    // ── Keyset cursor ────────────────────────────────────────────────────────
+
+    private record Cursor(LocalDateTime createdAt, long id) {}
+
+    private static int clampPageSize(int size) {
+        return Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+    }
+
+    /**
+     * When the database runs out of rows before the page (+1 look-ahead) is full, continue
+     * into the archive from the last position seen. Archived rows are always older than
+     * live ones, so the combined order stays (createdAt DESC, id DESC).
+     */
+    private List<AuditLogSummary> withArchive(List<AuditLogSummary> rows, int limit, Cursor position,
+                                              String username, boolean piiOnly) {
+        if (rows.size() > limit || !archiveStore.isEnabled()) return rows;
+        LocalDateTime beforeCreatedAt = position == null ? null : position.createdAt();
+        Long beforeId = position == null ? null : position.id();
+        if (!rows.isEmpty()) {
+            AuditLogSummary last = rows.get(rows.size() - 1);
+            beforeCreatedAt = last.getCreatedAt();
+            beforeId = last.getId();
+        }
+        List<AuditLogSummary> merged = new ArrayList<>(rows);
+        merged.addAll(archiveStore.findBefore(username, piiOnly, beforeCreatedAt, beforeId,
+                limit + 1 - rows.size()));
+        return merged;
+    }
+
+    /** Fetches one row beyond the page to learn whether a next page exists without counting. */
+    private static CursorPage<AuditLogSummary> toPage(List<AuditLogSummary> rows, int limit) {
+        if (rows.size() <= limit) {
+            return new CursorPage<>(rows, rows.size(), null);
+        }
+        List<AuditLogSummary> page = rows.subList(0, limit);
+        AuditLogSummary last = page.get(limit - 1);
+        return new CursorPage<>(page, limit, encodeCursor(last.getCreatedAt(), last.getId()));
+    }
+
+    static String encodeCursor(LocalDateTime createdAt, long id) {
+        String raw = createdAt + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Cursor decodeCursor(String cursor) {
+        if (cursor == null || cursor.isBlank()) return null;
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.lastIndexOf('|');
+            if (sep < 0) throw new InvalidCursorException();
+            return new Cursor(LocalDateTime.parse(raw.substring(0, sep)), Long.parseLong(raw.substring(sep + 1)));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new InvalidCursorException();
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    public static class InvalidCursorException extends RuntimeException {
+        public InvalidCursorException() {
+            super("Invalid or expired pagination cursor");
+        }
+    }
 }
@@ -0,0 +1,147 @@
+package com.secureai.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Audit Partition Manager — monthly partitions and retention for audit_logs (MySQL)
+ *
+ * Partition scheme (created by V3__partition_audit_logs.sql):
+ *  - p{YYYYMM} holds rows with created_at before the first day of the following month
+ *  - pmax is a MAXVALUE catch-all that is kept empty
+ *
+ * Maintenance (daily + at startup, when audit.partitioning.enabled=true):
+ *  - Splits the next {@code months-ahead} months off pmax — cheap because pmax is empty
+ *  - Drops partitions entirely older than {@code retention-months} — a metadata
+ *    operation instead of a multi-million-row DELETE
+ *
+ * Time-window queries on created_at (dashboard reconcile, usage reports) are
+ * pruned to the partitions they touch. On H2 or an unpartitioned table the job
+ * logs and does nothing.
+ */
+@Service
+public class AuditPartitionManager {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditPartitionManager.class);
+
+    static final String TABLE = "audit_logs";
+    private static final Pattern MONTH_PARTITION = Pattern.compile("p(\\d{6})");
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+
+    @Value("${audit.partitioning.enabled:false}")
+    private boolean enabled;
+
+    @Value("${audit.partitioning.retention-months:12}")
+    private int retentionMonths;
+
+    @Value("${audit.partitioning.months-ahead:3}")
+    private int monthsAhead;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final Clock clock;
+
+    @Autowired
+    public AuditPartitionManager(JdbcTemplate jdbcTemplate) {
+        this(jdbcTemplate, Clock.systemDefaultZone());
+    }
+
+    AuditPartitionManager(JdbcTemplate jdbcTemplate, Clock clock) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.clock = clock;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onStartup() {
+        maintain();
+    }
+
+    /**
+     * Create upcoming partitions and drop expired ones.
+     */
+    @Scheduled(cron = "${audit.partitioning.cron:0 15 3 * * *}")
+    public void maintain() {
+        if (!enabled) return;
+        try {
+            List<String> partitions = jdbcTemplate.queryForList(
+                    "SELECT PARTITION_NAME FROM information_schema.PARTITIONS " +
+                    "WHERE TABLE_SCHEMA = DATABASE() AND TABLE_NAME = ? AND PARTITION_NAME IS NOT NULL " +
+                    "ORDER BY PARTITION_ORDINAL_POSITION", String.class, TABLE);
+            List<String> statements = plan(partitions, YearMonth.now(clock));
+            for (String sql : statements) {
+                log.info("Audit partition maintenance: {}", sql);
+                jdbcTemplate.execute(sql);
+            }
+        } catch (Exception e) {
+            log.error("Audit partition maintenance failed: {}", e.getMessage(), e);
+        }
+    }
+
+    /**
+     * DDL needed to bring {@code partitions} up to date for {@code currentMonth}.
+     * Returns nothing when the table is not partitioned with the expected scheme.
+     */
+    List<String> plan(List<String> partitions, YearMonth currentMonth) {
+        List<YearMonth> months = new ArrayList<>();
+        for (String name : partitions) {
+            Matcher m = MONTH_PARTITION.matcher(name);
+            if (m.matches()) {
+                months.add(YearMonth.parse(m.group(1), PARTITION_MONTH));
+            }
+        }
+        if (months.isEmpty() || !partitions.contains("pmax")) {
+            log.warn("Table {} is not partitioned by month; skipping maintenance", TABLE);
+            return List.of();
+        }
+
+        List<String> statements = new ArrayList<>();
+
+        YearMonth newest = months.stream().max(YearMonth::compareTo).orElseThrow();
+        YearMonth target = currentMonth.plusMonths(monthsAhead);
+        if (newest.isBefore(target)) {
+            StringBuilder into = new StringBuilder();
+            for (YearMonth month = newest.plusMonths(1); !month.isAfter(target); month = month.plusMonths(1)) {
+                into.append(partitionDefinition(month)).append(", ");
+            }
+            statements.add("ALTER TABLE " + TABLE + " REORGANIZE PARTITION pmax INTO ("
+                    + into + "PARTITION pmax VALUES LESS THAN MAXVALUE)");
+        }
+
+        // A month partition is expired once every row in it is older than the retention cutoff
+        YearMonth oldestRetained = currentMonth.minusMonths(retentionMonths);
+        List<String> expired = months.stream()
+                .filter(month -> month.isBefore(oldestRetained))
+                .map(AuditPartitionManager::partitionName)
+                .collect(Collectors.toList());
+        if (!expired.isEmpty()) {
+            statements.add("ALTER TABLE " + TABLE + " DROP PARTITION " + String.join(", ", expired));
+        }
+        return statements;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    static String partitionName(YearMonth month) {
+        return "p" + month.format(PARTITION_MONTH);
+    }
+
+    private static String partitionDefinition(YearMonth month) {
+        return "PARTITION " + partitionName(month) + " VALUES LESS THAN (UNIX_TIMESTAMP('"
+                + month.plusMonths(1).atDay(1) + " 00:00:00'))";
+    }
+}
@@ -0,0 +1,293 @@
+package com.secureai.service;
+
+import com.secureai.model.AuditLog;
+import com.secureai.model.AuditRollupHourly;
+import com.secureai.model.UsageSummary;
+import com.secureai.repository.AuditLogRepository;
+import com.secureai.repository.AuditRollupRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.ContextClosedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Audit Rollup Service — hourly usage aggregates for reporting
+ *
+ * Design:
+ *  - {@link #record(AuditLog)} adds each persisted audit entry to an in-memory
+ *    delta keyed by (hour, username, model) — no DB round trip on the write path
+ *  - {@link #flush()} (every {@code audit.rollup.flush-interval-ms}, and on shutdown)
+ *    applies the deltas with UPDATE ... SET x = x + delta, inserting the row
+ *    the first time a key is seen in that hour
+ *  - Reports read audit_rollup_hourly: a day of traffic is at most
+ *    24 x users x models rows, independent of request volume
+ *
+ * Reports lag writes by at most one flush interval. A failed flush puts its
+ * deltas back so they are retried on the next one.
+ *
+ * Deltas still in memory when a node dies are lost, so {@link #reconcile()}
+ * (every {@code audit.rollup.reconcile-interval-ms}) rebuilds the last
+ * {@code audit.rollup.reconcile-hours} closed hours from audit_logs — delete and
+ * re-insert per hour in one transaction, so running it again, or on several
+ * nodes, converges to the same rows.
+ */
+@Service
+public class AuditRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditRollupService.class);
+
+    static final int MAX_REPORT_HOURS = 24 * 90;
+    static final int MAX_REPORT_ROWS = 100;
+
+    private final AuditRollupRepository rollupRepository;
+    private final AuditLogRepository auditLogRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final Clock clock;
+    private final int reconcileHours;
+
+    // record() holds the read lock while touching the map; flush() takes the write lock
+    // only to swap it, so no increment can land in a batch that is already being applied
+    private final ReadWriteLock swapLock = new ReentrantReadWriteLock();
+    private volatile ConcurrentHashMap<Key, Delta> pending = new ConcurrentHashMap<>();
+
+    @Autowired
+    public AuditRollupService(AuditRollupRepository rollupRepository, AuditLogRepository auditLogRepository,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${audit.rollup.reconcile-hours:2}") int reconcileHours) {
+        this(rollupRepository, auditLogRepository, new TransactionTemplate(transactionManager),
+                Clock.systemDefaultZone(), reconcileHours);
+    }
+
+    AuditRollupService(AuditRollupRepository rollupRepository, AuditLogRepository auditLogRepository,
+                       TransactionTemplate transactionTemplate, Clock clock, int reconcileHours) {
+        this.rollupRepository = rollupRepository;
+        this.auditLogRepository = auditLogRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.clock = clock;
+        this.reconcileHours = Math.max(1, reconcileHours);
+    }
+
+    /**
+     * Account for one persisted audit entry.
+     */
+    public void record(AuditLog entry) {
+        LocalDateTime createdAt = entry.getCreatedAt() != null ? entry.getCreatedAt() : LocalDateTime.now(clock);
+        Key key = new Key(createdAt.truncatedTo(ChronoUnit.HOURS),
+                nullToEmpty(entry.getUsername()), nullToEmpty(entry.getModel()));
+        swapLock.readLock().lock();
+        try {
+            pending.computeIfAbsent(key, k -> new Delta()).add(entry);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Apply pending deltas to audit_rollup_hourly.
+     */
+    @Scheduled(fixedDelayString = "${audit.rollup.flush-interval-ms:10000}")
+    public synchronized void flush() {
+        ConcurrentHashMap<Key, Delta> batch;
+        swapLock.writeLock().lock();
+        try {
+            batch = pending;
+            if (batch.isEmpty()) return;
+            pending = new ConcurrentHashMap<>();
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+
+        int applied = 0;
+        for (Map.Entry<Key, Delta> e : batch.entrySet()) {
+            try {
+                apply(e.getKey(), e.getValue());
+                applied++;
+            } catch (Exception ex) {
+                log.warn("Rollup flush failed for {}; will retry: {}", e.getKey(), ex.getMessage());
+                requeue(e.getKey(), e.getValue());
+            }
+        }
+        log.debug("Flushed {} of {} rollup deltas", applied, batch.size());
+    }
+
+    @EventListener(ContextClosedEvent.class)
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    /**
+     * Recompute the last {@code audit.rollup.reconcile-hours} closed hours from
+     * audit_logs and drop any pending deltas for them — the rebuilt rows already
+     * include those entries.
+     */
+    @Scheduled(initialDelayString = "${audit.rollup.reconcile-interval-ms:900000}",
+               fixedDelayString = "${audit.rollup.reconcile-interval-ms:900000}")
+    public synchronized void reconcile() {
+        LocalDateTime currentHour = LocalDateTime.now(clock).truncatedTo(ChronoUnit.HOURS);
+        for (int i = reconcileHours; i >= 1; i--) {
+            LocalDateTime hour = currentHour.minusHours(i);
+            try {
+                int rows = rebuild(hour);
+                discardPending(hour);
+                log.debug("Reconciled rollup hour {}: {} row(s)", hour, rows);
+            } catch (DataIntegrityViolationException raced) {
+                // Another node rebuilt the same hour concurrently — from the same audit rows
+                log.debug("Rollup hour {} was reconciled concurrently", hour);
+            } catch (Exception ex) {
+                log.warn("Rollup reconcile failed for hour {}: {}", hour, ex.getMessage());
+            }
+        }
+    }
+
+    // ── Reports ──────────────────────────────────────────────────────────────
+
+    public List<UsageSummary> topUsers(int hours, int limit) {
+        return rollupRepository.usageByUserSince(windowStart(hours), Limit.of(Math.min(Math.max(limit, 1), MAX_REPORT_ROWS)));
+    }
+
+    public List<UsageSummary> usageByModel(int hours) {
+        return rollupRepository.usageByModelSince(windowStart(hours));
+    }
+
+    public List<AuditRollupHourly> userHourly(String username, int hours) {
+        return rollupRepository.findByUsernameAndHourStartGreaterThanEqualOrderByHourStartAsc(
+                username, windowStart(hours));
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private void apply(Key key, Delta delta) {
+        Integer updated = transactionTemplate.execute(status -> increment(key, delta));
+        if (updated != null && updated > 0) return;
+        try {
+            transactionTemplate.executeWithoutResult(status -> rollupRepository.saveAndFlush(delta.toRow(key)));
+        } catch (DataIntegrityViolationException raced) {
+            // Another node inserted the row first — apply as an increment instead
+            transactionTemplate.executeWithoutResult(status -> increment(key, delta));
+        }
+    }
+
+    private int rebuild(LocalDateTime hour) {
+        Map<Key, Delta> totals = new HashMap<>();
+        for (Object[] row : auditLogRepository.rollupBetween(hour, hour.plusHours(1))) {
+            // NULL and '' username/model share one rollup row
+            Key key = new Key(hour, nullToEmpty((String) row[0]), nullToEmpty((String) row[1]));
+            totals.merge(key, Delta.of(row), Delta::merge);
+        }
+        transactionTemplate.executeWithoutResult(status -> {
+            rollupRepository.deleteByHour(hour);
+            rollupRepository.saveAll(totals.entrySet().stream().map(e -> e.getValue().toRow(e.getKey())).toList());
+        });
+        return totals.size();
+    }
+
+    private void discardPending(LocalDateTime hour) {
+        swapLock.writeLock().lock();
+        try {
+            pending.keySet().removeIf(key -> key.hour().equals(hour));
+        } finally {
+            swapLock.writeLock().unlock();
+        }
+    }
+
+    private void requeue(Key key, Delta delta) {
+        swapLock.readLock().lock();
+        try {
+            pending.merge(key, delta, Delta::merge);
+        } finally {
+            swapLock.readLock().unlock();
+        }
+    }
+
+    private int increment(Key key, Delta d) {
+        return rollupRepository.increment(key.hour(), key.username(), key.model(),
+                d.requests, d.pii, d.rateLimited, d.durationSum, d.durationMax,
+                d.promptTokens, d.completionTokens);
+    }
+
+    private LocalDateTime windowStart(int hours) {
+        return LocalDateTime.now(clock).truncatedTo(ChronoUnit.HOURS).minusHours(Math.min(Math.max(hours, 1), MAX_REPORT_HOURS) - 1L);
+    }
+
+    private static String nullToEmpty(String value) {
+        return value == null ? "" : value;
+    }
+
+    record Key(LocalDateTime hour, String username, String model) {}
+
+    static final class Delta {
+        long requests;
+        long pii;
+        long rateLimited;
+        long durationSum;
+        long durationMax;
+        long promptTokens;
+        long completionTokens;
+
+        /** From one {@link AuditLogRepository#rollupBetween} row. */
+        static Delta of(Object[] row) {
+            Delta d = new Delta();
+            d.requests = asLong(row[2]);
+            d.pii = asLong(row[3]);
+            d.rateLimited = asLong(row[4]);
+            d.durationSum = asLong(row[5]);
+            d.durationMax = asLong(row[6]);
+            d.promptTokens = asLong(row[7]);
+            d.completionTokens = asLong(row[8]);
+            return d;
+        }
+
+        private static long asLong(Object value) {
+            return value == null ? 0L : ((Number) value).longValue();
+        }
+
+        synchronized void add(AuditLog entry) {
+            requests++;
+            if (entry.isPiiDetected()) pii++;
+            if (entry.isRateLimited()) rateLimited++;
+            long duration = entry.getDurationMs() != null ? entry.getDurationMs() : 0L;
+            durationSum += duration;
+            durationMax = Math.max(durationMax, duration);
+            promptTokens += entry.getPromptEvalCount() != null ? entry.getPromptEvalCount() : 0;
+            completionTokens += entry.getEvalCount() != null ? entry.getEvalCount() : 0;
+        }
+
+        synchronized Delta merge(Delta other) {
+            requests += other.requests;
+            pii += other.pii;
+            rateLimited += other.rateLimited;
+            durationSum += other.durationSum;
+            durationMax = Math.max(durationMax, other.durationMax);
+            promptTokens += other.promptTokens;
+            completionTokens += other.completionTokens;
+            return this;
+        }
+
+        AuditRollupHourly toRow(Key key) {
+            return AuditRollupHourly.builder()
+                    .hourStart(key.hour()).username(key.username()).model(key.model())
+                    .requestCount(requests).piiCount(pii).rateLimitedCount(rateLimited)
+                    .durationSumMs(durationSum).durationMaxMs(durationMax)
+                    .promptTokens(promptTokens).completionTokens(completionTokens)
+                    .build();
+        }
+    }
+}
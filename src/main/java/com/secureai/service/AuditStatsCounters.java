@@ -0,0 +1,185 @@
+package com.secureai.service;
+
+import com.secureai.repository.AuditLogRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Audit Stats Counters — materialized dashboard statistics
+ *
+ * Design:
+ *  - Lifetime totals (requests, PII detections, rate-limited) are running counters
+ *  - The 1h / 24h windows come from a ring of 1440 per-minute buckets, each holding
+ *    a request count plus the sum and count of durations for the average
+ *  - {@link #record} is called by AuditLogService after every successful insert
+ *  - {@link #reconcile()} periodically rebuilds all state from the database
+ *    (three counts + one per-minute GROUP BY over the last 24h, served by
+ *    idx_audit_created_at) so drift from failed writes or restarts is bounded
+ *
+ * Reading the dashboard touches only this class — cost is independent of the
+ * size of audit_logs. Windows have minute granularity: "last hour" is the current
+ * minute plus the 59 before it.
+ *
+ * Counters are per node: {@link #record} sees only this replica's requests, so
+ * with N replicas the figures between reconciles cover roughly 1/N of the traffic
+ * written since the last rebuild (two thirds missing at 3 replicas, for up to
+ * {@code audit.stats.reconcile-interval-ms}). Each reconcile restores the
+ * cluster-wide totals from the shared database.
+ */
+@Service
+public class AuditStatsCounters {
+
+    private static final Logger log = LoggerFactory.getLogger(AuditStatsCounters.class);
+
+    static final int WINDOW_MINUTES = 24 * 60;
+    private static final int HOUR_MINUTES = 60;
+
+    private final AuditLogRepository auditLogRepository;
+    private final Clock clock;
+
+    // All mutable state below is guarded by `this`
+    private final long[] slotMinute = new long[WINDOW_MINUTES];
+    private final long[] slotRequests = new long[WINDOW_MINUTES];
+    private final long[] slotDurationSum = new long[WINDOW_MINUTES];
+    private final long[] slotDurationCount = new long[WINDOW_MINUTES];
+    private long totalRequests;
+    private long piiDetections;
+    private long rateLimitedCount;
+    private volatile boolean reconciled;
+
+    @Autowired
+    public AuditStatsCounters(AuditLogRepository auditLogRepository) {
+        this(auditLogRepository, Clock.systemDefaultZone());
+    }
+
+    AuditStatsCounters(AuditLogRepository auditLogRepository, Clock clock) {
+        this.auditLogRepository = auditLogRepository;
+        this.clock = clock;
+        Arrays.fill(slotMinute, Long.MIN_VALUE);
+    }
+
+    /**
+     * Account for one persisted audit entry.
+     */
+    public synchronized void record(LocalDateTime createdAt, boolean piiDetected,
+                                    boolean rateLimited, Long durationMs) {
+        totalRequests++;
+        if (piiDetected) piiDetections++;
+        if (rateLimited) rateLimitedCount++;
+
+        long minute = epochMinute(createdAt != null ? createdAt : LocalDateTime.now(clock));
+        int slot = Math.floorMod(minute, WINDOW_MINUTES);
+        if (slotMinute[slot] != minute) {
+            if (slotMinute[slot] > minute) {
+                return;   // older than the 24h window — counts toward totals only
+            }
+            slotMinute[slot] = minute;
+            slotRequests[slot] = 0;
+            slotDurationSum[slot] = 0;
+            slotDurationCount[slot] = 0;
+        }
+        slotRequests[slot]++;
+        if (durationMs != null) {
+            slotDurationSum[slot] += durationMs;
+            slotDurationCount[slot]++;
+        }
+    }
+
+    /**
+     * Dashboard statistics, same keys as the former per-call aggregate queries.
+     */
+    public Map<String, Object> snapshot() {
+        if (!reconciled) {
+            reconcile();
+        }
+        long nowMinute = epochMinute(LocalDateTime.now(clock));
+        long requests24h = 0;
+        long requests1h = 0;
+        long durationSum = 0;
+        long durationCount = 0;
+        long total;
+        long pii;
+        long limited;
+        synchronized (this) {
+            for (int i = 0; i < WINDOW_MINUTES; i++) {
+                long age = nowMinute - slotMinute[i];
+                if (age < 0 || age >= WINDOW_MINUTES) continue;
+                requests24h += slotRequests[i];
+                durationSum += slotDurationSum[i];
+                durationCount += slotDurationCount[i];
+                if (age < HOUR_MINUTES) requests1h += slotRequests[i];
+            }
+            total = totalRequests;
+            pii = piiDetections;
+            limited = rateLimitedCount;
+        }
+        // LinkedHashMap, not Map.of: the average is null when the window has no durations
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalRequests",     total);
+        stats.put("requestsLast24h",   requests24h);
+        stats.put("requestsLastHour",  requests1h);
+        stats.put("piiDetections",     pii);
+        stats.put("rateLimitedCount",  limited);
+        stats.put("avgResponseTimeMs", durationCount > 0 ? (double) durationSum / durationCount : null);
+        return stats;
+    }
+
+    /**
+     * Rebuild counters from the database. Entries persisted while the queries run may be
+     * counted twice or missed until the next reconcile.
+     */
+    @Scheduled(fixedDelayString = "${audit.stats.reconcile-interval-ms:300000}",
+               initialDelayString = "${audit.stats.reconcile-interval-ms:300000}")
+    public void reconcile() {
+        try {
+            long nowMinute = epochMinute(LocalDateTime.now(clock));
+            LocalDateTime windowStart = LocalDateTime.ofEpochSecond(
+                    (nowMinute - WINDOW_MINUTES + 1) * 60, 0, ZoneOffset.UTC);
+
+            long total = auditLogRepository.count();
+            long pii = auditLogRepository.countByPiiDetectedTrue();
+            long limited = auditLogRepository.countByRateLimitedTrue();
+            List<Object[]> buckets = auditLogRepository.minuteBucketsSince(windowStart);
+
+            synchronized (this) {
+                Arrays.fill(slotMinute, Long.MIN_VALUE);
+                for (Object[] row : buckets) {
+                    LocalDateTime bucketStart = LocalDateTime.of(
+                            ((Number) row[0]).intValue(), ((Number) row[1]).intValue(),
+                            ((Number) row[2]).intValue(), ((Number) row[3]).intValue(),
+                            ((Number) row[4]).intValue());
+                    long minute = epochMinute(bucketStart);
+                    int slot = Math.floorMod(minute, WINDOW_MINUTES);
+                    slotMinute[slot] = minute;
+                    slotRequests[slot] = ((Number) row[5]).longValue();
+                    slotDurationCount[slot] = ((Number) row[6]).longValue();
+                    slotDurationSum[slot] = row[7] == null ? 0 : ((Number) row[7]).longValue();
+                }
+                totalRequests = total;
+                piiDetections = pii;
+                rateLimitedCount = limited;
+            }
+            reconciled = true;
+            log.debug("Audit stats reconciled: {} total, {} minute buckets", total, buckets.size());
+        } catch (Exception e) {
+            log.error("Audit stats reconcile failed: {}", e.getMessage(), e);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static long epochMinute(LocalDateTime time) {
+        return Math.floorDiv(time.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+}
@@ -8,15 +8,17 @@ import com.secureai.repository.UserRepository;
 import com.secureai.security.JwtUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.Locale;
+
 /**
  * Authentication Service
  *
  * Responsibilities:
- *  - User registration with BCrypt (cost=12) hashing
+ *  - User registration with BCrypt (cost=12) or Argon2 hashing
  *  - Login with credential verification against PostgreSQL
  *  - JWT token issuance
  *
@@ -24,7 +26,17 @@ import org.springframework.transaction.annotation.Transactional;
  *  - Passwords NEVER stored or logged in plaintext
  *  - BCrypt random salt defeats rainbow table attacks
  *  - Constant-time comparison via BCrypt (no timing attacks)
- *  - Duplicate usernames/emails rejected at registration
+ *  - Duplicate usernames/emails rejected at registration by the
+ *    uk_users_username / uk_users_email constraints (one INSERT, no pre-checks)
+ *
+ * All hashing runs on {@link PasswordHashingService}'s bounded pool, never on the
+ * request thread. A hash from an older encoder or cost is replaced in the
+ * background after the next successful login.
+ *
+ * Login reads users through {@link UserCache}; every change to a user goes
+ * through this service and evicts the cached record after it commits. Eviction
+ * is node-local: other replicas may accept a just-disabled account for up to
+ * {@code auth.user-cache.ttl-seconds} (see {@link UserCache}).
  */
 @Service
 public class AuthService {
@@ -32,12 +44,15 @@ public class AuthService {
     private static final Logger log = LoggerFactory.getLogger(AuthService.class);
 
     private final UserRepository userRepository;
-    private final PasswordEncoder passwordEncoder;
+    private final UserCache userCache;
+    private final PasswordHashingService passwordHashing;
     private final JwtUtil jwtUtil;
 
-    public AuthService(UserRepository userRepository, PasswordEncoder passwordEncoder, JwtUtil jwtUtil) {
+    public AuthService(UserRepository userRepository, UserCache userCache,
+                       PasswordHashingService passwordHashing, JwtUtil jwtUtil) {
         this.userRepository = userRepository;
-        this.passwordEncoder = passwordEncoder;
+        this.userCache = userCache;
+        this.passwordHashing = passwordHashing;
         this.jwtUtil = jwtUtil;
     }
 
@@ -45,17 +60,20 @@ public class AuthService {
      * Authenticate a user and issue a JWT token.
      */
     public LoginResponse login(LoginRequest request) {
-        User user = userRepository.findByUsername(request.getUsername())
+        User user = userCache.get(request.getUsername(), userRepository::findByUsername)
                 .orElseThrow(() -> new AuthException("Invalid credentials"));
 
         if (!user.isEnabled()) {
             throw new AuthException("Account is disabled");
         }
 
-        if (!passwordEncoder.matches(request.getPassword(), user.getPassword())) {
+        if (!passwordHashing.matches(request.getPassword(), user.getPassword())) {
             log.warn("Failed login attempt for user '{}'", sanitizeLog(request.getUsername()));
             throw new AuthException("Invalid credentials");
         }
+        if (passwordHashing.needsUpgrade(user.getPassword())) {
+            upgradePasswordHash(user, request.getPassword());
+        }
 
         String token = jwtUtil.generateToken(user.getUsername(), user.getRole());
         log.info("User '{}' logged in successfully", sanitizeLog(user.getUsername()));
@@ -73,33 +91,73 @@ public class AuthService {
      */
     @Transactional
     public User register(RegisterRequest request) {
-        if (userRepository.existsByUsername(request.getUsername())) {
-            throw new AuthException("Username '" + request.getUsername() + "' is already taken");
-        }
-        if (request.getEmail() != null && !request.getEmail().isBlank()
-                && userRepository.existsByEmail(request.getEmail())) {
-            throw new AuthException("Email is already registered");
-        }
-
+        String email = request.getEmail() == null || request.getEmail().isBlank() ? null : request.getEmail();
         User user = User.builder()
                 .username(request.getUsername())
-                .password(passwordEncoder.encode(request.getPassword())) // BCrypt cost=12
-                .email(request.getEmail())
+                .password(passwordHashing.encode(request.getPassword()))
+                .email(email)
                 .role("USER")
                 .enabled(true)
                 .build();
 
-        User saved = userRepository.save(user);
+        User saved;
+        try {
+            saved = userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            throw duplicateRegistration(request, e);
+        }
         log.info("New user registered: '{}'", sanitizeLog(saved.getUsername()));
         return saved;
     }
 
+    /**
+     * Enable or disable an account (admin operation). Takes effect on the next
+     * login; the cached record is evicted once the change is committed.
+     */
+    public User setEnabled(String username, boolean enabled) {
+        User user = userRepository.findByUsername(username)
+                .orElseThrow(() -> new UserNotFoundException(username));
+        user.setEnabled(enabled);
+        User saved = userRepository.save(user);
+        userCache.evict(username);
+        log.info("User '{}' {}", sanitizeLog(username), enabled ? "enabled" : "disabled");
+        return saved;
+    }
+
     // ─────────────────────────────────────────────────────────────────────────
 
+    private void upgradePasswordHash(User user, String rawPassword) {
+        Long id = user.getId();
+        String oldHash = user.getPassword();
+        String username = user.getUsername();
+        passwordHashing.upgradeAsync(rawPassword, newHash -> {
+            // Conditional on the old hash, so a concurrent password change always wins
+            if (userRepository.updatePasswordHash(id, oldHash, newHash) > 0) {
+                userCache.evict(username);
+                log.info("Upgraded password hash for user '{}'", sanitizeLog(username));
+            }
+        });
+    }
+
+    private static AuthException duplicateRegistration(RegisterRequest request, DataIntegrityViolationException e) {
+        String cause = String.valueOf(e.getMostSpecificCause().getMessage()).toLowerCase(Locale.ROOT);
+        if (cause.contains("uk_users_email")) {
+            return new AuthException("Email is already registered");
+        }
+        if (cause.contains("uk_users_username")) {
+            return new AuthException("Username '" + request.getUsername() + "' is already taken");
+        }
+        throw e;
+    }
+
     public static class AuthException extends RuntimeException {
         public AuthException(String message) { super(message); }
     }
 
+    public static class UserNotFoundException extends RuntimeException {
+        public UserNotFoundException(String username) { super("User '" + username + "' not found"); }
+    }
+
     /** Strips CR and LF to prevent CRLF injection in log messages. */
     private static String sanitizeLog(String value) {
         if (value == null) return "(null)";
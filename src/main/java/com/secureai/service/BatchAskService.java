@@ -0,0 +1,198 @@
+package com.secureai.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.secureai.model.BatchAskResult;
+import com.secureai.model.GenerationOptions;
+import com.secureai.pii.PiiRedactionService;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Batch Ask Service — many independent direct prompts in one call
+ *
+ * Fan-out:
+ *  - Prompts run on a shared pool of {@code batch.threads} workers
+ *  - Each batch keeps at most {@code batch.parallelism} prompts in flight; the
+ *    next prompt is submitted only when one finishes, so a large batch cannot
+ *    monopolise the pool or queue unboundedly in front of other batches
+ *
+ * Each prompt is routed by {@link ModelRouter} like a direct /api/ask prompt, so
+ * short classification prompts land on the fast model, and generates at most the
+ * caller's {@link GenerationLimits} ceiling of tokens. Each answer is PII-redacted
+ * and written as one NDJSON line as soon as it completes. Audit entries for the
+ * whole batch are written with one {@link AuditLogService#logBatch} call after the
+ * last line — including when the client disconnects, in which case outstanding
+ * prompts are cancelled.
+ *
+ * A prompt over the context window ({@link TokenEstimator}) gets a 413 error line
+ * without reaching Ollama.
+ *
+ * Rate limiting (one token per prompt) is the caller's job; see BatchAskController.
+ */
+@Service
+public class BatchAskService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchAskService.class);
+
+    private final OllamaClient ollamaClient;
+    private final ModelRouter modelRouter;
+    private final PiiRedactionService piiRedactionService;
+    private final AuditLogService auditLogService;
+    private final TokenEstimator tokenEstimator;
+    private final GenerationLimits generationLimits;
+    private final ObjectWriter resultWriter;
+    private final ExecutorService executor;
+    private final int parallelism;
+    private final int maxPrompts;
+
+    public BatchAskService(OllamaClient ollamaClient, ModelRouter modelRouter,
+                           PiiRedactionService piiRedactionService, AuditLogService auditLogService,
+                           TokenEstimator tokenEstimator, GenerationLimits generationLimits,
+                           ObjectMapper objectMapper,
+                           @Value("${batch.threads:8}") int threads,
+                           @Value("${batch.parallelism:4}") int parallelism,
+                           @Value("${batch.max-prompts:100}") int maxPrompts) {
+        this.ollamaClient = ollamaClient;
+        this.modelRouter = modelRouter;
+        this.piiRedactionService = piiRedactionService;
+        this.auditLogService = auditLogService;
+        this.tokenEstimator = tokenEstimator;
+        this.generationLimits = generationLimits;
+        this.resultWriter = objectMapper.writerFor(BatchAskResult.class)
+                .withRootValueSeparator("\n")
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.parallelism = Math.max(1, parallelism);
+        this.maxPrompts = maxPrompts;
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Math.max(1, threads), runnable -> {
+            Thread thread = new Thread(runnable, "batch-ask-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * @throws BatchTooLargeException when the batch exceeds {@code batch.max-prompts}
+     */
+    public void checkSize(List<String> prompts) {
+        if (prompts.size() > maxPrompts) {
+            throw new BatchTooLargeException(maxPrompts);
+        }
+    }
+
+    /**
+     * Run every prompt and stream one {@link BatchAskResult} line per prompt to
+     * {@code out}, in completion order.
+     */
+    public void execute(String username, List<String> roles, List<String> prompts, String ipAddress,
+                        OutputStream out) throws IOException {
+        CompletionService<Outcome> completion = new ExecutorCompletionService<>(executor);
+        List<Future<Outcome>> futures = new ArrayList<>(prompts.size());
+        List<AuditLogService.BatchEntry> audits = new ArrayList<>(prompts.size());
+        GenerationOptions options = new GenerationOptions(generationLimits.maxTokens(roles), null, List.of());
+        long startTime = System.nanoTime();
+
+        while (futures.size() < Math.min(parallelism, prompts.size())) {
+            futures.add(submit(completion, prompts, roles, options, futures.size()));
+        }
+        try (SequenceWriter writer = resultWriter.writeValues(out)) {
+            for (int done = 0; done < prompts.size(); done++) {
+                Outcome outcome = completion.take().get();
+                if (futures.size() < prompts.size()) {
+                    futures.add(submit(completion, prompts, roles, options, futures.size()));
+                }
+                audits.add(outcome.audit);
+                writer.write(outcome.result);
+                writer.flush();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Batch interrupted");
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Batch prompt failed unexpectedly", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+            auditLogService.logBatch(username, ipAddress, audits);
+            log.info("Batch for '{}': {}/{} prompt(s) answered in {} ms", sanitizeLog(username),
+                    audits.size(), prompts.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private Future<Outcome> submit(CompletionService<Outcome> completion, List<String> prompts,
+                                   List<String> roles, GenerationOptions options, int index) {
+        String prompt = prompts.get(index);
+        String model = modelRouter.route(prompt, false, roles, null);
+        return completion.submit(() -> answer(index, prompt, model, options));
+    }
+
+    private Outcome answer(int index, String prompt, String model, GenerationOptions options) {
+        long startTime = System.nanoTime();
+        try {
+            tokenEstimator.checkPrompt(prompt, null);
+            OllamaClient.OllamaResult result = ollamaClient.generate(prompt, null, model, options);
+            boolean piiDetected = piiRedactionService.containsPii(result.text);
+            String finalResponse = piiDetected ? piiRedactionService.redact(result.text) : result.text;
+            long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+            return new Outcome(new BatchAskResult(index, finalResponse, piiDetected, durationMs, null),
+                    new AuditLogService.BatchEntry(prompt, model, finalResponse, piiDetected, 200, durationMs,
+                            result.stats, options));
+        } catch (TokenEstimator.PromptTooLargeException e) {
+            return failed(index, prompt, model, options, startTime, 413, e.getMessage());
+        } catch (OllamaClient.OllamaException e) {
+            log.warn("Batch prompt {} failed: {}", index, sanitizeLog(e.getMessage()));
+            return failed(index, prompt, model, options, startTime, 503, "AI model is currently unavailable. Please try again.");
+        } catch (RuntimeException e) {
+            log.error("Batch prompt {} failed: {}", index, sanitizeLog(e.getMessage()), e);
+            return failed(index, prompt, model, options, startTime, 500, "An unexpected error occurred");
+        }
+    }
+
+    private static Outcome failed(int index, String prompt, String model, GenerationOptions options,
+                                  long startTime, int statusCode, String error) {
+        long durationMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startTime);
+        return new Outcome(new BatchAskResult(index, null, false, durationMs, error),
+                new AuditLogService.BatchEntry(prompt, model, null, false, statusCode, durationMs, null,
+                        options));
+    }
+
+    /** Strips CR and LF to prevent CRLF injection in log messages. */
+    private static String sanitizeLog(String value) {
+        if (value == null) return "(null)";
+        return value.replace("\r", "\\r").replace("\n", "\\n");
+    }
+
+    private record Outcome(BatchAskResult result, AuditLogService.BatchEntry audit) {}
+
+    public static class BatchTooLargeException extends RuntimeException {
+        public BatchTooLargeException(int maxPrompts) {
+            super("A batch may contain at most " + maxPrompts + " prompts");
+        }
+    }
+}
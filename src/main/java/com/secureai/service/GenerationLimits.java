@@ -0,0 +1,100 @@
+package com.secureai.service;
+
+import com.secureai.model.AskRequest;
+import com.secureai.model.GenerationOptions;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+/**
+ * Generation Limits — server-side ceilings on client-supplied generation options
+ *
+ * A request's {@code maxTokens} may not exceed the caller's ceiling:
+ *  - the highest {@code generation.role-max-tokens} entry among the caller's roles
+ *    (e.g. {@code ADMIN=4096,TRIAL=256})
+ *  - otherwise {@code generation.max-tokens} (default {@link OllamaClient#NUM_PREDICT})
+ * When {@code maxTokens} is omitted the ceiling itself is sent, so a role's limit
+ * also bounds clients that never set one. Temperature range and stop-sequence
+ * count/length are plain bean validation on {@link AskRequest}.
+ *
+ * Stop sequences are refused for the ReAct agent: they would end a reasoning step
+ * early and break its Thought/Action format.
+ */
+@Component
+public class GenerationLimits {
+
+    private static final Logger log = LoggerFactory.getLogger(GenerationLimits.class);
+
+    private final int defaultMaxTokens;
+    private final Map<String, Integer> roleMaxTokens;
+
+    public GenerationLimits(@Value("${generation.max-tokens:" + OllamaClient.NUM_PREDICT + "}") int defaultMaxTokens,
+                            @Value("${generation.role-max-tokens:}") String roleMaxTokens) {
+        this.defaultMaxTokens = defaultMaxTokens;
+        this.roleMaxTokens = parse(roleMaxTokens);
+        int highest = this.roleMaxTokens.values().stream().reduce(defaultMaxTokens, Math::max);
+        if (highest > OllamaClient.NUM_PREDICT) {
+            log.warn("Generation ceiling of {} tokens exceeds the {} tokens reserved out of num_ctx; "
+                    + "long answers may push the prompt out of the context window", highest, OllamaClient.NUM_PREDICT);
+        }
+    }
+
+    /**
+     * Options for {@code request}, checked against the ceiling for {@code roles}.
+     *
+     * @param react whether the request runs the ReAct agent
+     * @param roles caller's roles, without the ROLE_ prefix
+     * @throws GenerationLimitException when a requested option is not allowed
+     */
+    public GenerationOptions resolve(AskRequest request, boolean react, Collection<String> roles) {
+        int ceiling = maxTokens(roles);
+        Integer requested = request.getMaxTokens();
+        if (requested != null && requested > ceiling) {
+            throw new GenerationLimitException("maxTokens may be at most " + ceiling + " for this account");
+        }
+        if (react && request.getStop() != null && !request.getStop().isEmpty()) {
+            throw new GenerationLimitException("stop sequences are not supported with the ReAct agent");
+        }
+        return new GenerationOptions(requested != null ? requested : ceiling, request.getTemperature(),
+                request.getStop());
+    }
+
+    /** Ceiling on generated tokens for a caller with {@code roles}. */
+    public int maxTokens(Collection<String> roles) {
+        return roles.stream()
+                .map(role -> roleMaxTokens.get(role.toUpperCase(Locale.ROOT)))
+                .filter(Objects::nonNull)
+                .max(Integer::compare)
+                .orElse(defaultMaxTokens);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static Map<String, Integer> parse(String value) {
+        return Arrays.stream(value.split(","))
+                .map(String::trim)
+                .filter(entry -> !entry.isEmpty())
+                .map(entry -> {
+                    int eq = entry.indexOf('=');
+                    if (eq <= 0) {
+                        throw new IllegalArgumentException("generation.role-max-tokens entry '" + entry
+                                + "' is not ROLE=tokens");
+                    }
+                    return Map.entry(entry.substring(0, eq).trim().toUpperCase(Locale.ROOT),
+                            Integer.parseInt(entry.substring(eq + 1).trim()));
+                })
+                .collect(Collectors.toUnmodifiableMap(Map.Entry::getKey, Map.Entry::getValue));
+    }
+
+    public static class GenerationLimitException extends RuntimeException {
+        public GenerationLimitException(String message) { super(message); }
+    }
+}
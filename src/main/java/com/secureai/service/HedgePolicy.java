@@ -0,0 +1,83 @@
+package com.secureai.service;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * When to hedge an Ollama request, and whether the budget allows it.
+ *
+ * Delay: the p95 of the last {@value #WINDOW} response times for the model,
+ * floored at {@code minDelayMs}; no hedging until {@value #MIN_SAMPLES} samples
+ * exist. The percentile is recomputed every {@value #RECOMPUTE_EVERY} samples,
+ * so the per-request cost is one array store.
+ *
+ * Budget: every request earns {@code budgetPercent / 100} of a hedge credit (up
+ * to {@value #MAX_CREDITS} banked) and every hedge spends one, so hedges add at
+ * most budgetPercent extra load over time no matter how slow the backends get.
+ */
+final class HedgePolicy {
+
+    static final int WINDOW = 256;
+    static final int MIN_SAMPLES = 20;
+    static final int RECOMPUTE_EVERY = 16;
+    private static final double MAX_CREDITS = 10.0;
+
+    private final double creditPerRequest;
+    private final long minDelayNanos;
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+    private double credits;
+
+    HedgePolicy(double budgetPercent, long minDelayMs) {
+        this.creditPerRequest = budgetPercent / 100.0;
+        this.minDelayNanos = TimeUnit.MILLISECONDS.toNanos(minDelayMs);
+    }
+
+    /** Nanoseconds to wait for the first backend before hedging, or -1 for "do not hedge". */
+    long delayNanos(String model) {
+        Window window = windows.get(model);
+        long p95 = window == null ? -1 : window.p95();
+        return p95 < 0 ? -1 : Math.max(p95, minDelayNanos);
+    }
+
+    void record(String model, long nanos) {
+        windows.computeIfAbsent(model, m -> new Window()).add(nanos);
+    }
+
+    synchronized void onRequest() {
+        credits = Math.min(MAX_CREDITS, credits + creditPerRequest);
+    }
+
+    synchronized boolean tryAcquire() {
+        if (credits < 1.0) return false;
+        credits -= 1.0;
+        return true;
+    }
+
+    /** Return a credit taken by {@link #tryAcquire()} for a hedge that could not be sent. */
+    synchronized void release() {
+        credits = Math.min(MAX_CREDITS, credits + 1.0);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static final class Window {
+        private final long[] samples = new long[WINDOW];
+        private long count;
+        private long p95 = -1;
+
+        synchronized void add(long nanos) {
+            samples[(int) (count++ % WINDOW)] = nanos;
+            if (count >= MIN_SAMPLES && (count % RECOMPUTE_EVERY == 0 || p95 < 0)) {
+                long[] sorted = Arrays.copyOf(samples, (int) Math.min(count, WINDOW));
+                Arrays.sort(sorted);
+                p95 = sorted[(int) Math.ceil(sorted.length * 0.95) - 1];
+            }
+        }
+
+        synchronized long p95() {
+            return p95;
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.secureai.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Model Router — picks the Ollama model for each call
+ *
+ * Two tiers: "quality" is {@code ollama.model}, "fast" is {@code routing.fast-model}
+ * (a 1–3B model that answers simple prompts in a fraction of the time).
+ *
+ * Rules for a direct /api/ask prompt, first match wins:
+ *  1. ReAct requested                          → {@code routing.react-model}
+ *  2. Explicit {@code modelTier} hint          → that tier
+ *  3. Caller has a role in {@code routing.quality-roles} → quality
+ *  4. Prompt of at most {@code routing.fast-max-prompt-chars} → fast
+ *  5. Otherwise                                → quality
+ *
+ * ReAct tool sub-calls listed in {@code routing.fast-tools} (default summarize,
+ * calculate) use the fast model; reasoning steps use the ReAct model.
+ *
+ * Every decision is counted as gateway.model.route{model, reason}; per-model
+ * latency and throughput come from OllamaClient's model-tagged meters, so the
+ * thresholds can be tuned from the dashboard.
+ *
+ * Disabled by default (routing.enabled=false): every call uses ollama.model.
+ */
+@Component
+public class ModelRouter {
+
+    public static final String TIER_FAST = "fast";
+    public static final String TIER_QUALITY = "quality";
+
+    private final MeterRegistry meterRegistry;
+    private final boolean enabled;
+    private final String qualityModel;
+    private final String fastModel;
+    private final String reactModel;
+    private final int fastMaxPromptChars;
+    private final Set<String> fastTools;
+    private final Set<String> qualityRoles;
+
+    public ModelRouter(MeterRegistry meterRegistry,
+                       @Value("${ollama.model:llama3.1:8b}") String qualityModel,
+                       @Value("${routing.enabled:false}") boolean enabled,
+                       @Value("${routing.fast-model:llama3.2:3b}") String fastModel,
+                       @Value("${routing.react-model:}") String reactModel,
+                       @Value("${routing.fast-max-prompt-chars:400}") int fastMaxPromptChars,
+                       @Value("${routing.fast-tools:summarize,calculate}") String fastTools,
+                       @Value("${routing.quality-roles:}") String qualityRoles) {
+        this.meterRegistry = meterRegistry;
+        this.enabled = enabled;
+        this.qualityModel = qualityModel;
+        this.fastModel = enabled ? fastModel : qualityModel;
+        this.reactModel = enabled && !reactModel.isBlank() ? reactModel : qualityModel;
+        this.fastMaxPromptChars = fastMaxPromptChars;
+        this.fastTools = csv(fastTools);
+        this.qualityRoles = csv(qualityRoles);
+    }
+
+    /**
+     * Model for a direct prompt, or for the ReAct reasoning steps when {@code react}.
+     *
+     * @param roles    caller's roles, without the ROLE_ prefix (e.g. USER, ADMIN)
+     * @param tierHint {@link #TIER_FAST}, {@link #TIER_QUALITY} or null
+     */
+    public String route(String prompt, boolean react, Collection<String> roles, String tierHint) {
+        if (!enabled) return qualityModel;
+        if (react) return count(reactModel, "react");
+        if (TIER_FAST.equals(tierHint)) return count(fastModel, "hint");
+        if (TIER_QUALITY.equals(tierHint)) return count(qualityModel, "hint");
+        if (roles.stream().map(role -> role.toLowerCase(Locale.ROOT)).anyMatch(qualityRoles::contains)) {
+            return count(qualityModel, "role");
+        }
+        if (prompt.length() <= fastMaxPromptChars) return count(fastModel, "length");
+        return count(qualityModel, "default");
+    }
+
+    /** Model for ReAct reasoning steps. */
+    public String reactModel() {
+        return reactModel;
+    }
+
+    /** Model for a ReAct tool sub-call. */
+    public String toolModel(String tool) {
+        if (!enabled) return qualityModel;
+        return fastTools.contains(tool.toLowerCase(Locale.ROOT).trim())
+                ? count(fastModel, "tool") : count(reactModel, "tool");
+    }
+
+    /** Every model a request can be routed to — the set ModelWarmer keeps loaded. */
+    public Set<String> models() {
+        Set<String> models = new LinkedHashSet<>();
+        models.add(qualityModel);
+        models.add(reactModel);
+        models.add(fastModel);
+        return models;
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private String count(String model, String reason) {
+        Counter.builder("gateway.model.route")
+                .description("Model routing decisions")
+                .tags("model", model, "reason", reason)
+                .register(meterRegistry)
+                .increment();
+        return model;
+    }
+
+    private static Set<String> csv(String value) {
+        return Arrays.stream(value.split(","))
+                .map(item -> item.trim().toLowerCase(Locale.ROOT))
+                .filter(item -> !item.isEmpty())
+                .collect(Collectors.toUnmodifiableSet());
+    }
+}
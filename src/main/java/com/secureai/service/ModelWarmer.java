@@ -0,0 +1,122 @@
+package com.secureai.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.health.Health;
+import org.springframework.boot.actuate.health.HealthIndicator;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Model Warmer — keeps the first user request off a cold model load
+ *
+ *  - On ApplicationReadyEvent every model {@link ModelRouter} can route to is
+ *    loaded via {@link OllamaClient#warmUp(String)}, retried every
+ *    {@code ollama.warmup.retry-interval-ms} until Ollama answers
+ *  - While warm, a keep-warm ping is sent to each model that has had no generation
+ *    for {@code ollama.warmup.idle-ping-ms} — well inside {@code ollama.keep-alive}, so
+ *    Ollama never unloads it during quiet periods, even while another model is busy
+ *  - A failed ping marks the model cold again and warm-up resumes
+ *
+ * Also the "modelWarmer" health indicator, included in the readiness group: the
+ * pod reports OUT_OF_SERVICE until the models are loaded, so the load balancer sends
+ * no traffic to it. With warm-up disabled it always reports UP.
+ *
+ * Runs on its own thread — a 10–30 s load must not stall the shared @Scheduled pool.
+ */
+@Component
+public class ModelWarmer implements HealthIndicator {
+
+    private static final Logger log = LoggerFactory.getLogger(ModelWarmer.class);
+
+    private final OllamaClient ollamaClient;
+    private final ModelRouter modelRouter;
+    private final boolean enabled;
+    private final long retryIntervalMs;
+    private final long idlePingMs;
+    private final ScheduledExecutorService scheduler;
+
+    private volatile boolean warm;
+
+    public ModelWarmer(OllamaClient ollamaClient, ModelRouter modelRouter,
+                       @Value("${ollama.warmup.enabled:true}") boolean enabled,
+                       @Value("${ollama.warmup.retry-interval-ms:10000}") long retryIntervalMs,
+                       @Value("${ollama.warmup.idle-ping-ms:240000}") long idlePingMs) {
+        this.ollamaClient = ollamaClient;
+        this.modelRouter = modelRouter;
+        this.enabled = enabled;
+        this.retryIntervalMs = retryIntervalMs;
+        this.idlePingMs = idlePingMs;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "model-warmer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) return;
+        log.info("Warming model(s) {}", modelRouter.models());
+        scheduler.scheduleWithFixedDelay(this::tick, 0, retryIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Health health() {
+        if (!enabled || warm) {
+            return Health.up().withDetail("models", modelRouter.models()).build();
+        }
+        return Health.outOfService().withDetail("models", modelRouter.models())
+                .withDetail("reason", "models not loaded yet").build();
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        scheduler.shutdownNow();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** Warm up every model when cold; when warm, ping only the models that have been idle. */
+    void tick() {
+        long now = System.nanoTime();
+        try {
+            for (String model : modelRouter.models()) {
+                long idleMs = TimeUnit.NANOSECONDS.toMillis(now - ollamaClient.getLastActivityNanos(model));
+                if (warm && idleMs < idlePingMs) continue;
+                long loadNs = ollamaClient.warmUp(model);
+                if (!warm) {
+                    log.info("Model '{}' is loaded (load took {} ms)", model, TimeUnit.NANOSECONDS.toMillis(loadNs));
+                }
+            }
+            warm = true;
+        } catch (OllamaClient.OllamaException e) {
+            if (warm) {
+                log.warn("Keep-warm ping failed, marking model cold: {}", sanitizeLog(e.getMessage()));
+            } else {
+                log.debug("Model warm-up failed, retrying: {}", sanitizeLog(e.getMessage()));
+            }
+            warm = false;
+        } catch (RuntimeException e) {
+            log.error("Model warm-up error: {}", sanitizeLog(e.getMessage()), e);   // keep the schedule alive
+            warm = false;
+        }
+    }
+
+    /** Strips CR and LF to prevent CRLF injection in log messages. */
+    private static String sanitizeLog(String value) {
+        if (value == null) return "(null)";
+        return value.replace("\r", "\\r").replace("\n", "\\n");
+    }
+}
@@ -1,19 +1,45 @@
 package com.secureai.service;
 
-import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secureai.model.GenerationOptions;
+import com.secureai.model.GenerationStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.stereotype.Service;
 
 import org.springframework.web.client.ResourceAccessException;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Ollama Local LLM Client
@@ -23,36 +49,134 @@ import java.util.Map;
  *
  * API: POST /api/generate (non-streaming)
  *
+ * Every call carries {@code keep_alive} ({@code ollama.keep-alive}) so Ollama keeps the
+ * model resident between requests; {@link #warmUp()} loads it ahead of traffic and is
+ * driven by {@link ModelWarmer}.
+ *
+ * Backends: {@code ollama.base-urls} lists several Ollama instances serving the same
+ * models; calls are spread round-robin. With {@code ollama.hedging.enabled}, a generate
+ * call still unanswered after the model's observed p95 latency is re-sent to the next
+ * backend, the first answer wins and the other exchange is cancelled. A hedge budget
+ * ({@code ollama.hedging.budget-percent}) caps the extra load — see {@link HedgePolicy}.
+ * Hedged exchanges run on a pool of at most {@code ollama.hedging.max-threads}; when
+ * it is full the call is simply not hedged.
+ * Counted in {@code ollama.hedge.fired} / {@code ollama.hedge.won}, tagged by model.
+ *
+ * Responses are parsed straight off the HTTP stream by {@link OllamaResponseParser} —
+ * no intermediate body String — which also understands NDJSON stream chunks.
+ *
+ * Telemetry: Ollama's timing fields (total/load/prompt_eval/eval durations and token
+ * counts) are parsed into {@link GenerationStats}, exported as Micrometer timers and
+ * distribution summaries tagged by model, and returned to callers for the audit log.
+ *
  * SpotBugs fixes applied:
  *  - CRLF_INJECTION_LOGS (lines 61, 90, 95)  : user-derived values wrapped in sanitizeLog()
  *  - REC_CATCH_EXCEPTION  (line 107)          : isHealthy() now catches RestClientException
-
- *  - UUF_UNUSED_PUBLIC_OR_PROTECTED_FIELD     : removed unread fields (model, done,
- *                                               total_duration, eval_count) from OllamaResponse
- *  - UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD  : response + error are now private with
- *                                               explicit setters so Jackson can populate them
- *                                               without SpotBugs treating them as unwritten
+ *  - UUF_UNUSED / UWF_UNWRITTEN fields        : the reflection-populated OllamaResponse
+ *                                               DTO is gone; see OllamaResponseParser
  */
 @Service
 public class OllamaClient {
 
     private static final Logger log = LoggerFactory.getLogger(OllamaClient.class);
 
+    /** Tokens Ollama may generate per call ({@code num_predict}); reserved out of the context window. */
+    public static final int NUM_PREDICT = 2048;
+
     @Value("${ollama.base-url:http://localhost:11434}")
     private String baseUrl;
 
     @Value("${ollama.model:llama3.1:8b}")
     private String model;
 
+    @Value("${ollama.embedding-model:nomic-embed-text}")
+    private String embeddingModel;
+
     @Value("${ollama.timeout-seconds:120}")
     private int timeoutSeconds;
 
+    @Value("${ollama.keep-alive:30m}")
+    private String keepAlive;
+
+    /** Context window requested from Ollama ({@code num_ctx}); 0 leaves Ollama's default. */
+    @Value("${ollama.num-ctx:8192}")
+    private int numCtx;
+
+    @Value("${ollama.base-urls:}")
+    private String baseUrls;
+
+    @Value("${ollama.hedging.enabled:false}")
+    private boolean hedgingEnabled;
+
+    @Value("${ollama.hedging.budget-percent:5}")
+    private double hedgeBudgetPercent;
+
+    @Value("${ollama.hedging.min-delay-ms:100}")
+    private long hedgeMinDelayMs;
+
+    @Value("${ollama.hedging.max-threads:16}")
+    private int hedgeMaxThreads;
+
+    /** Set by {@link #configureBackends()}; null means "just baseUrl, no hedging". */
+    private volatile List<String> backends;
+    private volatile HedgePolicy hedgePolicy;
+    private volatile ExecutorService hedgeExecutor;
+    private final AtomicInteger nextBackend = new AtomicInteger();
+
+    /** Per model: System.nanoTime() of the last successful call that kept it loaded. */
+    private final Map<String, Long> lastActivityNanos = new ConcurrentHashMap<>();
+    private final long createdNanos = System.nanoTime();
+
     private final RestTemplate restTemplate;
     private final ObjectMapper objectMapper;
+    private final OllamaResponseParser responseParser;
+    private final MeterRegistry meterRegistry;
+
+    @Autowired
+    public OllamaClient(MeterRegistry meterRegistry) {
+        // JDK HttpClient: unlike HttpURLConnection, interrupting a blocked call aborts the
+        // exchange, which is how the losing side of a hedge is cancelled.
+        this(new RestTemplate(new JdkClientHttpRequestFactory(
+                HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build())), meterRegistry);
+    }
 
-    public OllamaClient() {
-        this.restTemplate = new RestTemplate();
+    OllamaClient(RestTemplate restTemplate, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
         this.objectMapper = new ObjectMapper();
+        this.responseParser = new OllamaResponseParser(objectMapper.getFactory());
+        this.meterRegistry = meterRegistry;
+    }
+
+    /** Resolve {@code ollama.base-urls} (falling back to {@code ollama.base-url}) and the hedge policy. */
+    @PostConstruct
+    void configureBackends() {
+        List<String> urls = baseUrls == null ? List.of() : Arrays.stream(baseUrls.split(","))
+                .map(String::trim)
+                .filter(url -> !url.isEmpty())
+                .map(url -> url.endsWith("/") ? url.substring(0, url.length() - 1) : url)
+                .toList();
+        backends = urls.isEmpty() ? List.of(baseUrl) : urls;
+        if (hedgingEnabled && backends.size() > 1) {
+            // No queue: an exchange that cannot start now is not worth hedging
+            AtomicInteger counter = new AtomicInteger();
+            hedgeExecutor = new ThreadPoolExecutor(0, Math.max(1, hedgeMaxThreads), 60, TimeUnit.SECONDS,
+                    new SynchronousQueue<>(), runnable -> {
+                        Thread thread = new Thread(runnable, "ollama-hedge-" + counter.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+            hedgePolicy = new HedgePolicy(hedgeBudgetPercent, hedgeMinDelayMs);
+            log.info("Hedging generate calls across {} Ollama backends (budget {}%, {} threads)", backends.size(),
+                    hedgeBudgetPercent, hedgeMaxThreads);
+        } else if (hedgingEnabled) {
+            log.warn("ollama.hedging.enabled is set but only one backend is configured; not hedging");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ExecutorService executor = hedgeExecutor;
+        if (executor != null) executor.shutdownNow();
     }
 
     /**
@@ -62,15 +186,45 @@ public class OllamaClient {
      * @throws OllamaException if the model is unavailable or returns an error
      */
     public String generateResponse(String prompt) {
-        return generateResponse(prompt, null);
+        return generate(prompt, null).text;
     }
 
     /**
      * Generate a response with a system prompt (used by ReAct agent).
      */
     public String generateResponse(String prompt, String systemPrompt) {
-        String url = baseUrl + "/api/generate";
+        return generate(prompt, systemPrompt).text;
+    }
+
+    /**
+     * Generate a response and return it together with Ollama's timing telemetry.
+     */
+    public OllamaResult generate(String prompt) {
+        return generate(prompt, null);
+    }
+
+    /**
+     * Generate a response with an optional system prompt, returning text plus telemetry.
+     * @throws OllamaException if the model is unavailable or returns an error
+     */
+    public OllamaResult generate(String prompt, String systemPrompt) {
+        return generate(prompt, systemPrompt, model);
+    }
 
+    /**
+     * Generate with an explicit model, as chosen by {@link ModelRouter}.
+     * @throws OllamaException if the model is unavailable or returns an error
+     */
+    public OllamaResult generate(String prompt, String systemPrompt, String model) {
+        return generate(prompt, systemPrompt, model, GenerationOptions.DEFAULT);
+    }
+
+    /**
+     * Generate with an explicit model and the caller's {@link GenerationOptions}
+     * (max tokens, temperature, stop sequences).
+     * @throws OllamaException if the model is unavailable or returns an error
+     */
+    public OllamaResult generate(String prompt, String systemPrompt, String model, GenerationOptions options) {
         // FIX CRLF_INJECTION_LOGS (was line 61): prompt is user-supplied — sanitize before
         // logging. Truncate first to limit log volume, then sanitize so CR/LF cannot forge lines.
         String safePromptPreview = sanitizeLog(
@@ -78,34 +232,33 @@ public class OllamaClient {
         log.debug("Sending prompt to Ollama model '{}': {}...", model, safePromptPreview);
 
         try {
-            Map<String, Object> requestBody = new HashMap<>();
-            requestBody.put("model", model);
-            requestBody.put("prompt", prompt);
-            requestBody.put("stream", false);
-            if (systemPrompt != null && !systemPrompt.isBlank()) {
-                requestBody.put("system", systemPrompt);
-            }
-            requestBody.put("options", Map.of(
-                "temperature", 0.7,
-                "top_p", 0.9,
-                "num_predict", 2048
-            ));
+            Map<String, Object> requestBody = generateRequest(prompt, systemPrompt, model, keepAlive, numCtx,
+                    options, false);
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             HttpEntity<Map<String, Object>> entity = new HttpEntity<>(requestBody, headers);
 
-            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
-
-            if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
-                return parseOllamaResponse(response.getBody());
-            }
-            throw new OllamaException("Ollama returned status: " + response.getStatusCode());
+            long startTime = System.nanoTime();
+            HedgePolicy policy = hedgePolicy;
+            OllamaResponseParser.Parsed parsed = policy != null
+                    ? postHedged(policy, model, entity)
+                    : postGenerate(nextBackend() + "/api/generate", entity);
+
+            OllamaResult result = toResult(parsed, model);
+            long endTime = System.nanoTime();
+            lastActivityNanos.put(model, endTime);
+            long latencyNanos = endTime - startTime;
+            recordTimer(meterRegistry, "ollama.request.latency",
+                    "Client-observed generate latency, network included", model, latencyNanos);
+            if (policy != null) policy.record(model, latencyNanos);
+            recordMetrics(meterRegistry, result.stats);
+            return result;
 
         } catch (ResourceAccessException e) {
             // FIX CRLF_INJECTION_LOGS (was line 90): e.getMessage() may echo user-controlled
             // network data — sanitize to prevent forged log lines.
-            log.error("Cannot connect to Ollama at {}: {}", baseUrl, sanitizeLog(e.getMessage()));
+            log.error("Cannot connect to Ollama at {}: {}", backends(), sanitizeLog(e.getMessage()));
             throw new OllamaException(
                     "Ollama LLM is not available. Please ensure Ollama is running: ollama serve", e);
         } catch (OllamaException e) {
@@ -118,6 +271,108 @@ public class OllamaClient {
         }
     }
 
+    /**
+     * Embed {@code text} with the configured embedding model (/api/embeddings).
+     * @throws OllamaException if the model is unavailable or returns no vector
+     */
+    public float[] embed(String text) {
+        String url = nextBackend() + "/api/embeddings";
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(
+                    Map.of("model", embeddingModel, "prompt", text, "keep_alive", keepAlive), headers);
+
+            ResponseEntity<String> response = restTemplate.postForEntity(url, entity, String.class);
+            if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
+                throw new OllamaException("Ollama returned status: " + response.getStatusCode());
+            }
+            JsonNode values = objectMapper.readTree(response.getBody()).path("embedding");
+            if (!values.isArray() || values.isEmpty()) {
+                throw new OllamaException("Empty embedding from Ollama");
+            }
+            float[] vector = new float[values.size()];
+            for (int i = 0; i < vector.length; i++) {
+                vector[i] = (float) values.get(i).asDouble();
+            }
+            return vector;
+        } catch (ResourceAccessException e) {
+            log.warn("Cannot reach Ollama for embeddings at {}: {}", url, sanitizeLog(e.getMessage()));
+            throw new OllamaException("Ollama embeddings are not available", e);
+        } catch (OllamaException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OllamaException("Unexpected error requesting embeddings: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Load the generation model into memory without generating anything — a
+     * /api/generate call with no prompt — and (re)arm its keep_alive. Carries the same
+     * num_ctx as real calls; a different one would make Ollama reload the model.
+     *
+     * @return Ollama's reported load time in nanoseconds; 0 when already resident
+     * @throws OllamaException if Ollama is unreachable or cannot load the model
+     */
+    public long warmUp() {
+        return warmUp(model);
+    }
+
+    /**
+     * {@link #warmUp()} for a specific model, on every backend. Succeeds when at least one
+     * backend loaded it, so one dead instance does not hold readiness down.
+     *
+     * @return the longest load time reported by any backend
+     */
+    public long warmUp(String model) {
+        OllamaException failure = null;
+        long loadNanos = -1;
+        for (String backend : backends()) {
+            try {
+                loadNanos = Math.max(loadNanos, warmUp(backend, model));
+            } catch (OllamaException e) {
+                log.warn("Warm-up of '{}' failed on {}: {}", model, backend, sanitizeLog(e.getMessage()));
+                failure = e;
+            }
+        }
+        if (loadNanos < 0) throw failure;
+        return loadNanos;
+    }
+
+    private long warmUp(String backend, String model) {
+        try {
+            HttpHeaders headers = new HttpHeaders();
+            headers.setContentType(MediaType.APPLICATION_JSON);
+            Map<String, Object> body = new HashMap<>();
+            body.put("model", model);
+            body.put("keep_alive", keepAlive);
+            body.put("stream", false);
+            if (numCtx > 0) body.put("options", Map.of("num_ctx", numCtx));
+            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(body, headers);
+
+            OllamaResponseParser.Parsed parsed = postGenerate(backend + "/api/generate", entity);
+            if (parsed.error() != null) {
+                throw new OllamaException("Ollama error: " + parsed.error());
+            }
+            lastActivityNanos.put(model, System.nanoTime());
+            return parsed.loadDuration();
+        } catch (RestClientException e) {
+            throw new OllamaException("Cannot warm model '" + model + "': " + e.getMessage(), e);
+        } catch (OllamaException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new OllamaException("Unexpected error warming model: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * System.nanoTime() of the last successful generation or warm-up of {@code model};
+     * the client's creation time when it has not been used yet.
+     */
+    public long getLastActivityNanos(String model) {
+        return lastActivityNanos.getOrDefault(model, createdNanos);
+    }
+
     /**
      * Check if Ollama is reachable.
      *
@@ -133,14 +388,16 @@ public class OllamaClient {
      * not silently swallowed.
      */
     public boolean isHealthy() {
-        try {
-            ResponseEntity<String> response =
-                    restTemplate.getForEntity(baseUrl + "/api/tags", String.class);
-            return response.getStatusCode().is2xxSuccessful();
-        } catch (RestClientException e) {
-            log.warn("Ollama health check failed: {}", sanitizeLog(e.getMessage()));
-            return false;
+        for (String backend : backends()) {
+            try {
+                ResponseEntity<String> response =
+                        restTemplate.getForEntity(backend + "/api/tags", String.class);
+                if (response.getStatusCode().is2xxSuccessful()) return true;
+            } catch (RestClientException e) {
+                log.warn("Ollama health check failed for {}: {}", backend, sanitizeLog(e.getMessage()));
+            }
         }
+        return false;
     }
 
     public String getModel() {
@@ -149,44 +406,202 @@ public class OllamaClient {
 
     // ─────────────────────────────────────────────────────────────────────────
 
-    private String parseOllamaResponse(String body) throws Exception {
-        OllamaResponse parsed = objectMapper.readValue(body, OllamaResponse.class);
-        if (parsed.getResponse() != null && !parsed.getResponse().isBlank()) {
-            return parsed.getResponse().trim();
+    private List<String> backends() {
+        List<String> configured = backends;
+        return configured != null ? configured : List.of(baseUrl);
+    }
+
+    private String nextBackend() {
+        List<String> urls = backends();
+        return urls.get(Math.floorMod(nextBackend.getAndIncrement(), urls.size()));
+    }
+
+    /**
+     * POST a generate request and parse the reply as it streams in. Non-2xx statuses are
+     * thrown by RestTemplate; malformed JSON is rethrown as OllamaException so it is not
+     * mistaken for a connection failure (RestTemplate wraps every IOException as one).
+     */
+    private OllamaResponseParser.Parsed postGenerate(String url, HttpEntity<?> entity) {
+        return restTemplate.execute(url, HttpMethod.POST, restTemplate.httpEntityCallback(entity), response -> {
+            try {
+                return responseParser.parse(response.getBody());
+            } catch (JsonProcessingException e) {
+                throw new OllamaException("Malformed response from Ollama: " + e.getOriginalMessage(), e);
+            }
+        });
+    }
+
+    /**
+     * POST to the next backend; if it has not answered within the model's p95 and the
+     * budget allows, POST the same body to the backend after it. The first successful
+     * response wins (a failure waits for the other one) and the loser is interrupted.
+     * Exceptions from the winning exchange are rethrown as-is for generate()'s handlers.
+     * A full hedge pool runs the call unhedged on the caller's thread.
+     */
+    private OllamaResponseParser.Parsed postHedged(HedgePolicy policy, String model, HttpEntity<?> entity) {
+        List<String> urls = backends();
+        int first = Math.floorMod(nextBackend.getAndIncrement(), urls.size());
+        String primaryUrl = urls.get(first) + "/api/generate";
+        String hedgeUrl = urls.get((first + 1) % urls.size()) + "/api/generate";
+        policy.onRequest();
+
+        CompletionService<OllamaResponseParser.Parsed> completion = new ExecutorCompletionService<>(hedgeExecutor);
+        List<Future<OllamaResponseParser.Parsed>> futures = new ArrayList<>(2);
+        try {
+            futures.add(completion.submit(() -> postGenerate(primaryUrl, entity)));
+        } catch (RejectedExecutionException full) {
+            return postGenerate(primaryUrl, entity);
         }
-        if (parsed.getError() != null) {
-            throw new OllamaException("Ollama error: " + parsed.getError());
+        try {
+            long delayNanos = policy.delayNanos(model);
+            Future<OllamaResponseParser.Parsed> done = delayNanos < 0 ? null
+                    : completion.poll(delayNanos, TimeUnit.NANOSECONDS);
+            if (done == null && delayNanos >= 0 && policy.tryAcquire()) {
+                try {
+                    futures.add(completion.submit(() -> postGenerate(hedgeUrl, entity)));
+                    hedgeCounter("ollama.hedge.fired", "Generate calls re-sent to a second backend", model);
+                } catch (RejectedExecutionException full) {
+                    policy.release();   // not fired: hand the credit back
+                }
+            }
+            ExecutionException failure = null;
+            for (int pending = futures.size(); pending > 0; pending--) {
+                if (done == null) done = completion.take();
+                try {
+                    OllamaResponseParser.Parsed response = done.get();
+                    if (done != futures.get(0)) {
+                        hedgeCounter("ollama.hedge.won", "Hedged calls answered by the second backend", model);
+                    }
+                    return response;
+                } catch (ExecutionException e) {
+                    failure = e;
+                    done = null;
+                }
+            }
+            Throwable cause = failure.getCause();
+            if (cause instanceof RuntimeException runtime) throw runtime;
+            if (cause instanceof Error error) throw error;
+            throw new OllamaException("Unexpected error communicating with Ollama: " + cause, cause);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new OllamaException("Interrupted while waiting for Ollama", e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
         }
-        throw new OllamaException("Empty response from Ollama");
     }
 
-    // ─────────────────────────────────────────────────────────────────────────
+    private void hedgeCounter(String name, String description, String modelTag) {
+        Counter.builder(name)
+                .description(description)
+                .tags("model", modelTag)
+                .register(meterRegistry)
+                .increment();
+    }
 
     /**
-     * Deserialization DTO for Ollama's /api/generate response.
-     *
-     * FIX UWF_UNWRITTEN_PUBLIC_OR_PROTECTED_FIELD: {@code response} and {@code error}
-     * were public fields only written by Jackson's reflection — SpotBugs cannot see that
-     * path and reports them as "unwritten". Making them private with explicit setters gives
-     * Jackson the same access via standard bean convention while satisfying the analyser.
-     *
-     * FIX UUF_UNUSED_PUBLIC_OR_PROTECTED_FIELD: {@code model}, {@code done},
-     * {@code total_duration}, and {@code eval_count} existed only for deserialisation but
-     * were never read by application code. They are removed here; {@code @JsonIgnoreProperties
-     * (ignoreUnknown = true)} ensures Ollama's extra JSON keys are silently discarded.
+     * /api/generate request body; shared with {@link ReactiveOllamaClient}. Unset
+     * {@link GenerationOptions} fall back to temperature 0.7 and {@link #NUM_PREDICT} tokens.
      */
-    @JsonIgnoreProperties(ignoreUnknown = true)
-    private static class OllamaResponse {
+    static Map<String, Object> generateRequest(String prompt, String systemPrompt, String model,
+                                               String keepAlive, int numCtx, GenerationOptions generation,
+                                               boolean stream) {
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", model);
+        requestBody.put("prompt", prompt);
+        requestBody.put("stream", stream);
+        requestBody.put("keep_alive", keepAlive);
+        if (systemPrompt != null && !systemPrompt.isBlank()) {
+            requestBody.put("system", systemPrompt);
+        }
+        Map<String, Object> options = new HashMap<>();
+        options.put("temperature", generation.getTemperature() != null ? generation.getTemperature() : 0.7);
+        options.put("top_p", 0.9);
+        options.put("num_predict", generation.getMaxTokens() != null ? generation.getMaxTokens() : NUM_PREDICT);
+        if (numCtx > 0) options.put("num_ctx", numCtx);
+        if (!generation.getStop().isEmpty()) options.put("stop", generation.getStop());
+        requestBody.put("options", options);
+        return requestBody;
+    }
 
-        private String response;
-        private String error;
+    /** Shared with {@link ReactiveOllamaClient}. */
+    static OllamaResult toResult(OllamaResponseParser.Parsed parsed, String model) {
+        if (parsed.response() != null && !parsed.response().isBlank()) {
+            return new OllamaResult(parsed.response().trim(), parsed.stats(model));
+        }
+        if (parsed.error() != null) {
+            throw new OllamaException("Ollama error: " + parsed.error());
+        }
+        throw new OllamaException("Empty response from Ollama");
+    }
 
-        // Standard bean setters — required by Jackson when fields are private
-        public void setResponse(String response) { this.response = response; }
-        public void setError(String error)       { this.error = error; }
+    /**
+     * Export Ollama's self-reported timings, tagged by model, so model-load stalls,
+     * queueing and slow decoding can be told apart on the Prometheus dashboard.
+     * Shared with {@link ReactiveOllamaClient}.
+     */
+    static void recordMetrics(MeterRegistry meterRegistry, GenerationStats stats) {
+        if (!stats.isReported()) return;
+        String modelTag = stats.getModel() != null ? stats.getModel() : "unknown";
+
+        recordTimer(meterRegistry, "ollama.generate.total", "Total time spent inside Ollama", modelTag,
+                stats.getTotalDurationNs());
+        recordTimer(meterRegistry, "ollama.generate.load", "Model load time (cold start)", modelTag,
+                stats.getLoadDurationNs());
+        recordTimer(meterRegistry, "ollama.generate.prompt.eval", "Prompt evaluation (prefill) time", modelTag,
+                stats.getPromptEvalDurationNs());
+        recordTimer(meterRegistry, "ollama.generate.eval", "Token generation (decode) time", modelTag,
+                stats.getEvalDurationNs());
+        recordTimer(meterRegistry, "ollama.generate.queue", "Time not spent loading, prefilling or decoding", modelTag,
+                stats.getQueueDurationNs());
+        recordTimer(meterRegistry, "ollama.generate.ttft", "Time to first token (load + prefill)", modelTag,
+                stats.getTimeToFirstTokenNs());
+
+        DistributionSummary.builder("ollama.generate.tokens")
+                .description("Tokens processed per call")
+                .baseUnit("tokens")
+                .tags("model", modelTag, "type", "prompt")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getPromptEvalCount());
+        DistributionSummary.builder("ollama.generate.tokens")
+                .description("Tokens processed per call")
+                .baseUnit("tokens")
+                .tags("model", modelTag, "type", "completion")
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(stats.getEvalCount());
+        if (stats.getTokensPerSecond() > 0) {
+            DistributionSummary.builder("ollama.generate.tokens.per.second")
+                    .description("Decode throughput")
+                    .baseUnit("tokens/s")
+                    .tags("model", modelTag)
+                    .publishPercentileHistogram()
+                    .register(meterRegistry)
+                    .record(stats.getTokensPerSecond());
+        }
+    }
+
+    static void recordTimer(MeterRegistry meterRegistry, String name, String description, String modelTag,
+                            long nanos) {
+        Timer.builder(name)
+                .description(description)
+                .tags("model", modelTag)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
 
-        public String getResponse() { return response; }
-        public String getError()    { return error; }
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** Generated text plus the telemetry Ollama reported for producing it. */
+    public static class OllamaResult {
+        public final String text;
+        public final GenerationStats stats;
+
+        public OllamaResult(String text, GenerationStats stats) {
+            this.text = text;
+            this.stats = stats != null ? stats : GenerationStats.EMPTY;
+        }
     }
 
     // ─────────────────────────────────────────────────────────────────────────
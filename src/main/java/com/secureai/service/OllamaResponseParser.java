@@ -0,0 +1,108 @@
+package com.secureai.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.secureai.model.GenerationStats;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Incremental parser for Ollama /api/generate bodies
+ *
+ *  - Reads straight from the response stream with Jackson's {@link JsonParser}; no
+ *    body String and no DTO are materialised
+ *  - Keeps only {@code response}, {@code error}, {@code done} and the timing fields;
+ *    everything else — notably the multi-thousand-entry {@code context} array — is
+ *    skipped token by token
+ *  - Handles a single object ({@code stream:false}) and NDJSON chunks
+ *    ({@code stream:true}) alike: {@code response} pieces are concatenated, the
+ *    timings come from the final chunk and reading stops at {@code "done":true}
+ *
+ * Thread-safe; one instance is shared by {@link OllamaClient}.
+ */
+final class OllamaResponseParser {
+
+    private final JsonFactory jsonFactory;
+
+    OllamaResponseParser(JsonFactory jsonFactory) {
+        this.jsonFactory = jsonFactory;
+    }
+
+    Parsed parse(InputStream body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    Parsed parse(String body) throws IOException {
+        try (JsonParser parser = jsonFactory.createParser(body)) {
+            return parse(parser);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static Parsed parse(JsonParser parser) throws IOException {
+        String firstChunk = null;
+        StringBuilder chunks = null;   // only allocated once a second chunk arrives
+        String error = null;
+        boolean done = false;
+        long totalDuration = 0;
+        long loadDuration = 0;
+        int promptEvalCount = 0;
+        long promptEvalDuration = 0;
+        int evalCount = 0;
+        long evalDuration = 0;
+
+        JsonToken token;
+        while (!done && (token = parser.nextToken()) != null) {
+            if (token != JsonToken.START_OBJECT) {
+                throw new JsonParseException(parser, "Expected a JSON object, got " + token);
+            }
+            String field;
+            while ((field = parser.nextFieldName()) != null) {
+                JsonToken value = parser.nextToken();
+                switch (field) {
+                    case "response" -> {
+                        String chunk = parser.getValueAsString();
+                        if (chunk == null) break;
+                        if (firstChunk == null) {
+                            firstChunk = chunk;
+                        } else {
+                            if (chunks == null) chunks = new StringBuilder(firstChunk);
+                            chunks.append(chunk);
+                        }
+                    }
+                    case "error" -> error = parser.getValueAsString();
+                    case "done" -> done = value == JsonToken.VALUE_TRUE;
+                    case "total_duration" -> totalDuration = parser.getValueAsLong();
+                    case "load_duration" -> loadDuration = parser.getValueAsLong();
+                    case "prompt_eval_count" -> promptEvalCount = parser.getValueAsInt();
+                    case "prompt_eval_duration" -> promptEvalDuration = parser.getValueAsLong();
+                    case "eval_count" -> evalCount = parser.getValueAsInt();
+                    case "eval_duration" -> evalDuration = parser.getValueAsLong();
+                    default -> parser.skipChildren();
+                }
+            }
+        }
+        return new Parsed(chunks != null ? chunks.toString() : firstChunk, error, done,
+                totalDuration, loadDuration, promptEvalCount, promptEvalDuration, evalCount, evalDuration);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** The fields of a generate response the gateway uses; {@code response} is null when absent. */
+    record Parsed(String response, String error, boolean done,
+                  long totalDuration, long loadDuration,
+                  int promptEvalCount, long promptEvalDuration,
+                  int evalCount, long evalDuration) {
+
+        GenerationStats stats(String model) {
+            return new GenerationStats(model, totalDuration, loadDuration, promptEvalCount,
+                    promptEvalDuration, evalCount, evalDuration);
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package com.secureai.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Password Hashing Service — BCrypt/Argon2 work isolated from request threads
+ *
+ * Design:
+ *  - A fixed pool of {@code auth.hashing.threads} workers (0 = one per CPU)
+ *    with a bounded queue of {@code auth.hashing.queue-capacity}
+ *  - A full queue, or a wait longer than {@code auth.hashing.timeout-ms}, raises
+ *    {@link HashingBusyException} (HTTP 503) instead of piling up Tomcat threads —
+ *    a login storm degrades logins, not /api/ask
+ *  - {@link #upgradeAsync} re-hashes on the pool after the login response is built,
+ *    and is silently skipped when the pool is saturated (the next login retries)
+ *
+ * Meters:
+ *  - auth.password.hash         Timer, tag op = matches | encode (time on the worker)
+ *  - auth.password.hash.queued  Gauge, tasks waiting for a worker
+ */
+@Service
+public class PasswordHashingService {
+
+    private static final Logger log = LoggerFactory.getLogger(PasswordHashingService.class);
+
+    private final PasswordEncoder passwordEncoder;
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+    private final Timer matchesTimer;
+    private final Timer encodeTimer;
+
+    public PasswordHashingService(PasswordEncoder passwordEncoder, MeterRegistry meterRegistry,
+                                  @Value("${auth.hashing.threads:0}") int threads,
+                                  @Value("${auth.hashing.queue-capacity:64}") int queueCapacity,
+                                  @Value("${auth.hashing.timeout-ms:5000}") long timeoutMs) {
+        this.passwordEncoder = passwordEncoder;
+        this.timeoutMs = timeoutMs;
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(poolSize, poolSize, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + counter.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                }, new ThreadPoolExecutor.AbortPolicy());
+        this.matchesTimer = hashTimer(meterRegistry, "matches");
+        this.encodeTimer = hashTimer(meterRegistry, "encode");
+        Gauge.builder("auth.password.hash.queued", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a worker")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Verify {@code raw} against a stored hash on the hashing pool.
+     */
+    public boolean matches(String raw, String encoded) {
+        return await(() -> matchesTimer.recordCallable(() -> passwordEncoder.matches(raw, encoded)));
+    }
+
+    /**
+     * Hash {@code raw} with the configured encoder on the hashing pool.
+     */
+    public String encode(String raw) {
+        return await(() -> encodeTimer.recordCallable(() -> passwordEncoder.encode(raw)));
+    }
+
+    /**
+     * True when {@code encoded} was produced by a different encoder or weaker settings.
+     */
+    public boolean needsUpgrade(String encoded) {
+        return passwordEncoder.upgradeEncoding(encoded);
+    }
+
+    /**
+     * Re-hash {@code raw} in the background and hand the new hash to {@code onEncoded}.
+     * Best effort: skipped when the pool is saturated.
+     */
+    public void upgradeAsync(String raw, Consumer<String> onEncoded) {
+        try {
+            executor.execute(() -> {
+                try {
+                    onEncoded.accept(encodeTimer.recordCallable(() -> passwordEncoder.encode(raw)));
+                } catch (Exception e) {
+                    log.warn("Password hash upgrade failed: {}", e.getMessage());
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            log.debug("Hashing pool saturated; deferring password hash upgrade");
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private <T> T await(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(task);
+        } catch (RejectedExecutionException e) {
+            throw new HashingBusyException();
+        }
+        try {
+            return future.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            future.cancel(false);
+            throw new HashingBusyException();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            future.cancel(false);
+            throw new HashingBusyException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw new IllegalStateException("Password hashing failed", e.getCause());
+        }
+    }
+
+    private static Timer hashTimer(MeterRegistry meterRegistry, String op) {
+        return Timer.builder("auth.password.hash")
+                .description("Time spent hashing or verifying a password")
+                .tag("op", op)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+    }
+
+    public static class HashingBusyException extends RuntimeException {
+        public HashingBusyException() { super("Authentication is temporarily overloaded. Please retry."); }
+    }
+}
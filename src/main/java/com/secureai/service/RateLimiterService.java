@@ -47,10 +47,19 @@ public class RateLimiterService {
      * @return true if allowed; false if rate limit exceeded (HTTP 429)
      */
     public boolean tryConsume(String username) {
+        return tryConsume(username, 1);
+    }
+
+    /**
+     * Atomically consume {@code tokens} for the given user — all or nothing, so a
+     * batch either fits in the remaining budget or is rejected without side effects.
+     * @return true if allowed; false if rate limit exceeded (HTTP 429)
+     */
+    public boolean tryConsume(String username, long tokens) {
         Bucket bucket = getUserBucket(username);
-        boolean allowed = bucket.tryConsume(1);
+        boolean allowed = bucket.tryConsume(tokens);
         if (!allowed) {
-            log.warn("Rate limit exceeded for user '{}'", sanitizeLog(username));
+            log.warn("Rate limit exceeded for user '{}' ({} token(s) requested)", sanitizeLog(username), tokens);
         }
         return allowed;
     }
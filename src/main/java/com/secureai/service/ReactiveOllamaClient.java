@@ -0,0 +1,194 @@
+package com.secureai.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.secureai.model.GenerationOptions;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.MediaType;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.stereotype.Service;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.resources.ConnectionProvider;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Non-blocking Ollama client on WebClient / Reactor Netty
+ *
+ *  - {@link #generate} returns the whole answer as a {@code Mono}; the body is
+ *    collected as buffers and parsed by the same {@link OllamaResponseParser} as
+ *    the blocking client
+ *  - {@link #stream} returns the answer token by token as a {@code Flux} from
+ *    Ollama's NDJSON stream; demand is passed through to the socket, so a slow
+ *    subscriber slows the read instead of buffering the answer
+ *
+ * No thread waits on an in-flight generation — a few Netty event-loop threads carry
+ * all of them, bounded by {@code ollama.reactive.max-connections}. Used by
+ * POST /api/ask/async. Single backend ({@code ollama.base-url}) and no hedging: those
+ * stay with {@link OllamaClient}.
+ *
+ * Errors surface as {@link OllamaClient.OllamaException} so GlobalExceptionHandler
+ * maps them exactly like the blocking path.
+ */
+@Service
+public class ReactiveOllamaClient {
+
+    /** Upper bound on a buffered non-streaming response. */
+    private static final int MAX_RESPONSE_BYTES = 16 * 1024 * 1024;
+
+    private final WebClient webClient;
+    private final ConnectionProvider connectionProvider;
+    private final OllamaResponseParser responseParser = new OllamaResponseParser(new JsonFactory());
+    private final MeterRegistry meterRegistry;
+    private final String model;
+    private final String keepAlive;
+    private final int numCtx;
+    private final Duration timeout;
+
+    @Autowired
+    public ReactiveOllamaClient(WebClient.Builder builder, MeterRegistry meterRegistry,
+                                @Value("${ollama.base-url:http://localhost:11434}") String baseUrl,
+                                @Value("${ollama.model:llama3.1:8b}") String model,
+                                @Value("${ollama.keep-alive:30m}") String keepAlive,
+                                @Value("${ollama.num-ctx:8192}") int numCtx,
+                                @Value("${ollama.timeout-seconds:120}") int timeoutSeconds,
+                                @Value("${ollama.reactive.max-connections:500}") int maxConnections) {
+        this(ConnectionProvider.builder("ollama").maxConnections(maxConnections).build(),
+                builder, meterRegistry, baseUrl, model, keepAlive, numCtx, timeoutSeconds);
+    }
+
+    private ReactiveOllamaClient(ConnectionProvider connectionProvider, WebClient.Builder builder,
+                                 MeterRegistry meterRegistry, String baseUrl, String model, String keepAlive,
+                                 int numCtx, int timeoutSeconds) {
+        this(builder.baseUrl(baseUrl)
+                        .clientConnector(new ReactorClientHttpConnector(HttpClient.create(connectionProvider)))
+                        .build(),
+                connectionProvider, meterRegistry, model, keepAlive, numCtx, Duration.ofSeconds(timeoutSeconds));
+    }
+
+    ReactiveOllamaClient(WebClient webClient, ConnectionProvider connectionProvider, MeterRegistry meterRegistry,
+                         String model, String keepAlive, int numCtx, Duration timeout) {
+        this.webClient = webClient;
+        this.connectionProvider = connectionProvider;
+        this.meterRegistry = meterRegistry;
+        this.model = model;
+        this.keepAlive = keepAlive;
+        this.numCtx = numCtx;
+        this.timeout = timeout;
+    }
+
+    /** Whole answer from the default model. */
+    public Mono<String> generateResponse(String prompt) {
+        return generate(prompt, null, model).map(result -> result.text);
+    }
+
+    /**
+     * Whole answer plus Ollama's telemetry, from an explicit model.
+     * Errors with OllamaException if the model is unavailable or returns an error.
+     */
+    public Mono<OllamaClient.OllamaResult> generate(String prompt, String systemPrompt, String model) {
+        return generate(prompt, systemPrompt, model, GenerationOptions.DEFAULT);
+    }
+
+    /** {@link #generate(String, String, String)} with the caller's {@link GenerationOptions}. */
+    public Mono<OllamaClient.OllamaResult> generate(String prompt, String systemPrompt, String model,
+                                                    GenerationOptions options) {
+        return Mono.defer(() -> {
+            long startTime = System.nanoTime();
+            Flux<DataBuffer> body = webClient.post()
+                    .uri("/api/generate")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .bodyValue(OllamaClient.generateRequest(prompt, systemPrompt, model, keepAlive, numCtx,
+                            options, false))
+                    .retrieve()
+                    .bodyToFlux(DataBuffer.class);
+            return DataBufferUtils.join(body, MAX_RESPONSE_BYTES)
+                    .map(buffer -> OllamaClient.toResult(parse(buffer), model))
+                    .switchIfEmpty(Mono.error(() -> new OllamaClient.OllamaException("Empty response from Ollama")))
+                    .doOnNext(result -> {
+                        OllamaClient.recordTimer(meterRegistry, "ollama.request.latency",
+                                "Client-observed generate latency, network included", model,
+                                System.nanoTime() - startTime);
+                        OllamaClient.recordMetrics(meterRegistry, result.stats);
+                    });
+        }).timeout(timeout).onErrorMap(this::translate);
+    }
+
+    /**
+     * Answer tokens as Ollama produces them; completes after the {@code "done":true}
+     * chunk. The timeout applies to the gap between tokens, not the whole answer.
+     */
+    public Flux<String> stream(String prompt, String systemPrompt, String model) {
+        return webClient.post()
+                .uri("/api/generate")
+                .contentType(MediaType.APPLICATION_JSON)
+                .accept(MediaType.APPLICATION_NDJSON)
+                .bodyValue(OllamaClient.generateRequest(prompt, systemPrompt, model, keepAlive, numCtx,
+                        GenerationOptions.DEFAULT, true))
+                .retrieve()
+                .bodyToFlux(JsonNode.class)
+                .<String>handle((chunk, sink) -> {
+                    if (chunk.hasNonNull("error")) {
+                        sink.error(new OllamaClient.OllamaException("Ollama error: " + chunk.get("error").asText()));
+                        return;
+                    }
+                    String token = chunk.path("response").asText("");
+                    if (!token.isEmpty()) sink.next(token);
+                    if (chunk.path("done").asBoolean(false)) sink.complete();
+                })
+                .timeout(timeout)
+                .onErrorMap(this::translate);
+    }
+
+    public String getModel() {
+        return model;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (connectionProvider != null) connectionProvider.dispose();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private OllamaResponseParser.Parsed parse(DataBuffer buffer) {
+        try (InputStream in = buffer.asInputStream(true)) {
+            return responseParser.parse(in);
+        } catch (JsonProcessingException e) {
+            throw new OllamaClient.OllamaException("Malformed response from Ollama: " + e.getOriginalMessage(), e);
+        } catch (IOException e) {
+            throw new OllamaClient.OllamaException("Cannot read Ollama response: " + e.getMessage(), e);
+        }
+    }
+
+    private Throwable translate(Throwable error) {
+        if (error instanceof OllamaClient.OllamaException) return error;
+        if (error instanceof WebClientRequestException) {
+            return new OllamaClient.OllamaException(
+                    "Ollama LLM is not available. Please ensure Ollama is running: ollama serve", error);
+        }
+        if (error instanceof WebClientResponseException response) {
+            return new OllamaClient.OllamaException("Ollama returned status: " + response.getStatusCode(), error);
+        }
+        if (error instanceof TimeoutException) {
+            return new OllamaClient.OllamaException("Ollama did not answer within " + timeout.toSeconds() + " s",
+                    error);
+        }
+        return new OllamaClient.OllamaException("Unexpected error communicating with Ollama: " + error.getMessage(),
+                error);
+    }
+}
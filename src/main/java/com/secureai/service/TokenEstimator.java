@@ -0,0 +1,94 @@
+package com.secureai.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Token Estimator — prompt size in tokens, without a tokenizer
+ *
+ * A single allocation-free pass approximating the Llama 3 / tiktoken-style BPE
+ * tokenizers Ollama models use:
+ *  - ASCII letter runs: one token per started 5 characters (a leading space is
+ *    part of the word, as in BPE)
+ *  - digit runs: one token per started 3 digits
+ *  - punctuation and symbols: one token each; a run of newlines: one token
+ *  - other scripts (CJK, emoji, …): one token per char
+ * It errs on the high side for English prose, which is the safe direction for a
+ * guard; compare with {@code ollama.generate.tokens{type=prompt}} to check it.
+ *
+ * Budget: {@code ollama.num-ctx} (sent to Ollama as {@code num_ctx}) minus the
+ * {@link OllamaClient#NUM_PREDICT} tokens reserved for the answer. Beyond it Ollama
+ * silently drops the start of the prompt, so oversized prompts are refused up
+ * front ({@link #checkPrompt}) and the ReAct agent compacts its history to fit.
+ */
+@Component
+public class TokenEstimator {
+
+    private final int contextTokens;
+    private final int promptBudget;
+
+    public TokenEstimator(@Value("${ollama.num-ctx:8192}") int contextTokens) {
+        this.contextTokens = contextTokens;
+        this.promptBudget = Math.max(contextTokens - OllamaClient.NUM_PREDICT, contextTokens / 2);
+    }
+
+    /** Estimated token count of {@code text}; 0 for null. */
+    public int estimate(CharSequence text) {
+        if (text == null) return 0;
+        int tokens = 0;
+        int letters = 0;
+        int digits = 0;
+        char previous = 0;
+        for (int i = 0, n = text.length(); i < n; i++) {
+            char c = text.charAt(i);
+            if (c < 0x80 && Character.isLetter(c)) {
+                tokens += (digits + 2) / 3;
+                digits = 0;
+                letters++;
+            } else if (c >= '0' && c <= '9') {
+                tokens += (letters + 4) / 5;
+                letters = 0;
+                digits++;
+            } else {
+                tokens += (letters + 4) / 5 + (digits + 2) / 3;
+                letters = 0;
+                digits = 0;
+                if (c == '\n' || c == '\r') {
+                    if (previous != '\n' && previous != '\r') tokens++;
+                } else if (c != ' ') {
+                    tokens++;
+                }
+            }
+            previous = c;
+        }
+        return tokens + (letters + 4) / 5 + (digits + 2) / 3;
+    }
+
+    /** Tokens available for prompt + system prompt. */
+    public int promptBudget() {
+        return promptBudget;
+    }
+
+    public int contextTokens() {
+        return contextTokens;
+    }
+
+    /**
+     * @throws PromptTooLargeException when prompt and system prompt together exceed the budget
+     */
+    public void checkPrompt(String prompt, String systemPrompt) {
+        int tokens = estimate(prompt) + estimate(systemPrompt);
+        if (tokens > promptBudget) {
+            throw new PromptTooLargeException(tokens, promptBudget);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    public static class PromptTooLargeException extends RuntimeException {
+        public PromptTooLargeException(int estimatedTokens, int budgetTokens) {
+            super("Prompt is about " + estimatedTokens + " tokens; the model accepts at most "
+                    + budgetTokens + " tokens of input");
+        }
+    }
+}
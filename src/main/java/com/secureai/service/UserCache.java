@@ -0,0 +1,98 @@
+package com.secureai.service;
+
+import com.secureai.model.User;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Function;
+
+/**
+ * User Cache — short-lived LRU of User records for the login path
+ *
+ * Policy:
+ *  - Entries live for {@code auth.user-cache.ttl-seconds} (default 60) and the
+ *    cache holds at most {@code auth.user-cache.max-size} users (LRU eviction)
+ *  - Only hits are cached — unknown usernames always go to the database, so
+ *    credential-stuffing with random names cannot flush real entries
+ *  - {@link #evict(String)} must be called after any committed change to a user
+ *    (enabled flag, password, role); it takes effect immediately on this node
+ *  - A load that started before an eviction is not cached, so a slow reader can
+ *    never reinstate the pre-change record
+ *
+ * Scale note: eviction is node-local and deliberately not broadcast. On other
+ * replicas a change — including disabling an account — takes effect within the
+ * TTL, when their entry expires. That staleness is accepted: an already issued
+ * JWT stays valid far longer ({@code jwt.expiration}), so the TTL is not the
+ * limiting factor for revoking access. Lower the TTL to tighten it.
+ */
+@Component
+public class UserCache {
+
+    @Value("${auth.user-cache.ttl-seconds:60}")
+    private long ttlSeconds;
+
+    @Value("${auth.user-cache.max-size:10000}")
+    private int maxSize;
+
+    private final Clock clock;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+            return size() > maxSize;
+        }
+    };
+    // Bumped on every eviction; loads that straddle one are not cached
+    private long generation;
+
+    public UserCache() {
+        this(Clock.systemUTC());
+    }
+
+    UserCache(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Cached user, or the result of {@code loader} (cached when present).
+     */
+    public Optional<User> get(String username, Function<String, Optional<User>> loader) {
+        long loadGeneration;
+        synchronized (this) {
+            Entry entry = entries.get(username);
+            if (entry != null) {
+                if (entry.expiresAtMillis() > clock.millis()) {
+                    return Optional.of(entry.user());
+                }
+                entries.remove(username);
+            }
+            loadGeneration = generation;
+        }
+
+        Optional<User> loaded = loader.apply(username);
+        if (ttlSeconds > 0) {
+            loaded.ifPresent(user -> {
+                synchronized (this) {
+                    if (generation == loadGeneration) {
+                        entries.put(username, new Entry(user, clock.millis() + ttlSeconds * 1000));
+                    }
+                }
+            });
+        }
+        return loaded;
+    }
+
+    public synchronized void evict(String username) {
+        entries.remove(username);
+        generation++;
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    private record Entry(User user, long expiresAtMillis) {}
+}
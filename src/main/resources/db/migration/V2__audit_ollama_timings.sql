@@ -0,0 +1,14 @@
+-- ═══════════════════════════════════════════════════════
+-- V2__audit_ollama_timings.sql
+-- Ollama timing telemetry per audited request
+-- Durations are stored in milliseconds; NULL = not reported
+-- (rate-limited requests, errors, older Ollama versions).
+-- ═══════════════════════════════════════════════════════
+
+ALTER TABLE audit_logs
+    ADD COLUMN ollama_total_ms    BIGINT NULL,
+    ADD COLUMN ollama_load_ms     BIGINT NULL,
+    ADD COLUMN prompt_eval_count  INT    NULL,
+    ADD COLUMN prompt_eval_ms     BIGINT NULL,
+    ADD COLUMN eval_count         INT    NULL,
+    ADD COLUMN eval_ms            BIGINT NULL;
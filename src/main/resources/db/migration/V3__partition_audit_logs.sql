@@ -0,0 +1,31 @@
+-- ═══════════════════════════════════════════════════════
+-- V3__partition_audit_logs.sql
+-- Monthly RANGE partitioning of audit_logs on created_at
+--
+-- MySQL requires the partitioning column in every unique key,
+-- so the primary key becomes (id, created_at); id stays
+-- AUTO_INCREMENT and unique in practice.
+--
+-- Layout after this migration:
+--   p<YYYYMM of today>  all existing rows up to the start of next month
+--   pmax                catch-all (kept empty by AuditPartitionManager,
+--                       which splits future months off it ahead of time
+--                       and drops months past audit.partitioning.retention-months)
+--
+-- TIMESTAMP columns can only be range-partitioned via UNIX_TIMESTAMP(),
+-- which the optimizer supports for partition pruning.
+-- ═══════════════════════════════════════════════════════
+
+ALTER TABLE audit_logs
+    DROP PRIMARY KEY,
+    ADD PRIMARY KEY (id, created_at);
+
+SET @first_partition = CONCAT('p', DATE_FORMAT(CURRENT_DATE, '%Y%m'));
+SET @first_bound = DATE_FORMAT(CURRENT_DATE + INTERVAL 1 MONTH, '%Y-%m-01 00:00:00');
+SET @ddl = CONCAT(
+    'ALTER TABLE audit_logs PARTITION BY RANGE (UNIX_TIMESTAMP(created_at)) (',
+    'PARTITION ', @first_partition, ' VALUES LESS THAN (UNIX_TIMESTAMP(''', @first_bound, ''')), ',
+    'PARTITION pmax VALUES LESS THAN MAXVALUE)');
+PREPARE partition_stmt FROM @ddl;
+EXECUTE partition_stmt;
+DEALLOCATE PREPARE partition_stmt;
@@ -0,0 +1,43 @@
+-- ═══════════════════════════════════════════════════════
+-- V4__audit_rollup_hourly.sql
+-- Hourly usage aggregates per (hour, username, model)
+--
+-- Maintained incrementally by AuditRollupService; admin usage
+-- reports read this table instead of scanning audit_logs.
+-- Unknown username/model are stored as '' (NULLs would never
+-- collide in the unique key).
+-- ═══════════════════════════════════════════════════════
+
+CREATE TABLE IF NOT EXISTS audit_rollup_hourly (
+    id                  BIGINT       NOT NULL AUTO_INCREMENT PRIMARY KEY,
+    hour_start          DATETIME     NOT NULL,
+    username            VARCHAR(100) NOT NULL DEFAULT '',
+    model               VARCHAR(100) NOT NULL DEFAULT '',
+    request_count       BIGINT       NOT NULL DEFAULT 0,
+    pii_count           BIGINT       NOT NULL DEFAULT 0,
+    rate_limited_count  BIGINT       NOT NULL DEFAULT 0,
+    duration_sum_ms     BIGINT       NOT NULL DEFAULT 0,
+    duration_max_ms     BIGINT       NOT NULL DEFAULT 0,
+    prompt_tokens       BIGINT       NOT NULL DEFAULT 0,
+    completion_tokens   BIGINT       NOT NULL DEFAULT 0,
+    CONSTRAINT uk_rollup_hour_user_model UNIQUE (hour_start, username, model)
+);
+
+CREATE INDEX idx_rollup_user_hour ON audit_rollup_hourly(username, hour_start);
+
+-- Backfill from existing audit rows
+INSERT INTO audit_rollup_hourly
+    (hour_start, username, model, request_count, pii_count, rate_limited_count,
+     duration_sum_ms, duration_max_ms, prompt_tokens, completion_tokens)
+SELECT DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'),
+       COALESCE(username, ''),
+       COALESCE(model, ''),
+       COUNT(*),
+       SUM(CASE WHEN pii_detected THEN 1 ELSE 0 END),
+       SUM(CASE WHEN rate_limited THEN 1 ELSE 0 END),
+       COALESCE(SUM(duration_ms), 0),
+       COALESCE(MAX(duration_ms), 0),
+       COALESCE(SUM(prompt_eval_count), 0),
+       COALESCE(SUM(eval_count), 0)
+FROM audit_logs
+GROUP BY DATE_FORMAT(created_at, '%Y-%m-%d %H:00:00'), COALESCE(username, ''), COALESCE(model, '');
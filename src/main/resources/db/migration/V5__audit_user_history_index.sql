@@ -0,0 +1,13 @@
+-- ═══════════════════════════════════════════════════════
+-- V5__audit_user_history_index.sql
+-- Composite index for per-user audit history (/api/audit/me)
+--
+-- Keyset pages filter on username and order by
+-- (created_at DESC, id DESC); with this index each page is a
+-- range scan that stops after LIMIT rows — no filesort.
+-- idx_audit_username is a prefix of the new index and is dropped.
+-- ═══════════════════════════════════════════════════════
+
+CREATE INDEX idx_audit_user_created ON audit_logs (username, created_at DESC, id DESC);
+
+DROP INDEX idx_audit_username ON audit_logs;
@@ -0,0 +1,17 @@
+-- ═══════════════════════════════════════════════════════
+-- V6__users_unique_constraints.sql
+-- Named unique constraints on users(username) and users(email)
+--
+-- Registration is a single INSERT that relies on these
+-- constraints; AuthService maps the violated constraint name
+-- to the error message. Blank emails become NULL first (NULLs
+-- never collide). Fails if duplicate emails already exist —
+-- resolve them before migrating.
+-- ═══════════════════════════════════════════════════════
+
+UPDATE users SET email = NULL WHERE TRIM(email) = '';
+
+ALTER TABLE users
+    DROP INDEX username,
+    ADD CONSTRAINT uk_users_username UNIQUE (username),
+    ADD CONSTRAINT uk_users_email    UNIQUE (email);
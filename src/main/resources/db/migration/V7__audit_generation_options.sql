@@ -0,0 +1,13 @@
+-- ═══════════════════════════════════════════════════════
+-- V7__audit_generation_options.sql
+-- Generation options sent with each audited request
+-- max_tokens is the num_predict actually used (the role
+-- ceiling when the client sent none); temperature is NULL
+-- for the server default; stop_sequences is a JSON array,
+-- NULL when none were sent.
+-- ═══════════════════════════════════════════════════════
+
+ALTER TABLE audit_logs
+    ADD COLUMN max_tokens      INT           NULL,
+    ADD COLUMN temperature     DOUBLE        NULL,
+    ADD COLUMN stop_sequences  VARCHAR(1000) NULL;
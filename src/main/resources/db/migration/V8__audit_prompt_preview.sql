@@ -0,0 +1,14 @@
+-- ═══════════════════════════════════════════════════════
+-- V8__audit_prompt_preview.sql
+-- Prompt preview for audit listings
+--
+-- Listing queries used SUBSTRING(prompt, ...), which still
+-- reads the off-page TEXT value of every listed row. The
+-- first 80 characters are now written at insert into an
+-- inline VARCHAR; existing rows are backfilled once.
+-- ═══════════════════════════════════════════════════════
+
+ALTER TABLE audit_logs
+    ADD COLUMN prompt_preview VARCHAR(80) NULL;
+
+UPDATE audit_logs SET prompt_preview = SUBSTRING(prompt, 1, 80) WHERE prompt IS NOT NULL;
@@ -0,0 +1,13 @@
+-- ═══════════════════════════════════════════════════════
+-- V9__audit_pii_alert_index.sql
+-- Composite index for PII alert pages (/admin/audit/pii-alerts)
+--
+-- Keyset pages filter on pii_detected = true and order by
+-- (created_at DESC, id DESC); with this index each page is a
+-- range scan that stops after LIMIT rows — no filesort.
+-- idx_audit_pii is a prefix of the new index and is dropped.
+-- ═══════════════════════════════════════════════════════
+
+CREATE INDEX idx_audit_pii_created ON audit_logs (pii_detected, created_at DESC, id DESC);
+
+DROP INDEX idx_audit_pii ON audit_logs;
@@ -0,0 +1,72 @@
+package com.secureai.agent;
+
+import com.secureai.service.TokenEstimator;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ConversationHistory Tests")
+class ConversationHistoryTest {
+
+    private final TokenEstimator estimator = new TokenEstimator(8192);
+
+    @Test
+    @DisplayName("A transcript within budget is rendered unchanged")
+    void fitsUnchanged() {
+        ConversationHistory history = new ConversationHistory("What is 2+2?");
+        history.append("Thought: add\nAction: calculate\nAction Input: 2+2", "Result: 4");
+
+        ConversationHistory.Prompt prompt = history.render(estimator, 1000);
+
+        assertThat(prompt.compacted()).isFalse();
+        assertThat(prompt.text()).isEqualTo("Question: What is 2+2?\n\n"
+                + "Thought: add\nAction: calculate\nAction Input: 2+2\nObservation: Result: 4\n\n");
+        assertThat(prompt.estimatedTokens()).isEqualTo(estimator.estimate(prompt.text()));
+    }
+
+    @Test
+    @DisplayName("Older observations are shortened before any step is dropped")
+    void shortensOldObservations() {
+        ConversationHistory history = new ConversationHistory("Summarise the report");
+        history.append("Thought: search\nAction: search_knowledge\nAction Input: report", "word ".repeat(300));
+        history.append("Thought: summarise\nAction: summarize\nAction Input: report", "Summary: short");
+        int full = history.render(estimator, Integer.MAX_VALUE).estimatedTokens();
+
+        ConversationHistory.Prompt prompt = history.render(estimator, full - 100);
+
+        assertThat(prompt.compacted()).isTrue();
+        assertThat(prompt.estimatedTokens()).isLessThanOrEqualTo(full - 100);
+        assertThat(prompt.text())
+                .contains("Action Input: report\nObservation: word", "[truncated]", "Summary: short")
+                .doesNotContain("omitted");
+    }
+
+    @Test
+    @DisplayName("The oldest steps are dropped behind a note; the question and latest step stay")
+    void dropsOldestSteps() {
+        ConversationHistory history = new ConversationHistory("Plan the trip");
+        for (int i = 1; i <= 5; i++) {
+            history.append("Thought: step " + i + " " + "reasoning ".repeat(20), "Observation " + i);
+        }
+
+        ConversationHistory.Prompt prompt = history.render(estimator, 100);
+
+        assertThat(prompt.compacted()).isTrue();
+        assertThat(prompt.estimatedTokens()).isLessThanOrEqualTo(100);
+        assertThat(prompt.text())
+                .startsWith("Question: Plan the trip\n\n(")
+                .contains("earlier step(s) omitted to fit the context window", "Thought: step 5")
+                .doesNotContain("Thought: step 1");
+    }
+
+    @Test
+    @DisplayName("A question that alone exceeds the budget is refused")
+    void questionTooLarge() {
+        ConversationHistory history = new ConversationHistory("word ".repeat(50));
+
+        assertThatThrownBy(() -> history.render(estimator, 20))
+                .isInstanceOf(TokenEstimator.PromptTooLargeException.class);
+    }
+}
@@ -0,0 +1,231 @@
+package com.secureai.agent;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ReActOutputParser Tests")
+class ReActOutputParserTest {
+
+    /** The four-regex implementation ReActOutputParser replaced — kept as the differential oracle. */
+    private static final class LegacyRegexParser {
+        private static final Pattern THOUGHT_PATTERN =
+                Pattern.compile("Thought:\\s*(.+?)(?=Action:|$)", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+        private static final Pattern ACTION_PATTERN =
+                Pattern.compile("Action:\\s*(\\w+)", Pattern.CASE_INSENSITIVE);
+        private static final Pattern ACTION_INPUT_PATTERN =
+                Pattern.compile("Action Input:\\s*(.+?)(?=Observation:|Thought:|$)", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+        private static final Pattern FINAL_ANSWER_PATTERN =
+                Pattern.compile("Final Answer:\\s*(.+)", Pattern.DOTALL | Pattern.CASE_INSENSITIVE);
+
+        static ReActAgentService.AgentStep parse(String llmResponse, int stepNumber) {
+            ReActAgentService.AgentStep step = new ReActAgentService.AgentStep(stepNumber);
+            Matcher m = THOUGHT_PATTERN.matcher(llmResponse);
+            if (m.find()) step.thought = m.group(1).trim();
+            m = ACTION_PATTERN.matcher(llmResponse);
+            if (m.find()) step.action = m.group(1).trim();
+            m = ACTION_INPUT_PATTERN.matcher(llmResponse);
+            if (m.find()) step.actionInput = m.group(1).trim();
+            m = FINAL_ANSWER_PATTERN.matcher(llmResponse);
+            if (m.find()) {
+                step.finalAnswer = m.group(1).trim();
+                step.action = "answer";
+            }
+            step.rawResponse = llmResponse;
+            return step;
+        }
+    }
+
+    private static void assertSameAsLegacy(String llmOutput) {
+        ReActAgentService.AgentStep expected = LegacyRegexParser.parse(llmOutput, 1);
+        ReActAgentService.AgentStep actual = ReActOutputParser.parse(llmOutput, 1);
+        assertThat(actual.thought).as("thought of:%n%s", llmOutput).isEqualTo(expected.thought);
+        assertThat(actual.action).as("action of:%n%s", llmOutput).isEqualTo(expected.action);
+        assertThat(actual.actionInput).as("actionInput of:%n%s", llmOutput).isEqualTo(expected.actionInput);
+        assertThat(actual.finalAnswer).as("finalAnswer of:%n%s", llmOutput).isEqualTo(expected.finalAnswer);
+        assertThat(actual.rawResponse).isSameAs(llmOutput);
+    }
+
+    @Nested
+    @DisplayName("Differential — same fields as the legacy regexes")
+    class DifferentialTests {
+
+        @Test
+        @DisplayName("Tool call")
+        void toolCall() {
+            assertSameAsLegacy("""
+                    Thought: I need to calculate this.
+                    Action: calculate
+                    Action Input: 17 * 23
+                    """);
+        }
+
+        @Test
+        @DisplayName("Final answer")
+        void finalAnswer() {
+            assertSameAsLegacy("""
+                    Thought: I now know the final answer.
+                    Action: answer
+                    Final Answer: Paris is the capital of France.
+                    It has been since 987 AD.
+                    """);
+        }
+
+        @Test
+        @DisplayName("Final answer without an Action line")
+        void finalAnswerWithoutAction() {
+            assertSameAsLegacy("Thought: Easy.\nFinal Answer: 42");
+        }
+
+        @Test
+        @DisplayName("Model hallucinates an Observation and a second turn")
+        void hallucinatedSecondTurn() {
+            assertSameAsLegacy("""
+                    Thought: Look it up.
+                    Action: search_knowledge
+                    Action Input: GDPR article 25
+                    Observation: Data protection by design.
+                    Thought: I now know.
+                    Action: answer
+                    Final Answer: It requires privacy by design.
+                    """);
+        }
+
+        @ParameterizedTest
+        @ValueSource(strings = {
+                "THOUGHT: upper\nACTION: calculate\nACTION INPUT: 1+1",
+                "thought: lower\naction: summarize\naction input: some text",
+                "Thought:   padded   \r\nAction:   calculate  \r\nAction Input:   2^10   \r\n",
+                "  Thought: indented\n\tAction: calculate\n  Action Input: 3*3",
+                "Thought: multi\nline\nreasoning\nAction:\n  search_knowledge\nAction Input: q",
+                "Action: calculate\nAction Input: 5+5",
+                "Thought: no action at all",
+                "Just prose with no headers whatsoever.",
+                "Thought: x\nAction: unknown-tool\nAction Input: y"
+        })
+        @DisplayName("Formatting variants")
+        void formattingVariants(String llmOutput) {
+            assertSameAsLegacy(llmOutput);
+        }
+
+        @Test
+        @DisplayName("Randomised well-formed outputs")
+        void randomisedOutputs() {
+            Random random = new Random(20261019L);
+            for (int i = 0; i < 2000; i++) {
+                assertSameAsLegacy(randomOutput(random));
+            }
+        }
+    }
+
+    @Nested
+    @DisplayName("Intentional differences")
+    class DifferenceTests {
+
+        @Test
+        @DisplayName("Blank Thought yields null instead of swallowing the rest of the text")
+        void blankThoughtIsNull() {
+            ReActAgentService.AgentStep step =
+                    ReActOutputParser.parse("Thought:\nAction: answer\nFinal Answer: 42", 1);
+            assertThat(step.thought).isNull();
+            assertThat(step.finalAnswer).isEqualTo("42");
+        }
+
+        @Test
+        @DisplayName("Blank Final Answer does not terminate the loop")
+        void blankFinalAnswerIsNull() {
+            ReActAgentService.AgentStep step =
+                    ReActOutputParser.parse("Thought: hm\nAction: calculate\nFinal Answer:   \n", 1);
+            assertThat(step.finalAnswer).isNull();
+            assertThat(step.action).isEqualTo("calculate");
+        }
+
+        @Test
+        @DisplayName("Labels in the middle of a line are not headers")
+        void midLineLabelsIgnored() {
+            ReActAgentService.AgentStep step =
+                    ReActOutputParser.parse("Thought: the word Action: here is prose\nAction: calculate", 1);
+            assertThat(step.thought).isEqualTo("the word Action: here is prose");
+            assertThat(step.action).isEqualTo("calculate");
+        }
+
+        @Test
+        @DisplayName("Null and empty input produce an empty step")
+        void nullAndEmpty() {
+            assertThat(ReActOutputParser.parse(null, 1).action).isNull();
+            assertThat(ReActOutputParser.parse("", 2).stepNumber).isEqualTo(2);
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static final String[] WORDS = {
+            "the", "capital", "of", "France", "is", "Paris", "compute", "17", "*", "23", "=",
+            "privacy", "by", "design", "summary", "user", "asked", "about", "GDPR", "art.", "25"
+    };
+    private static final String[] TOOLS = {"calculate", "search_knowledge", "summarize", "answer"};
+
+    /** Canonically ordered ReAct output with random casing, spacing, line endings and content. */
+    private static String randomOutput(Random random) {
+        String eol = random.nextInt(4) == 0 ? "\r\n" : "\n";
+        List<String> lines = new ArrayList<>();
+        if (random.nextInt(5) > 0) {
+            lines.add(indent(random) + label("Thought:", random) + space(random) + content(random, eol));
+        }
+        boolean finalTurn = random.nextBoolean();
+        if (random.nextInt(6) > 0) {
+            String tool = finalTurn ? "answer" : TOOLS[random.nextInt(TOOLS.length - 1)];
+            lines.add(indent(random) + label("Action:", random) + space(random) + tool);
+        }
+        if (finalTurn) {
+            lines.add(indent(random) + label("Final Answer:", random) + space(random) + content(random, eol));
+        } else {
+            lines.add(indent(random) + label("Action Input:", random) + space(random) + content(random, eol));
+            if (random.nextBoolean()) {
+                lines.add(label("Observation:", random) + " " + content(random, eol));
+                if (random.nextBoolean()) {
+                    lines.add(label("Thought:", random) + " " + content(random, eol));
+                }
+            }
+        }
+        String text = String.join(eol, lines);
+        return random.nextBoolean() ? text + eol : text;
+    }
+
+    private static String label(String label, Random random) {
+        return switch (random.nextInt(3)) {
+            case 0 -> label.toUpperCase(Locale.ROOT);
+            case 1 -> label.toLowerCase(Locale.ROOT);
+            default -> label;
+        };
+    }
+
+    private static String indent(Random random) {
+        return random.nextInt(4) == 0 ? "  " : "";
+    }
+
+    private static String space(Random random) {
+        return " ".repeat(random.nextInt(3));
+    }
+
+    private static String content(Random random, String eol) {
+        StringBuilder sb = new StringBuilder();
+        int words = 1 + random.nextInt(12);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) sb.append(random.nextInt(8) == 0 ? eol : " ");
+            sb.append(WORDS[random.nextInt(WORDS.length)]);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package com.secureai.archive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.secureai.model.AuditLog;
+import com.secureai.model.AuditLogSummary;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("AuditArchiveStore Tests")
+class AuditArchiveStoreTest {
+
+    private static final LocalDate DAY1 = LocalDate.of(2026, 1, 10);
+    private static final LocalDate DAY2 = LocalDate.of(2026, 1, 11);
+
+    @TempDir
+    Path dir;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+    private AuditArchiveStore store;
+
+    @BeforeEach
+    void setUp() {
+        store = newStore();
+    }
+
+    @Test
+    @DisplayName("Committed rows are gzip NDJSON with an index, and survive a restart")
+    void commitWritesSegmentAndIndex() throws IOException {
+        archive(DAY1, row(1, "alice", DAY1.atTime(9, 0), false), row(2, "bob", DAY1.atTime(10, 0), true));
+
+        Path segment = dir.resolve("audit-2026-01-10.ndjson.gz");
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(segment))) {
+            assertThat(new String(in.readAllBytes())).contains("\"username\":\"alice\"").endsWith("}\n");
+        }
+        assertThat(dir.resolve("audit-2026-01-10.idx.json")).exists();
+
+        AuditArchiveStore reopened = newStore();
+        assertThat(reopened.lastArchivedId(DAY1)).isEqualTo(2L);
+        assertThat(reopened.findById(2L)).get().extracting(AuditLog::getUsername).isEqualTo("bob");
+    }
+
+    @Test
+    @DisplayName("Later passes append a gzip member to the same day segment")
+    void appendsAcrossPasses() throws IOException {
+        archive(DAY1, row(1, "alice", DAY1.atTime(9, 0), false));
+        archive(DAY1, row(5, "alice", DAY1.atTime(11, 0), false));
+
+        assertThat(store.lastArchivedId(DAY1)).isEqualTo(5L);
+        assertThat(store.findBefore("alice", false, null, null, 10))
+                .extracting(AuditLogSummary::getId).containsExactly(5L, 1L);
+    }
+
+    @Test
+    @DisplayName("Uncommitted appends are rolled back")
+    void uncommittedAppendIsTruncated() throws IOException {
+        archive(DAY1, row(1, "alice", DAY1.atTime(9, 0), false));
+        long length = Files.size(dir.resolve("audit-2026-01-10.ndjson.gz"));
+
+        try (AuditArchiveStore.SegmentAppender appender = store.append(DAY1)) {
+            appender.write(row(2, "alice", DAY1.atTime(10, 0), false));
+        }
+
+        assertThat(Files.size(dir.resolve("audit-2026-01-10.ndjson.gz"))).isEqualTo(length);
+        assertThat(store.lastArchivedId(DAY1)).isEqualTo(1L);
+        assertThat(store.findBefore(null, false, null, null, 10)).hasSize(1);
+    }
+
+    @Test
+    @DisplayName("Keyset lookups run newest first across days and honour filters")
+    void keysetLookupAcrossDays() throws IOException {
+        archive(DAY1, row(1, "alice", DAY1.atTime(9, 0), false), row(2, "bob", DAY1.atTime(9, 30), true));
+        archive(DAY2, row(3, "alice", DAY2.atTime(8, 0), true), row(4, "alice", DAY2.atTime(8, 0), false));
+
+        assertThat(store.findBefore(null, false, null, null, 10))
+                .extracting(AuditLogSummary::getId).containsExactly(4L, 3L, 2L, 1L);
+        assertThat(store.findBefore("alice", false, DAY2.atTime(8, 0), 4L, 10))
+                .extracting(AuditLogSummary::getId).containsExactly(3L, 1L);
+        assertThat(store.findBefore(null, true, null, null, 10))
+                .extracting(AuditLogSummary::getId).containsExactly(3L, 2L);
+        assertThat(store.findBefore(null, false, null, null, 3)).hasSize(3);
+        assertThat(store.findBefore("carol", false, null, null, 10)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Disabled store ignores the directory")
+    void disabledStoreIsEmpty() throws IOException {
+        archive(DAY1, row(1, "alice", DAY1.atTime(9, 0), false));
+        AuditArchiveStore disabled = newStore();
+        ReflectionTestUtils.setField(disabled, "enabled", false);
+
+        assertThat(disabled.findById(1L)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Segments committed by another replica on the shared volume become visible")
+    void picksUpSegmentsFromOtherReplicas() throws IOException {
+        archive(DAY1, row(1, "alice", DAY1.atTime(9, 0), false));
+        AuditArchiveStore otherReplica = newStore();
+        assertThat(otherReplica.lastArchivedId(DAY1)).isEqualTo(1L);
+
+        archive(DAY2, row(2, "bob", DAY2.atTime(9, 0), false));
+
+        assertThat(otherReplica.findById(2L)).get().extracting(AuditLog::getUsername).isEqualTo("bob");
+    }
+
+    @Test
+    @DisplayName("Enabling the archive without a shared volume fails startup")
+    void enabledWithoutSharedVolumeFails() {
+        assertThatThrownBy(store::checkSharedVolume)
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("audit.archive.shared-volume");
+
+        ReflectionTestUtils.setField(store, "sharedVolume", true);
+        store.checkSharedVolume();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private AuditArchiveStore newStore() {
+        AuditArchiveStore s = new AuditArchiveStore(objectMapper);
+        ReflectionTestUtils.setField(s, "enabled", true);
+        ReflectionTestUtils.setField(s, "directory", dir.toString());
+        return s;
+    }
+
+    private void archive(LocalDate day, AuditLog... rows) throws IOException {
+        try (AuditArchiveStore.SegmentAppender appender = store.append(day)) {
+            for (AuditLog row : rows) appender.write(row);
+            appender.commit();
+        }
+    }
+
+    private static AuditLog row(long id, String username, LocalDateTime createdAt, boolean pii) {
+        return AuditLog.builder().id(id).username(username).createdAt(createdAt)
+                .piiDetected(pii).prompt("prompt " + id).response("response " + id).build();
+    }
+}
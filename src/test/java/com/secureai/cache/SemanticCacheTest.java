@@ -0,0 +1,157 @@
+package com.secureai.cache;
+
+import com.secureai.pii.PiiRedactionService;
+import com.secureai.service.OllamaClient;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("SemanticCache Tests")
+class SemanticCacheTest {
+
+    private OllamaClient ollamaClient;
+    private PiiRedactionService piiRedactionService;
+    private SimpleMeterRegistry registry;
+    private SemanticCache cache;
+
+    @BeforeEach
+    void setUp() {
+        ollamaClient = mock(OllamaClient.class);
+        piiRedactionService = mock(PiiRedactionService.class);
+        registry = new SimpleMeterRegistry();
+        cache = new SemanticCache(ollamaClient, piiRedactionService, registry, true, 2, 0.9);
+    }
+
+    @Nested
+    @DisplayName("Lookups")
+    class LookupTests {
+
+        @Test
+        @DisplayName("A paraphrase above the threshold hits the stored answer")
+        void paraphraseHits() {
+            when(ollamaClient.embed("explain GDPR article 25")).thenReturn(new float[] {1f, 0.1f, 0f});
+            when(ollamaClient.embed("what's GDPR art 25")).thenReturn(new float[] {0.95f, 0.15f, 0f});
+
+            cache.store(cache.lookup("explain GDPR article 25", "m", 2048), "Data protection by design.");
+            SemanticCache.Lookup second = cache.lookup("what's GDPR art 25", "m", 2048);
+
+            assertThat(second.isHit()).isTrue();
+            assertThat(second.getAnswer()).isEqualTo("Data protection by design.");
+            assertThat(registry.get("gateway.semantic_cache.hit_ratio").gauge().value()).isEqualTo(0.5);
+        }
+
+        @Test
+        @DisplayName("A dissimilar prompt, a different model or a different token cap misses")
+        void dissimilarMisses() {
+            when(ollamaClient.embed("a")).thenReturn(new float[] {1f, 0f, 0f});
+            when(ollamaClient.embed("b")).thenReturn(new float[] {0f, 1f, 0f});
+            cache.store(cache.lookup("a", "m", 2048), "answer a");
+
+            assertThat(cache.lookup("b", "m", 2048).isHit()).isFalse();
+            assertThat(cache.lookup("a", "other-model", 2048).isHit()).isFalse();
+            assertThat(cache.lookup("a", "m", 256).isHit()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Prompts containing PII bypass the cache without embedding")
+        void piiPromptsBypass() {
+            when(piiRedactionService.containsPii("my SSN is 123-45-6789")).thenReturn(true);
+
+            SemanticCache.Lookup lookup = cache.lookup("my SSN is 123-45-6789", "m", 2048);
+            cache.store(lookup, "answer");
+
+            assertThat(lookup.isBypass()).isTrue();
+            verify(ollamaClient, never()).embed(anyString());
+            assertThat(registry.get("gateway.semantic_cache.size").gauge().value()).isZero();
+        }
+
+        @Test
+        @DisplayName("Embedding failures degrade to a bypass")
+        void embeddingFailureBypasses() {
+            when(ollamaClient.embed(anyString())).thenThrow(new OllamaClient.OllamaException("down"));
+
+            assertThat(cache.lookup("hello", "m", 2048).isBypass()).isTrue();
+            assertThat(registry.get("gateway.semantic_cache.lookups").tag("result", "bypass")
+                    .counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        @DisplayName("Disabled cache never calls Ollama")
+        void disabledCacheIsInert() {
+            SemanticCache disabled = new SemanticCache(ollamaClient, piiRedactionService, registry, false, 2, 0.9);
+
+            assertThat(disabled.lookup("hello", "m", 2048)).isSameAs(SemanticCache.Lookup.BYPASS);
+            verifyNoInteractions(ollamaClient);
+        }
+    }
+
+    @Nested
+    @DisplayName("VectorIndex")
+    class VectorIndexTests {
+
+        @Test
+        @DisplayName("Full index overwrites the least recently matched row")
+        void lruEviction() {
+            VectorIndex index = new VectorIndex(2);
+            index.add(unit(1, 0, 0), "m", "x", 0.99);
+            index.add(unit(0, 1, 0), "m", "y", 0.99);
+            assertThat(index.nearest(unit(1, 0, 0), "m", 0.99)).isEqualTo("x");   // x is now most recent
+
+            index.add(unit(0, 0, 1), "m", "z", 0.99);
+
+            assertThat(index.size()).isEqualTo(2);
+            assertThat(index.nearest(unit(0, 1, 0), "m", 0.99)).isNull();
+            assertThat(index.nearest(unit(1, 0, 0), "m", 0.99)).isEqualTo("x");
+            assertThat(index.nearest(unit(0, 0, 1), "m", 0.99)).isEqualTo("z");
+        }
+
+        @Test
+        @DisplayName("Near-duplicate insert replaces the existing row")
+        void nearDuplicateReplaces() {
+            VectorIndex index = new VectorIndex(10);
+            index.add(unit(1, 0, 0), "m", "old", 0.9);
+            index.add(unit(1, 0.01f, 0), "m", "new", 0.9);
+
+            assertThat(index.size()).isEqualTo(1);
+            assertThat(index.nearest(unit(1, 0, 0), "m", 0.9)).isEqualTo("new");
+        }
+
+        @Test
+        @DisplayName("A new embedding dimension resets the index")
+        void dimensionChangeResets() {
+            VectorIndex index = new VectorIndex(10);
+            index.add(unit(1, 0, 0), "m", "three", 0.9);
+            index.add(unit(1, 0), "m", "two", 0.9);
+
+            assertThat(index.size()).isEqualTo(1);
+            assertThat(index.nearest(unit(1, 0, 0), "m", 0.9)).isNull();
+        }
+
+        @Test
+        @DisplayName("Grows past its initial allocation up to capacity")
+        void growsToCapacity() {
+            VectorIndex index = new VectorIndex(40);
+            for (int i = 0; i < 40; i++) {
+                float[] v = new float[40];
+                v[i] = 1f;
+                index.add(v, "m", "row" + i, 0.99);
+            }
+            float[] last = new float[40];
+            last[39] = 1f;
+
+            assertThat(index.size()).isEqualTo(40);
+            assertThat(index.nearest(last, "m", 0.99)).isEqualTo("row39");
+        }
+
+        private float[] unit(float... values) {
+            VectorIndex.normalize(values);
+            return values;
+        }
+    }
+}
@@ -23,7 +23,7 @@ public class TestDataInitializer {
 
     @PostConstruct
     public void seed() {
-        if (!userRepository.existsByUsername("admin")) {
+        if (userRepository.findByUsername("admin").isEmpty()) {
             userRepository.save(User.builder()
                     .username("admin")
                     .password(passwordEncoder.encode("Admin@123"))
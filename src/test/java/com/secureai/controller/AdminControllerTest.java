@@ -2,8 +2,14 @@ package com.secureai.controller;
 
 import com.secureai.config.SecurityConfig;
 import com.secureai.model.AuditLog;
+import com.secureai.model.AuditLogSummary;
+import com.secureai.model.AuditRollupHourly;
+import com.secureai.model.CursorPage;
+import com.secureai.model.UsageSummary;
 import com.secureai.security.JwtAuthenticationFilter;
 import com.secureai.service.AuditLogService;
+import com.secureai.service.AuditRollupService;
+import com.secureai.service.AuthService;
 import com.secureai.service.RateLimiterService;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -20,25 +26,33 @@ import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.test.context.support.WithMockUser;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
 import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.clearInvocations;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(AdminController.class)
@@ -63,7 +77,7 @@ class AdminControllerTest {
         JwtAuthenticationFilter jwtAuthenticationFilter() {
             // Pass-through filter: lets requests reach the controller in tests.
             // We do not validate tokens here because tests use @WithMockUser.
-            return new JwtAuthenticationFilter(null) {
+            return new JwtAuthenticationFilter(null, null) {
                 @Override
                 protected void doFilterInternal(
                         HttpServletRequest request,
@@ -82,14 +96,20 @@ class AdminControllerTest {
     @MockBean
     AuditLogService auditLogService;
 
+    @MockBean
+    AuditRollupService rollupService;
+
     @MockBean
     RateLimiterService rateLimiterService;
 
+    @MockBean
+    AuthService authService;
+
     @BeforeEach
     void clearMockInvocations() {
         // Spring may reuse the same mock instances across test methods in the cached context.
         // Clear recorded invocations so verifyNoInteractions(...) is reliable.
-        clearInvocations(auditLogService, rateLimiterService);
+        clearInvocations(auditLogService, rollupService, rateLimiterService, authService);
     }
 
     @Nested
@@ -125,27 +145,66 @@ class AdminControllerTest {
         @Test
         @WithMockUser(roles = "ADMIN")
         void adminCanGetAuditLogsWithDefaults() throws Exception {
-            Page<AuditLog> page = new PageImpl<>(List.of());
-            when(auditLogService.getRecentLogs(0, 20)).thenReturn(page);
+            when(auditLogService.getRecentLogs(null, 20)).thenReturn(new CursorPage<>(List.of(), 0, null));
 
             mockMvc.perform(get("/admin/audit"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.hasNext").value(false));
 
-            verify(auditLogService).getRecentLogs(0, 20);
+            verify(auditLogService).getRecentLogs(null, 20);
         }
 
         @Test
         @WithMockUser(roles = "ADMIN")
-        void adminCanGetAuditLogsWithParams() throws Exception {
-            Page<AuditLog> page = new PageImpl<>(List.of());
-            when(auditLogService.getRecentLogs(2, 50)).thenReturn(page);
+        void adminCanGetAuditLogsWithCursor() throws Exception {
+            AuditLogSummary entry = new AuditLogSummary(41L, "alice", "llama3.1:8b", false, false,
+                null, 200, 15L, null, "What is GDPR?");
+            when(auditLogService.getRecentLogs("abc", 1))
+                .thenReturn(new CursorPage<>(List.of(entry), 1, "next-token"));
 
             mockMvc.perform(get("/admin/audit")
-                    .param("page", "2")
-                    .param("size", "50"))
-                .andExpect(status().isOk());
+                    .param("cursor", "abc")
+                    .param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].id").value(41))
+                .andExpect(jsonPath("$.content[0].promptPreview").value("What is GDPR?"))
+                .andExpect(jsonPath("$.content[0].response").doesNotExist())
+                .andExpect(jsonPath("$.nextCursor").value("next-token"))
+                .andExpect(jsonPath("$.hasNext").value(true))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+
+            verify(auditLogService).getRecentLogs("abc", 1);
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void invalidCursorReturns400() throws Exception {
+            when(auditLogService.getRecentLogs("garbage", 20))
+                .thenThrow(new AuditLogService.InvalidCursorException());
+
+            mockMvc.perform(get("/admin/audit").param("cursor", "garbage"))
+                .andExpect(status().isBadRequest());
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void adminCanGetFullAuditEntry() throws Exception {
+            AuditLog entry = AuditLog.builder().id(7L).prompt("full prompt").response("full response").build();
+            when(auditLogService.getLog(7L)).thenReturn(Optional.of(entry));
 
-            verify(auditLogService).getRecentLogs(2, 50);
+            mockMvc.perform(get("/admin/audit/7"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.prompt").value("full prompt"))
+                .andExpect(jsonPath("$.response").value("full response"));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void unknownAuditEntryReturns404() throws Exception {
+            when(auditLogService.getLog(8L)).thenReturn(Optional.empty());
+
+            mockMvc.perform(get("/admin/audit/8"))
+                .andExpect(status().isNotFound());
         }
     }
 
@@ -156,12 +215,79 @@ class AdminControllerTest {
         @Test
         @WithMockUser(roles = "ADMIN")
         void adminCanGetPiiAlerts() throws Exception {
-            when(auditLogService.getPiiAlerts()).thenReturn(List.of());
+            when(auditLogService.getPiiAlerts(null, 20)).thenReturn(new CursorPage<>(List.of(), 0, null));
 
             mockMvc.perform(get("/admin/audit/pii-alerts"))
-                .andExpect(status().isOk());
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content").isArray());
+
+            verify(auditLogService).getPiiAlerts(null, 20);
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void adminCanExportPiiAlertsAsNdjson() throws Exception {
+            when(auditLogService.exportPiiAlerts(any())).thenAnswer(inv -> {
+                OutputStream out = inv.getArgument(0);
+                out.write("{\"id\":1}\n{\"id\":2}\n".getBytes(StandardCharsets.UTF_8));
+                return 2L;
+            });
+
+            MvcResult started = mockMvc.perform(get("/admin/audit/pii-alerts/export"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+            mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", "application/x-ndjson"))
+                .andExpect(content().string("{\"id\":1}\n{\"id\":2}\n"));
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        void nonAdminCannotExport() throws Exception {
+            mockMvc.perform(get("/admin/audit/pii-alerts/export"))
+                .andExpect(status().isForbidden());
+
+            verifyNoInteractions(auditLogService);
+        }
+    }
+
+    @Nested
+    @DisplayName("GET /admin/usage/**")
+    class UsageTests {
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void adminGetsTopUsers() throws Exception {
+            when(rollupService.topUsers(24, 5)).thenReturn(List.of(
+                    new UsageSummary("alice", 40L, 2L, 1L, 8000L, 900L, 1200L, 3400L)));
+
+            mockMvc.perform(get("/admin/usage/top-users").param("limit", "5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].key").value("alice"))
+                .andExpect(jsonPath("$[0].requests").value(40))
+                .andExpect(jsonPath("$[0].avgDurationMs").value(200.0));
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void adminGetsUserSeries() throws Exception {
+            when(rollupService.userHourly("bob", 6)).thenReturn(List.of(
+                    AuditRollupHourly.builder().username("bob").model("llama3.1:8b").requestCount(3).build()));
+
+            mockMvc.perform(get("/admin/usage/users/bob").param("hours", "6"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$[0].requestCount").value(3));
+        }
 
-            verify(auditLogService).getPiiAlerts();
+        @Test
+        @WithMockUser(roles = "USER")
+        void userCannotReadUsage() throws Exception {
+            mockMvc.perform(get("/admin/usage/models"))
+                .andExpect(status().isForbidden());
+
+            verifyNoInteractions(rollupService);
         }
     }
 
@@ -182,4 +308,37 @@ class AdminControllerTest {
             verify(rateLimiterService).resetBucket("bob");
         }
     }
+
+    @Nested
+    @DisplayName("PUT /admin/users/{username}/enabled")
+    class UserEnabledTests {
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void adminCanDisableUser() throws Exception {
+            mockMvc.perform(put("/admin/users/bob/enabled").param("enabled", "false"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.message").value(containsString("disabled")));
+
+            verify(authService).setEnabled("bob", false);
+        }
+
+        @Test
+        @WithMockUser(roles = "ADMIN")
+        void unknownUserIsNotFound() throws Exception {
+            when(authService.setEnabled("ghost", true)).thenThrow(new AuthService.UserNotFoundException("ghost"));
+
+            mockMvc.perform(put("/admin/users/ghost/enabled").param("enabled", "true"))
+                .andExpect(status().isNotFound());
+        }
+
+        @Test
+        @WithMockUser(roles = "USER")
+        void userCannotChangeAccounts() throws Exception {
+            mockMvc.perform(put("/admin/users/bob/enabled").param("enabled", "false"))
+                .andExpect(status().isForbidden());
+
+            verifyNoInteractions(authService);
+        }
+    }
 }
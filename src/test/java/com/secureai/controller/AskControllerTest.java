@@ -2,42 +2,70 @@ package com.secureai.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.secureai.agent.ReActAgentService;
+import com.secureai.cache.SemanticCache;
 import com.secureai.config.SecurityConfig;
+import com.secureai.metrics.PipelineMetrics;
 import com.secureai.model.AskRequest;
+import com.secureai.model.GenerationOptions;
 import com.secureai.pii.PiiRedactionService;
 import com.secureai.security.JwtAuthenticationFilter;
 import com.secureai.security.JwtUtil;
 import com.secureai.service.AuditLogService;
+import com.secureai.service.GenerationLimits;
+import com.secureai.service.ModelRouter;
 import com.secureai.service.OllamaClient;
 import com.secureai.service.RateLimiterService;
+import com.secureai.service.ReactiveOllamaClient;
+import com.secureai.service.TokenEstimator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.ResultActions;
+import reactor.core.publisher.Mono;
 
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@WebMvcTest(AskController.class)
-@Import({SecurityConfig.class, JwtAuthenticationFilter.class})
+@WebMvcTest(controllers = AskController.class, properties = "ollama.num-ctx=2400")   // 1200-token prompt budget
+@Import({SecurityConfig.class, JwtAuthenticationFilter.class, PipelineMetrics.class, TokenEstimator.class,
+         GenerationLimits.class, AskControllerTest.MeterRegistryTestConfig.class})
 @DisplayName("AskController Tests")
 class AskControllerTest {
 
+    @TestConfiguration
+    static class MeterRegistryTestConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
     @Autowired MockMvc mockMvc;
     @Autowired ObjectMapper objectMapper;
+    @Autowired MeterRegistry meterRegistry;
 
     @MockBean JwtUtil jwtUtil;
     @MockBean OllamaClient ollamaClient;
@@ -45,6 +73,9 @@ class AskControllerTest {
     @MockBean AuditLogService auditLogService;
     @MockBean RateLimiterService rateLimiterService;
     @MockBean PiiRedactionService piiRedactionService;
+    @MockBean SemanticCache semanticCache;
+    @MockBean ModelRouter modelRouter;
+    @MockBean ReactiveOllamaClient reactiveOllamaClient;
 
     private static final String TEST_TOKEN = "valid.test.token";
     private static final String TEST_USER = "testuser";
@@ -64,6 +95,13 @@ class AskControllerTest {
         when(piiRedactionService.redact(anyString())).thenAnswer(i -> i.getArgument(0));
         when(ollamaClient.getModel()).thenReturn("test-model");
         when(ollamaClient.isHealthy()).thenReturn(true);
+        when(semanticCache.lookup(anyString(), anyString(), anyInt())).thenReturn(SemanticCache.Lookup.BYPASS);
+        when(modelRouter.route(anyString(), anyBoolean(), anyCollection(), any())).thenReturn("test-model");
+    }
+
+    private long stageCount(String stage) {
+        var timer = meterRegistry.find("gateway.stage").tag("stage", stage).timer();
+        return timer == null ? 0 : timer.count();
     }
 
     @Nested
@@ -103,8 +141,8 @@ class AskControllerTest {
         @Test
         @DisplayName("Valid request should return 200 with AI response")
         void validRequestShouldReturn200() throws Exception {
-            when(ollamaClient.generateResponse(anyString()))
-                    .thenReturn("The capital of France is Paris.");
+            when(ollamaClient.generate(anyString(), isNull(), eq("test-model"), any()))
+                    .thenReturn(new OllamaClient.OllamaResult("The capital of France is Paris.", null));
 
             AskRequest req = new AskRequest();
             req.setPrompt("What is the capital of France?");
@@ -125,7 +163,7 @@ class AskControllerTest {
         @DisplayName("Response with PII should be redacted")
         void piiShouldBeRedacted() throws Exception {
             String rawResponse = "Contact john@evil.com or SSN 123-45-6789";
-            when(ollamaClient.generateResponse(anyString())).thenReturn(rawResponse);
+            when(ollamaClient.generate(anyString(), isNull(), eq("test-model"), any())).thenReturn(new OllamaClient.OllamaResult(rawResponse, null));
             when(piiRedactionService.containsPii(rawResponse)).thenReturn(true);
             when(piiRedactionService.redact(rawResponse))
                     .thenReturn("Contact [EMAIL_REDACTED] or SSN [SSN_REDACTED]");
@@ -151,7 +189,7 @@ class AskControllerTest {
             ReActAgentService.AgentResult result = new ReActAgentService.AgentResult(
                     "The answer is 42.", List.of(), 3
             );
-            when(reActAgentService.execute(anyString())).thenReturn(result);
+            when(reActAgentService.execute(anyString(), any(GenerationOptions.class))).thenReturn(result);
 
             AskRequest req = new AskRequest();
             req.setPrompt("Complex multi-step question");
@@ -165,7 +203,108 @@ class AskControllerTest {
                     .andExpect(jsonPath("$.response").value("The answer is 42."))
                     .andExpect(jsonPath("$.reactSteps").value(3));
 
-            verify(reActAgentService, times(1)).execute("Complex multi-step question");
+            verify(reActAgentService, times(1)).execute(eq("Complex multi-step question"), any(GenerationOptions.class));
+        }
+
+        @Test
+        @DisplayName("Semantic cache hit should answer without calling Ollama")
+        void semanticCacheHitSkipsGeneration() throws Exception {
+            SemanticCache.Lookup hit = mock(SemanticCache.Lookup.class);
+            when(hit.isHit()).thenReturn(true);
+            when(hit.getAnswer()).thenReturn("Article 25 covers data protection by design.");
+            when(semanticCache.lookup(eq("explain GDPR article 25"), anyString(), eq(2048))).thenReturn(hit);
+
+            AskRequest req = new AskRequest();
+            req.setPrompt("explain GDPR article 25");
+
+            mockMvc.perform(post("/api/ask")
+                    .header("Authorization", "Bearer " + TEST_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.response").value("Article 25 covers data protection by design."))
+                    .andExpect(header().string("X-Semantic-Cache", "HIT"));
+
+            verify(ollamaClient, never()).generate(eq("explain GDPR article 25"), any(), any(), any());
+        }
+
+        @Test
+        @DisplayName("Generated answer should be stored after PII redaction")
+        void redactedAnswerIsStored() throws Exception {
+            when(ollamaClient.generate(anyString(), isNull(), eq("test-model"), any()))
+                    .thenReturn(new OllamaClient.OllamaResult("Mail bob@example.com", null));
+            when(piiRedactionService.containsPii("Mail bob@example.com")).thenReturn(true);
+            when(piiRedactionService.redact("Mail bob@example.com")).thenReturn("Mail [EMAIL_REDACTED]");
+
+            AskRequest req = new AskRequest();
+            req.setPrompt("Who do I mail?");
+
+            mockMvc.perform(post("/api/ask")
+                    .header("Authorization", "Bearer " + TEST_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isOk());
+
+            verify(semanticCache).store(SemanticCache.Lookup.BYPASS, "Mail [EMAIL_REDACTED]");
+        }
+
+        @Test
+        @DisplayName("Pipeline stages should be timed")
+        void pipelineStagesShouldBeTimed() throws Exception {
+            when(ollamaClient.generate(anyString(), isNull(), eq("test-model"), any())).thenReturn(new OllamaClient.OllamaResult("Hi", null));
+            long before = stageCount(PipelineMetrics.STAGE_OLLAMA);
+
+            AskRequest req = new AskRequest();
+            req.setPrompt("Hello");
+
+            mockMvc.perform(post("/api/ask")
+                    .header("Authorization", "Bearer " + TEST_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isOk());
+
+            assertThat(stageCount(PipelineMetrics.STAGE_OLLAMA)).isEqualTo(before + 1);
+            for (String stage : List.of(PipelineMetrics.STAGE_JWT_FILTER, PipelineMetrics.STAGE_RATE_LIMIT,
+                    PipelineMetrics.STAGE_PII_SCAN, PipelineMetrics.STAGE_AUDIT_ENQUEUE)) {
+                assertThat(stageCount(stage)).as(stage).isPositive();
+            }
+        }
+
+        @Test
+        @DisplayName("The routed model is used for generation, audit and the response")
+        void routedModelIsUsed() throws Exception {
+            when(modelRouter.route(eq("Classify: spam?"), eq(false), eq(List.of("USER")), eq("fast")))
+                    .thenReturn("small-model");
+            when(ollamaClient.generate(eq("Classify: spam?"), isNull(), eq("small-model"), any()))
+                    .thenReturn(new OllamaClient.OllamaResult("no", null));
+
+            AskRequest req = new AskRequest();
+            req.setPrompt("Classify: spam?");
+            req.setModelTier("fast");
+
+            mockMvc.perform(post("/api/ask")
+                    .header("Authorization", "Bearer " + TEST_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.model").value("small-model"));
+
+            verify(auditLogService).logRequest(eq(TEST_USER), eq("Classify: spam?"), eq("no"), eq("small-model"),
+                    anyBoolean(), eq(false), isNull(), eq(200), anyLong(), anyString(), any(), any());
+        }
+
+        @Test
+        @DisplayName("An unknown model tier is rejected")
+        void unknownTierRejected() throws Exception {
+            AskRequest req = new AskRequest();
+            req.setPrompt("Hello");
+            req.setModelTier("llama3.1:70b");
+
+            mockMvc.perform(post("/api/ask")
+                    .header("Authorization", "Bearer " + TEST_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isBadRequest());
         }
     }
 
@@ -198,6 +337,115 @@ class AskControllerTest {
                     .content(objectMapper.writeValueAsString(req)))
                     .andExpect(status().isBadRequest());
         }
+
+        @Test
+        @DisplayName("Prompt over the context window should return 413 without calling the model")
+        void promptOverContextWindowShouldReturn413() throws Exception {
+            AskRequest req = new AskRequest();
+            req.setPrompt("{}".repeat(2000));   // ~4000 tokens of punctuation in 4000 chars
+
+            mockMvc.perform(post("/api/ask")
+                    .header("Authorization", "Bearer " + TEST_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isPayloadTooLarge())
+                    .andExpect(jsonPath("$.message").value(containsString("tokens")));
+            verify(ollamaClient, never()).generate(eq("{}".repeat(2000)), any(), anyString(), any());
+        }
+    }
+
+    @Nested
+    @DisplayName("POST /api/ask — Generation options")
+    class GenerationOptionsTests {
+
+        @Test
+        @DisplayName("maxTokens, temperature and stop reach Ollama and the audit log, bypassing the cache")
+        void optionsArePassedThrough() throws Exception {
+            when(ollamaClient.generate(eq("Spam or ham?"), isNull(), eq("test-model"), any()))
+                    .thenReturn(new OllamaClient.OllamaResult("ham", null));
+
+            AskRequest req = new AskRequest();
+            req.setPrompt("Spam or ham?");
+            req.setMaxTokens(4);
+            req.setTemperature(0.0);
+            req.setStop(List.of("\n"));
+
+            mockMvc.perform(post("/api/ask")
+                    .header("Authorization", "Bearer " + TEST_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isOk())
+                    .andExpect(header().string("X-Semantic-Cache", "BYPASS"));
+
+            ArgumentCaptor<GenerationOptions> sent = ArgumentCaptor.forClass(GenerationOptions.class);
+            verify(ollamaClient).generate(eq("Spam or ham?"), isNull(), eq("test-model"), sent.capture());
+            assertThat(sent.getValue().getMaxTokens()).isEqualTo(4);
+            assertThat(sent.getValue().getTemperature()).isEqualTo(0.0);
+            assertThat(sent.getValue().getStop()).containsExactly("\n");
+            verify(auditLogService).logRequest(eq(TEST_USER), eq("Spam or ham?"), eq("ham"), eq("test-model"),
+                    anyBoolean(), eq(false), isNull(), eq(200), anyLong(), anyString(), any(), eq(sent.getValue()));
+            verify(semanticCache, never()).lookup(eq("Spam or ham?"), anyString(), anyInt());
+        }
+
+        @Test
+        @DisplayName("The semantic cache is keyed by the effective maxTokens")
+        void cacheKeyedByMaxTokens() throws Exception {
+            when(ollamaClient.generate(anyString(), isNull(), eq("test-model"), any()))
+                    .thenReturn(new OllamaClient.OllamaResult("Short answer", null));
+
+            AskRequest capped = new AskRequest();
+            capped.setPrompt("Explain TLS");
+            capped.setMaxTokens(64);
+            AskRequest uncapped = new AskRequest();
+            uncapped.setPrompt("Explain TLS briefly");
+
+            for (AskRequest req : List.of(capped, uncapped)) {
+                mockMvc.perform(post("/api/ask")
+                        .header("Authorization", "Bearer " + TEST_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                        .andExpect(status().isOk());
+            }
+            verify(semanticCache).lookup("Explain TLS", "test-model", 64);
+            verify(semanticCache).lookup("Explain TLS briefly", "test-model", 2048);   // the role ceiling
+        }
+
+        @Test
+        @DisplayName("maxTokens above the role ceiling should return 400 without calling the model")
+        void maxTokensAboveCeilingShouldReturn400() throws Exception {
+            AskRequest req = new AskRequest();
+            req.setPrompt("Write an essay");
+            req.setMaxTokens(100_000);
+
+            mockMvc.perform(post("/api/ask")
+                    .header("Authorization", "Bearer " + TEST_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value(containsString("at most 2048")));
+            verify(ollamaClient, never()).generate(eq("Write an essay"), any(), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Out-of-range temperature and stop sequences with ReAct are rejected")
+        void invalidOptionsAreRejected() throws Exception {
+            AskRequest hot = new AskRequest();
+            hot.setPrompt("Hello");
+            hot.setTemperature(5.0);
+            AskRequest agentWithStop = new AskRequest();
+            agentWithStop.setPrompt("Plan my week");
+            agentWithStop.setUseReActAgent(true);
+            agentWithStop.setStop(List.of("Observation:"));
+
+            for (AskRequest req : List.of(hot, agentWithStop)) {
+                mockMvc.perform(post("/api/ask")
+                        .header("Authorization", "Bearer " + TEST_TOKEN)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(req)))
+                        .andExpect(status().isBadRequest());
+            }
+            verify(reActAgentService, never()).execute(eq("Plan my week"), any(GenerationOptions.class));
+        }
     }
 
     @Nested
@@ -207,7 +455,7 @@ class AskControllerTest {
         @Test
         @DisplayName("Rate limit headers should be present in successful response")
         void rateLimitHeadersShouldBePresent() throws Exception {
-            when(ollamaClient.generateResponse(anyString())).thenReturn("Hello!");
+            when(ollamaClient.generate(anyString(), isNull(), eq("test-model"), any())).thenReturn(new OllamaClient.OllamaResult("Hello!", null));
 
             AskRequest req = new AskRequest();
             req.setPrompt("Hello");
@@ -236,4 +484,92 @@ class AskControllerTest {
                     .andExpect(jsonPath("$.model").value("test-model"));
         }
     }
+
+    @Nested
+    @DisplayName("POST /api/ask/async")
+    class AsyncTests {
+
+        @Test
+        @DisplayName("Answer from the reactive client is redacted, audited and returned")
+        void asyncAnswerIsRedacted() throws Exception {
+            when(reactiveOllamaClient.generate(eq("Who is Bob?"), isNull(), eq("test-model"), any()))
+                    .thenReturn(Mono.just(new OllamaClient.OllamaResult("Bob: bob@example.com", null)));
+            when(piiRedactionService.containsPii("Bob: bob@example.com")).thenReturn(true);
+            when(piiRedactionService.redact("Bob: bob@example.com")).thenReturn("Bob: [EMAIL_REDACTED]");
+
+            performAsync("Who is Bob?", false)
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.response").value("Bob: [EMAIL_REDACTED]"))
+                    .andExpect(jsonPath("$.model").value("test-model"))
+                    .andExpect(header().string("X-Semantic-Cache", "BYPASS"));
+            verify(auditLogService).logRequest(eq(TEST_USER), eq("Who is Bob?"), eq("Bob: [EMAIL_REDACTED]"),
+                    eq("test-model"), eq(true), eq(false), isNull(), eq(200), anyLong(), anyString(), any(), any());
+            verify(ollamaClient, never()).generate(eq("Who is Bob?"), any(), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("Redaction and auditing run on a worker thread, not the thread that emitted the answer")
+        void asyncCompletesOffEmittingThread() throws Exception {
+            when(reactiveOllamaClient.generate(eq("which thread?"), isNull(), anyString(), any()))
+                    .thenReturn(Mono.just(new OllamaClient.OllamaResult("answer", null)));
+            AtomicReference<String> redactionThread = new AtomicReference<>();
+            when(piiRedactionService.containsPii("answer")).thenAnswer(inv -> {
+                redactionThread.set(Thread.currentThread().getName());
+                return false;
+            });
+
+            performAsync("which thread?", false)
+                    .andExpect(status().isOk());
+            assertThat(redactionThread.get()).startsWith("boundedElastic");
+        }
+
+        @Test
+        @DisplayName("Ollama failure completes the request with 503")
+        void asyncOllamaFailureIs503() throws Exception {
+            when(reactiveOllamaClient.generate(eq("down"), isNull(), anyString(), any()))
+                    .thenReturn(Mono.error(new OllamaClient.OllamaException("connection refused")));
+
+            performAsync("down", false)
+                    .andExpect(status().isServiceUnavailable());
+        }
+
+        @Test
+        @DisplayName("Rate-limited requests get 429 without calling the model")
+        void asyncRateLimited() throws Exception {
+            when(rateLimiterService.tryConsume(TEST_USER)).thenReturn(false);
+
+            performAsync("limited", false)
+                    .andExpect(status().isTooManyRequests());
+            verify(reactiveOllamaClient, never()).generate(eq("limited"), any(), anyString(), any());
+        }
+
+        @Test
+        @DisplayName("ReAct requests are rejected with a pointer to /api/jobs")
+        void asyncReActRejected() throws Exception {
+            AskRequest req = new AskRequest();
+            req.setPrompt("agent please");
+            req.setUseReActAgent(true);
+            mockMvc.perform(post("/api/ask/async")
+                            .header("Authorization", "Bearer " + TEST_TOKEN)
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(jsonPath("$.message").value(containsString("/api/jobs")));
+            verify(reActAgentService, never()).execute(eq("agent please"), any(GenerationOptions.class));
+            verify(reactiveOllamaClient, never()).generate(eq("agent please"), any(), any(), any());
+        }
+
+        private ResultActions performAsync(String prompt, boolean react) throws Exception {
+            AskRequest req = new AskRequest();
+            req.setPrompt(prompt);
+            req.setUseReActAgent(react);
+            MvcResult started = mockMvc.perform(post("/api/ask/async")
+                    .header("Authorization", "Bearer " + TEST_TOKEN)
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            return mockMvc.perform(asyncDispatch(started));
+        }
+    }
 }
@@ -0,0 +1,103 @@
+package com.secureai.controller;
+
+import com.secureai.config.SecurityConfig;
+import com.secureai.model.AuditLogSummary;
+import com.secureai.model.CursorPage;
+import com.secureai.security.JwtAuthenticationFilter;
+import com.secureai.service.AuditLogService;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.security.test.context.support.WithMockUser;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(AuditController.class)
+@AutoConfigureMockMvc(addFilters = true)
+@Import({SecurityConfig.class, AuditControllerTest.TestJwtFilterConfig.class})
+@DisplayName("AuditController Tests")
+class AuditControllerTest {
+
+    @TestConfiguration
+    static class TestJwtFilterConfig {
+        @Bean
+        JwtAuthenticationFilter jwtAuthenticationFilter() {
+            // Pass-through filter: tests authenticate with @WithMockUser
+            return new JwtAuthenticationFilter(null, null) {
+                @Override
+                protected void doFilterInternal(
+                        HttpServletRequest request,
+                        HttpServletResponse response,
+                        FilterChain filterChain
+                ) throws ServletException, IOException {
+                    filterChain.doFilter(request, response);
+                }
+            };
+        }
+    }
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @MockBean
+    AuditLogService auditLogService;
+
+    @Test
+    @WithMockUser(username = "alice", roles = "USER")
+    @DisplayName("History is scoped to the authenticated user and paged by cursor")
+    void historyIsScopedToCaller() throws Exception {
+        AuditLogSummary row = new AuditLogSummary(9L, "alice", "llama3.1:8b", false, false,
+                null, 200, 40L, LocalDateTime.of(2026, 6, 1, 9, 0), "hello");
+        when(auditLogService.getUserLogs("alice", "abc", 5))
+                .thenReturn(new CursorPage<>(List.of(row), 5, "next"));
+
+        mockMvc.perform(get("/api/audit/me").param("cursor", "abc").param("size", "5"))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.content[0].id").value(9))
+            .andExpect(jsonPath("$.nextCursor").value("next"));
+
+        verify(auditLogService).getUserLogs("alice", "abc", 5);
+    }
+
+    @Test
+    @DisplayName("Anonymous callers are rejected")
+    void anonymousRejected() throws Exception {
+        mockMvc.perform(get("/api/audit/me"))
+            .andExpect(status().is4xxClientError());
+
+        verifyNoInteractions(auditLogService);
+    }
+
+    @Test
+    @WithMockUser(username = "bob", roles = "USER")
+    @DisplayName("Malformed cursors map to 400")
+    void malformedCursorIsBadRequest() throws Exception {
+        when(auditLogService.getUserLogs(any(), any(), anyInt()))
+                .thenThrow(new AuditLogService.InvalidCursorException());
+
+        mockMvc.perform(get("/api/audit/me").param("cursor", "???"))
+            .andExpect(status().isBadRequest());
+    }
+}
@@ -29,6 +29,7 @@ class AuthControllerIT {
 
     @Autowired MockMvc mockMvc;
     @Autowired ObjectMapper objectMapper;
+    @Autowired AuthService authService;
 
     @Nested
     @DisplayName("POST /auth/login")
@@ -93,6 +94,29 @@ class AuthControllerIT {
                     .andExpect(status().isOk())
                     .andExpect(jsonPath("$.password").doesNotExist());
         }
+
+        @Test
+        @DisplayName("Disabling a cached user takes effect on the next login")
+        void disabledUserIsRejectedImmediately() throws Exception {
+            RegisterRequest reg = new RegisterRequest();
+            reg.setUsername("soon_disabled");
+            reg.setPassword("SecurePass123!");
+            authService.register(reg);
+            LoginRequest req = new LoginRequest("soon_disabled", "SecurePass123!");
+
+            mockMvc.perform(post("/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isOk());
+
+            authService.setEnabled("soon_disabled", false);
+
+            mockMvc.perform(post("/auth/login")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(req)))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(jsonPath("$.message").value("Account is disabled"));
+        }
     }
 
     @Nested
@@ -128,6 +152,29 @@ class AuthControllerIT {
                     .andExpect(status().isUnauthorized());
         }
 
+        @Test
+        @DisplayName("Duplicate email should return 401 from the unique constraint")
+        void duplicateEmailShouldFail() throws Exception {
+            RegisterRequest first = new RegisterRequest();
+            first.setUsername("email_owner");
+            first.setPassword("SecurePass123!");
+            first.setEmail("shared@test.com");
+            mockMvc.perform(post("/auth/register")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(first)))
+                    .andExpect(status().isCreated());
+
+            RegisterRequest second = new RegisterRequest();
+            second.setUsername("email_thief");
+            second.setPassword("SecurePass123!");
+            second.setEmail("shared@test.com");
+            mockMvc.perform(post("/auth/register")
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .content(objectMapper.writeValueAsString(second)))
+                    .andExpect(status().isUnauthorized())
+                    .andExpect(jsonPath("$.message").value("Email is already registered"));
+        }
+
         @Test
         @DisplayName("Short password should return 400")
         void shortPasswordShouldReturn400() throws Exception {
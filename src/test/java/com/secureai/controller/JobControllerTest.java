@@ -0,0 +1,126 @@
+package com.secureai.controller;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secureai.config.SecurityConfig;
+import com.secureai.jobs.AgentJobService;
+import com.secureai.metrics.PipelineMetrics;
+import com.secureai.model.AgentJobView;
+import com.secureai.model.AskRequest;
+import com.secureai.security.JwtAuthenticationFilter;
+import com.secureai.security.JwtUtil;
+import com.secureai.service.AuditLogService;
+import com.secureai.service.GenerationLimits;
+import com.secureai.service.OllamaClient;
+import com.secureai.service.RateLimiterService;
+import com.secureai.service.TokenEstimator;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@WebMvcTest(controllers = JobController.class, properties = "ollama.num-ctx=2400")   // 1200-token prompt budget
+@Import({SecurityConfig.class, JwtAuthenticationFilter.class, PipelineMetrics.class, TokenEstimator.class,
+         GenerationLimits.class, JobControllerTest.MeterRegistryTestConfig.class})
+@DisplayName("JobController Tests")
+class JobControllerTest {
+
+    @TestConfiguration
+    static class MeterRegistryTestConfig {
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+    }
+
+    @Autowired MockMvc mockMvc;
+    @Autowired ObjectMapper objectMapper;
+
+    @MockBean JwtUtil jwtUtil;
+    @MockBean AgentJobService agentJobService;
+    @MockBean RateLimiterService rateLimiterService;
+    @MockBean AuditLogService auditLogService;
+    @MockBean OllamaClient ollamaClient;
+
+    private static final String TEST_TOKEN = "valid.test.token";
+    private static final String TEST_USER = "testuser";
+
+    @BeforeEach
+    void setUp() {
+        clearInvocations(rateLimiterService, agentJobService, auditLogService);   // not reset between @Nested tests
+        when(jwtUtil.validateToken(TEST_TOKEN)).thenReturn(true);
+        when(jwtUtil.getUsernameFromToken(TEST_TOKEN)).thenReturn(TEST_USER);
+        when(jwtUtil.getRoleFromToken(TEST_TOKEN)).thenReturn("USER");
+
+        when(rateLimiterService.tryConsume(anyString())).thenReturn(true);
+        when(rateLimiterService.getRemainingTokens(anyString())).thenReturn(99L);
+        when(rateLimiterService.getCapacity()).thenReturn(100);
+        when(ollamaClient.getModel()).thenReturn("test-model");
+        when(agentJobService.submit(anyString(), anyString(), any(), anyString())).thenReturn(
+                new AgentJobView("job-1", "QUEUED", 5, List.of(), null, false, null, LocalDateTime.now(), null));
+    }
+
+    @Nested
+    @DisplayName("POST /api/jobs")
+    class SubmitTests {
+
+        @Test
+        @DisplayName("Accepted jobs return 202 with their Location")
+        void submitReturns202() throws Exception {
+            submit("What is 2 + 2?")
+                    .andExpect(status().isAccepted())
+                    .andExpect(header().string("Location", "/api/jobs/job-1"))
+                    .andExpect(header().string("X-Rate-Limit-Remaining", "99"));
+        }
+
+        @Test
+        @DisplayName("Prompt over the context window should return 413 without spending a rate-limit token")
+        void promptOverContextWindowShouldReturn413() throws Exception {
+            submit("{}".repeat(2000))   // ~4000 tokens of punctuation in 4000 chars
+                    .andExpect(status().isPayloadTooLarge())
+                    .andExpect(jsonPath("$.message").value(containsString("tokens")));
+            verify(rateLimiterService, never()).tryConsume(TEST_USER);
+            verify(agentJobService, never()).submit(eq(TEST_USER), eq("{}".repeat(2000)), any(), anyString());
+        }
+
+        @Test
+        @DisplayName("Rate-limited submissions get 429 and are audited")
+        void rateLimitedSubmitReturns429() throws Exception {
+            when(rateLimiterService.tryConsume(TEST_USER)).thenReturn(false);
+
+            submit("Hello")
+                    .andExpect(status().isTooManyRequests())
+                    .andExpect(header().exists("Retry-After"));
+            verify(auditLogService).logRequest(eq(TEST_USER), eq("Hello"), isNull(), eq("test-model"),
+                    eq(false), eq(true), isNull(), eq(429), eq(0L), anyString());
+        }
+    }
+
+    private ResultActions submit(String prompt) throws Exception {
+        AskRequest req = new AskRequest();
+        req.setPrompt(prompt);
+        return mockMvc.perform(post("/api/jobs")
+                .header("Authorization", "Bearer " + TEST_TOKEN)
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(req)));
+    }
+}
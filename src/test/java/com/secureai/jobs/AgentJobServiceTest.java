@@ -0,0 +1,330 @@
+package com.secureai.jobs;
+
+import com.secureai.agent.ReActAgentService;
+import com.secureai.model.AgentJobView;
+import com.secureai.model.GenerationOptions;
+import com.secureai.pii.PiiRedactionService;
+import com.secureai.service.AuditLogService;
+import com.secureai.service.ModelRouter;
+import com.secureai.service.OllamaClient;
+import com.secureai.service.TokenEstimator;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AgentJobService Tests")
+class AgentJobServiceTest {
+
+    private ReActAgentService agent;
+    private PiiRedactionService pii;
+    private AuditLogService audit;
+    private ModelRouter router;
+    private MutableClock clock;
+    private AgentJobService service;
+
+    @BeforeEach
+    void setUp() {
+        agent = mock(ReActAgentService.class);
+        pii = mock(PiiRedactionService.class);
+        audit = mock(AuditLogService.class);
+        router = mock(ModelRouter.class);
+        when(router.reactModel()).thenReturn("llama3.1:8b");
+        clock = new MutableClock(Instant.parse("2026-01-01T00:00:00Z"));
+        service = newService(2, 4, 100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Nested
+    @DisplayName("Running jobs")
+    class RunTests {
+
+        @Test
+        @DisplayName("A finished job exposes redacted steps and answer, and is audited with its options")
+        @SuppressWarnings("unchecked")
+        void runRedactsAndAudits() throws Exception {
+            GenerationOptions options = new GenerationOptions(512, 0.3, List.of());
+            when(pii.containsPii(contains("alice@example.com"))).thenReturn(true);
+            when(pii.redact(anyString())).thenAnswer(inv ->
+                    inv.<String>getArgument(0).replace("alice@example.com", "[EMAIL_REDACTED]"));
+            when(agent.execute(eq("find alice"), eq(options), any(Consumer.class))).thenAnswer(inv -> {
+                ReActAgentService.AgentStep step = new ReActAgentService.AgentStep(1);
+                step.thought = "look up alice";
+                step.action = "search";
+                step.actionInput = "alice";
+                step.observation = "alice@example.com";
+                inv.<Consumer<ReActAgentService.AgentStep>>getArgument(2).accept(step);
+                return new ReActAgentService.AgentResult("mail alice@example.com", List.of(step), 2);
+            });
+
+            AgentJobView submitted = service.submit("alice", "find alice", options, "10.0.0.1");
+            AgentJobView done = awaitFinished(submitted.getId(), "alice");
+
+            assertThat(done.getStatus()).isEqualTo("SUCCEEDED");
+            assertThat(done.getAnswer()).isEqualTo("mail [EMAIL_REDACTED]");
+            assertThat(done.isPiiDetected()).isTrue();
+            assertThat(done.getStepsCompleted()).isEqualTo(1);
+            assertThat(done.getSteps().get(0).getObservation()).isEqualTo("[EMAIL_REDACTED]");
+            verify(audit).logRequest(eq("alice"), eq("find alice"), eq("mail [EMAIL_REDACTED]"),
+                    eq("llama3.1:8b"), eq(true), eq(false), eq(2), eq(200), anyLong(), eq("10.0.0.1"), any(),
+                    eq(options));
+        }
+
+        @Test
+        @DisplayName("An Ollama outage fails the job with a safe message")
+        @SuppressWarnings("unchecked")
+        void ollamaFailureFailsJob() throws Exception {
+            when(agent.execute(anyString(), any(), any(Consumer.class)))
+                    .thenThrow(new OllamaClient.OllamaException("connection refused: 10.1.2.3"));
+
+            AgentJobView done = awaitFinished(service.submit("alice", "hi", GenerationOptions.DEFAULT, "ip").getId(), "alice");
+
+            assertThat(done.getStatus()).isEqualTo("FAILED");
+            assertThat(done.getError()).doesNotContain("10.1.2.3");
+            verifyNoInteractions(audit);
+        }
+
+        @Test
+        @DisplayName("History that outgrows the context window fails with the same message as /api/ask")
+        @SuppressWarnings("unchecked")
+        void promptTooLargeKeepsItsMessage() throws Exception {
+            TokenEstimator.PromptTooLargeException tooLarge = new TokenEstimator.PromptTooLargeException(9000, 6000);
+            when(agent.execute(anyString(), any(), any(Consumer.class))).thenThrow(tooLarge);
+
+            AgentJobView done = awaitFinished(service.submit("alice", "hi", GenerationOptions.DEFAULT, "ip").getId(), "alice");
+
+            assertThat(done.getStatus()).isEqualTo("FAILED");
+            assertThat(done.getError()).isEqualTo(tooLarge.getMessage())
+                    .startsWith("Prompt is about 9000 tokens; the model accepts at most 6000 tokens");
+        }
+    }
+
+    @Nested
+    @DisplayName("Access and capacity")
+    class AccessTests {
+
+        @Test
+        @DisplayName("Jobs are visible only to their owner")
+        void ownerOnly() {
+            String id = service.submit("alice", "hi", GenerationOptions.DEFAULT, "ip").getId();
+
+            assertThat(service.get(id, "alice")).isPresent();
+            assertThat(service.get(id, "mallory")).isEmpty();
+            assertThat(service.subscribe(id, "mallory")).isEmpty();
+        }
+
+        @Test
+        @DisplayName("A saturated pool rejects new jobs instead of queueing without bound")
+        @SuppressWarnings("unchecked")
+        void saturatedPoolRejects() throws Exception {
+            service.shutdown();
+            service = newService(1, 1, 100);
+            CountDownLatch release = new CountDownLatch(1);
+            CountDownLatch started = new CountDownLatch(1);
+            when(agent.execute(anyString(), any(), any(Consumer.class))).thenAnswer(inv -> {
+                started.countDown();
+                release.await(5, TimeUnit.SECONDS);
+                return new ReActAgentService.AgentResult("ok", List.of(), 1);
+            });
+
+            service.submit("alice", "running", GenerationOptions.DEFAULT, "ip");
+            assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+            service.submit("alice", "queued", GenerationOptions.DEFAULT, "ip");
+
+            assertThatThrownBy(() -> service.submit("alice", "rejected", GenerationOptions.DEFAULT, "ip"))
+                    .isInstanceOf(AgentJobService.JobRejectedException.class);
+            release.countDown();
+        }
+
+        @Test
+        @DisplayName("Concurrent submits never store more than max-jobs")
+        @SuppressWarnings("unchecked")
+        void concurrentSubmitsRespectMaxJobs() throws Exception {
+            service.shutdown();
+            service = newService(1, 100, 5);
+            CountDownLatch release = new CountDownLatch(1);
+            when(agent.execute(anyString(), any(), any(Consumer.class))).thenAnswer(inv -> {
+                release.await(5, TimeUnit.SECONDS);
+                return new ReActAgentService.AgentResult("ok", List.of(), 1);
+            });
+            ExecutorService callers = Executors.newFixedThreadPool(8);
+            AtomicInteger accepted = new AtomicInteger();
+            CountDownLatch go = new CountDownLatch(1);
+            try {
+                List<Future<?>> calls = new ArrayList<>();
+                for (int i = 0; i < 50; i++) {
+                    calls.add(callers.submit(() -> {
+                        go.await();
+                        try {
+                            service.submit("alice", "hi", GenerationOptions.DEFAULT, "ip");
+                            accepted.incrementAndGet();
+                        } catch (AgentJobService.JobRejectedException rejected) {
+                            // expected once the store is full
+                        }
+                        return null;
+                    }));
+                }
+                go.countDown();
+                for (Future<?> call : calls) call.get(5, TimeUnit.SECONDS);
+            } finally {
+                release.countDown();
+                callers.shutdownNow();
+            }
+
+            assertThat(accepted.get()).isEqualTo(5);
+        }
+
+        @Test
+        @DisplayName("A full store makes room by evicting the oldest finished job")
+        @SuppressWarnings("unchecked")
+        void fullStoreEvictsOldestFinished() throws Exception {
+            service.shutdown();
+            service = newService(1, 4, 1);
+            when(agent.execute(anyString(), any(), any(Consumer.class)))
+                    .thenReturn(new ReActAgentService.AgentResult("ok", List.of(), 1));
+            String first = service.submit("alice", "one", GenerationOptions.DEFAULT, "ip").getId();
+            awaitFinished(first, "alice");
+
+            String second = service.submit("alice", "two", GenerationOptions.DEFAULT, "ip").getId();
+
+            assertThat(service.get(first, "alice")).isEmpty();
+            assertThat(service.get(second, "alice")).isPresent();
+        }
+
+        @Test
+        @DisplayName("Finished jobs are evicted after the TTL")
+        @SuppressWarnings("unchecked")
+        void ttlEviction() throws Exception {
+            when(agent.execute(anyString(), any(), any(Consumer.class)))
+                    .thenReturn(new ReActAgentService.AgentResult("ok", List.of(), 1));
+            String id = service.submit("alice", "hi", GenerationOptions.DEFAULT, "ip").getId();
+            awaitFinished(id, "alice");
+
+            clock.advance(Duration.ofMinutes(14));
+            service.evictExpired();
+            assertThat(service.get(id, "alice")).isPresent();
+
+            clock.advance(Duration.ofMinutes(2));
+            service.evictExpired();
+            assertThat(service.get(id, "alice")).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Streaming")
+    class StreamingTests {
+
+        @Test
+        @DisplayName("A stalled SSE client does not block the job's state")
+        void slowSubscriberDoesNotHoldTheJob() throws Exception {
+            AgentJob job = new AgentJob("job-1", "alice", "p", null, "127.0.0.1", 5,
+                    LocalDateTime.of(2026, 1, 1, 0, 0));
+            CountDownLatch sending = new CountDownLatch(1);
+            CountDownLatch release = new CountDownLatch(1);
+            RecordingEmitter stalled = new RecordingEmitter(sending, release);
+            job.subscribe(stalled);
+
+            Thread worker = new Thread(() -> job.addStep(new AgentJobView.Step(1, "t", "a", "i", "o")));
+            worker.start();
+            assertThat(sending.await(5, TimeUnit.SECONDS)).isTrue();
+
+            RecordingEmitter late = new RecordingEmitter(null, null);
+            ExecutorService other = Executors.newSingleThreadExecutor();
+            try {
+                assertThat(other.submit(job::view).get(1, TimeUnit.SECONDS).getSteps()).hasSize(1);
+                other.submit(() -> job.subscribe(late)).get(1, TimeUnit.SECONDS);
+                other.submit(() -> job.fail("boom", LocalDateTime.of(2026, 1, 1, 0, 1))).get(1, TimeUnit.SECONDS);
+            } finally {
+                release.countDown();
+                worker.join(5_000);
+                other.shutdownNow();
+            }
+
+            assertThat(stalled.events).containsExactly("step", "done");
+            assertThat(late.events).containsExactly("step", "done");
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** Records event names; optionally stalls on the first send until released. */
+    private static final class RecordingEmitter extends SseEmitter {
+        final List<String> events = new CopyOnWriteArrayList<>();
+        private final CountDownLatch sending;
+        private final CountDownLatch release;
+
+        RecordingEmitter(CountDownLatch sending, CountDownLatch release) {
+            this.sending = sending;
+            this.release = release;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            String text = builder.build().stream().map(d -> String.valueOf(d.getData())).findFirst().orElse("");
+            events.add(text.substring(text.indexOf(':') + 1, text.indexOf('\n')));
+            if (sending != null && events.size() == 1) {
+                sending.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        }
+    }
+
+    private AgentJobService newService(int threads, int queueCapacity, int maxJobs) {
+        return new AgentJobService(agent, pii, audit, router, threads, queueCapacity, maxJobs,
+                15, 60_000, 10, clock);
+    }
+
+    private AgentJobView awaitFinished(String id, String username) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (System.nanoTime() < deadline) {
+            AgentJobView view = service.get(id, username).orElseThrow();
+            if (view.getFinishedAt() != null) return view;
+            Thread.sleep(10);
+        }
+        throw new AssertionError("job " + id + " did not finish");
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant now;
+
+        MutableClock(Instant now) { this.now = now; }
+
+        void advance(Duration duration) { now = now.plus(duration); }
+
+        @Override public Instant instant() { return now; }
+        @Override public java.time.ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(java.time.ZoneId zone) { return this; }
+    }
+}
@@ -0,0 +1,288 @@
+package com.secureai.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.secureai.archive.AuditArchiveStore;
+import com.secureai.model.AuditLog;
+import com.secureai.model.AuditLogSummary;
+import com.secureai.model.CursorPage;
+import com.secureai.model.GenerationOptions;
+import com.secureai.repository.AuditLogRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("AuditLogService Tests")
+class AuditLogServiceTest {
+
+    private static final LocalDateTime T0 = LocalDateTime.of(2026, 5, 4, 10, 15, 30, 123_000_000);
+
+    @InjectMocks
+    private AuditLogService auditLogService;
+
+    @Mock
+    private AuditLogRepository auditLogRepository;
+
+    @Mock
+    private AuditStatsCounters statsCounters;
+
+    @Mock
+    private AuditRollupService rollupService;
+
+    @Mock
+    private AuditArchiveStore archiveStore;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+
+    @Nested
+    @DisplayName("Keyset pagination")
+    class KeysetPaginationTests {
+
+        @Test
+        @DisplayName("First page fetches size + 1 rows and issues a cursor for the last returned row")
+        void firstPageIssuesCursor() {
+            when(auditLogRepository.findLatest(Limit.of(3))).thenReturn(rows(3));
+
+            CursorPage<AuditLogSummary> page = auditLogService.getRecentLogs(null, 2);
+
+            assertThat(page.getContent()).extracting(AuditLogSummary::getId).containsExactly(100L, 99L);
+            assertThat(page.getNextCursor()).isEqualTo(AuditLogService.encodeCursor(T0.minusSeconds(1), 99L));
+            assertThat(page.isHasNext()).isTrue();
+        }
+
+        @Test
+        @DisplayName("Cursor resumes strictly after the (createdAt, id) it encodes")
+        void cursorResumesAfterPosition() {
+            String cursor = AuditLogService.encodeCursor(T0, 42L);
+            when(auditLogRepository.findLatestBefore(T0, 42L, Limit.of(21))).thenReturn(rows(1));
+
+            CursorPage<AuditLogSummary> page = auditLogService.getRecentLogs(cursor, 20);
+
+            assertThat(page.getContent()).hasSize(1);
+            assertThat(page.getNextCursor()).isNull();
+            verify(auditLogRepository, never()).findLatest(any());
+        }
+
+        @Test
+        @DisplayName("Per-user listing uses the username-scoped keyset queries")
+        void userLogsUseUsernameQueries() {
+            String cursor = AuditLogService.encodeCursor(T0, 7L);
+            when(auditLogRepository.findLatestByUsernameBefore("alice", T0, 7L, Limit.of(11))).thenReturn(List.of());
+
+            CursorPage<AuditLogSummary> page = auditLogService.getUserLogs("alice", cursor, 10);
+
+            assertThat(page.getContent()).isEmpty();
+            assertThat(page.isHasNext()).isFalse();
+        }
+
+        @Test
+        @DisplayName("Page size is clamped to the allowed range")
+        void pageSizeIsClamped() {
+            when(auditLogRepository.findLatest(any())).thenReturn(List.of());
+
+            auditLogService.getRecentLogs(null, 10_000);
+            auditLogService.getRecentLogs(null, 0);
+
+            verify(auditLogRepository).findLatest(Limit.of(AuditLogService.MAX_PAGE_SIZE + 1));
+            verify(auditLogRepository).findLatest(Limit.of(2));
+        }
+
+        @Test
+        @DisplayName("Malformed cursors are rejected")
+        void malformedCursorRejected() {
+            assertThatThrownBy(() -> auditLogService.getRecentLogs("not*base64", 20))
+                    .isInstanceOf(AuditLogService.InvalidCursorException.class);
+            assertThatThrownBy(() -> auditLogService.getRecentLogs("bm8tc2VwYXJhdG9y", 20))
+                    .isInstanceOf(AuditLogService.InvalidCursorException.class);
+            verifyNoInteractions(auditLogRepository);
+        }
+    }
+
+    @Nested
+    @DisplayName("Archive fallback")
+    class ArchiveFallbackTests {
+
+        @Test
+        @DisplayName("A short database page continues into the archive from its last row")
+        void shortPageContinuesIntoArchive() {
+            List<AuditLogSummary> live = rows(2);
+            List<AuditLogSummary> archived = List.of(
+                    new AuditLogSummary(50L, "alice", null, false, false, null, 200, 1L, T0.minusDays(100), "old"));
+            when(archiveStore.isEnabled()).thenReturn(true);
+            when(auditLogRepository.findLatestByUsername("alice", Limit.of(4))).thenReturn(live);
+            when(archiveStore.findBefore("alice", false, T0.minusSeconds(1), 99L, 2)).thenReturn(archived);
+
+            CursorPage<AuditLogSummary> page = auditLogService.getUserLogs("alice", null, 3);
+
+            assertThat(page.getContent()).extracting(AuditLogSummary::getId).containsExactly(100L, 99L, 50L);
+            assertThat(page.isHasNext()).isFalse();
+        }
+
+        @Test
+        @DisplayName("A full database page never touches the archive")
+        void fullPageSkipsArchive() {
+            lenient().when(archiveStore.isEnabled()).thenReturn(true);
+            when(auditLogRepository.findLatest(Limit.of(3))).thenReturn(rows(3));
+
+            auditLogService.getRecentLogs(null, 2);
+
+            verify(archiveStore, never()).findBefore(any(), anyBoolean(), any(), any(), anyInt());
+        }
+
+        @Test
+        @DisplayName("Lookup by id falls back to the archive")
+        void getLogFallsBackToArchive() {
+            AuditLog archived = AuditLog.builder().id(7L).prompt("old prompt").build();
+            when(archiveStore.isEnabled()).thenReturn(true);
+            when(auditLogRepository.findById(7L)).thenReturn(Optional.empty());
+            when(archiveStore.findById(7L)).thenReturn(Optional.of(archived));
+
+            assertThat(auditLogService.getLog(7L)).contains(archived);
+        }
+    }
+
+    @Nested
+    @DisplayName("PII alerts")
+    class PiiAlertTests {
+
+        @Test
+        @DisplayName("PII alerts page through the PII-only keyset queries")
+        void piiAlertsArePaged() {
+            when(auditLogRepository.findPiiAlerts(Limit.of(6))).thenReturn(rows(6));
+
+            CursorPage<AuditLogSummary> page = auditLogService.getPiiAlerts(null, 5);
+
+            assertThat(page.getContent()).hasSize(5);
+            assertThat(page.getNextCursor()).isEqualTo(AuditLogService.encodeCursor(T0.minusSeconds(4), 96L));
+        }
+
+        @Test
+        @DisplayName("Export writes one JSON object per line and detaches each row")
+        void exportWritesNdjson() throws Exception {
+            List<AuditLog> rows = entities(3);
+            when(auditLogRepository.streamPiiAlerts()).thenReturn(rows.stream());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            long written = auditLogService.exportPiiAlerts(out);
+
+            String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+            assertThat(written).isEqualTo(3);
+            assertThat(out.toString(StandardCharsets.UTF_8)).endsWith("}\n");
+            assertThat(lines).hasSize(3);
+            assertThat(objectMapper.readTree(lines[0]).get("id").asLong()).isEqualTo(100L);
+            assertThat(objectMapper.readTree(lines[2]).get("createdAt").asText()).startsWith("2026-05-04T10:15:28");
+            rows.forEach(row -> verify(entityManager).detach(row));
+        }
+
+        @Test
+        @DisplayName("Export of an empty result writes nothing")
+        void emptyExportWritesNothing() throws Exception {
+            when(auditLogRepository.streamPiiAlerts()).thenReturn(Stream.empty());
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+            assertThat(auditLogService.exportPiiAlerts(out)).isZero();
+            assertThat(out.size()).isZero();
+        }
+    }
+
+    @Nested
+    @DisplayName("Request logging")
+    class RequestTests {
+
+        @Test
+        @DisplayName("Generation options are recorded; stop sequences as a JSON array")
+        void generationOptionsAreRecorded() {
+            when(auditLogRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+
+            auditLogService.logRequest("alice", "p", "a", "llama3.1:8b", false, false, null, 200, 10L,
+                    "10.0.0.1", null, new GenerationOptions(64, 0.2, List.of("\n\n", "END")));
+            auditLogService.logRequest("bob", "p", "a", "llama3.1:8b", false, false, null, 200, 10L,
+                    "10.0.0.1", null);
+
+            verify(auditLogRepository).save(argThat(row -> "alice".equals(row.getUsername())
+                    && row.getMaxTokens() == 64 && row.getTemperature() == 0.2
+                    && "[\"\\n\\n\",\"END\"]".equals(row.getStopSequences())));
+            verify(auditLogRepository).save(argThat(row -> "bob".equals(row.getUsername())
+                    && row.getMaxTokens() == null && row.getStopSequences() == null));
+        }
+
+        @Test
+        @DisplayName("The listing preview is written at insert, cut to the preview length")
+        void promptPreviewIsWritten() {
+            when(auditLogRepository.save(any())).thenAnswer(inv -> inv.getArgument(0));
+            String prompt = "x".repeat(AuditLogSummary.PROMPT_PREVIEW_LENGTH + 20);
+
+            auditLogService.logRequest("alice", prompt, "a", "llama3.1:8b", false, false, null, 200, 10L,
+                    "10.0.0.1", null);
+
+            verify(auditLogRepository).save(argThat(row -> "alice".equals(row.getUsername())
+                    && prompt.substring(0, AuditLogSummary.PROMPT_PREVIEW_LENGTH).equals(row.getPromptPreview())));
+        }
+    }
+
+    @Nested
+    @DisplayName("Batch logging")
+    class BatchTests {
+
+        @Test
+        @DisplayName("A batch is saved with one saveAll and fed to the counters per row")
+        @SuppressWarnings("unchecked")
+        void batchUsesSingleSaveAll() {
+            when(auditLogRepository.saveAll(anyList())).thenAnswer(inv -> inv.getArgument(0));
+
+            auditLogService.logBatch("alice", "10.0.0.1", List.of(
+                    new AuditLogService.BatchEntry("p1", "llama3.2:3b", "a1", false, 200, 10L, null, null),
+                    new AuditLogService.BatchEntry("p2", "llama3.1:8b", null, false, 503, 5L, null, null)));
+
+            verify(auditLogRepository).saveAll(argThat((List<AuditLog> rows) -> rows.size() == 2
+                    && rows.get(1).getStatusCode() == 503 && "10.0.0.1".equals(rows.get(0).getIpAddress())));
+            verify(auditLogRepository, never()).save(any());
+            verify(rollupService, times(2)).record(any());
+        }
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    /** {@code count} summaries, newest first, one second apart, ids descending from 100. */
+    private static List<AuditLogSummary> rows(int count) {
+        List<AuditLogSummary> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(new AuditLogSummary(100L - i, "alice", "llama3.1:8b", false, false,
+                    null, 200, 12L, T0.minusSeconds(i), "prompt " + i));
+        }
+        return rows;
+    }
+
+    private static List<AuditLog> entities(int count) {
+        List<AuditLog> rows = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            rows.add(AuditLog.builder().id(100L - i).createdAt(T0.minusSeconds(i)).build());
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,101 @@
+package com.secureai.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+@DisplayName("AuditPartitionManager Tests")
+class AuditPartitionManagerTest {
+
+    private static final YearMonth NOW = YearMonth.of(2026, 10);
+
+    private JdbcTemplate jdbcTemplate;
+    private AuditPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(JdbcTemplate.class);
+        Clock clock = Clock.fixed(Instant.parse("2026-10-19T12:00:00Z"), ZoneOffset.UTC);
+        manager = new AuditPartitionManager(jdbcTemplate, clock);
+        ReflectionTestUtils.setField(manager, "enabled", true);
+        ReflectionTestUtils.setField(manager, "retentionMonths", 12);
+        ReflectionTestUtils.setField(manager, "monthsAhead", 3);
+    }
+
+    @Test
+    @DisplayName("Freshly migrated table gets the next months split off pmax")
+    void createsFuturePartitions() {
+        List<String> sql = manager.plan(List.of("p202610", "pmax"), NOW);
+
+        assertThat(sql).containsExactly(
+                "ALTER TABLE audit_logs REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION p202611 VALUES LESS THAN (UNIX_TIMESTAMP('2026-12-01 00:00:00')), "
+                + "PARTITION p202612 VALUES LESS THAN (UNIX_TIMESTAMP('2027-01-01 00:00:00')), "
+                + "PARTITION p202701 VALUES LESS THAN (UNIX_TIMESTAMP('2027-02-01 00:00:00')), "
+                + "PARTITION pmax VALUES LESS THAN MAXVALUE)");
+    }
+
+    @Test
+    @DisplayName("Up-to-date partitions need no DDL")
+    void upToDateIsNoOp() {
+        assertThat(manager.plan(List.of("p202512", "p202610", "p202611", "p202612", "p202701", "pmax"), NOW))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Months past retention are dropped in one statement")
+    void dropsExpiredPartitions() {
+        List<String> sql = manager.plan(
+                List.of("p202508", "p202509", "p202510", "p202610", "p202611", "p202612", "p202701", "pmax"), NOW);
+
+        assertThat(sql).containsExactly("ALTER TABLE audit_logs DROP PARTITION p202508, p202509");
+    }
+
+    @Test
+    @DisplayName("Unpartitioned tables are left alone")
+    void unpartitionedTableSkipped() {
+        assertThat(manager.plan(List.of(), NOW)).isEmpty();
+        assertThat(manager.plan(List.of("p0", "p1"), NOW)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Maintenance executes the planned DDL")
+    void maintainExecutesPlan() {
+        when(jdbcTemplate.queryForList(anyString(), eq(String.class), eq("audit_logs")))
+                .thenReturn(List.of("p202609", "p202610", "p202611", "p202612", "pmax"));
+
+        manager.maintain();
+
+        verify(jdbcTemplate).execute("ALTER TABLE audit_logs REORGANIZE PARTITION pmax INTO ("
+                + "PARTITION p202701 VALUES LESS THAN (UNIX_TIMESTAMP('2027-02-01 00:00:00')), "
+                + "PARTITION pmax VALUES LESS THAN MAXVALUE)");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE audit_logs DROP PARTITION p202609");
+    }
+
+    @Test
+    @DisplayName("Disabled manager never touches the database")
+    void disabledDoesNothing() {
+        ReflectionTestUtils.setField(manager, "enabled", false);
+
+        manager.maintain();
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+}
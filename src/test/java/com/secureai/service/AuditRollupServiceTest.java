@@ -0,0 +1,167 @@
+package com.secureai.service;
+
+import com.secureai.model.AuditLog;
+import com.secureai.model.AuditRollupHourly;
+import com.secureai.repository.AuditLogRepository;
+import com.secureai.repository.AuditRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("AuditRollupService Tests")
+class AuditRollupServiceTest {
+
+    private static final LocalDateTime NOW = LocalDateTime.of(2026, 6, 1, 14, 20);
+    private static final LocalDateTime HOUR = NOW.withMinute(0);
+
+    private AuditRollupRepository repository;
+    private AuditLogRepository auditLogRepository;
+    private AuditRollupService service;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AuditRollupRepository.class);
+        auditLogRepository = mock(AuditLogRepository.class);
+        TransactionTemplate tx = mock(TransactionTemplate.class);
+        when(tx.execute(any())).thenAnswer(inv ->
+                inv.<TransactionCallback<?>>getArgument(0).doInTransaction(new SimpleTransactionStatus()));
+        doCallRealMethod().when(tx).executeWithoutResult(any());
+        Clock clock = Clock.fixed(NOW.toInstant(ZoneOffset.UTC), ZoneOffset.UTC);
+        service = new AuditRollupService(repository, auditLogRepository, tx, clock, 2);
+    }
+
+    @Test
+    @DisplayName("Entries for the same hour, user and model collapse into one increment")
+    void entriesAreAggregatedPerKey() {
+        when(repository.increment(any(), anyString(), anyString(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(1);
+
+        service.record(entry("alice", NOW.minusMinutes(5), true, 100L));
+        service.record(entry("alice", NOW.minusMinutes(1), false, 300L));
+        service.record(entry("bob", NOW, false, 50L));
+        service.flush();
+
+        verify(repository).increment(HOUR, "alice", "llama3.1:8b", 2, 1, 0, 400, 300, 20, 40);
+        verify(repository).increment(HOUR, "bob", "llama3.1:8b", 1, 0, 0, 50, 50, 10, 20);
+        verify(repository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    @DisplayName("A key seen for the first time in an hour is inserted")
+    void newKeyIsInserted() {
+        service.record(entry(null, NOW, false, 70L));
+        service.flush();
+
+        ArgumentCaptor<AuditRollupHourly> row = ArgumentCaptor.forClass(AuditRollupHourly.class);
+        verify(repository).saveAndFlush(row.capture());
+        assertThat(row.getValue().getHourStart()).isEqualTo(HOUR);
+        assertThat(row.getValue().getUsername()).isEmpty();
+        assertThat(row.getValue().getRequestCount()).isEqualTo(1);
+        assertThat(row.getValue().getDurationMaxMs()).isEqualTo(70);
+    }
+
+    @Test
+    @DisplayName("Losing the insert race to another node falls back to the increment")
+    void insertRaceFallsBackToIncrement() {
+        when(repository.increment(any(), anyString(), anyString(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong(), anyLong())).thenReturn(0, 1);
+        when(repository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException("duplicate key"));
+
+        service.record(entry("alice", NOW, false, 10L));
+        service.flush();
+
+        verify(repository, times(2)).increment(eq(HOUR), eq("alice"), anyString(), eq(1L), anyLong(),
+                anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("A failed flush keeps its deltas for the next one")
+    void failedFlushIsRetried() {
+        when(repository.increment(any(), anyString(), anyString(), anyLong(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong(), anyLong()))
+                .thenThrow(new QueryTimeoutException("lock wait timeout"))
+                .thenReturn(1);
+
+        service.record(entry("alice", NOW, false, 10L));
+        service.flush();
+        service.record(entry("alice", NOW, false, 20L));
+        service.flush();
+
+        verify(repository).increment(HOUR, "alice", "llama3.1:8b", 2, 0, 0, 30, 20, 20, 40);
+    }
+
+    @Test
+    @DisplayName("Reconcile rebuilds closed hours from audit_logs and drops their pending deltas")
+    @SuppressWarnings("unchecked")
+    void reconcileRebuildsClosedHours() {
+        LocalDateTime previous = HOUR.minusHours(1);
+        when(auditLogRepository.rollupBetween(previous, HOUR)).thenReturn(List.of(
+                new Object[] {"alice", "llama3.1:8b", 3L, 1L, 0L, 600L, 300L, 30L, 60L},
+                new Object[] {null, "llama3.1:8b", 1L, 0L, 1L, null, null, null, null},
+                new Object[] {"", "llama3.1:8b", 1L, 0L, 0L, 5L, 5L, 1L, 2L}));
+
+        service.record(entry("alice", previous.plusMinutes(59), false, 10L));
+        service.record(entry("bob", NOW, false, 10L));
+        service.reconcile();
+        service.flush();
+
+        verify(repository).deleteByHour(previous.minusHours(1));
+        verify(repository).deleteByHour(previous);
+        verify(repository, never()).deleteByHour(HOUR);
+        ArgumentCaptor<List<AuditRollupHourly>> rows = ArgumentCaptor.forClass(List.class);
+        verify(repository, times(2)).saveAll(rows.capture());
+        assertThat(rows.getAllValues().get(1))
+                .extracting(AuditRollupHourly::getUsername, AuditRollupHourly::getRequestCount,
+                        AuditRollupHourly::getRateLimitedCount, AuditRollupHourly::getDurationMaxMs)
+                .containsExactlyInAnyOrder(tuple("alice", 3L, 0L, 300L), tuple("", 2L, 1L, 5L));
+        // The delta for the rebuilt hour is dropped; the current hour's delta still flushes
+        verify(repository, never()).increment(eq(previous), anyString(), anyString(), anyLong(), anyLong(),
+                anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+        verify(repository).increment(eq(HOUR), eq("bob"), anyString(), eq(1L), anyLong(),
+                anyLong(), anyLong(), anyLong(), anyLong(), anyLong());
+    }
+
+    @Test
+    @DisplayName("Reports read the rollup from the start of the window's first hour")
+    void reportsUseHourAlignedWindow() {
+        service.topUsers(24, 500);
+        service.usageByModel(1);
+
+        verify(repository).usageByUserSince(HOUR.minusHours(23), Limit.of(AuditRollupService.MAX_REPORT_ROWS));
+        verify(repository).usageByModelSince(HOUR);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static AuditLog entry(String username, LocalDateTime createdAt, boolean pii, Long durationMs) {
+        return AuditLog.builder()
+                .username(username)
+                .model("llama3.1:8b")
+                .createdAt(createdAt)
+                .piiDetected(pii)
+                .durationMs(durationMs)
+                .promptEvalCount(10)
+                .evalCount(20)
+                .build();
+    }
+}
@@ -0,0 +1,157 @@
+package com.secureai.service;
+
+import com.secureai.repository.AuditLogRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@DisplayName("AuditStatsCounters Tests")
+class AuditStatsCountersTest {
+
+    private static final LocalDateTime START = LocalDateTime.of(2026, 3, 1, 12, 0, 30);
+
+    private final MutableClock clock = new MutableClock(START.toInstant(ZoneOffset.UTC));
+    private AuditLogRepository repository;
+    private AuditStatsCounters counters;
+
+    @BeforeEach
+    void setUp() {
+        repository = mock(AuditLogRepository.class);
+        when(repository.minuteBucketsSince(any())).thenReturn(List.of());
+        counters = new AuditStatsCounters(repository, clock);
+    }
+
+    @Test
+    @DisplayName("Empty store reports zeros and a null average")
+    void emptyStoreReportsZeros() {
+        Map<String, Object> stats = counters.snapshot();
+
+        assertThat(stats).containsEntry("totalRequests", 0L)
+                .containsEntry("requestsLast24h", 0L)
+                .containsEntry("avgResponseTimeMs", null);
+    }
+
+    @Test
+    @DisplayName("Recorded entries update totals, windows and average")
+    void recordedEntriesUpdateCounters() {
+        counters.snapshot();   // initial reconcile against the empty repository
+        counters.record(now(), true, false, 100L);
+        counters.record(now(), false, true, 300L);
+        counters.record(now(), false, false, null);
+
+        Map<String, Object> stats = counters.snapshot();
+
+        assertThat(stats).containsEntry("totalRequests", 3L)
+                .containsEntry("requestsLastHour", 3L)
+                .containsEntry("requestsLast24h", 3L)
+                .containsEntry("piiDetections", 1L)
+                .containsEntry("rateLimitedCount", 1L)
+                .containsEntry("avgResponseTimeMs", 200.0);
+    }
+
+    @Test
+    @DisplayName("Entries age out of the 1h and then the 24h window")
+    void entriesAgeOutOfWindows() {
+        counters.snapshot();
+        counters.record(now(), false, false, 50L);
+
+        clock.advance(Duration.ofMinutes(61));
+        assertThat(counters.snapshot()).containsEntry("requestsLastHour", 0L)
+                .containsEntry("requestsLast24h", 1L);
+
+        clock.advance(Duration.ofHours(23));
+        assertThat(counters.snapshot()).containsEntry("requestsLast24h", 0L)
+                .containsEntry("totalRequests", 1L)
+                .containsEntry("avgResponseTimeMs", null);
+    }
+
+    @Test
+    @DisplayName("A reused ring slot is reset for the new minute")
+    void reusedSlotIsReset() {
+        counters.snapshot();
+        counters.record(now(), false, false, 10L);
+        clock.advance(Duration.ofMinutes(AuditStatsCounters.WINDOW_MINUTES));
+        counters.record(now(), false, false, 30L);
+
+        assertThat(counters.snapshot()).containsEntry("requestsLast24h", 1L)
+                .containsEntry("avgResponseTimeMs", 30.0);
+    }
+
+    @Test
+    @DisplayName("Reconcile rebuilds counters from the database")
+    void reconcileRebuildsFromDatabase() {
+        LocalDateTime tenMinutesAgo = now().minusMinutes(10);
+        LocalDateTime twoHoursAgo = now().minusHours(2);
+        when(repository.count()).thenReturn(500L);
+        when(repository.countByPiiDetectedTrue()).thenReturn(7L);
+        when(repository.countByRateLimitedTrue()).thenReturn(3L);
+        when(repository.minuteBucketsSince(any())).thenReturn(List.of(
+                bucket(tenMinutesAgo, 4, 4, 400),
+                bucket(twoHoursAgo, 6, 2, 1000)));
+
+        counters.record(now(), false, false, 1L);   // replaced by the reconcile
+        counters.reconcile();
+        Map<String, Object> stats = counters.snapshot();
+
+        assertThat(stats).containsEntry("totalRequests", 500L)
+                .containsEntry("requestsLastHour", 4L)
+                .containsEntry("requestsLast24h", 10L)
+                .containsEntry("piiDetections", 7L)
+                .containsEntry("rateLimitedCount", 3L)
+                .containsEntry("avgResponseTimeMs", 1400.0 / 6);
+    }
+
+    @Test
+    @DisplayName("Dashboard reads after the first do not hit the database")
+    void snapshotDoesNotQueryAfterReconcile() {
+        counters.snapshot();
+        counters.snapshot();
+        counters.snapshot();
+
+        verify(repository, times(1)).count();
+        verify(repository, times(1)).minuteBucketsSince(any());
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private static Object[] bucket(LocalDateTime t, long requests, long durationCount, long durationSum) {
+        return new Object[] {t.getYear(), t.getMonthValue(), t.getDayOfMonth(), t.getHour(), t.getMinute(),
+                requests, durationCount, durationSum};
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override public ZoneId getZone() { return ZoneOffset.UTC; }
+        @Override public Clock withZone(ZoneId zone) { return this; }
+        @Override public Instant instant() { return instant; }
+    }
+}
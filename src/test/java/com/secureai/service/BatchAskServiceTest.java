@@ -0,0 +1,167 @@
+package com.secureai.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secureai.model.GenerationOptions;
+import com.secureai.model.GenerationStats;
+import com.secureai.pii.PiiRedactionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@DisplayName("BatchAskService Tests")
+class BatchAskServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private OllamaClient ollamaClient;
+    private ModelRouter modelRouter;
+    private PiiRedactionService piiRedactionService;
+    private AuditLogService auditLogService;
+    private final TokenEstimator tokenEstimator = new TokenEstimator(200);   // 100-token prompt budget
+    private final GenerationLimits generationLimits = new GenerationLimits(2048, "TRIAL=256");
+    private BatchAskService service;
+
+    @BeforeEach
+    void setUp() {
+        ollamaClient = mock(OllamaClient.class);
+        piiRedactionService = mock(PiiRedactionService.class);
+        auditLogService = mock(AuditLogService.class);
+        modelRouter = new ModelRouter(new SimpleMeterRegistry(), "llama3.1:8b", true, "llama3.2:3b", "", 10, "", "");
+        service = new BatchAskService(ollamaClient, modelRouter, piiRedactionService, auditLogService,
+                tokenEstimator, generationLimits, objectMapper, 4, 2, 3);
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Every prompt yields one redacted NDJSON line and the batch is audited once")
+    @SuppressWarnings("unchecked")
+    void streamsRedactedLinesAndAuditsOnce() throws Exception {
+        when(ollamaClient.generate(anyString(), isNull(), anyString(), any())).thenAnswer(inv ->
+                new OllamaClient.OllamaResult("re: " + inv.getArgument(0), GenerationStats.EMPTY));
+        when(piiRedactionService.containsPii("re: ssn 123-45-6789")).thenReturn(true);
+        when(piiRedactionService.redact("re: ssn 123-45-6789")).thenReturn("re: ssn [SSN_REDACTED]");
+
+        List<JsonNode> lines = run(List.of("a", "ssn 123-45-6789", "c"));
+
+        assertThat(lines).extracting(line -> line.get("index").asInt()).containsExactlyInAnyOrder(0, 1, 2);
+        JsonNode redacted = lines.stream().filter(line -> line.get("index").asInt() == 1).findFirst().orElseThrow();
+        assertThat(redacted.get("response").asText()).isEqualTo("re: ssn [SSN_REDACTED]");
+        assertThat(redacted.get("piiRedacted").asBoolean()).isTrue();
+
+        ArgumentCaptor<List<AuditLogService.BatchEntry>> audits = ArgumentCaptor.forClass(List.class);
+        verify(auditLogService).logBatch(eq("alice"), eq("10.0.0.1"), audits.capture());
+        assertThat(audits.getValue()).hasSize(3)
+                .extracting(AuditLogService.BatchEntry::redactedResponse).doesNotContain("re: ssn 123-45-6789");
+        assertThat(audits.getValue()).extracting(AuditLogService.BatchEntry::model)
+                .containsExactlyInAnyOrder("llama3.2:3b", "llama3.1:8b", "llama3.2:3b");   // routed by prompt length
+    }
+
+    @Test
+    @DisplayName("No more than batch.parallelism prompts are in flight")
+    void boundedFanOut() throws Exception {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger peak = new AtomicInteger();
+        when(ollamaClient.generate(anyString(), isNull(), anyString(), any())).thenAnswer(inv -> {
+            peak.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return new OllamaClient.OllamaResult("ok", GenerationStats.EMPTY);
+        });
+        BatchAskService wide = new BatchAskService(ollamaClient, modelRouter, piiRedactionService,
+                auditLogService, tokenEstimator, generationLimits, objectMapper, 8, 2, 100);
+        try {
+            List<String> prompts = new ArrayList<>();
+            for (int i = 0; i < 10; i++) prompts.add("p" + i);
+            wide.execute("alice", List.of("USER"), prompts, "10.0.0.1", new ByteArrayOutputStream());
+        } finally {
+            wide.shutdown();
+        }
+
+        assertThat(peak.get()).isBetween(1, 2);
+        verify(ollamaClient, times(10)).generate(anyString(), isNull(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Every prompt is capped at the caller's role ceiling and audited with it")
+    @SuppressWarnings("unchecked")
+    void promptsUseRoleCeiling() throws Exception {
+        when(ollamaClient.generate(anyString(), isNull(), anyString(), any()))
+                .thenReturn(new OllamaClient.OllamaResult("ok", GenerationStats.EMPTY));
+
+        service.execute("trial", List.of("TRIAL"), List.of("a", "b"), "10.0.0.1", new ByteArrayOutputStream());
+
+        ArgumentCaptor<GenerationOptions> sent = ArgumentCaptor.forClass(GenerationOptions.class);
+        verify(ollamaClient, times(2)).generate(anyString(), isNull(), anyString(), sent.capture());
+        assertThat(sent.getAllValues()).extracting(GenerationOptions::getMaxTokens).containsOnly(256);
+        ArgumentCaptor<List<AuditLogService.BatchEntry>> audits = ArgumentCaptor.forClass(List.class);
+        verify(auditLogService).logBatch(eq("trial"), eq("10.0.0.1"), audits.capture());
+        assertThat(audits.getValue()).extracting(entry -> entry.options().getMaxTokens()).containsOnly(256);
+    }
+
+    @Test
+    @DisplayName("A failed prompt becomes an error line without failing the batch")
+    void failedPromptIsReportedInline() throws Exception {
+        when(ollamaClient.generate(eq("ok"), isNull(), anyString(), any()))
+                .thenReturn(new OllamaClient.OllamaResult("fine", GenerationStats.EMPTY));
+        when(ollamaClient.generate(eq("down"), isNull(), anyString(), any()))
+                .thenThrow(new OllamaClient.OllamaException("connection refused"));
+
+        List<JsonNode> lines = run(List.of("ok", "down"));
+
+        JsonNode failed = lines.stream().filter(line -> line.get("index").asInt() == 1).findFirst().orElseThrow();
+        assertThat(failed.get("error").asText()).contains("unavailable");
+        assertThat(failed.get("response").isNull()).isTrue();
+        assertThat(lines).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("A prompt over the context window gets a 413 line without reaching Ollama")
+    void oversizedPromptIsReportedInline() throws Exception {
+        when(ollamaClient.generate(eq("ok"), isNull(), anyString(), any()))
+                .thenReturn(new OllamaClient.OllamaResult("fine", GenerationStats.EMPTY));
+        String huge = "word ".repeat(500);
+
+        List<JsonNode> lines = run(List.of("ok", huge));
+
+        JsonNode rejected = lines.stream().filter(line -> line.get("index").asInt() == 1).findFirst().orElseThrow();
+        assertThat(rejected.get("error").asText()).contains("tokens");
+        verify(ollamaClient, never()).generate(eq(huge), any(), anyString(), any());
+    }
+
+    @Test
+    @DisplayName("Batches above batch.max-prompts are rejected")
+    void oversizedBatchRejected() {
+        assertThatThrownBy(() -> service.checkSize(List.of("a", "b", "c", "d")))
+                .isInstanceOf(BatchAskService.BatchTooLargeException.class);
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private List<JsonNode> run(List<String> prompts) throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.execute("alice", List.of("USER"), prompts, "10.0.0.1", out);
+        List<JsonNode> lines = new ArrayList<>();
+        for (String line : out.toString(StandardCharsets.UTF_8).split("\n")) {
+            lines.add(objectMapper.readTree(line));
+        }
+        return lines;
+    }
+}
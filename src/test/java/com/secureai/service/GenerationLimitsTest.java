@@ -0,0 +1,60 @@
+package com.secureai.service;
+
+import com.secureai.model.AskRequest;
+import com.secureai.model.GenerationOptions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("GenerationLimits Tests")
+class GenerationLimitsTest {
+
+    private final GenerationLimits limits = new GenerationLimits(1024, "ADMIN=4096, trial=128");
+
+    @Test
+    @DisplayName("The highest ceiling among the caller's roles applies, else the default")
+    void ceilingPerRole() {
+        assertThat(limits.maxTokens(List.of("USER"))).isEqualTo(1024);
+        assertThat(limits.maxTokens(List.of("TRIAL"))).isEqualTo(128);
+        assertThat(limits.maxTokens(List.of("TRIAL", "ADMIN"))).isEqualTo(4096);
+    }
+
+    @Test
+    @DisplayName("An omitted maxTokens is sent as the ceiling; other options pass through")
+    void resolve() {
+        AskRequest request = request(null);
+        request.setTemperature(0.1);
+        request.setStop(List.of("END"));
+
+        GenerationOptions options = limits.resolve(request, false, List.of("TRIAL"));
+
+        assertThat(options.getMaxTokens()).isEqualTo(128);
+        assertThat(options.getTemperature()).isEqualTo(0.1);
+        assertThat(options.getStop()).containsExactly("END");
+        assertThat(limits.resolve(request(64), false, List.of("TRIAL")).getMaxTokens()).isEqualTo(64);
+    }
+
+    @Test
+    @DisplayName("maxTokens over the ceiling, and stop sequences for ReAct, are refused")
+    void refused() {
+        assertThatThrownBy(() -> limits.resolve(request(129), false, List.of("TRIAL")))
+                .isInstanceOf(GenerationLimits.GenerationLimitException.class)
+                .hasMessageContaining("at most 128");
+
+        AskRequest withStop = request(null);
+        withStop.setStop(List.of("Observation:"));
+        assertThatThrownBy(() -> limits.resolve(withStop, true, List.of("USER")))
+                .isInstanceOf(GenerationLimits.GenerationLimitException.class);
+    }
+
+    private static AskRequest request(Integer maxTokens) {
+        AskRequest request = new AskRequest();
+        request.setPrompt("hi");
+        request.setMaxTokens(maxTokens);
+        return request;
+    }
+}
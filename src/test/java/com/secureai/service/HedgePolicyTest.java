@@ -0,0 +1,68 @@
+package com.secureai.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("HedgePolicy Tests")
+class HedgePolicyTest {
+
+    @Test
+    @DisplayName("Delay is the p95 of observed latencies, only once enough samples exist")
+    void delayIsP95() {
+        HedgePolicy policy = new HedgePolicy(5, 0);
+        for (int i = 1; i < HedgePolicy.MIN_SAMPLES; i++) {
+            policy.record("m", ms(i));
+        }
+        assertThat(policy.delayNanos("m")).isEqualTo(-1);
+
+        policy.record("m", ms(HedgePolicy.MIN_SAMPLES));   // samples 1..20 ms
+
+        assertThat(policy.delayNanos("m")).isEqualTo(ms(19));
+        assertThat(policy.delayNanos("other")).isEqualTo(-1);
+    }
+
+    @Test
+    @DisplayName("Delay never drops below min-delay-ms")
+    void delayFloor() {
+        HedgePolicy policy = new HedgePolicy(5, 50);
+        for (int i = 0; i < HedgePolicy.MIN_SAMPLES; i++) {
+            policy.record("m", ms(1));
+        }
+
+        assertThat(policy.delayNanos("m")).isEqualTo(ms(50));
+    }
+
+    @Test
+    @DisplayName("Hedges are limited to budget-percent of requests")
+    void budgetLimitsHedges() {
+        HedgePolicy policy = new HedgePolicy(10, 0);
+        int granted = 0;
+        for (int i = 0; i < 1_000; i++) {
+            policy.onRequest();
+            if (policy.tryAcquire()) granted++;
+        }
+
+        assertThat(granted).isBetween(99, 100);
+    }
+
+    @Test
+    @DisplayName("A released credit can be spent again")
+    void releaseReturnsCredit() {
+        HedgePolicy policy = new HedgePolicy(100, 0);
+        policy.onRequest();
+        assertThat(policy.tryAcquire()).isTrue();
+        assertThat(policy.tryAcquire()).isFalse();
+
+        policy.release();
+
+        assertThat(policy.tryAcquire()).isTrue();
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
@@ -0,0 +1,65 @@
+package com.secureai.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("ModelRouter Tests")
+class ModelRouterTest {
+
+    private SimpleMeterRegistry registry;
+    private ModelRouter router;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        router = new ModelRouter(registry, "big", true, "small", "", 20, "summarize, calculate", "ADMIN");
+    }
+
+    @Test
+    @DisplayName("Short prompts go to the fast model, long ones to the quality model")
+    void routesByPromptLength() {
+        assertThat(router.route("What is 2+2?", false, List.of("USER"), null)).isEqualTo("small");
+        assertThat(router.route("Explain the trade-offs of event sourcing", false, List.of("USER"), null))
+                .isEqualTo("big");
+        assertThat(registry.get("gateway.model.route").tags("model", "small", "reason", "length")
+                .counter().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Hints override length; quality roles override length but not hints")
+    void hintsAndRoles() {
+        String longPrompt = "Explain the trade-offs of event sourcing";
+        assertThat(router.route(longPrompt, false, List.of("USER"), ModelRouter.TIER_FAST)).isEqualTo("small");
+        assertThat(router.route("hi", false, List.of("USER"), ModelRouter.TIER_QUALITY)).isEqualTo("big");
+        assertThat(router.route("hi", false, List.of("ADMIN"), null)).isEqualTo("big");
+        assertThat(router.route("hi", false, List.of("ADMIN"), ModelRouter.TIER_FAST)).isEqualTo("small");
+    }
+
+    @Test
+    @DisplayName("ReAct uses the ReAct model; listed tools use the fast model")
+    void reactAndTools() {
+        assertThat(router.route("hi", true, List.of("USER"), ModelRouter.TIER_FAST)).isEqualTo("big");
+        assertThat(router.toolModel("summarize")).isEqualTo("small");
+        assertThat(router.toolModel("Calculate ")).isEqualTo("small");
+        assertThat(router.toolModel("search_knowledge")).isEqualTo("big");
+        assertThat(router.models()).containsExactlyInAnyOrder("big", "small");
+    }
+
+    @Test
+    @DisplayName("Disabled routing always uses ollama.model")
+    void disabledUsesDefault() {
+        ModelRouter disabled = new ModelRouter(registry, "big", false, "small", "react", 20, "summarize", "");
+
+        assertThat(disabled.route("hi", false, List.of("USER"), ModelRouter.TIER_FAST)).isEqualTo("big");
+        assertThat(disabled.toolModel("summarize")).isEqualTo("big");
+        assertThat(disabled.reactModel()).isEqualTo("big");
+        assertThat(disabled.models()).containsExactly("big");
+        assertThat(registry.find("gateway.model.route").counter()).isNull();
+    }
+}
@@ -0,0 +1,116 @@
+package com.secureai.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.actuate.health.Status;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("ModelWarmer Tests")
+class ModelWarmerTest {
+
+    private OllamaClient ollamaClient;
+    private ModelRouter modelRouter;
+    private ModelWarmer warmer;
+
+    @BeforeEach
+    void setUp() {
+        ollamaClient = mock(OllamaClient.class);
+        modelRouter = mock(ModelRouter.class);
+        when(modelRouter.models()).thenReturn(Set.of("llama3.1:8b"));
+        warmer = new ModelWarmer(ollamaClient, modelRouter, true, 10_000, 60_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        warmer.shutdown();
+    }
+
+    @Test
+    @DisplayName("Not ready until the model is loaded, retrying while Ollama is down")
+    void readinessWaitsForWarmUp() {
+        when(ollamaClient.getLastActivityNanos(anyString())).thenReturn(System.nanoTime());
+        when(ollamaClient.warmUp("llama3.1:8b"))
+                .thenThrow(new OllamaClient.OllamaException("connection refused"))
+                .thenReturn(TimeUnit.SECONDS.toNanos(12));
+
+        warmer.tick();
+        assertThat(warmer.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+
+        warmer.tick();
+        assertThat(warmer.health().getStatus()).isEqualTo(Status.UP);
+        verify(ollamaClient, times(2)).warmUp("llama3.1:8b");
+    }
+
+    @Test
+    @DisplayName("A warm model is pinged only after an idle period")
+    void keepWarmPingOnlyWhenIdle() {
+        when(ollamaClient.getLastActivityNanos(anyString())).thenReturn(System.nanoTime());
+        warmer.tick();                       // initial load
+        warmer.tick();                       // recent activity — no ping
+        verify(ollamaClient, times(1)).warmUp("llama3.1:8b");
+
+        when(ollamaClient.getLastActivityNanos(anyString())).thenReturn(System.nanoTime() - TimeUnit.MINUTES.toNanos(5));
+        warmer.tick();
+        verify(ollamaClient, times(2)).warmUp("llama3.1:8b");
+    }
+
+    @Test
+    @DisplayName("A failed keep-warm ping marks the model cold")
+    void failedPingMarksCold() {
+        when(ollamaClient.getLastActivityNanos(anyString())).thenReturn(System.nanoTime() - TimeUnit.MINUTES.toNanos(5));
+        warmer.tick();
+        when(ollamaClient.warmUp("llama3.1:8b")).thenThrow(new OllamaClient.OllamaException("unloaded"));
+
+        warmer.tick();
+
+        assertThat(warmer.isWarm()).isFalse();
+        assertThat(warmer.health().getStatus()).isEqualTo(Status.OUT_OF_SERVICE);
+    }
+
+    @Test
+    @DisplayName("Every routable model is warmed")
+    void warmsEveryRoutedModel() {
+        when(modelRouter.models()).thenReturn(Set.of("llama3.1:8b", "llama3.2:3b"));
+        when(ollamaClient.getLastActivityNanos(anyString())).thenReturn(System.nanoTime());
+
+        warmer.tick();
+
+        verify(ollamaClient).warmUp("llama3.1:8b");
+        verify(ollamaClient).warmUp("llama3.2:3b");
+        assertThat(warmer.isWarm()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Only the idle model is pinged while another one is busy")
+    void pingsEachIdleModel() {
+        when(modelRouter.models()).thenReturn(Set.of("llama3.1:8b", "llama3.2:3b"));
+        when(ollamaClient.getLastActivityNanos(anyString())).thenReturn(System.nanoTime());
+        warmer.tick();                       // initial load of both
+
+        when(ollamaClient.getLastActivityNanos("llama3.2:3b"))
+                .thenReturn(System.nanoTime() - TimeUnit.MINUTES.toNanos(5));
+        warmer.tick();
+
+        verify(ollamaClient, times(1)).warmUp("llama3.1:8b");
+        verify(ollamaClient, times(2)).warmUp("llama3.2:3b");
+    }
+
+    @Test
+    @DisplayName("With warm-up disabled the indicator is always UP and Ollama is not called")
+    void disabledIsAlwaysReady() {
+        ModelWarmer disabled = new ModelWarmer(ollamaClient, modelRouter, false, 10_000, 60_000);
+        disabled.start();
+
+        assertThat(disabled.health().getStatus()).isEqualTo(Status.UP);
+        verify(ollamaClient, never()).warmUp(anyString());
+        disabled.shutdown();
+    }
+}
@@ -0,0 +1,334 @@
+package com.secureai.service;
+
+import com.secureai.model.GenerationOptions;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpResponse;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RequestCallback;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.ResponseExtractor;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.jsonPath;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+import static org.springframework.http.HttpMethod.POST;
+
+@DisplayName("OllamaClient Tests")
+class OllamaClientTest {
+
+    private static final String GENERATE_URL = "http://ollama.test/api/generate";
+
+    private MockRestServiceServer server;
+    private SimpleMeterRegistry registry;
+    private OllamaClient client;
+
+    @BeforeEach
+    void setUp() {
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).build();
+        registry = new SimpleMeterRegistry();
+        client = new OllamaClient(restTemplate, registry);
+        ReflectionTestUtils.setField(client, "baseUrl", "http://ollama.test");
+        ReflectionTestUtils.setField(client, "model", "test-model");
+        ReflectionTestUtils.setField(client, "embeddingModel", "test-embed");
+        ReflectionTestUtils.setField(client, "keepAlive", "30m");
+    }
+
+    @Test
+    @DisplayName("Timing fields should be parsed into GenerationStats")
+    void timingFieldsShouldBeParsed() {
+        server.expect(requestTo(GENERATE_URL)).andExpect(method(POST))
+                .andRespond(withSuccess("""
+                        {"model":"test-model","response":" Paris. ","done":true,
+                         "total_duration":5000000000,"load_duration":1000000000,
+                         "prompt_eval_count":26,"prompt_eval_duration":500000000,
+                         "eval_count":100,"eval_duration":2000000000}
+                        """, MediaType.APPLICATION_JSON));
+
+        OllamaClient.OllamaResult result = client.generate("Capital of France?");
+
+        assertThat(result.text).isEqualTo("Paris.");
+        assertThat(result.stats.getModel()).isEqualTo("test-model");
+        assertThat(result.stats.getPromptEvalCount()).isEqualTo(26);
+        assertThat(result.stats.getEvalCount()).isEqualTo(100);
+        assertThat(result.stats.getTokensPerSecond()).isEqualTo(50.0);
+        assertThat(result.stats.getTimeToFirstTokenNs()).isEqualTo(1_500_000_000L);
+        assertThat(result.stats.getQueueDurationNs()).isEqualTo(1_500_000_000L);
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Timings should be exported as metrics tagged by model")
+    void timingsShouldBeExportedAsMetrics() {
+        server.expect(requestTo(GENERATE_URL))
+                .andRespond(withSuccess("""
+                        {"response":"ok","load_duration":3000000000,"total_duration":4000000000,
+                         "eval_count":10,"eval_duration":1000000000}
+                        """, MediaType.APPLICATION_JSON));
+
+        client.generate("hi");
+
+        assertThat(registry.get("ollama.generate.load").tag("model", "test-model").timer()
+                .totalTime(TimeUnit.SECONDS)).isEqualTo(3.0);
+        assertThat(registry.get("ollama.generate.tokens.per.second").tag("model", "test-model")
+                .summary().mean()).isEqualTo(10.0);
+        assertThat(registry.get("ollama.generate.tokens").tags("model", "test-model", "type", "completion")
+                .summary().totalAmount()).isEqualTo(10.0);
+    }
+
+    @Test
+    @DisplayName("Missing timing fields should leave stats unreported and record no metrics")
+    void missingTimingsShouldNotRecordMetrics() {
+        server.expect(requestTo(GENERATE_URL))
+                .andRespond(withSuccess("{\"response\":\"ok\"}", MediaType.APPLICATION_JSON));
+
+        OllamaClient.OllamaResult result = client.generate("hi");
+
+        assertThat(result.stats.isReported()).isFalse();
+        assertThat(registry.find("ollama.generate.total").timer()).isNull();
+    }
+
+    @Test
+    @DisplayName("Error body should raise OllamaException")
+    void errorBodyShouldThrow() {
+        server.expect(requestTo(GENERATE_URL))
+                .andRespond(withSuccess("{\"error\":\"model not found\"}", MediaType.APPLICATION_JSON));
+
+        assertThatThrownBy(() -> client.generate("hi"))
+                .isInstanceOf(OllamaClient.OllamaException.class)
+                .hasMessageContaining("model not found");
+    }
+
+    @Test
+    @DisplayName("Malformed JSON should raise OllamaException, not a connection error")
+    void malformedBodyShouldThrow() {
+        server.expect(requestTo(GENERATE_URL))
+                .andRespond(withSuccess("{\"response\":", MediaType.APPLICATION_JSON));
+
+        assertThatThrownBy(() -> client.generate("hi"))
+                .isInstanceOf(OllamaClient.OllamaException.class)
+                .hasMessageContaining("Malformed response");
+    }
+
+    @Test
+    @DisplayName("Embedding response should be parsed into a float vector")
+    void embeddingShouldBeParsed() {
+        server.expect(requestTo("http://ollama.test/api/embeddings")).andExpect(method(POST))
+                .andRespond(withSuccess("{\"embedding\":[0.25,-1.5,3.0]}", MediaType.APPLICATION_JSON));
+
+        assertThat(client.embed("hello")).containsExactly(0.25f, -1.5f, 3.0f);
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Missing embedding should raise OllamaException")
+    void missingEmbeddingShouldThrow() {
+        server.expect(requestTo("http://ollama.test/api/embeddings"))
+                .andRespond(withSuccess("{\"error\":\"model not found\"}", MediaType.APPLICATION_JSON));
+
+        assertThatThrownBy(() -> client.embed("hello"))
+                .isInstanceOf(OllamaClient.OllamaException.class);
+    }
+
+    @Test
+    @DisplayName("Generation requests carry the configured keep_alive")
+    void generateSendsKeepAlive() {
+        server.expect(requestTo(GENERATE_URL))
+                .andExpect(jsonPath("$.keep_alive").value("30m"))
+                .andRespond(withSuccess("{\"response\":\"ok\"}", MediaType.APPLICATION_JSON));
+
+        client.generate("hi");
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Generation options replace the default num_predict and temperature and add stop")
+    void generateSendsOptions() {
+        server.expect(requestTo(GENERATE_URL))
+                .andExpect(jsonPath("$.options.num_predict").value(OllamaClient.NUM_PREDICT))
+                .andExpect(jsonPath("$.options.temperature").value(0.7))
+                .andExpect(jsonPath("$.options.stop").doesNotExist())
+                .andRespond(withSuccess("{\"response\":\"ok\"}", MediaType.APPLICATION_JSON));
+        server.expect(requestTo(GENERATE_URL))
+                .andExpect(jsonPath("$.options.num_predict").value(8))
+                .andExpect(jsonPath("$.options.temperature").value(0.0))
+                .andExpect(jsonPath("$.options.stop[0]").value("\n"))
+                .andRespond(withSuccess("{\"response\":\"ok\"}", MediaType.APPLICATION_JSON));
+
+        client.generate("hi");
+        client.generate("hi", null, "test-model", new GenerationOptions(8, 0.0, List.of("\n")));
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Warm-up loads the model with an empty request and reports the load time")
+    void warmUpLoadsModel() {
+        server.expect(requestTo(GENERATE_URL))
+                .andExpect(jsonPath("$.model").value("test-model"))
+                .andExpect(jsonPath("$.prompt").doesNotExist())
+                .andExpect(jsonPath("$.keep_alive").value("30m"))
+                .andRespond(withSuccess("{\"response\":\"\",\"done\":true,\"load_duration\":2500000000}",
+                        MediaType.APPLICATION_JSON));
+        long before = System.nanoTime();
+
+        assertThat(client.warmUp()).isEqualTo(2_500_000_000L);
+        assertThat(client.getLastActivityNanos("test-model")).isGreaterThanOrEqualTo(before);
+        assertThat(client.getLastActivityNanos("other-model")).isLessThan(before);
+        server.verify();
+    }
+
+    @Test
+    @DisplayName("Warm-up error body should raise OllamaException")
+    void warmUpErrorShouldThrow() {
+        server.expect(requestTo(GENERATE_URL))
+                .andRespond(withSuccess("{\"error\":\"model not found\"}", MediaType.APPLICATION_JSON));
+
+        assertThatThrownBy(() -> client.warmUp())
+                .isInstanceOf(OllamaClient.OllamaException.class)
+                .hasMessageContaining("model not found");
+    }
+
+    @Nested
+    @DisplayName("Multiple backends and hedging")
+    class HedgingTests {
+
+        private static final String A = "http://a.test/api/generate";
+        private static final String B = "http://b.test/api/generate";
+
+        private StubBackends backends;
+        private OllamaClient hedged;
+
+        @BeforeEach
+        void setUp() {
+            backends = new StubBackends();
+            hedged = newClient(true, 100);
+        }
+
+        @Test
+        @DisplayName("Calls are spread round-robin over ollama.base-urls")
+        void roundRobin() {
+            hedged = newClient(false, 100);
+
+            hedged.generate("one");
+            hedged.generate("two");
+            hedged.generate("three");
+
+            assertThat(backends.calls).containsExactly(A, B, A);
+        }
+
+        @Test
+        @DisplayName("A call slower than the observed p95 is hedged and the faster backend wins")
+        void slowPrimaryIsHedged() {
+            primeLatencies();
+            backends.delaysMs.put(A, 5_000L);
+
+            long start = System.nanoTime();
+            OllamaClient.OllamaResult result = hedged.generate("hi");
+
+            assertThat(result.text).isEqualTo("from " + B);
+            assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isLessThan(2_000);
+            assertThat(registry.get("ollama.hedge.fired").tag("model", "test-model").counter().count()).isEqualTo(1.0);
+            assertThat(registry.get("ollama.hedge.won").tag("model", "test-model").counter().count()).isEqualTo(1.0);
+        }
+
+        @Test
+        @DisplayName("An exhausted hedge budget waits for the first backend instead")
+        void budgetCapsHedges() {
+            hedged = newClient(true, 0);
+            primeLatencies();
+            backends.delaysMs.put(A, 200L);
+
+            assertThat(hedged.generate("hi").text).isEqualTo("from " + A);
+            assertThat(registry.find("ollama.hedge.fired").counter()).isNull();
+        }
+
+        @Test
+        @DisplayName("A full hedge pool skips the hedge and does not count it as fired")
+        void fullPoolSkipsHedge() {
+            hedged = newClient(true, 100, 1);
+            primeLatencies();
+            backends.delaysMs.put(A, 200L);
+
+            assertThat(hedged.generate("hi").text).isEqualTo("from " + A);
+            assertThat(backends.calls).containsExactly(A);
+            assertThat(registry.find("ollama.hedge.fired").counter()).isNull();
+        }
+
+        @Test
+        @DisplayName("No hedging until enough latencies have been observed")
+        void noHedgeWithoutHistory() {
+            backends.delaysMs.put(A, 200L);
+
+            assertThat(hedged.generate("hi").text).isEqualTo("from " + A);
+            assertThat(backends.calls).containsExactly(A);
+        }
+
+        /** Enough fast calls for a p95, ending with the round-robin back on backend A. */
+        private void primeLatencies() {
+            for (int i = 0; i < HedgePolicy.MIN_SAMPLES; i++) {
+                hedged.generate("warm " + i);
+            }
+            backends.calls.clear();
+        }
+
+        private OllamaClient newClient(boolean hedging, double budgetPercent) {
+            return newClient(hedging, budgetPercent, 16);
+        }
+
+        private OllamaClient newClient(boolean hedging, double budgetPercent, int maxThreads) {
+            OllamaClient c = new OllamaClient(backends, registry);
+            ReflectionTestUtils.setField(c, "baseUrl", "http://unused.test");
+            ReflectionTestUtils.setField(c, "baseUrls", "http://a.test, http://b.test/");
+            ReflectionTestUtils.setField(c, "model", "test-model");
+            ReflectionTestUtils.setField(c, "keepAlive", "30m");
+            ReflectionTestUtils.setField(c, "hedgingEnabled", hedging);
+            ReflectionTestUtils.setField(c, "hedgeBudgetPercent", budgetPercent);
+            ReflectionTestUtils.setField(c, "hedgeMinDelayMs", 20L);
+            ReflectionTestUtils.setField(c, "hedgeMaxThreads", maxThreads);
+            c.configureBackends();
+            return c;
+        }
+    }
+
+    /** Answers every POST with the URL it hit, after an optional per-URL delay. */
+    private static final class StubBackends extends RestTemplate {
+        final Map<String, Long> delaysMs = new ConcurrentHashMap<>();
+        final List<String> calls = new CopyOnWriteArrayList<>();
+
+        @Override
+        public <T> T execute(String url, HttpMethod method, RequestCallback requestCallback,
+                             ResponseExtractor<T> responseExtractor, Object... uriVariables) {
+            calls.add(url);
+            try {
+                Thread.sleep(delaysMs.getOrDefault(url, 0L));
+                byte[] body = ("{\"response\":\"from " + url + "\"}").getBytes(StandardCharsets.UTF_8);
+                return responseExtractor.extractData(new MockClientHttpResponse(body, HttpStatus.OK));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new ResourceAccessException("interrupted");
+            } catch (IOException e) {
+                throw new ResourceAccessException(e.getMessage());
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.secureai.service;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParseException;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("OllamaResponseParser Tests")
+class OllamaResponseParserTest {
+
+    private final OllamaResponseParser parser = new OllamaResponseParser(new JsonFactory());
+
+    @Test
+    @DisplayName("A non-streaming body yields text and timings; unknown fields and context are skipped")
+    void singleObject() throws Exception {
+        OllamaResponseParser.Parsed parsed = parse("""
+                {"model":"m","response":"Paris.","done":true,"done_reason":"stop",
+                 "context":[1,2,3,[4]],"meta":{"a":{"b":1}},
+                 "total_duration":5000,"load_duration":1000,"prompt_eval_count":26,
+                 "prompt_eval_duration":500,"eval_count":100,"eval_duration":2000}
+                """);
+
+        assertThat(parsed.response()).isEqualTo("Paris.");
+        assertThat(parsed.done()).isTrue();
+        assertThat(parsed.error()).isNull();
+        assertThat(parsed.stats("m").getPromptEvalCount()).isEqualTo(26);
+        assertThat(parsed.stats("m").getEvalDurationNs()).isEqualTo(2000);
+        assertThat(parsed.loadDuration()).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("NDJSON chunks are concatenated and timings come from the final chunk")
+    void ndjsonChunks() throws Exception {
+        OllamaResponseParser.Parsed parsed = parse("""
+                {"response":"The ","done":false}
+                {"response":"capital ","done":false}
+                {"response":"is Paris.","done":false}
+                {"response":"","done":true,"eval_count":3,"eval_duration":900}
+                {"response":"ignored after done"}
+                """);
+
+        assertThat(parsed.response()).isEqualTo("The capital is Paris.");
+        assertThat(parsed.evalCount()).isEqualTo(3);
+        assertThat(parsed.done()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Error bodies and empty bodies are reported without a response")
+    void errorAndEmpty() throws Exception {
+        assertThat(parse("{\"error\":\"model not found\"}").error()).isEqualTo("model not found");
+        assertThat(parse("").response()).isNull();
+    }
+
+    @Test
+    @DisplayName("Non-object JSON is rejected")
+    void nonObjectRejected() {
+        assertThatThrownBy(() -> parse("[\"response\"]")).isInstanceOf(JsonParseException.class);
+    }
+
+    private OllamaResponseParser.Parsed parse(String body) throws Exception {
+        return parser.parse(new ByteArrayInputStream(body.getBytes(StandardCharsets.UTF_8)));
+    }
+}
@@ -0,0 +1,133 @@
+package com.secureai.service;
+
+import com.secureai.config.SecurityConfig;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@DisplayName("PasswordHashingService Tests")
+class PasswordHashingServiceTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+    private PasswordHashingService service;
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+        if (service != null) service.shutdown();
+    }
+
+    @Test
+    @DisplayName("Hashes and verifies on the pool and records the hash timer")
+    void encodeAndMatch() {
+        service = new PasswordHashingService(encoder("bcrypt", 4), registry, 1, 4, 5000);
+
+        String hash = service.encode("Secret123!");
+
+        assertThat(hash).startsWith("{bcrypt}");
+        assertThat(service.matches("Secret123!", hash)).isTrue();
+        assertThat(service.matches("wrong", hash)).isFalse();
+        assertThat(registry.get("auth.password.hash").tag("op", "matches").timer().count()).isEqualTo(2);
+        assertThat(registry.get("auth.password.hash").tag("op", "encode").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Legacy, weaker and other-algorithm hashes need an upgrade")
+    void upgradeDetection() {
+        service = new PasswordHashingService(encoder("argon2", 4), registry, 1, 4, 5000);
+        String legacy = new BCryptPasswordEncoder(4).encode("pw");
+
+        assertThat(service.needsUpgrade(legacy)).isTrue();
+        assertThat(service.matches("pw", legacy)).isTrue();
+        assertThat(service.needsUpgrade("{bcrypt}" + legacy)).isTrue();
+        assertThat(service.needsUpgrade(service.encode("pw"))).isFalse();
+
+        PasswordHashingService stronger = new PasswordHashingService(encoder("bcrypt", 6), registry, 1, 4, 5000);
+        assertThat(stronger.needsUpgrade("{bcrypt}" + legacy)).isTrue();
+        stronger.shutdown();
+    }
+
+    @Test
+    @DisplayName("A full queue is rejected with HashingBusyException instead of blocking")
+    void saturationIsRejected() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = mock(PasswordEncoder.class);
+        when(blocking.matches(any(), any())).thenAnswer(inv -> {
+            started.countDown();
+            release.await();
+            return true;
+        });
+        service = new PasswordHashingService(blocking, registry, 1, 1, 5000);
+
+        callers.submit(() -> service.matches("a", "h"));   // occupies the worker
+        assertThat(started.await(5, TimeUnit.SECONDS)).isTrue();
+        callers.submit(() -> service.matches("b", "h"));   // fills the queue
+        waitForQueued(1);
+
+        assertThatThrownBy(() -> service.matches("c", "h"))
+                .isInstanceOf(PasswordHashingService.HashingBusyException.class);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("A caller waiting past the timeout gets HashingBusyException")
+    void slowHashTimesOut() {
+        CountDownLatch release = new CountDownLatch(1);
+        PasswordEncoder blocking = mock(PasswordEncoder.class);
+        when(blocking.encode(any())).thenAnswer(inv -> {
+            release.await();
+            return "h";
+        });
+        service = new PasswordHashingService(blocking, registry, 1, 4, 50);
+
+        assertThatThrownBy(() -> service.encode("pw"))
+                .isInstanceOf(PasswordHashingService.HashingBusyException.class);
+        release.countDown();
+    }
+
+    @Test
+    @DisplayName("Background upgrade hands the new hash to the callback")
+    void upgradeAsyncDeliversHash() throws Exception {
+        service = new PasswordHashingService(encoder("bcrypt", 4), registry, 1, 4, 5000);
+        AtomicReference<String> upgraded = new AtomicReference<>();
+        CountDownLatch done = new CountDownLatch(1);
+
+        service.upgradeAsync("pw", hash -> {
+            upgraded.set(hash);
+            done.countDown();
+        });
+
+        assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+        assertThat(service.matches("pw", upgraded.get())).isTrue();
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private static PasswordEncoder encoder(String id, int bcryptCost) {
+        return new SecurityConfig().passwordEncoder(id, bcryptCost);
+    }
+
+    private void waitForQueued(int expected) throws InterruptedException {
+        for (int i = 0; i < 500; i++) {
+            if (registry.get("auth.password.hash.queued").gauge().value() >= expected) return;
+            Thread.sleep(10);
+        }
+    }
+}
@@ -54,6 +54,14 @@ class RateLimiterServiceTest {
         assertThat(service.tryConsume("userB")).isTrue();
     }
 
+    @Test
+    @DisplayName("Multi-token consume is all or nothing")
+    void multiTokenConsumeIsAtomic() {
+        assertThat(service.tryConsume("userE", 3)).isTrue();
+        assertThat(service.tryConsume("userE", 3)).isFalse();
+        assertThat(service.getRemainingTokens("userE")).isEqualTo(2);
+    }
+
     @Test
     @DisplayName("Remaining tokens should decrease with each request")
     void remainingTokensDecrease() {
@@ -1,17 +1,27 @@
 package com.secureai.service;
 
 import com.secureai.agent.ReActAgentService;
+import com.secureai.metrics.PipelineMetrics;
+import com.secureai.model.GenerationOptions;
+import com.secureai.model.GenerationStats;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.startsWith;
 import static org.mockito.ArgumentMatchers.isNull;
 import static org.mockito.Mockito.*;
 
@@ -25,11 +35,25 @@ class ReActAgentServiceTest {
     @Mock
     private OllamaClient ollamaClient;
 
+    @Mock
+    private PipelineMetrics pipelineMetrics;
+
+    @Spy
+    private ModelRouter modelRouter = new ModelRouter(new SimpleMeterRegistry(), "quality-model", true,
+            "fast-model", "", 400, "summarize", "");
+
+    @Spy
+    private TokenEstimator tokenEstimator = new TokenEstimator(8192);
+
     @BeforeEach
     void setUp() {
         ReflectionTestUtils.setField(agentService, "maxSteps", 5);
     }
 
+    private static OllamaClient.OllamaResult result(String text) {
+        return new OllamaClient.OllamaResult(text, null);
+    }
+
     @Test
     @DisplayName("Agent should return final answer when LLM provides it immediately")
     void agentShouldReturnFinalAnswer() {
@@ -38,7 +62,7 @@ class ReActAgentServiceTest {
                 Action: answer
                 Final Answer: Paris is the capital of France.
                 """;
-        when(ollamaClient.generateResponse(anyString(), anyString())).thenReturn(llmResponse);
+        when(ollamaClient.generate(anyString(), anyString(), eq("quality-model"), any())).thenReturn(result(llmResponse));
 
         ReActAgentService.AgentResult result = agentService.execute("What is the capital of France?");
 
@@ -54,7 +78,7 @@ class ReActAgentServiceTest {
                 Action: answer
                 Final Answer: 42
                 """;
-        when(ollamaClient.generateResponse(anyString(), anyString())).thenReturn(llmResponse);
+        when(ollamaClient.generate(anyString(), anyString(), eq("quality-model"), any())).thenReturn(result(llmResponse));
 
         ReActAgentService.AgentResult result = agentService.execute("What is the answer?");
 
@@ -71,11 +95,11 @@ class ReActAgentServiceTest {
                 Action: search_knowledge
                 Action Input: something
                 """;
-        when(ollamaClient.generateResponse(anyString(), anyString()))
-                .thenReturn(neverEndsResponse);
+        when(ollamaClient.generate(anyString(), anyString(), eq("quality-model"), any()))
+                .thenReturn(result(neverEndsResponse));
         // Also mock tool call responses
-        when(ollamaClient.generateResponse(anyString(), isNull()))
-                .thenReturn("Some observation result");
+        when(ollamaClient.generate(anyString(), isNull(), anyString()))
+                .thenReturn(result("Some observation result"));
 
         ReActAgentService.AgentResult result = agentService.execute("Infinite loop question");
 
@@ -83,6 +107,58 @@ class ReActAgentServiceTest {
         assertThat(result.answer).isNotNull();
     }
 
+    @Test
+    @DisplayName("Ollama telemetry should be summed across steps and tool calls")
+    void statsShouldBeAggregatedAcrossCalls() {
+        String toolStep = """
+                Thought: Need to look this up.
+                Action: search_knowledge
+                Action Input: capital of France
+                """;
+        String answerStep = """
+                Thought: I now know the final answer.
+                Action: answer
+                Final Answer: Paris.
+                """;
+        GenerationStats perCall = new GenerationStats("test-model", 1_000, 100, 10, 200, 5, 600);
+        when(ollamaClient.generate(anyString(), anyString(), eq("quality-model"), any()))
+                .thenReturn(new OllamaClient.OllamaResult(toolStep, perCall))
+                .thenReturn(new OllamaClient.OllamaResult(answerStep, perCall));
+        when(ollamaClient.generate(anyString(), isNull(), anyString()))
+                .thenReturn(new OllamaClient.OllamaResult("Paris", perCall));
+
+        ReActAgentService.AgentResult result = agentService.execute("Capital of France?");
+
+        assertThat(result.totalSteps).isEqualTo(2);
+        assertThat(result.stats.getEvalCount()).isEqualTo(15);
+        assertThat(result.stats.getTotalDurationNs()).isEqualTo(3_000);
+        assertThat(result.stats.getModel()).isEqualTo("test-model");
+    }
+
+    @Test
+    @DisplayName("Every model call, reasoning step or tool, is timed as an ollama stage")
+    void everyModelCallIsAnOllamaStage() {
+        String toolStep = """
+                Thought: Need to look this up.
+                Action: search_knowledge
+                Action Input: capital of France
+                """;
+        String answerStep = """
+                Thought: I now know the final answer.
+                Action: answer
+                Final Answer: Paris.
+                """;
+        when(ollamaClient.generate(anyString(), anyString(), eq("quality-model"), any()))
+                .thenReturn(result(toolStep))
+                .thenReturn(result(answerStep));
+        when(ollamaClient.generate(anyString(), isNull(), anyString())).thenReturn(result("Paris"));
+
+        agentService.execute("Capital of France?");
+
+        verify(pipelineMetrics, times(3)).recordStage(eq(PipelineMetrics.STAGE_OLLAMA), anyLong());
+        verify(pipelineMetrics, times(2)).recordStage(eq(PipelineMetrics.STAGE_REACT_STEP), anyLong());
+    }
+
     @Test
     @DisplayName("Steps list should have correct size")
     void stepsListShouldHaveCorrectSize() {
@@ -91,9 +167,48 @@ class ReActAgentServiceTest {
                 Action: answer
                 Final Answer: Done.
                 """;
-        when(ollamaClient.generateResponse(anyString(), anyString())).thenReturn(llmResponse);
+        when(ollamaClient.generate(anyString(), anyString(), eq("quality-model"), any())).thenReturn(result(llmResponse));
 
         ReActAgentService.AgentResult result = agentService.execute("Test");
         assertThat(result.steps).hasSize(result.totalSteps);
     }
+
+    @Test
+    @DisplayName("Fast tools run on the fast model, reasoning steps on the ReAct model")
+    void fastToolsUseFastModel() {
+        String toolStep = """
+                Thought: Shorten it.
+                Action: summarize
+                Action Input: a long text
+                """;
+        String answerStep = """
+                Thought: I now know the final answer.
+                Action: answer
+                Final Answer: Short.
+                """;
+        when(ollamaClient.generate(anyString(), anyString(), eq("quality-model"), any()))
+                .thenReturn(result(toolStep))
+                .thenReturn(result(answerStep));
+        when(ollamaClient.generate(anyString(), isNull(), eq("fast-model"))).thenReturn(result("short"));
+
+        agentService.execute("Summarize this");
+
+        verify(ollamaClient).generate(startsWith("Summarize this text"), isNull(), eq("fast-model"));
+    }
+
+    @Test
+    @DisplayName("Generation options apply to every reasoning step; tool calls keep the defaults")
+    void optionsApplyToReasoningSteps() {
+        GenerationOptions options = new GenerationOptions(256, 0.1, List.of());
+        when(ollamaClient.generate(anyString(), anyString(), eq("quality-model"), eq(options)))
+                .thenReturn(result("Thought: Shorten it.\nAction: summarize\nAction Input: a long text"))
+                .thenReturn(result("Thought: I now know the final answer.\nAction: answer\nFinal Answer: Short."));
+        when(ollamaClient.generate(anyString(), isNull(), eq("fast-model"))).thenReturn(result("short"));
+
+        ReActAgentService.AgentResult result = agentService.execute("Summarize this", options);
+
+        assertThat(result.answer).isEqualTo("Short.");
+        verify(ollamaClient, times(2)).generate(anyString(), anyString(), eq("quality-model"), eq(options));
+        verify(ollamaClient).generate(startsWith("Summarize this text"), isNull(), eq("fast-model"));
+    }
 }
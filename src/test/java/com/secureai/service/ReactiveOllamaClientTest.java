@@ -0,0 +1,137 @@
+package com.secureai.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.reactive.MockClientHttpRequest;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ClientResponse;
+import org.springframework.web.reactive.function.client.ExchangeFunction;
+import org.springframework.web.reactive.function.client.ExchangeStrategies;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("ReactiveOllamaClient Tests")
+class ReactiveOllamaClientTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    @Test
+    @DisplayName("A non-streaming body yields text, telemetry and latency metrics")
+    void generateParsesBody() {
+        AtomicReference<JsonNode> sent = new AtomicReference<>();
+        ReactiveOllamaClient client = client(request -> {
+            sent.set(body(request));
+            return Mono.just(response(HttpStatus.OK, MediaType.APPLICATION_JSON,
+                    "{\"response\":\" Paris. \",\"done\":true,\"context\":[1,2,3],"
+                    + "\"eval_count\":10,\"eval_duration\":1000000000}"));
+        });
+
+        OllamaClient.OllamaResult result = client.generate("Capital of France?", null, "fast").block();
+
+        assertThat(result.text).isEqualTo("Paris.");
+        assertThat(result.stats.getEvalCount()).isEqualTo(10);
+        assertThat(sent.get().path("stream").asBoolean(true)).isFalse();
+        assertThat(sent.get().path("model").asText()).isEqualTo("fast");
+        assertThat(sent.get().path("keep_alive").asText()).isEqualTo("30m");
+        assertThat(sent.get().path("options").path("num_ctx").asInt()).isEqualTo(8192);
+        assertThat(registry.get("ollama.request.latency").tag("model", "fast").timer().count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("NDJSON chunks are emitted as tokens and the stream ends at done")
+    void streamEmitsTokens() {
+        AtomicReference<JsonNode> sent = new AtomicReference<>();
+        ReactiveOllamaClient client = client(request -> {
+            sent.set(body(request));
+            return Mono.just(response(HttpStatus.OK, MediaType.APPLICATION_NDJSON, """
+                    {"response":"The ","done":false}
+                    {"response":"capital","done":false}
+                    {"response":"","done":true,"eval_count":2}
+                    """));
+        });
+
+        List<String> tokens = client.stream("Capital?", null, "fast").collectList().block();
+
+        assertThat(tokens).containsExactly("The ", "capital");
+        assertThat(sent.get().path("stream").asBoolean(false)).isTrue();
+    }
+
+    @Test
+    @DisplayName("An error chunk ends the stream with OllamaException")
+    void streamErrorChunk() {
+        ReactiveOllamaClient client = client(request -> Mono.just(response(HttpStatus.OK,
+                MediaType.APPLICATION_NDJSON, "{\"response\":\"partial\"}\n{\"error\":\"model unloaded\"}\n")));
+
+        assertThatThrownBy(() -> client.stream("hi", null, "fast").collectList().block())
+                .isInstanceOf(OllamaClient.OllamaException.class)
+                .hasMessageContaining("model unloaded");
+    }
+
+    @Test
+    @DisplayName("Error bodies and HTTP errors surface as OllamaException")
+    void errorsAreTranslated() {
+        ReactiveOllamaClient errorBody = client(request -> Mono.just(response(HttpStatus.OK,
+                MediaType.APPLICATION_JSON, "{\"error\":\"model not found\"}")));
+        ReactiveOllamaClient serverError = client(request -> Mono.just(response(HttpStatus.INTERNAL_SERVER_ERROR,
+                MediaType.APPLICATION_JSON, "{}")));
+
+        assertThatThrownBy(() -> errorBody.generate("hi", null, "fast").block())
+                .isInstanceOf(OllamaClient.OllamaException.class)
+                .hasMessageContaining("model not found");
+        assertThatThrownBy(() -> serverError.generate("hi", null, "fast").block())
+                .isInstanceOf(OllamaClient.OllamaException.class)
+                .hasMessageContaining("500");
+    }
+
+    @Test
+    @DisplayName("A generation slower than ollama.timeout-seconds fails with OllamaException")
+    void timeout() {
+        ReactiveOllamaClient client = new ReactiveOllamaClient(
+                WebClient.builder().exchangeFunction(request -> Mono.never()).build(),
+                null, registry, "test-model", "30m", 8192, Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> client.generate("hi", null, "fast").block())
+                .isInstanceOf(OllamaClient.OllamaException.class)
+                .hasMessageContaining("did not answer");
+    }
+
+    // ─────────────────────────────────────────────────────────────────────────
+
+    private ReactiveOllamaClient client(ExchangeFunction exchange) {
+        WebClient webClient = WebClient.builder().baseUrl("http://ollama.test").exchangeFunction(exchange).build();
+        return new ReactiveOllamaClient(webClient, null, registry, "test-model", "30m", 8192,
+                Duration.ofSeconds(5));
+    }
+
+    private static ClientResponse response(HttpStatus status, MediaType contentType, String body) {
+        return ClientResponse.create(status)
+                .header(HttpHeaders.CONTENT_TYPE, contentType.toString())
+                .body(body)
+                .build();
+    }
+
+    /** Serialises the request body the way the real connector would, and reads it back. */
+    private static JsonNode body(ClientRequest request) {
+        MockClientHttpRequest written = new MockClientHttpRequest(request.method(), request.url());
+        request.writeTo(written, ExchangeStrategies.withDefaults()).block();
+        String json = written.getBodyAsString().block();
+        try {
+            return new ObjectMapper().readTree(json);
+        } catch (Exception e) {
+            throw new AssertionError(e);
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.secureai.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@DisplayName("TokenEstimator Tests")
+class TokenEstimatorTest {
+
+    private final TokenEstimator estimator = new TokenEstimator(8192);
+
+    @Test
+    @DisplayName("Words, digit groups, punctuation and newline runs are counted")
+    void estimate() {
+        assertThat(estimator.estimate("hello world")).isEqualTo(2);
+        assertThat(estimator.estimate("internationalization")).isEqualTo(4);
+        assertThat(estimator.estimate("12345678")).isEqualTo(3);
+        assertThat(estimator.estimate("a, b!")).isEqualTo(4);
+        assertThat(estimator.estimate("a\n\n\nb")).isEqualTo(3);
+        assertThat(estimator.estimate("日本語")).isEqualTo(3);
+        assertThat(estimator.estimate(null)).isZero();
+    }
+
+    @Test
+    @DisplayName("Budget is num-ctx minus the answer reserve, but never under half the window")
+    void budget() {
+        assertThat(estimator.promptBudget()).isEqualTo(8192 - OllamaClient.NUM_PREDICT);
+        assertThat(new TokenEstimator(2048).promptBudget()).isEqualTo(1024);
+    }
+
+    @Test
+    @DisplayName("checkPrompt counts the system prompt too")
+    void checkPrompt() {
+        TokenEstimator small = new TokenEstimator(20);   // 10-token budget
+
+        small.checkPrompt("one two three four five", "six seven eight nine ten");
+
+        assertThatThrownBy(() -> small.checkPrompt("one two three four five", "six seven eight nine ten one"))
+                .isInstanceOf(TokenEstimator.PromptTooLargeException.class)
+                .hasMessage("Prompt is about 11 tokens; the model accepts at most 10 tokens of input");
+    }
+}
@@ -0,0 +1,110 @@
+package com.secureai.service;
+
+import com.secureai.model.User;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DisplayName("UserCache Tests")
+class UserCacheTest {
+
+    private Instant now = Instant.parse("2026-06-01T10:00:00Z");
+    private UserCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        Clock clock = new Clock() {
+            @Override public ZoneOffset getZone() { return ZoneOffset.UTC; }
+            @Override public Clock withZone(java.time.ZoneId zone) { return this; }
+            @Override public Instant instant() { return now; }
+        };
+        cache = new UserCache(clock);
+        ReflectionTestUtils.setField(cache, "ttlSeconds", 60L);
+        ReflectionTestUtils.setField(cache, "maxSize", 2);
+    }
+
+    @Test
+    @DisplayName("Second lookup is served from the cache")
+    void hitAvoidsLoader() {
+        cache.get("alice", loader(true));
+        Optional<User> second = cache.get("alice", loader(true));
+
+        assertThat(second).map(User::getUsername).contains("alice");
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Unknown users are not cached")
+    void missesAreNotCached() {
+        cache.get("ghost", loader(false));
+        cache.get("ghost", loader(false));
+
+        assertThat(loads).hasValue(2);
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Entries expire after the TTL")
+    void entriesExpire() {
+        cache.get("alice", loader(true));
+        now = now.plus(Duration.ofSeconds(61));
+        cache.get("alice", loader(true));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("Eviction forces the next lookup to reload")
+    void evictReloads() {
+        cache.get("alice", loader(true));
+        cache.evict("alice");
+        cache.get("alice", loader(true));
+
+        assertThat(loads).hasValue(2);
+    }
+
+    @Test
+    @DisplayName("A load that overlaps an eviction is returned but not cached")
+    void loadStraddlingEvictionIsNotCached() {
+        cache.get("alice", name -> {
+            cache.evict(name);   // admin change commits while this load is in flight
+            return Optional.of(User.builder().username(name).build());
+        });
+
+        assertThat(cache.size()).isZero();
+    }
+
+    @Test
+    @DisplayName("Least recently used entry is dropped beyond max-size")
+    void lruBound() {
+        cache.get("a", loader(true));
+        cache.get("b", loader(true));
+        cache.get("a", loader(true));   // touch a
+        cache.get("c", loader(true));   // evicts b
+        loads.set(0);
+
+        cache.get("a", loader(true));
+        cache.get("b", loader(true));
+
+        assertThat(loads).hasValue(1);
+    }
+
+    private Function<String, Optional<User>> loader(boolean exists) {
+        return name -> {
+            loads.incrementAndGet();
+            return exists ? Optional.of(User.builder().username(name).enabled(true).build()) : Optional.empty();
+        };
+    }
+}